@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.benchmarks;
+
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes on a {@link BoundedConcurrentHashMap} for each eviction strategy. The key space is four times the
+ * capacity, so bounded strategies evict continuously and the hit rate of {@link #get(Cursor)} reflects the quality of
+ * the policy as well as its cost.
+ *
+ * @since 5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BoundedConcurrentHashMapBenchmark {
+
+   @Param({"NONE", "LRU", "LIRS", "TINY_LFU"})
+   String eviction;
+
+   @Param({"16384"})
+   int capacity;
+
+   @Param({"16"})
+   int concurrencyLevel;
+
+   private BoundedConcurrentHashMap<Object, Object> map;
+   private KeySequence keys;
+
+   @Setup
+   public void setUp() {
+      map = new BoundedConcurrentHashMap<Object, Object>(capacity, concurrencyLevel, Eviction.valueOf(eviction));
+      keys = new KeySequence(capacity * 4, 1.0);
+      for (int i = 0; i < capacity; i++)
+         map.put(keys.key(i), Boolean.TRUE);
+   }
+
+   @Benchmark
+   public Object get(Cursor cursor) {
+      return map.get(keys.key(cursor.next()));
+   }
+
+   @Benchmark
+   public Object put(Cursor cursor) {
+      return map.put(keys.key(cursor.next()), Boolean.TRUE);
+   }
+
+   @Benchmark
+   public Object remove(Cursor cursor) {
+      return map.remove(keys.key(cursor.next()));
+   }
+}
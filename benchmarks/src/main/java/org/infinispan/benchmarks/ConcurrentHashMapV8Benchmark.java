@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.benchmarks;
+
+import org.infinispan.util.concurrent.jdk8backported.ConcurrentHashMapV8;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the backported {@link ConcurrentHashMapV8} with the JDK's {@link ConcurrentHashMap}, which are the two
+ * maps {@link org.infinispan.util.concurrent.ConcurrentMapFactory} chooses from.
+ *
+ * @since 5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrentHashMapV8Benchmark {
+
+   @Param({"V8", "JDK"})
+   String implementation;
+
+   @Param({"65536"})
+   int size;
+
+   private ConcurrentMap<Object, Object> map;
+   private KeySequence keys;
+
+   @Setup
+   public void setUp() {
+      map = "V8".equals(implementation) ? new ConcurrentHashMapV8<Object, Object>(size, 0.75f, 32)
+            : new ConcurrentHashMap<Object, Object>(size, 0.75f, 32);
+      keys = new KeySequence(size, 1.0);
+      for (int i = 0; i < size; i++)
+         map.put(keys.keyAt(i), Boolean.TRUE);
+   }
+
+   @Benchmark
+   public Object get(Cursor cursor) {
+      return map.get(keys.key(cursor.next()));
+   }
+
+   @Benchmark
+   public Object put(Cursor cursor) {
+      return map.put(keys.key(cursor.next()), Boolean.TRUE);
+   }
+
+   @Benchmark
+   public Object putIfAbsent(Cursor cursor) {
+      return map.putIfAbsent(keys.key(cursor.next()), Boolean.TRUE);
+   }
+}
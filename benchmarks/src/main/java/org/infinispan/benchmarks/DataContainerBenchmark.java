@@ -0,0 +1,141 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.benchmarks;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.InternalEntryFactoryImpl;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads, writes and expiration on an unbounded {@link DefaultDataContainer}, wired the same way as in a local cache.
+ *
+ * @since 5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DataContainerBenchmark {
+
+   @Param({"65536"})
+   int size;
+
+   private DefaultDataContainer container;
+   private KeySequence keys;
+
+   @Setup
+   public void setUp() {
+      container = newContainer();
+      keys = new KeySequence(size, 1.0);
+      // mortal entries which won't expire during the run, so that purgeExpired() has work to skip over
+      for (int i = 0; i < size; i++)
+         container.put(keys.keyAt(i), Boolean.TRUE, null, TimeUnit.HOURS.toMillis(1), -1);
+   }
+
+   @TearDown
+   public void tearDown() {
+      container.stop();
+   }
+
+   static DefaultDataContainer newContainer() {
+      DefaultDataContainer container = (DefaultDataContainer) DefaultDataContainer.unBoundedDataContainer(32);
+      container.initialize(null, null, new InternalEntryFactoryImpl(), new ConfigurationBuilder().build(), null);
+      container.start();
+      return container;
+   }
+
+   @Benchmark
+   public InternalCacheEntry get(Cursor cursor) {
+      return container.get(keys.key(cursor.next()));
+   }
+
+   @Benchmark
+   public InternalCacheEntry peek(Cursor cursor) {
+      return container.peek(keys.key(cursor.next()));
+   }
+
+   @Benchmark
+   public void put(Cursor cursor) {
+      container.put(keys.key(cursor.next()), Boolean.TRUE, null, TimeUnit.HOURS.toMillis(1), -1);
+   }
+
+   @Benchmark
+   public void purgeExpiredNoneExpired() {
+      container.purgeExpired();
+   }
+
+   /**
+    * Purges a container in which every entry has expired, refilled before each invocation.
+    */
+   @State(Scope.Thread)
+   public static class ExpiredContainer {
+
+      @Param({"1024"})
+      int expired;
+
+      DataContainer container;
+
+      @Setup(Level.Iteration)
+      public void setUp() {
+         container = newContainer();
+      }
+
+      @Setup(Level.Invocation)
+      public void fill() throws InterruptedException {
+         for (int i = 0; i < expired; i++)
+            container.put(i, Boolean.TRUE, null, 1, -1);
+         // make sure the entries have expired
+         Thread.sleep(2);
+      }
+
+      @TearDown(Level.Iteration)
+      public void tearDown() {
+         ((DefaultDataContainer) container).stop();
+      }
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.AverageTime)
+   public void purgeExpired(ExpiredContainer state) {
+      state.container.purgeExpired();
+   }
+}
@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.benchmarks;
+
+import org.infinispan.util.FastCopyHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link FastCopyHashMap} with {@link HashMap} for the small, frequently copied maps it is used for, such
+ * as the looked up entries of invocation contexts.
+ *
+ * @since 5.2
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FastCopyHashMapBenchmark {
+
+   @Param({"FastCopyHashMap", "HashMap"})
+   String implementation;
+
+   @Param({"8", "64"})
+   int size;
+
+   private Map<Object, Object> map;
+   private KeySequence keys;
+   private int position;
+
+   @Setup
+   public void setUp() {
+      map = "HashMap".equals(implementation) ? new HashMap<Object, Object>() : new FastCopyHashMap<Object, Object>();
+      keys = new KeySequence(size, 0);
+      for (int i = 0; i < size; i++)
+         map.put(keys.keyAt(i), Boolean.TRUE);
+   }
+
+   @Benchmark
+   public Object get() {
+      return map.get(keys.key(position++));
+   }
+
+   @Benchmark
+   public Object put() {
+      return map.put(keys.key(position++), Boolean.TRUE);
+   }
+
+   @Benchmark
+   @SuppressWarnings("unchecked")
+   public Object copy() {
+      return map instanceof FastCopyHashMap ? ((FastCopyHashMap<Object, Object>) map).clone()
+            : ((HashMap<Object, Object>) map).clone();
+   }
+}
@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A pre-computed sequence of key indexes following a Zipf distribution, so that benchmarks exercise a realistic mix
+ * of hot and cold keys without spending time generating random numbers. Sequences use a fixed seed so that runs are
+ * reproducible.
+ *
+ * @since 5.2
+ */
+public final class KeySequence {
+
+   private static final int LENGTH = 1 << 20;
+   private static final int MASK = LENGTH - 1;
+
+   private final int[] indexes = new int[LENGTH];
+   private final Object[] keys;
+
+   /**
+    * @param numKeys  number of distinct keys
+    * @param exponent skew of the distribution: 0 is uniform, 1 is a typical cache workload
+    */
+   public KeySequence(int numKeys, double exponent) {
+      keys = new Object[numKeys];
+      for (int i = 0; i < numKeys; i++)
+         keys[i] = "key-" + i;
+
+      double[] cdf = new double[numKeys];
+      double sum = 0;
+      for (int i = 0; i < numKeys; i++) {
+         sum += 1 / Math.pow(i + 1, exponent);
+         cdf[i] = sum;
+      }
+      Random random = new Random(7);
+      for (int i = 0; i < LENGTH; i++) {
+         int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+         indexes[i] = index < 0 ? Math.min(-index - 1, numKeys - 1) : index;
+      }
+   }
+
+   public Object key(int position) {
+      return keys[indexes[position & MASK]];
+   }
+
+   public int numKeys() {
+      return keys.length;
+   }
+
+   public Object keyAt(int index) {
+      return keys[index];
+   }
+}
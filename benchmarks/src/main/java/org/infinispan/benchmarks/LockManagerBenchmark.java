@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.benchmarks;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.context.impl.NonTxInvocationContext;
+import org.infinispan.util.concurrent.locks.LockManagerImpl;
+import org.infinispan.util.concurrent.locks.containers.LockContainer;
+import org.infinispan.util.concurrent.locks.containers.ReentrantPerEntryLockContainer;
+import org.infinispan.util.concurrent.locks.containers.ReentrantStripedLockContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acquires and releases a lock through {@link LockManagerImpl}, with either a striped or a per-entry lock container,
+ * as done by the locking interceptors for each write of a non-transactional cache. Run with several threads to
+ * measure contention, e.g. <tt>-t 4</tt>.
+ *
+ * @since 5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LockManagerBenchmark {
+
+   @Param({"striped", "perEntry"})
+   String container;
+
+   @Param({"32"})
+   int concurrencyLevel;
+
+   @Param({"65536"})
+   int numKeys;
+
+   private LockManagerImpl lockManager;
+   private KeySequence keys;
+
+   @Setup
+   public void setUp() {
+      LockContainer<?> lockContainer = "striped".equals(container) ? new ReentrantStripedLockContainer(concurrencyLevel)
+            : new ReentrantPerEntryLockContainer(concurrencyLevel);
+      lockManager = new LockManagerImpl();
+      lockManager.injectDependencies(new ConfigurationBuilder().build(), lockContainer);
+      keys = new KeySequence(numKeys, 1.0);
+   }
+
+   @State(Scope.Thread)
+   public static class Context {
+      final InvocationContext ctx = new NonTxInvocationContext();
+   }
+
+   @Benchmark
+   public boolean lockAndUnlock(Cursor cursor, Context context) throws InterruptedException {
+      Object key = keys.key(cursor.next());
+      boolean locked = lockManager.lockAndRecord(key, context.ctx, TimeUnit.SECONDS.toMillis(10));
+      lockManager.unlock(Collections.singleton(key), context.ctx.getLockOwner());
+      return locked;
+   }
+}
@@ -0,0 +1,183 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.benchmarks;
+
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.AbstractExternalizer;
+import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.marshall.compact.CompactMarshaller;
+import org.infinispan.marshall.jboss.GenericJBossMarshaller;
+import org.infinispan.util.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
+
+/**
+ * Marshalls and unmarshalls a value with one of:
+ * <ul>
+ *    <li>{@code generic}: a standalone {@link GenericJBossMarshaller}, as used by the Hot Rod client;</li>
+ *    <li>{@code jboss}: the cache marshaller of a default cache manager, i.e. JBoss Marshalling configured with
+ *    Infinispan's externalizers;</li>
+ *    <li>{@code compact}: the cache marshaller of a cache manager configured with a {@link CompactMarshaller}.</li>
+ * </ul>
+ * The {@code pojo} payload has an externalizer registered with the {@code jboss} and {@code compact} cache managers
+ * and is plain {@link Serializable} for the {@code generic} marshaller.  The generic marshaller cannot marshall
+ * Infinispan's internal types, so run the {@code entry} and {@code command} payloads with
+ * {@code -p marshaller=jboss,compact}.
+ *
+ * @since 5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MarshallerBenchmark {
+
+   @Param({"generic", "jboss", "compact"})
+   String marshallerType;
+
+   @Param({"string", "bytes", "map", "pojo", "entry", "command"})
+   String payload;
+
+   private EmbeddedCacheManager cacheManager;
+   private StreamingMarshaller marshaller;
+   private Object value;
+   private byte[] bytes;
+
+   @Setup
+   public void setUp() throws Exception {
+      if ("generic".equals(marshallerType)) {
+         if ("entry".equals(payload) || "command".equals(payload))
+            throw new IllegalArgumentException("The generic marshaller cannot marshall the " + payload + " payload");
+         marshaller = new GenericJBossMarshaller();
+      } else {
+         GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+         global.serialization().addAdvancedExternalizer(1000, new Pojo.Externalizer());
+         if ("compact".equals(marshallerType))
+            global.serialization().marshaller(new CompactMarshaller());
+         cacheManager = new DefaultCacheManager(global.build(), new ConfigurationBuilder().build());
+         marshaller = cacheManager.getCache().getAdvancedCache().getComponentRegistry()
+               .getComponent(StreamingMarshaller.class, CACHE_MARSHALLER);
+      }
+
+      if ("string".equals(payload)) {
+         value = "a value which is a little longer than a key";
+      } else if ("bytes".equals(payload)) {
+         value = new byte[1024];
+      } else if ("map".equals(payload)) {
+         Map<String, Object> map = new HashMap<String, Object>();
+         for (int i = 0; i < 16; i++)
+            map.put("field-" + i, i % 2 == 0 ? Integer.valueOf(i) : "value-" + i);
+         value = map;
+      } else if ("pojo".equals(payload)) {
+         value = new Pojo("user-1234", 42, System.currentTimeMillis());
+      } else if ("entry".equals(payload)) {
+         value = new ImmortalCacheEntry("key-1234", "a value which is a little longer than a key");
+      } else {
+         value = new PutKeyValueCommand("key-1234", "a value which is a little longer than a key", false, null,
+                                        -1, -1, Collections.<Flag>emptySet());
+      }
+      bytes = marshaller.objectToByteBuffer(value);
+   }
+
+   @TearDown
+   public void tearDown() {
+      if (cacheManager != null)
+         cacheManager.stop();
+   }
+
+   @Benchmark
+   public byte[] marshall() throws Exception {
+      return marshaller.objectToByteBuffer(value);
+   }
+
+   @Benchmark
+   public Object unmarshall() throws Exception {
+      return marshaller.objectFromByteBuffer(bytes);
+   }
+
+   @Benchmark
+   public Object roundTrip() throws Exception {
+      return marshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(value));
+   }
+
+   public static class Pojo implements Serializable {
+      final String name;
+      final int count;
+      final long timestamp;
+
+      Pojo(String name, int count, long timestamp) {
+         this.name = name;
+         this.count = count;
+         this.timestamp = timestamp;
+      }
+
+      public static class Externalizer extends AbstractExternalizer<Pojo> {
+         @Override
+         public Set<Class<? extends Pojo>> getTypeClasses() {
+            return Util.<Class<? extends Pojo>>asSet(Pojo.class);
+         }
+
+         @Override
+         public void writeObject(ObjectOutput output, Pojo pojo) throws IOException {
+            output.writeUTF(pojo.name);
+            output.writeInt(pojo.count);
+            output.writeLong(pojo.timestamp);
+         }
+
+         @Override
+         public Pojo readObject(ObjectInput input) throws IOException {
+            return new Pojo(input.readUTF(), input.readInt(), input.readLong());
+         }
+      }
+   }
+}
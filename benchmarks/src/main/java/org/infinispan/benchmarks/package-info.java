@@ -0,0 +1,31 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+/**
+ * JMH micro-benchmarks for the hot paths of Infinispan core: the concurrent maps backing the data container, the data
+ * container itself, lock management and marshalling.
+ * <p/>
+ * Build with <tt>mvn -pl benchmarks -am package -DskipTests</tt> and run with
+ * <tt>java -jar benchmarks/target/benchmarks.jar [benchmark regexp] [JMH options]</tt>, e.g.
+ * <tt>java -jar benchmarks/target/benchmarks.jar BoundedConcurrentHashMap -t 4 -p eviction=LRU,LIRS</tt>.
+ */
+package org.infinispan.benchmarks;
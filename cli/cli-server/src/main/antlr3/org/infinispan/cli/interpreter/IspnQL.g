@@ -122,6 +122,7 @@ statement returns [Statement stmt]
    | removeStatement { $stmt = $removeStatement.stmt; }
    | replaceStatement { $stmt = $replaceStatement.stmt; }
    | rollbackTransactionStatement { $stmt = $rollbackTransactionStatement.stmt; }
+   | rpcStatsStatement { $stmt = $rpcStatsStatement.stmt; }
    | startBatchStatement { $stmt = $startBatchStatement.stmt; }
    ;
 
@@ -182,6 +183,10 @@ rollbackTransactionStatement returns [RollbackTransactionStatement stmt]
    : ROLLBACK (cacheName = STRINGLITERAL)? (EOL | ';')! { $stmt = new RollbackTransactionStatement(unquote($cacheName.text)); }
    ;
 
+rpcStatsStatement returns [RpcStatsStatement stmt]
+   : RPCSTATS (operation = STRINGLITERAL)? (EOL | ';')! { $stmt = new RpcStatsStatement(unquote($operation.text)); }
+   ;
+
 startBatchStatement returns [StartBatchStatement stmt]
    : START (cacheName = STRINGLITERAL)? (EOL | ';')! { $stmt = new StartBatchStatement(unquote($cacheName.text)); }
    ;
@@ -263,6 +268,7 @@ PUTIFABSENT:    'putifabsent';
 REMOVE:  'remove';
 REPLACE: 'replace';
 ROLLBACK:'rollback';
+RPCSTATS:'rpcstats';
 START:   'start';
 TRUE:    'true';
 
@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+package org.infinispan.cli.interpreter.statement;
+
+import org.infinispan.cli.interpreter.result.EmptyResult;
+import org.infinispan.cli.interpreter.result.Result;
+import org.infinispan.cli.interpreter.result.StatementException;
+import org.infinispan.cli.interpreter.result.StringResult;
+import org.infinispan.cli.interpreter.session.Session;
+import org.infinispan.remoting.rpc.RpcLatencyMonitor;
+
+/**
+ * Prints the remote call latency percentiles recorded by the {@link RpcLatencyMonitor}, or starts a new recording
+ * window when invoked with the <tt>reset</tt> operation.
+ *
+ * @since 5.2
+ */
+public class RpcStatsStatement implements Statement {
+   final String operation;
+
+   public RpcStatsStatement(final String operation) {
+      this.operation = operation;
+   }
+
+   @Override
+   public Result execute(Session session) throws StatementException {
+      RpcLatencyMonitor monitor = session.getCache().getAdvancedCache().getComponentRegistry()
+            .getGlobalComponentRegistry().getComponent(RpcLatencyMonitor.class);
+      if (monitor == null) {
+         throw new StatementException("RPC statistics are not available for a non-clustered cache");
+      }
+      if (operation == null) {
+         if (!monitor.isStatisticsEnabled()) {
+            throw new StatementException("RPC statistics are not enabled");
+         }
+         return new StringResult(monitor.printLatencyPercentiles());
+      } else if ("reset".equalsIgnoreCase(operation)) {
+         monitor.resetStatistics();
+         return EmptyResult.RESULT;
+      } else {
+         throw new StatementException("Unknown rpcstats operation '" + operation + "'");
+      }
+   }
+
+}
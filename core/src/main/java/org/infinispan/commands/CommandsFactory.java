@@ -42,6 +42,7 @@
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.commands.tx.TotalOrderPrepareCommand;
 import org.infinispan.commands.tx.VersionedCommitCommand;
 import org.infinispan.commands.tx.VersionedPrepareCommand;
 import org.infinispan.commands.write.*;
@@ -385,4 +386,17 @@ <KOut, VOut> ReduceCommand<KOut, VOut> buildReduceCommand(String taskId,
     * @return created CreateCacheCommand 
     */
    CreateCacheCommand buildCreateCacheCommand(String cacheName, String cacheConfigurationName);
+
+   /**
+    * Builds a TotalOrderPrepareCommand, used to commit a transaction in total order
+    *
+    * @param type                 the step of the protocol
+    * @param prepareCommand       the one phase prepare of the transaction, null for a collect
+    * @param epoch                the epoch of the sequencer
+    * @param sequenceNumber       the place of the prepare in the total order
+    * @param stableSequenceNumber the highest sequence number applied by all its owners
+    * @return a TotalOrderPrepareCommand
+    */
+   TotalOrderPrepareCommand buildTotalOrderPrepareCommand(TotalOrderPrepareCommand.Type type, PrepareCommand prepareCommand,
+                                                          int epoch, long sequenceNumber, long stableSequenceNumber);
 }
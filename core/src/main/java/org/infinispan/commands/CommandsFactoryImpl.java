@@ -44,6 +44,7 @@
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.commands.tx.TotalOrderPrepareCommand;
 import org.infinispan.commands.tx.VersionedCommitCommand;
 import org.infinispan.commands.tx.VersionedPrepareCommand;
 import org.infinispan.commands.write.ApplyDeltaCommand;
@@ -80,6 +81,7 @@
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.transaction.RemoteTransaction;
+import org.infinispan.transaction.TotalOrderManager;
 import org.infinispan.transaction.TransactionTable;
 import org.infinispan.transaction.xa.DldGlobalTransaction;
 import org.infinispan.transaction.xa.GlobalTransaction;
@@ -128,6 +130,7 @@ public class CommandsFactoryImpl implements CommandsFactory {
    private LockManager lockManager;
    private InternalEntryFactory entryFactory;
    private MapReduceManager mapReduceManager;
+   private TotalOrderManager totalOrderManager;
 
    private Map<Byte, ModuleCommandInitializer> moduleCommandInitializers;
 
@@ -137,7 +140,8 @@ public void setupDependencies(DataContainer container, CacheNotifier notifier, C
                                  InvocationContextContainer icc, TransactionTable txTable, Configuration configuration,
                                  @ComponentName(KnownComponentNames.MODULE_COMMAND_INITIALIZERS) Map<Byte, ModuleCommandInitializer> moduleCommandInitializers,
                                  RecoveryManager recoveryManager, StateProvider stateProvider, StateConsumer stateConsumer,
-                                 LockManager lockManager, InternalEntryFactory entryFactory, MapReduceManager mapReduceManager) {
+                                 LockManager lockManager, InternalEntryFactory entryFactory, MapReduceManager mapReduceManager,
+                                 TotalOrderManager totalOrderManager) {
       this.dataContainer = container;
       this.notifier = notifier;
       this.cache = cache;
@@ -153,6 +157,7 @@ public void setupDependencies(DataContainer container, CacheNotifier notifier, C
       this.lockManager = lockManager;
       this.entryFactory = entryFactory;
       this.mapReduceManager = mapReduceManager;
+      this.totalOrderManager = totalOrderManager;
    }
 
    @Start(priority = 1)
@@ -400,6 +405,11 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
             GetInDoubtTransactionsCommand gptx = (GetInDoubtTransactionsCommand) c;
             gptx.init(recoveryManager);
             break;
+         case TotalOrderPrepareCommand.COMMAND_ID:
+            TotalOrderPrepareCommand topc = (TotalOrderPrepareCommand) c;
+            topc.init(totalOrderManager);
+            if (topc.getPrepareCommand() != null) initializeReplicableCommand(topc.getPrepareCommand(), isRemote);
+            break;
          case TxCompletionNotificationCommand.COMMAND_ID:
             TxCompletionNotificationCommand ftx = (TxCompletionNotificationCommand) c;
             ftx.init(txTable, lockManager, recoveryManager);
@@ -516,6 +526,12 @@ public CreateCacheCommand buildCreateCacheCommand(String cacheNameToCreate, Stri
       return new CreateCacheCommand(cacheName, cacheNameToCreate, cacheConfigurationName);
    }
 
+   @Override
+   public TotalOrderPrepareCommand buildTotalOrderPrepareCommand(TotalOrderPrepareCommand.Type type, PrepareCommand prepareCommand,
+                                                                 int epoch, long sequenceNumber, long stableSequenceNumber) {
+      return new TotalOrderPrepareCommand(cacheName, type, prepareCommand, epoch, sequenceNumber, stableSequenceNumber);
+   }
+
    @Override
    public <KOut, VOut> ReduceCommand<KOut, VOut> buildReduceCommand(String taskId,
             String destintationCache, Reducer<KOut, VOut> r, Collection<KOut> keys) {
@@ -30,6 +30,7 @@
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
+import org.infinispan.commands.remote.BatchedRpcCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
@@ -41,6 +42,7 @@
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.commands.tx.TotalOrderPrepareCommand;
 import org.infinispan.commands.tx.VersionedCommitCommand;
 import org.infinispan.commands.tx.VersionedPrepareCommand;
 import org.infinispan.commands.write.ApplyDeltaCommand;
@@ -146,6 +148,9 @@ public ReplicableCommand fromStream(byte id, Object[] parameters, byte type) {
             case CacheTopologyControlCommand.COMMAND_ID:
                command = new CacheTopologyControlCommand();
                break;
+            case BatchedRpcCommand.COMMAND_ID:
+               command = new BatchedRpcCommand();
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
@@ -231,6 +236,9 @@ public CacheRpcCommand fromStream(byte id, Object[] parameters, byte type, Strin
             case CreateCacheCommand.COMMAND_ID:
                command = new CreateCacheCommand(cacheName);   
                break;
+            case TotalOrderPrepareCommand.COMMAND_ID:
+               command = new TotalOrderPrepareCommand(cacheName);
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
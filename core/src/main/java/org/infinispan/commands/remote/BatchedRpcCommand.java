@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.commands.remote;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.context.InvocationContext;
+
+import java.util.Arrays;
+
+/**
+ * Carries several commands bound for the same node in a single message.  Each command is kept in its marshalled form,
+ * exactly as it would have been sent on its own, and is unmarshalled and executed by the receiving transport as if it
+ * had arrived in a message of its own.  The transport replies with an array holding the response of each command, in
+ * order.
+ * <p/>
+ * This command is never performed directly: see
+ * {@link org.infinispan.remoting.transport.jgroups.CommandAwareRpcDispatcher}.
+ *
+ * @since 5.2
+ */
+public class BatchedRpcCommand implements ReplicableCommand {
+
+   public static final byte COMMAND_ID = 32;
+
+   private byte[][] payloads;
+
+   public BatchedRpcCommand() {
+   }
+
+   public BatchedRpcCommand(byte[][] payloads) {
+      this.payloads = payloads;
+   }
+
+   public byte[][] getPayloads() {
+      return payloads;
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      throw new UnsupportedOperationException("Batched commands are unpacked by the transport");
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      Object[] retval = new Object[payloads.length];
+      System.arraycopy(payloads, 0, retval, 0, payloads.length);
+      return retval;
+   }
+
+   @Override
+   public void setParameters(int commandId, Object[] parameters) {
+      int numCommands = parameters == null ? 0 : parameters.length;
+      payloads = new byte[numCommands][];
+      for (int i = 0; i < numCommands; i++) payloads[i] = (byte[]) parameters[i];
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof BatchedRpcCommand)) return false;
+      return Arrays.deepEquals(payloads, ((BatchedRpcCommand) o).payloads);
+   }
+
+   @Override
+   public int hashCode() {
+      return Arrays.deepHashCode(payloads);
+   }
+
+   @Override
+   public String toString() {
+      return "BatchedRpcCommand{" +
+            "commands=" + (payloads == null ? 0 : payloads.length) +
+            '}';
+   }
+}
@@ -0,0 +1,157 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.commands.tx;
+
+import org.infinispan.CacheException;
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.transaction.TotalOrderManager;
+
+/**
+ * Carries the prepares of the transactions committed with the
+ * {@link org.infinispan.transaction.TransactionProtocol#TOTAL_ORDER total order} protocol: from their originator to
+ * the sequencer, which assigns them their place in the total order, and from the sequencer to the owners, which apply
+ * them in that order.  Also sent by a new sequencer to collect the prepares its predecessor left behind.
+ *
+ * @see TotalOrderManager
+ * @since 5.2
+ */
+public class TotalOrderPrepareCommand extends BaseRpcCommand {
+
+   public enum Type {
+      /**
+       * Sent by the originator to the sequencer.
+       */
+      SEQUENCE,
+      /**
+       * Sent by the sequencer to the owners.
+       */
+      DELIVER,
+      /**
+       * Sent by a new sequencer to the owners which missed a prepare of its predecessor.
+       */
+      REDELIVER,
+      /**
+       * Sent by a new sequencer to all the members, before it sequences any prepare.
+       */
+      COLLECT
+   }
+
+   public static final byte COMMAND_ID = 33;
+
+   private Type type;
+   private PrepareCommand prepareCommand;
+   private int epoch;
+   private long sequenceNumber;
+   private long stableSequenceNumber;
+   private TotalOrderManager totalOrderManager;
+
+   private TotalOrderPrepareCommand() {
+      super(null); // For command id uniqueness test
+   }
+
+   public TotalOrderPrepareCommand(String cacheName) {
+      super(cacheName);
+   }
+
+   public TotalOrderPrepareCommand(String cacheName, Type type, PrepareCommand prepareCommand, int epoch,
+                                   long sequenceNumber, long stableSequenceNumber) {
+      super(cacheName);
+      this.type = type;
+      this.prepareCommand = prepareCommand;
+      this.epoch = epoch;
+      this.sequenceNumber = sequenceNumber;
+      this.stableSequenceNumber = stableSequenceNumber;
+   }
+
+   public void init(TotalOrderManager totalOrderManager) {
+      this.totalOrderManager = totalOrderManager;
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      switch (type) {
+         case SEQUENCE:
+            totalOrderManager.sequence(prepareCommand, getOrigin());
+            return null;
+         case DELIVER:
+         case REDELIVER:
+            prepareCommand.setOrigin(getOrigin());
+            totalOrderManager.deliver(prepareCommand, epoch, sequenceNumber, stableSequenceNumber, type == Type.REDELIVER);
+            return null;
+         case COLLECT:
+            return totalOrderManager.collect(epoch);
+         default:
+            throw new CacheException("Unknown total order prepare command type: " + type);
+      }
+   }
+
+   public Type getType() {
+      return type;
+   }
+
+   /**
+    * @return the prepare, or null for a {@link Type#COLLECT}
+    */
+   public PrepareCommand getPrepareCommand() {
+      return prepareCommand;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{(byte) type.ordinal(), prepareCommand, epoch, sequenceNumber, stableSequenceNumber};
+   }
+
+   @Override
+   public void setParameters(int commandId, Object[] parameters) {
+      if (commandId != COMMAND_ID) throw new IllegalStateException("Unsupported command id:" + commandId);
+      int i = 0;
+      type = Type.values()[(Byte) parameters[i++]];
+      prepareCommand = (PrepareCommand) parameters[i++];
+      epoch = (Integer) parameters[i++];
+      sequenceNumber = (Long) parameters[i++];
+      stableSequenceNumber = (Long) parameters[i];
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return type == Type.COLLECT;
+   }
+
+   @Override
+   public String toString() {
+      return "TotalOrderPrepareCommand{" +
+            "type=" + type +
+            ", prepareCommand=" + prepareCommand +
+            ", epoch=" + epoch +
+            ", sequenceNumber=" + sequenceNumber +
+            ", stableSequenceNumber=" + stableSequenceNumber +
+            ", cacheName='" + cacheName + '\'' +
+            '}';
+   }
+}
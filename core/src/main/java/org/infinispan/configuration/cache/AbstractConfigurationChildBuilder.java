@@ -33,6 +33,11 @@ public ClusteringConfigurationBuilder clustering() {
       return builder.clustering();
    }
 
+   @Override
+   public CompressionConfigurationBuilder compression() {
+      return builder.compression();
+   }
+
    @Override
    public CustomInterceptorsConfigurationBuilder customInterceptors() {
       return builder.customInterceptors();
@@ -34,14 +34,18 @@ public class AsyncConfiguration {
    private final long replicationQueueInterval;
    private final int replicationQueueMaxElements;
    private final boolean useReplicationQueue;
+   private final boolean pipelined;
+   private final int maxInFlight;
 
    AsyncConfiguration(boolean asyncMarshalling, ReplicationQueue replicationQueue, long replicationQueueInterval,
-         int replicationQueueMaxElements, boolean useReplicationQueue) {
+         int replicationQueueMaxElements, boolean useReplicationQueue, boolean pipelined, int maxInFlight) {
       this.asyncMarshalling = asyncMarshalling;
       this.replicationQueue = replicationQueue;
       this.replicationQueueInterval = replicationQueueInterval;
       this.replicationQueueMaxElements = replicationQueueMaxElements;
       this.useReplicationQueue = useReplicationQueue;
+      this.pipelined = pipelined;
+      this.maxInFlight = maxInFlight;
    }
 
    /**
@@ -85,6 +89,21 @@ public boolean useReplQueue() {
       return useReplicationQueue;
    }
 
+   /**
+    * If true, asynchronous writes are acknowledged by their owners and the acknowledgements are tracked by the
+    * {@link org.infinispan.remoting.ReplicationPipeline}.
+    */
+   public boolean pipelined() {
+      return pipelined;
+   }
+
+   /**
+    * The maximum number of pipelined writes waiting for an acknowledgement.
+    */
+   public int maxInFlight() {
+      return maxInFlight;
+   }
+
    @Override
    public String toString() {
       return "AsyncConfiguration{" +
@@ -93,6 +112,8 @@ public String toString() {
             ", replicationQueueInterval=" + replicationQueueInterval +
             ", replicationQueueMaxElements=" + replicationQueueMaxElements +
             ", useReplicationQueue=" + useReplicationQueue +
+            ", pipelined=" + pipelined +
+            ", maxInFlight=" + maxInFlight +
             '}';
    }
 
@@ -109,6 +130,8 @@ public boolean equals(Object o) {
       if (replicationQueueMaxElements != that.replicationQueueMaxElements)
          return false;
       if (useReplicationQueue != that.useReplicationQueue) return false;
+      if (pipelined != that.pipelined) return false;
+      if (maxInFlight != that.maxInFlight) return false;
       if (replicationQueue != null ? !replicationQueue.equals(that.replicationQueue) : that.replicationQueue != null)
          return false;
 
@@ -122,6 +145,8 @@ public int hashCode() {
       result = 31 * result + (int) (replicationQueueInterval ^ (replicationQueueInterval >>> 32));
       result = 31 * result + replicationQueueMaxElements;
       result = 31 * result + (useReplicationQueue ? 1 : 0);
+      result = 31 * result + (pipelined ? 1 : 0);
+      result = 31 * result + maxInFlight;
       return result;
    }
 
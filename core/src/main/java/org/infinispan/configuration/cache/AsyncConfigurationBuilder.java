@@ -37,6 +37,8 @@ public class AsyncConfigurationBuilder extends AbstractClusteringConfigurationCh
    private long replicationQueueInterval = TimeUnit.SECONDS.toMillis(5);
    private int replicationQueueMaxElements = 1000;
    private boolean useReplicationQueue = false;
+   private boolean pipelined = false;
+   private int maxInFlight = 1024;
 
    protected AsyncConfigurationBuilder(ClusteringConfigurationBuilder builder) {
       super(builder);
@@ -115,6 +117,25 @@ public AsyncConfigurationBuilder useReplQueue(boolean use) {
       return this;
    }
 
+   /**
+    * If true, asynchronous writes are still sent without waiting for the owners to apply them, but the owners
+    * acknowledge them and the acknowledgements are tracked by the {@link org.infinispan.remoting.ReplicationPipeline},
+    * which exposes futures completing once a write is applied on the owners.
+    */
+   public AsyncConfigurationBuilder pipelined(boolean pipelined) {
+      this.pipelined = pipelined;
+      return this;
+   }
+
+   /**
+    * If pipelined is set to true, this attribute limits the number of writes waiting for an acknowledgement.  Writers
+    * block when the limit is reached, until older writes are acknowledged.
+    */
+   public AsyncConfigurationBuilder maxInFlight(int maxInFlight) {
+      this.maxInFlight = maxInFlight;
+      return this;
+   }
+
    @Override
    public
    void validate() {
@@ -123,12 +144,22 @@ void validate() {
 
       if (useReplicationQueue && getClusteringBuilder().cacheMode().isSynchronous())
          throw new ConfigurationException("Use of the replication queue is only allowed with an ASYNCHRONOUS cluster mode.");
+
+      if (pipelined && getClusteringBuilder().cacheMode().isSynchronous())
+         throw new ConfigurationException("Pipelined replication is only allowed with an ASYNCHRONOUS cluster mode.");
+
+      if (pipelined && useReplicationQueue)
+         throw new ConfigurationException("Pipelined replication cannot be used together with the replication queue.");
+
+      if (maxInFlight < 1)
+         throw new ConfigurationException("The maximum number of in-flight writes must be positive.");
    }
 
    @Override
    public
    AsyncConfiguration create() {
-      return new AsyncConfiguration(asyncMarshalling, replicationQueue, replicationQueueInterval, replicationQueueMaxElements, useReplicationQueue);
+      return new AsyncConfiguration(asyncMarshalling, replicationQueue, replicationQueueInterval, replicationQueueMaxElements,
+            useReplicationQueue, pipelined, maxInFlight);
    }
 
    @Override
@@ -138,6 +169,8 @@ public AsyncConfigurationBuilder read(AsyncConfiguration template) {
       this.replicationQueueInterval = template.replQueueInterval();
       this.replicationQueueMaxElements = template.replQueueMaxElements();
       this.useReplicationQueue = template.useReplQueue();
+      this.pipelined = template.pipelined();
+      this.maxInFlight = template.maxInFlight();
 
       return this;
    }
@@ -150,6 +183,8 @@ public String toString() {
             ", replicationQueueInterval=" + replicationQueueInterval +
             ", replicationQueueMaxElements=" + replicationQueueMaxElements +
             ", useReplicationQueue=" + useReplicationQueue +
+            ", pipelined=" + pipelined +
+            ", maxInFlight=" + maxInFlight +
             '}';
    }
 
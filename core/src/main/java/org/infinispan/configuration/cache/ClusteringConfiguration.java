@@ -32,15 +32,20 @@ public class ClusteringConfiguration {
    private final L1Configuration l1Configuration;
    private final StateTransferConfiguration stateTransferConfiguration;
    private final SyncConfiguration syncConfiguration;
+   private final boolean partitionRemoteCommands;
+   private final boolean staggeredRemoteGets;
 
    ClusteringConfiguration(CacheMode cacheMode, AsyncConfiguration asyncConfiguration, HashConfiguration hashConfiguration,
-         L1Configuration l1Configuration, StateTransferConfiguration stateTransferConfiguration, SyncConfiguration syncConfiguration) {
+         L1Configuration l1Configuration, StateTransferConfiguration stateTransferConfiguration, SyncConfiguration syncConfiguration,
+         boolean partitionRemoteCommands, boolean staggeredRemoteGets) {
       this.cacheMode = cacheMode;
       this.asyncConfiguration = asyncConfiguration;
       this.hashConfiguration = hashConfiguration;
       this.l1Configuration = l1Configuration;
       this.stateTransferConfiguration = stateTransferConfiguration;
       this.syncConfiguration = syncConfiguration;
+      this.partitionRemoteCommands = partitionRemoteCommands;
+      this.staggeredRemoteGets = staggeredRemoteGets;
    }
 
    /**
@@ -90,6 +95,22 @@ public StateTransferConfiguration stateTransfer() {
       return stateTransferConfiguration;
    }
 
+   /**
+    * Whether remote commands addressing a single key are executed on key-partitioned threads rather than on the
+    * transport threads.
+    */
+   public boolean partitionRemoteCommands() {
+      return partitionRemoteCommands;
+   }
+
+   /**
+    * Whether remote gets are sent to the primary owner first, and to the backup owners only if the primary doesn't
+    * answer within its usual latency.
+    */
+   public boolean staggeredRemoteGets() {
+      return staggeredRemoteGets;
+   }
+
    @Override
    public String toString() {
       return "ClusteringConfiguration{" +
@@ -99,6 +120,8 @@ public String toString() {
             ", l1=" + l1Configuration +
             ", stateTransfer=" + stateTransferConfiguration +
             ", sync=" + syncConfiguration +
+            ", partitionRemoteCommands=" + partitionRemoteCommands +
+            ", staggeredRemoteGets=" + staggeredRemoteGets +
             '}';
    }
 
@@ -112,6 +135,8 @@ public boolean equals(Object o) {
       if (asyncConfiguration != null ? !asyncConfiguration.equals(that.asyncConfiguration) : that.asyncConfiguration != null)
          return false;
       if (cacheMode != that.cacheMode) return false;
+      if (partitionRemoteCommands != that.partitionRemoteCommands) return false;
+      if (staggeredRemoteGets != that.staggeredRemoteGets) return false;
       if (hashConfiguration != null ? !hashConfiguration.equals(that.hashConfiguration) : that.hashConfiguration != null)
          return false;
       if (l1Configuration != null ? !l1Configuration.equals(that.l1Configuration) : that.l1Configuration != null)
@@ -132,6 +157,8 @@ public int hashCode() {
       result = 31 * result + (l1Configuration != null ? l1Configuration.hashCode() : 0);
       result = 31 * result + (stateTransferConfiguration != null ? stateTransferConfiguration.hashCode() : 0);
       result = 31 * result + (syncConfiguration != null ? syncConfiguration.hashCode() : 0);
+      result = 31 * result + (partitionRemoteCommands ? 1 : 0);
+      result = 31 * result + (staggeredRemoteGets ? 1 : 0);
       return result;
    }
 
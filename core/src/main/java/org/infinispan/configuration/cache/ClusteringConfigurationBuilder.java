@@ -18,6 +18,9 @@
  */
 package org.infinispan.configuration.cache;
 
+import org.infinispan.config.ConfigurationException;
+import org.infinispan.transaction.TransactionMode;
+
 /**
  * Defines clustered characteristics of the cache.
  *
@@ -28,6 +31,8 @@ public class ClusteringConfigurationBuilder extends AbstractConfigurationChildBu
       ClusteringConfigurationChildBuilder {
 
    private CacheMode cacheMode = CacheMode.LOCAL;
+   private boolean partitionRemoteCommands = false;
+   private boolean staggeredRemoteGets = false;
    private final AsyncConfigurationBuilder asyncConfigurationBuilder;
    private final HashConfigurationBuilder hashConfigurationBuilder;
    private final L1ConfigurationBuilder l1ConfigurationBuilder;
@@ -55,6 +60,27 @@ CacheMode cacheMode() {
       return cacheMode;
    }
 
+   /**
+    * If true, remote commands addressing a single key are executed on a fixed set of threads, one per available
+    * processor, picked by the consistent hash segment of the key.  Commands for the same key are then executed in the
+    * order they were received and never contend with each other for locks.  Only non-transactional clustered caches
+    * support this mode.
+    */
+   public ClusteringConfigurationBuilder partitionRemoteCommands(boolean partitionRemoteCommands) {
+      this.partitionRemoteCommands = partitionRemoteCommands;
+      return this;
+   }
+
+   /**
+    * If true, remote gets in distributed caches are sent to the primary owner only, and to the backup owners if the
+    * primary hasn't answered within the latency it (or a backup owner) usually answers in.  This cuts the read traffic
+    * by a factor of numOwners, while a slow primary owner only delays reads by a typical response time.
+    */
+   public ClusteringConfigurationBuilder staggeredRemoteGets(boolean staggeredRemoteGets) {
+      this.staggeredRemoteGets = staggeredRemoteGets;
+      return this;
+   }
+
    /**
     * Configure async sub element. Once this method is invoked users cannot subsequently invoke
     * <code>configureSync()</code> as two are mutually exclusive
@@ -109,18 +135,31 @@ void validate() {
       l1ConfigurationBuilder.validate();
       syncConfigurationBuilder.validate();
 
+      if (partitionRemoteCommands) {
+         if (!cacheMode.isClustered())
+            throw new ConfigurationException("Remote commands can only be partitioned in clustered caches");
+         TransactionMode transactionMode = getBuilder().transaction().transactionMode;
+         if (transactionMode == TransactionMode.TRANSACTIONAL
+               || (transactionMode == null && getBuilder().invocationBatching().enabled))
+            throw new ConfigurationException("Remote commands can only be partitioned in non-transactional caches");
+      }
+      if (staggeredRemoteGets && !cacheMode.isDistributed())
+         throw new ConfigurationException("Staggered remote gets are only supported in distributed caches");
    }
 
    @Override
    public
    ClusteringConfiguration create() {
       return new ClusteringConfiguration(cacheMode, asyncConfigurationBuilder.create(), hashConfigurationBuilder.create(),
-            l1ConfigurationBuilder.create(), stateTransferConfigurationBuilder.create(), syncConfigurationBuilder.create());
+            l1ConfigurationBuilder.create(), stateTransferConfigurationBuilder.create(), syncConfigurationBuilder.create(),
+            partitionRemoteCommands, staggeredRemoteGets);
    }
 
    @Override
    public ClusteringConfigurationBuilder read(ClusteringConfiguration template) {
       this.cacheMode = template.cacheMode();
+      this.partitionRemoteCommands = template.partitionRemoteCommands();
+      this.staggeredRemoteGets = template.staggeredRemoteGets();
       asyncConfigurationBuilder.read(template.async());
       hashConfigurationBuilder.read(template.hash());
       l1ConfigurationBuilder.read(template.l1());
@@ -135,6 +174,8 @@ public String toString() {
       return "ClusteringConfigurationBuilder{" +
             "async=" + asyncConfigurationBuilder +
             ", cacheMode=" + cacheMode +
+            ", partitionRemoteCommands=" + partitionRemoteCommands +
+            ", staggeredRemoteGets=" + staggeredRemoteGets +
             ", hash=" + hashConfigurationBuilder +
             ", l1=" + l1ConfigurationBuilder +
             ", stateTransfer=" + stateTransferConfigurationBuilder +
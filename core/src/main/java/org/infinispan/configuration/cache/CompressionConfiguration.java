@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA
+ */
+package org.infinispan.configuration.cache;
+
+/**
+ * Controls whether large values are compressed, both when held in memory in their serialized form and when written
+ * to cache stores.
+ *
+ * @see CompressionConfigurationBuilder
+ * @since 5.2
+ */
+public class CompressionConfiguration {
+
+   private final boolean enabled;
+   private final int threshold;
+   private final int level;
+
+   CompressionConfiguration(boolean enabled, int threshold, int level) {
+      this.enabled = enabled;
+      this.threshold = threshold;
+      this.level = level;
+   }
+
+   /**
+    * Whether values are compressed.
+    */
+   public boolean enabled() {
+      return enabled;
+   }
+
+   /**
+    * The size in bytes of the serialized form of a value from which on it is compressed.
+    */
+   public int threshold() {
+      return threshold;
+   }
+
+   /**
+    * The compression level, from 1 (fastest) to 9 (smallest output).
+    */
+   public int level() {
+      return level;
+   }
+
+   @Override
+   public String toString() {
+      return "CompressionConfiguration{" +
+            "enabled=" + enabled +
+            ", threshold=" + threshold +
+            ", level=" + level +
+            '}';
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      CompressionConfiguration that = (CompressionConfiguration) o;
+
+      if (enabled != that.enabled) return false;
+      if (threshold != that.threshold) return false;
+      if (level != that.level) return false;
+
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = (enabled ? 1 : 0);
+      result = 31 * result + threshold;
+      result = 31 * result + level;
+      return result;
+   }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA
+ */
+package org.infinispan.configuration.cache;
+
+import org.infinispan.config.ConfigurationException;
+
+/**
+ * Controls whether large values are compressed, both when held in memory in their serialized form and when written
+ * to cache stores. Values are only held in serialized form in memory if they are stored as binary, see
+ * {@link StoreAsBinaryConfigurationBuilder}.
+ * <p />
+ * Compression trades CPU for memory and disk space, so it's best suited to large values with a lot of redundancy,
+ * such as XML or JSON documents. The compression statistics exposed through JMX show how well it pays off.
+ *
+ * @see CompressionConfiguration
+ * @since 5.2
+ */
+public class CompressionConfigurationBuilder extends AbstractConfigurationChildBuilder<CompressionConfiguration> {
+
+   private boolean enabled = false;
+   private int threshold = 1024;
+   private int level = 1;
+
+   CompressionConfigurationBuilder(ConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   /**
+    * Enables compression of large values.
+    */
+   public CompressionConfigurationBuilder enable() {
+      enabled = true;
+      return this;
+   }
+
+   /**
+    * Disables compression of large values.
+    */
+   public CompressionConfigurationBuilder disable() {
+      enabled = false;
+      return this;
+   }
+
+   /**
+    * Sets whether this feature is enabled or disabled.
+    * @param enabled if true, this feature is enabled.  If false, it is disabled.
+    */
+   public CompressionConfigurationBuilder enabled(boolean enabled) {
+      this.enabled = enabled;
+      return this;
+   }
+
+   /**
+    * Values whose serialized form is smaller than this number of bytes are never compressed, as the savings would
+    * not be worth the CPU spent. Defaults to 1024.
+    */
+   public CompressionConfigurationBuilder threshold(int threshold) {
+      this.threshold = threshold;
+      return this;
+   }
+
+   /**
+    * The compression level, from 1 (fastest) to 9 (smallest output). Defaults to 1.
+    */
+   public CompressionConfigurationBuilder level(int level) {
+      this.level = level;
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      if (threshold < 0)
+         throw new ConfigurationException("Compression threshold cannot be negative");
+      if (level < 1 || level > 9)
+         throw new ConfigurationException("Compression level must be between 1 and 9");
+   }
+
+   @Override
+   public CompressionConfiguration create() {
+      return new CompressionConfiguration(enabled, threshold, level);
+   }
+
+   @Override
+   public CompressionConfigurationBuilder read(CompressionConfiguration template) {
+      this.enabled = template.enabled();
+      this.threshold = template.threshold();
+      this.level = template.level();
+
+      return this;
+   }
+
+   @Override
+   public String toString() {
+      return "CompressionConfigurationBuilder{" +
+            "enabled=" + enabled +
+            ", threshold=" + threshold +
+            ", level=" + level +
+            '}';
+   }
+
+}
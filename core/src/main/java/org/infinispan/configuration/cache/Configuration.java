@@ -27,6 +27,7 @@ public class Configuration {
 
    private final ClassLoader classLoader; //TODO remove this
    private final ClusteringConfiguration clusteringConfiguration;
+   private final CompressionConfiguration compressionConfiguration;
    private final CustomInterceptorsConfiguration customInterceptorsConfiguration;
    private final DataContainerConfiguration dataContainerConfiguration;
    private final DeadlockDetectionConfiguration deadlockDetectionConfiguration;
@@ -44,7 +45,7 @@ public class Configuration {
    private final Map<Class<?>, ?> moduleConfiguration;
    private final SitesConfiguration sites;
 
-   Configuration(ClusteringConfiguration clusteringConfiguration,
+   Configuration(ClusteringConfiguration clusteringConfiguration, CompressionConfiguration compressionConfiguration,
                  CustomInterceptorsConfiguration customInterceptorsConfiguration,
                  DataContainerConfiguration dataContainerConfiguration, DeadlockDetectionConfiguration deadlockDetectionConfiguration,
                  EvictionConfiguration evictionConfiguration, ExpirationConfiguration expirationConfiguration,
@@ -55,6 +56,7 @@ public class Configuration {
                  TransactionConfiguration transactionConfiguration, UnsafeConfiguration unsafeConfiguration,
                  VersioningConfiguration versioningConfiguration, List<?> modules, SitesConfiguration sites, ClassLoader cl) {
       this.clusteringConfiguration = clusteringConfiguration;
+      this.compressionConfiguration = compressionConfiguration;
       this.customInterceptorsConfiguration = customInterceptorsConfiguration;
       this.dataContainerConfiguration = dataContainerConfiguration;
       this.deadlockDetectionConfiguration = deadlockDetectionConfiguration;
@@ -90,6 +92,10 @@ public ClusteringConfiguration clustering() {
       return clusteringConfiguration;
    }
 
+   public CompressionConfiguration compression() {
+      return compressionConfiguration;
+   }
+
    public CustomInterceptorsConfiguration customInterceptors() {
       return customInterceptorsConfiguration;
    }
@@ -164,6 +170,7 @@ public String toString() {
       return "Configuration{" +
             "classLoader=" + classLoader +
             ", clustering=" + clusteringConfiguration +
+            ", compression=" + compressionConfiguration +
             ", customInterceptors=" + customInterceptorsConfiguration +
             ", dataContainer=" + dataContainerConfiguration +
             ", deadlockDetection=" + deadlockDetectionConfiguration +
@@ -194,6 +201,8 @@ public boolean equals(Object o) {
          return false;
       if (clusteringConfiguration != null ? !clusteringConfiguration.equals(that.clusteringConfiguration) : that.clusteringConfiguration != null)
          return false;
+      if (compressionConfiguration != null ? !compressionConfiguration.equals(that.compressionConfiguration) : that.compressionConfiguration != null)
+         return false;
       if (customInterceptorsConfiguration != null ? !customInterceptorsConfiguration.equals(that.customInterceptorsConfiguration) : that.customInterceptorsConfiguration != null)
          return false;
       if (dataContainerConfiguration != null ? !dataContainerConfiguration.equals(that.dataContainerConfiguration) : that.dataContainerConfiguration != null)
@@ -234,6 +243,7 @@ public boolean equals(Object o) {
    public int hashCode() {
       int result = classLoader != null ? classLoader.hashCode() : 0;
       result = 31 * result + (clusteringConfiguration != null ? clusteringConfiguration.hashCode() : 0);
+      result = 31 * result + (compressionConfiguration != null ? compressionConfiguration.hashCode() : 0);
       result = 31 * result + (customInterceptorsConfiguration != null ? customInterceptorsConfiguration.hashCode() : 0);
       result = 31 * result + (dataContainerConfiguration != null ? dataContainerConfiguration.hashCode() : 0);
       result = 31 * result + (deadlockDetectionConfiguration != null ? deadlockDetectionConfiguration.hashCode() : 0);
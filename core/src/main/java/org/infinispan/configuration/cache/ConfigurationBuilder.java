@@ -33,6 +33,7 @@ public class ConfigurationBuilder implements ConfigurationChildBuilder {
 
    private ClassLoader classLoader;
    private final ClusteringConfigurationBuilder clustering;
+   private final CompressionConfigurationBuilder compression;
    private final CustomInterceptorsConfigurationBuilder customInterceptors;
    private final DataContainerConfigurationBuilder dataContainer;
    private final DeadlockDetectionConfigurationBuilder deadlockDetection;
@@ -52,6 +53,7 @@ public class ConfigurationBuilder implements ConfigurationChildBuilder {
 
    public ConfigurationBuilder() {
       this.clustering = new ClusteringConfigurationBuilder(this);
+      this.compression = new CompressionConfigurationBuilder(this);
       this.customInterceptors = new CustomInterceptorsConfigurationBuilder(this);
       this.dataContainer = new DataContainerConfigurationBuilder(this);
       this.deadlockDetection = new DeadlockDetectionConfigurationBuilder(this);
@@ -83,6 +85,11 @@ public ClusteringConfigurationBuilder clustering() {
       return clustering;
    }
 
+   @Override
+   public CompressionConfigurationBuilder compression() {
+      return compression;
+   }
+
    @Override
    public CustomInterceptorsConfigurationBuilder customInterceptors() {
       return customInterceptors;
@@ -180,7 +187,7 @@ public SitesConfigurationBuilder sites() {
    @SuppressWarnings("unchecked")
    public void validate() {
       for (AbstractConfigurationChildBuilder<?> validatable:
-            asList(clustering, dataContainer, deadlockDetection, eviction, expiration, indexing,
+            asList(clustering, compression, dataContainer, deadlockDetection, eviction, expiration, indexing,
                    invocationBatching, jmxStatistics, loaders, locking, storeAsBinary, transaction,
                    versioning, unsafe, sites)) {
          validatable.validate();
@@ -204,7 +211,7 @@ public Configuration build(boolean validate) {
       List<Object> modulesConfig = new LinkedList<Object>();
       for (Builder<?> module : modules)
          modulesConfig.add(module.create());
-      return new Configuration(clustering.create(), customInterceptors.create(),
+      return new Configuration(clustering.create(), compression.create(), customInterceptors.create(),
                dataContainer.create(), deadlockDetection.create(), eviction.create(),
                expiration.create(), indexing.create(), invocationBatching.create(),
                jmxStatistics.create(), loaders.create(), locking.create(), storeAsBinary.create(),
@@ -214,6 +221,7 @@ public Configuration build(boolean validate) {
    public ConfigurationBuilder read(Configuration template) {
       this.classLoader = template.classLoader();
       this.clustering.read(template.clustering());
+      this.compression.read(template.compression());
       this.customInterceptors.read(template.customInterceptors());
       this.dataContainer.read(template.dataContainer());
       this.deadlockDetection.read(template.deadlockDetection());
@@ -247,6 +255,7 @@ public String toString() {
       return "ConfigurationBuilder{" +
             "classLoader=" + classLoader +
             ", clustering=" + clustering +
+            ", compression=" + compression +
             ", customInterceptors=" + customInterceptors +
             ", dataContainer=" + dataContainer +
             ", deadlockDetection=" + deadlockDetection +
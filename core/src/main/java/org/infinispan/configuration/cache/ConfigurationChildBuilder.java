@@ -22,6 +22,8 @@ public interface ConfigurationChildBuilder {
 
    ClusteringConfigurationBuilder clustering();
    
+   CompressionConfigurationBuilder compression();
+   
    CustomInterceptorsConfigurationBuilder customInterceptors();
    
    DataContainerConfigurationBuilder dataContainer();
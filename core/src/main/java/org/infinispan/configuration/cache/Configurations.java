@@ -37,12 +37,23 @@ public static boolean isSecondPhaseAsync(Configuration cfg) {
       ClusteringConfiguration clusteringCfg = cfg.clustering();
       return !cfg.transaction().syncCommitPhase()
             || clusteringCfg.async().useReplQueue()
-            || !clusteringCfg.cacheMode().isSynchronous();
+            || !clusteringCfg.cacheMode().isSynchronous()
+            || isTotalOrder(cfg);
    }
 
    public static boolean isOnePhaseCommit(Configuration cfg) {
       return !cfg.clustering().cacheMode().isSynchronous() ||
-            cfg.transaction().lockingMode() == LockingMode.PESSIMISTIC;
+            cfg.transaction().lockingMode() == LockingMode.PESSIMISTIC ||
+            isTotalOrder(cfg);
+   }
+
+   /**
+    * Transactions committed in total order are applied in a single phase, one at a time, so the owners release their
+    * locks as soon as they have applied them.
+    */
+   public static boolean isTotalOrder(Configuration cfg) {
+      return cfg.transaction().transactionMode().isTransactional()
+            && cfg.transaction().transactionProtocol().isTotalOrder();
    }
 
    public static boolean isStateTransferEnabled(Configuration cfg) {
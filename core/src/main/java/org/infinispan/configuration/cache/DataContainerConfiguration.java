@@ -31,10 +31,17 @@
 public class DataContainerConfiguration extends AbstractTypedPropertiesConfiguration {
 
    private final DataContainer dataContainer;
+   private final boolean offHeap;
+   private final int slabSize;
+   private final boolean segmented;
 
-   DataContainerConfiguration(DataContainer dataContainer, TypedProperties properties) {
+   DataContainerConfiguration(DataContainer dataContainer, boolean offHeap, int slabSize, boolean segmented,
+         TypedProperties properties) {
       super(properties);
       this.dataContainer = dataContainer;
+      this.offHeap = offHeap;
+      this.slabSize = slabSize;
+      this.segmented = segmented;
    }
    
    /**
@@ -45,10 +52,37 @@ public DataContainer dataContainer() {
       return dataContainer;
    }
 
+   /**
+    * Whether entries are stored in direct memory instead of the Java heap
+    * @return
+    */
+   public boolean offHeap() {
+      return offHeap;
+   }
+
+   /**
+    * Size, in bytes, of each direct memory slab used when storing entries off-heap
+    * @return
+    */
+   public int slabSize() {
+      return slabSize;
+   }
+
+   /**
+    * Whether entries are partitioned in one map per consistent hash segment
+    * @return
+    */
+   public boolean segmented() {
+      return segmented;
+   }
+
    @Override
    public String toString() {
       return "DataContainerConfiguration{" +
             "dataContainer=" + dataContainer +
+            ", offHeap=" + offHeap +
+            ", slabSize=" + slabSize +
+            ", segmented=" + segmented +
             '}';
    }
 
@@ -61,13 +95,20 @@ public boolean equals(Object o) {
 
       if (dataContainer != null ? !dataContainer.equals(that.dataContainer) : that.dataContainer != null)
          return false;
+      if (offHeap != that.offHeap) return false;
+      if (slabSize != that.slabSize) return false;
+      if (segmented != that.segmented) return false;
 
       return true;
    }
 
    @Override
    public int hashCode() {
-      return dataContainer != null ? dataContainer.hashCode() : 0;
+      int result = dataContainer != null ? dataContainer.hashCode() : 0;
+      result = 31 * result + (offHeap ? 1 : 0);
+      result = 31 * result + slabSize;
+      result = 31 * result + (segmented ? 1 : 0);
+      return result;
    }
 
 }
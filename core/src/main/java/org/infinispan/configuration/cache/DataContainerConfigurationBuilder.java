@@ -20,7 +20,10 @@
 
 import java.util.Properties;
 
+import org.infinispan.config.ConfigurationException;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.OffHeapDataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.util.TypedProperties;
 
 /**
@@ -34,6 +37,9 @@ public class DataContainerConfigurationBuilder extends AbstractConfigurationChil
    // No default here. DataContainerFactory figures out default.
    private DataContainer dataContainer;
    private Properties properties = new Properties();
+   private boolean offHeap = false;
+   private int slabSize = OffHeapDataContainer.DEFAULT_SLAB_SIZE;
+   private boolean segmented = false;
 
    DataContainerConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -49,6 +55,56 @@ public DataContainerConfigurationBuilder dataContainer(DataContainer dataContain
       return this;
    }
 
+   boolean customDataContainer() {
+      return dataContainer != null;
+   }
+
+   /**
+    * Store entries in direct memory instead of the Java heap, using {@link OffHeapDataContainer}. Keys and values are
+    * kept marshalled and are only materialized when read. Eviction settings still apply when enabled, but entries are
+    * always chosen by sampled LRU and are passivated synchronously, so asynchronous passivation is not supported.
+    *
+    * @param offHeap
+    * @return
+    */
+   public DataContainerConfigurationBuilder offHeap(boolean offHeap) {
+      this.offHeap = offHeap;
+      return this;
+   }
+
+   boolean offHeap() {
+      return offHeap;
+   }
+
+   /**
+    * Size, in bytes, of each direct memory slab allocated by the off-heap data container. Entries larger than this
+    * get a slab of their own. Only used when {@link #offHeap(boolean)} is enabled.
+    *
+    * @param slabSize
+    * @return
+    */
+   public DataContainerConfigurationBuilder slabSize(int slabSize) {
+      this.slabSize = slabSize;
+      return this;
+   }
+
+   /**
+    * Keep one map of entries per consistent hash segment, using {@link SegmentedDataContainer}. State transfer can
+    * then send the entries of a segment without iterating over the whole container, and segments which are no longer
+    * owned are released at once. Cannot be combined with eviction.
+    *
+    * @param segmented
+    * @return
+    */
+   public DataContainerConfigurationBuilder segmented(boolean segmented) {
+      this.segmented = segmented;
+      return this;
+   }
+
+   boolean segmented() {
+      return segmented;
+   }
+
    /**
     * Add key/value property pair to this data container configuration
     *
@@ -75,18 +131,31 @@ public DataContainerConfigurationBuilder withProperties(Properties props) {
    @Override
    public
    void validate() {
+      if (offHeap && dataContainer != null)
+         throw new ConfigurationException("Cannot enable off-heap storage when a custom data container is configured");
+      if (offHeap && slabSize <= 0)
+         throw new ConfigurationException("Off-heap slab size must be greater than zero");
+      if (offHeap && getBuilder().loaders().asyncPassivation())
+         throw new ConfigurationException("The off-heap data container does not support asynchronous passivation");
+      if (segmented && dataContainer != null)
+         throw new ConfigurationException("Cannot enable the segmented data container when a custom data container is configured");
+      if (segmented && offHeap)
+         throw new ConfigurationException("The segmented data container does not support off-heap storage");
    }
 
    @Override
    public
    DataContainerConfiguration create() {
-      return new DataContainerConfiguration(dataContainer, TypedProperties.toTypedProperties(properties));
+      return new DataContainerConfiguration(dataContainer, offHeap, slabSize, segmented, TypedProperties.toTypedProperties(properties));
    }
 
    @Override
    public DataContainerConfigurationBuilder read(DataContainerConfiguration template) {
       this.dataContainer = template.dataContainer();
       this.properties = template.properties();
+      this.offHeap = template.offHeap();
+      this.slabSize = template.slabSize();
+      this.segmented = template.segmented();
 
       return this;
    }
@@ -95,6 +164,9 @@ public DataContainerConfigurationBuilder read(DataContainerConfiguration templat
    public String toString() {
       return "DataContainerConfigurationBuilder{" +
             "dataContainer=" + dataContainer +
+            ", offHeap=" + offHeap +
+            ", slabSize=" + slabSize +
+            ", segmented=" + segmented +
             ", properties=" + properties +
             '}';
    }
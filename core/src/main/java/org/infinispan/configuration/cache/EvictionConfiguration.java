@@ -18,6 +18,7 @@
  */
 package org.infinispan.configuration.cache;
 
+import org.infinispan.eviction.EntrySizeEstimator;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 
@@ -29,15 +30,20 @@ public class EvictionConfiguration {
    private final int maxEntries;
    private final EvictionStrategy strategy;
    private final EvictionThreadPolicy threadPolicy;
+   private final long maxMemory;
+   private final EntrySizeEstimator sizeEstimator;
    
-   EvictionConfiguration(int maxEntries, EvictionStrategy strategy, EvictionThreadPolicy threadPolicy) {
+   EvictionConfiguration(int maxEntries, EvictionStrategy strategy, EvictionThreadPolicy threadPolicy,
+         long maxMemory, EntrySizeEstimator sizeEstimator) {
       this.maxEntries = maxEntries;
       this.strategy = strategy;
       this.threadPolicy = threadPolicy;
+      this.maxMemory = maxMemory;
+      this.sizeEstimator = sizeEstimator;
    }
    
    /**
-    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS' and 'NONE' (to disable
+    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS', 'TINY_LFU' and 'NONE' (to disable
     * eviction).
     */
    public EvictionStrategy strategy() {
@@ -60,12 +66,29 @@ public int maxEntries() {
       return maxEntries;
    }
 
+   /**
+    * Maximum estimated memory footprint, in bytes, of the entries in a cache instance, or -1 if the cache is not
+    * bounded by memory.
+    */
+   public long maxMemory() {
+      return maxMemory;
+   }
+
+   /**
+    * Estimator used to compute the memory footprint of entries when eviction is bounded by {@link #maxMemory()}.
+    */
+   public EntrySizeEstimator sizeEstimator() {
+      return sizeEstimator;
+   }
+
    @Override
    public String toString() {
       return "EvictionConfiguration{" +
             "maxEntries=" + maxEntries +
             ", strategy=" + strategy +
             ", threadPolicy=" + threadPolicy +
+            ", maxMemory=" + maxMemory +
+            ", sizeEstimator=" + sizeEstimator +
             '}';
    }
 
@@ -79,6 +102,9 @@ public boolean equals(Object o) {
       if (maxEntries != that.maxEntries) return false;
       if (strategy != that.strategy) return false;
       if (threadPolicy != that.threadPolicy) return false;
+      if (maxMemory != that.maxMemory) return false;
+      if (sizeEstimator != null ? !sizeEstimator.equals(that.sizeEstimator) : that.sizeEstimator != null)
+         return false;
 
       return true;
    }
@@ -88,6 +114,8 @@ public int hashCode() {
       int result = maxEntries;
       result = 31 * result + (strategy != null ? strategy.hashCode() : 0);
       result = 31 * result + (threadPolicy != null ? threadPolicy.hashCode() : 0);
+      result = 31 * result + (int) (maxMemory ^ (maxMemory >>> 32));
+      result = 31 * result + (sizeEstimator != null ? sizeEstimator.hashCode() : 0);
       return result;
    }
 
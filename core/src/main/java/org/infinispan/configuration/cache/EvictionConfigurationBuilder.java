@@ -19,6 +19,8 @@
 package org.infinispan.configuration.cache;
 
 import org.infinispan.config.ConfigurationException;
+import org.infinispan.eviction.DefaultEntrySizeEstimator;
+import org.infinispan.eviction.EntrySizeEstimator;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 import org.infinispan.util.logging.Log;
@@ -34,6 +36,8 @@ public class EvictionConfigurationBuilder extends AbstractConfigurationChildBuil
    private int maxEntries = -1;
    private EvictionStrategy strategy = EvictionStrategy.NONE;
    private EvictionThreadPolicy threadPolicy = EvictionThreadPolicy.DEFAULT;
+   private long maxMemory = -1;
+   private EntrySizeEstimator sizeEstimator = new DefaultEntrySizeEstimator();
 
    EvictionConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -41,7 +45,7 @@ public class EvictionConfigurationBuilder extends AbstractConfigurationChildBuil
 
 
    /**
-    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS' and 'NONE' (to disable
+    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS', 'TINY_LFU' and 'NONE' (to disable
     * eviction).
     *
     * @param evictionStrategy
@@ -73,23 +77,72 @@ public EvictionConfigurationBuilder maxEntries(int maxEntries) {
       return this;
    }
 
+   /**
+    * Maximum estimated memory footprint, in bytes, of the entries in a cache instance. When set, the cache is bounded
+    * by memory rather than by number of entries, and least recently used entries are evicted once the limit is
+    * exceeded. The footprint of each entry is computed by the {@link #sizeEstimator(EntrySizeEstimator)}. Cannot be
+    * combined with {@link #maxEntries(int)}.
+    * <p/>
+    * The default estimator is only accurate when keys and values are stored as binary: it never serializes anything
+    * itself, so other objects, and marshalled values that were never serialized, are counted with a fixed guess.
+    *
+    * @param maxMemory
+    */
+   public EvictionConfigurationBuilder maxMemory(long maxMemory) {
+      this.maxMemory = maxMemory;
+      return this;
+   }
+
+   /**
+    * Estimator used to compute the memory footprint of entries when eviction is bounded by
+    * {@link #maxMemory(long)}. Defaults to {@link DefaultEntrySizeEstimator}, which uses the marshalled size of
+    * entries stored as binary.
+    *
+    * @param sizeEstimator
+    */
+   public EvictionConfigurationBuilder sizeEstimator(EntrySizeEstimator sizeEstimator) {
+      this.sizeEstimator = sizeEstimator;
+      return this;
+   }
+
    @Override
    public void validate() {
       if (!strategy.isEnabled() && getBuilder().loaders().passivation())
          log.passivationWithoutEviction();
       if(strategy == EvictionStrategy.FIFO)
          log.warn("FIFO strategy is deprecated, LRU will be used instead");
+      if (maxMemory > 0) {
+         if (maxEntries > 0)
+            throw new ConfigurationException("Eviction maxEntries and maxMemory cannot be configured at the same time");
+         if (sizeEstimator == null)
+            throw new ConfigurationException("A size estimator is required when eviction is bounded by maxMemory");
+         if (getBuilder().dataContainer().offHeap())
+            throw new ConfigurationException("Eviction by maxMemory is not supported by the off-heap data container");
+         if (getBuilder().dataContainer().segmented())
+            throw new ConfigurationException("Eviction is not supported by the segmented data container");
+         if (strategy == EvictionStrategy.LIRS || strategy == EvictionStrategy.TINY_LFU)
+            log.warnf("Eviction bounded by maxMemory only supports LRU, LRU will be used instead of %s", strategy);
+         if (!strategy.isEnabled()) {
+            strategy = EvictionStrategy.LRU;
+            log.debugf("Max memory configured (%d) without eviction strategy. Eviction strategy overriden to %s", maxMemory, strategy);
+         }
+         return;
+      }
       if (strategy.isEnabled() && maxEntries <= 0)
          throw new ConfigurationException("Eviction maxEntries value cannot be less than or equal to zero if eviction is enabled");
+      if (getBuilder().dataContainer().offHeap() && (strategy == EvictionStrategy.LIRS || strategy == EvictionStrategy.TINY_LFU))
+         log.warnf("The off-heap data container only supports LRU eviction, LRU will be used instead of %s", strategy);
       if (maxEntries > 0 && !strategy.isEnabled()) {
          strategy = EvictionStrategy.LIRS;
          log.debugf("Max entries configured (%d) without eviction strategy. Eviction strategy overriden to %s", maxEntries, strategy);
       }
+      if (strategy.isEnabled() && getBuilder().dataContainer().segmented())
+         throw new ConfigurationException("Eviction is not supported by the segmented data container");
    }
 
    @Override
    public EvictionConfiguration create() {
-      return new EvictionConfiguration(maxEntries, strategy, threadPolicy);
+      return new EvictionConfiguration(maxEntries, strategy, threadPolicy, maxMemory, sizeEstimator);
    }
 
    @Override
@@ -97,6 +150,8 @@ public EvictionConfigurationBuilder read(EvictionConfiguration template) {
       this.maxEntries = template.maxEntries();
       this.strategy = template.strategy();
       this.threadPolicy = template.threadPolicy();
+      this.maxMemory = template.maxMemory();
+      this.sizeEstimator = template.sizeEstimator();
 
       return this;
    }
@@ -107,6 +162,8 @@ public String toString() {
             "maxEntries=" + maxEntries +
             ", strategy=" + strategy +
             ", threadPolicy=" + threadPolicy +
+            ", maxMemory=" + maxMemory +
+            ", sizeEstimator=" + sizeEstimator +
             '}';
    }
 
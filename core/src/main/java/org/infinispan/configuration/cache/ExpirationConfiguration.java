@@ -27,12 +27,19 @@ public class ExpirationConfiguration {
    private final long maxIdle;
    private final boolean reaperEnabled;
    private final long wakeUpInterval;
+   private final boolean timingWheel;
+   private final long timingWheelTick;
+   private final boolean exactExpiration;
 
-   ExpirationConfiguration(long lifespan, long maxIdle, boolean reaperEnabled, long wakeUpInterval) {
+   ExpirationConfiguration(long lifespan, long maxIdle, boolean reaperEnabled, long wakeUpInterval,
+         boolean timingWheel, long timingWheelTick, boolean exactExpiration) {
       this.lifespan = lifespan;
       this.maxIdle = maxIdle;
       this.reaperEnabled = reaperEnabled;
       this.wakeUpInterval = wakeUpInterval;
+      this.timingWheel = timingWheel;
+      this.timingWheelTick = timingWheelTick;
+      this.exactExpiration = exactExpiration;
    }
 
    /**
@@ -73,6 +80,29 @@ public long wakeUpInterval() {
       return wakeUpInterval;
    }
 
+   /**
+    * Whether expirable entries are indexed in a timing wheel keyed by their expiry time, so that purging expired
+    * entries from memory does not need to scan the entire data container.
+    */
+   public boolean timingWheel() {
+      return timingWheel;
+   }
+
+   /**
+    * Resolution (in milliseconds) of the expiration timing wheel.
+    */
+   public long timingWheelTick() {
+      return timingWheelTick;
+   }
+
+   /**
+    * Whether expired entries are purged from memory on every tick of the timing wheel, rather than only every
+    * {@link #wakeUpInterval()}.
+    */
+   public boolean exactExpiration() {
+      return exactExpiration;
+   }
+
    @Override
    public String toString() {
       return "ExpirationConfiguration{" +
@@ -80,6 +110,9 @@ public String toString() {
             ", maxIdle=" + maxIdle +
             ", reaperEnabled=" + reaperEnabled +
             ", wakeUpInterval=" + wakeUpInterval +
+            ", timingWheel=" + timingWheel +
+            ", timingWheelTick=" + timingWheelTick +
+            ", exactExpiration=" + exactExpiration +
             '}';
    }
 
@@ -94,6 +127,9 @@ public boolean equals(Object o) {
       if (maxIdle != that.maxIdle) return false;
       if (reaperEnabled != that.reaperEnabled) return false;
       if (wakeUpInterval != that.wakeUpInterval) return false;
+      if (timingWheel != that.timingWheel) return false;
+      if (timingWheelTick != that.timingWheelTick) return false;
+      if (exactExpiration != that.exactExpiration) return false;
 
       return true;
    }
@@ -104,6 +140,9 @@ public int hashCode() {
       result = 31 * result + (int) (maxIdle ^ (maxIdle >>> 32));
       result = 31 * result + (reaperEnabled ? 1 : 0);
       result = 31 * result + (int) (wakeUpInterval ^ (wakeUpInterval >>> 32));
+      result = 31 * result + (timingWheel ? 1 : 0);
+      result = 31 * result + (int) (timingWheelTick ^ (timingWheelTick >>> 32));
+      result = 31 * result + (exactExpiration ? 1 : 0);
       return result;
    }
 
@@ -18,6 +18,8 @@
  */
 package org.infinispan.configuration.cache;
 
+import org.infinispan.config.ConfigurationException;
+
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -29,6 +31,9 @@ public class ExpirationConfigurationBuilder extends AbstractConfigurationChildBu
    private long maxIdle = -1L;
    private boolean reaperEnabled = true;
    private long wakeUpInterval = TimeUnit.MINUTES.toMillis(1);
+   private boolean timingWheel = false;
+   private long timingWheelTick = TimeUnit.SECONDS.toMillis(1);
+   private boolean exactExpiration = false;
 
    ExpirationConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -125,13 +130,60 @@ public ExpirationConfigurationBuilder wakeUpInterval(long l, TimeUnit unit) {
       return wakeUpInterval(unit.toMillis(l));
    }
 
+   /**
+    * Index expirable entries in a timing wheel keyed by their expiry time, so that purging expired entries from memory
+    * costs time proportional to the number of entries that expire (or were written) since the last purge, instead of
+    * scanning the entire data container.
+    */
+   public ExpirationConfigurationBuilder timingWheel(boolean enabled) {
+      this.timingWheel = enabled;
+      return this;
+   }
+
+   /**
+    * Resolution (in milliseconds) of the expiration timing wheel. Entries are purged from memory at most one tick
+    * after they expire when {@link #exactExpiration(boolean)} is enabled. Defaults to one second.
+    */
+   public ExpirationConfigurationBuilder timingWheelTick(long l) {
+      this.timingWheelTick = l;
+      return this;
+   }
+
+   /**
+    * Resolution of the expiration timing wheel. Entries are purged from memory at most one tick after they expire
+    * when {@link #exactExpiration(boolean)} is enabled. Defaults to one second.
+    */
+   public ExpirationConfigurationBuilder timingWheelTick(long l, TimeUnit unit) {
+      return timingWheelTick(unit.toMillis(l));
+   }
+
+   /**
+    * Purge expired entries from memory on every tick of the timing wheel, rather than only every
+    * {@link #wakeUpInterval(long)}. Requires the timing wheel to be enabled. Cache stores are still purged every
+    * wakeUpInterval.
+    */
+   public ExpirationConfigurationBuilder exactExpiration(boolean enabled) {
+      this.exactExpiration = enabled;
+      return this;
+   }
+
    @Override
    public void validate() {
+      if (timingWheel && timingWheelTick <= 0)
+         throw new ConfigurationException("The timing wheel tick must be greater than zero, was " + timingWheelTick);
+      if (exactExpiration && !timingWheel)
+         throw new ConfigurationException("Exact expiration requires the expiration timing wheel to be enabled");
+      // only the default data container indexes its entries in the timing wheel
+      if (timingWheel && getBuilder().dataContainer().offHeap())
+         throw new ConfigurationException("The expiration timing wheel does not support off-heap storage");
+      if (timingWheel && getBuilder().dataContainer().customDataContainer())
+         throw new ConfigurationException("Cannot enable the expiration timing wheel when a custom data container is configured");
    }
 
    @Override
    public ExpirationConfiguration create() {
-      return new ExpirationConfiguration(lifespan, maxIdle, reaperEnabled, wakeUpInterval);
+      return new ExpirationConfiguration(lifespan, maxIdle, reaperEnabled, wakeUpInterval, timingWheel,
+            timingWheelTick, exactExpiration);
    }
 
    @Override
@@ -140,6 +192,9 @@ public ExpirationConfigurationBuilder read(ExpirationConfiguration template) {
       this.maxIdle = template.maxIdle();
       this.reaperEnabled = template.reaperEnabled();
       this.wakeUpInterval = template.wakeUpInterval();
+      this.timingWheel = template.timingWheel();
+      this.timingWheelTick = template.timingWheelTick();
+      this.exactExpiration = template.exactExpiration();
 
       return this;
    }
@@ -151,6 +206,9 @@ public String toString() {
             ", maxIdle=" + maxIdle +
             ", reaperEnabled=" + reaperEnabled +
             ", wakeUpInterval=" + wakeUpInterval +
+            ", timingWheel=" + timingWheel +
+            ", timingWheelTick=" + timingWheelTick +
+            ", exactExpiration=" + exactExpiration +
             '}';
    }
 
@@ -30,13 +30,18 @@ public class L1Configuration {
    private final long lifespan;
    private final boolean onRehash;
    private final long cleanupTaskFrequency;
+   private final int requestorFilterBits;
+   private final long invalidationFlushInterval;
 
-   L1Configuration(boolean enabled, int invalidationThreshold, long lifespan, boolean onRehash, long cleanupTaskFrequency) {
+   L1Configuration(boolean enabled, int invalidationThreshold, long lifespan, boolean onRehash, long cleanupTaskFrequency,
+                   int requestorFilterBits, long invalidationFlushInterval) {
       this.enabled = enabled;
       this.invalidationThreshold = invalidationThreshold;
       this.lifespan = lifespan;
       this.onRehash = onRehash;
       this.cleanupTaskFrequency = cleanupTaskFrequency;
+      this.requestorFilterBits = requestorFilterBits;
+      this.invalidationFlushInterval = invalidationFlushInterval;
    }
 
    public boolean enabled() {
@@ -84,6 +89,22 @@ public boolean onRehash() {
       return onRehash;
    }
 
+   /**
+    * Number of bits, per segment, of the bloom filters in which owners record the keys each node has requested. If 0
+    * (the default), requestors are tracked exactly, per key.
+    */
+   public int requestorFilterBits() {
+      return requestorFilterBits;
+   }
+
+   /**
+    * Interval, in milliseconds, at which pending L1 invalidations are sent, batched into a single command per node.
+    * If 0 (the default), invalidations are sent as part of each write.
+    */
+   public long invalidationFlushInterval() {
+      return invalidationFlushInterval;
+   }
+
    @Override
    public String toString() {
       return "L1Configuration{" +
@@ -92,6 +113,8 @@ public String toString() {
             ", lifespan=" + lifespan +
             ", onRehash=" + onRehash +
             ", cleanupTaskFrequency=" + cleanupTaskFrequency +
+            ", requestorFilterBits=" + requestorFilterBits +
+            ", invalidationFlushInterval=" + invalidationFlushInterval +
             '}';
    }
 
@@ -107,6 +130,8 @@ public boolean equals(Object o) {
       if (lifespan != that.lifespan) return false;
       if (onRehash != that.onRehash) return false;
       if (cleanupTaskFrequency != that.cleanupTaskFrequency) return false;
+      if (requestorFilterBits != that.requestorFilterBits) return false;
+      if (invalidationFlushInterval != that.invalidationFlushInterval) return false;
 
       return true;
    }
@@ -118,6 +143,8 @@ public int hashCode() {
       result = 31 * result + (int) (lifespan ^ (lifespan >>> 32));
       result = 31 * result + (onRehash ? 1 : 0);
       result = 31 * result + (int) (cleanupTaskFrequency ^ (cleanupTaskFrequency >>> 32));
+      result = 31 * result + requestorFilterBits;
+      result = 31 * result + (int) (invalidationFlushInterval ^ (invalidationFlushInterval >>> 32));
       return result;
    }
 
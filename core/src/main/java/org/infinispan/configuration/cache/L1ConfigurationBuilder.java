@@ -38,6 +38,8 @@ public class L1ConfigurationBuilder extends AbstractClusteringConfigurationChild
    private long lifespan = TimeUnit.MINUTES.toMillis(10);
    private Boolean onRehash = null;
    private long cleanupTaskFrequency = TimeUnit.MINUTES.toMillis(10);
+   private int requestorFilterBits = 0;
+   private long invalidationFlushInterval = 0;
 
    L1ConfigurationBuilder(ClusteringConfigurationBuilder builder) {
       super(builder);
@@ -95,6 +97,47 @@ public L1ConfigurationBuilder cleanupTaskFrequency(long frequencyMillis, TimeUni
       return cleanupTaskFrequency(unit.toMillis(frequencyMillis));
    }
 
+   /**
+    * <p>
+    * Tracks the keys each node has requested in bloom filters of the given number of bits per segment, rather than
+    * recording every requestor of every key. This bounds the memory used for L1 bookkeeping on the owners, at the cost
+    * of occasionally invalidating a key on a node which did not request it. Filters are discarded after one to two L1
+    * lifespans, so a node keeps receiving invalidations for a key it requested until then.
+    * </p>
+    *
+    * <p>
+    * If set to 0 (the default), requestors are tracked exactly, per key.
+    * </p>
+    */
+   public L1ConfigurationBuilder requestorFilterBits(int requestorFilterBits) {
+      this.requestorFilterBits = requestorFilterBits;
+      return this;
+   }
+
+   /**
+    * <p>
+    * Batches L1 invalidations and sends the keys pending for each node in a single command at the given interval,
+    * instead of sending one command per write. Writes no longer wait for the invalidations to complete, so a node
+    * may read a stale value from its L1 cache for up to this interval. The invalidation threshold is ignored, as each
+    * node is sent the keys it requested only.
+    * </p>
+    *
+    * <p>
+    * If set to 0 (the default), invalidations are sent as part of each write.
+    * </p>
+    */
+   public L1ConfigurationBuilder invalidationFlushInterval(long intervalMillis) {
+      this.invalidationFlushInterval = intervalMillis;
+      return this;
+   }
+
+   /**
+    * @see #invalidationFlushInterval(long)
+    */
+   public L1ConfigurationBuilder invalidationFlushInterval(long interval, TimeUnit unit) {
+      return invalidationFlushInterval(unit.toMillis(interval));
+   }
+
    /**
     * Entries removed due to a rehash will be moved to L1 rather than being removed altogether.
     */
@@ -150,6 +193,12 @@ public void validate() {
          if (lifespan < 1)
             throw new ConfigurationException("Using a L1 lifespan of 0 or a negative value is meaningless");
 
+         if (requestorFilterBits < 0)
+            throw new ConfigurationException("The L1 requestor filter size cannot be negative");
+
+         if (invalidationFlushInterval < 0)
+            throw new ConfigurationException("The L1 invalidation flush interval cannot be negative");
+
       }
       else {
          // If L1 is disabled, L1ForRehash should also be disabled
@@ -170,7 +219,8 @@ public L1Configuration create() {
             finalOnRehash = true;
          }
       }
-      return new L1Configuration(enabled, invalidationThreshold, lifespan, finalOnRehash, cleanupTaskFrequency);
+      return new L1Configuration(enabled, invalidationThreshold, lifespan, finalOnRehash, cleanupTaskFrequency,
+            requestorFilterBits, invalidationFlushInterval);
    }
 
    @Override
@@ -180,6 +230,8 @@ public L1ConfigurationBuilder read(L1Configuration template) {
       lifespan = template.lifespan();
       onRehash = template.onRehash();
       cleanupTaskFrequency = template.cleanupTaskFrequency();
+      requestorFilterBits = template.requestorFilterBits();
+      invalidationFlushInterval = template.invalidationFlushInterval();
       return this;
    }
 
@@ -191,6 +243,8 @@ public String toString() {
             ", lifespan=" + lifespan +
             ", cleanupTaskFrequency=" + cleanupTaskFrequency +
             ", onRehash=" + onRehash +
+            ", requestorFilterBits=" + requestorFilterBits +
+            ", invalidationFlushInterval=" + invalidationFlushInterval +
             '}';
    }
 }
@@ -27,12 +27,17 @@
 public class LoadersConfiguration {
 
    private final boolean passivation;
+   private final boolean asyncPassivation;
+   private final int passivationBatchSize;
    private final boolean preload;
    private final boolean shared;
    private final List<LoaderConfiguration> cacheLoaders;
 
-   LoadersConfiguration(boolean passivation, boolean preload, boolean shared, List<LoaderConfiguration> cacheLoaders) {
+   LoadersConfiguration(boolean passivation, boolean asyncPassivation, int passivationBatchSize, boolean preload,
+         boolean shared, List<LoaderConfiguration> cacheLoaders) {
       this.passivation = passivation;
+      this.asyncPassivation = asyncPassivation;
+      this.passivationBatchSize = passivationBatchSize;
       this.preload = preload;
       this.shared = shared;
       this.cacheLoaders = cacheLoaders;
@@ -51,6 +56,22 @@ public boolean passivation() {
       return passivation;
    }
 
+   /**
+    * If true, entries chosen for eviction are handed to a dedicated passivation thread which writes them to the
+    * cache store in batches, instead of being written on the thread which triggered the eviction. Entries stay
+    * readable in memory until they have been stored.
+    */
+   public boolean asyncPassivation() {
+      return asyncPassivation;
+   }
+
+   /**
+    * The maximum number of entries the passivation thread writes to the cache store in one go.
+    */
+   public int passivationBatchSize() {
+      return passivationBatchSize;
+   }
+
    /**
     * If true, when the cache starts, data stored in the cache store will be pre-loaded into memory.
     * This is particularly useful when data in the cache store will be needed immediately after
@@ -114,6 +135,8 @@ public String toString() {
       return "LoadersConfiguration{" +
             "cacheLoaders=" + cacheLoaders +
             ", passivation=" + passivation +
+            ", asyncPassivation=" + asyncPassivation +
+            ", passivationBatchSize=" + passivationBatchSize +
             ", preload=" + preload +
             ", shared=" + shared +
             '}';
@@ -127,6 +150,8 @@ public boolean equals(Object o) {
       LoadersConfiguration that = (LoadersConfiguration) o;
 
       if (passivation != that.passivation) return false;
+      if (asyncPassivation != that.asyncPassivation) return false;
+      if (passivationBatchSize != that.passivationBatchSize) return false;
       if (preload != that.preload) return false;
       if (shared != that.shared) return false;
       if (cacheLoaders != null ? !cacheLoaders.equals(that.cacheLoaders) : that.cacheLoaders != null)
@@ -138,6 +163,8 @@ public boolean equals(Object o) {
    @Override
    public int hashCode() {
       int result = (passivation ? 1 : 0);
+      result = 31 * result + (asyncPassivation ? 1 : 0);
+      result = 31 * result + passivationBatchSize;
       result = 31 * result + (preload ? 1 : 0);
       result = 31 * result + (shared ? 1 : 0);
       result = 31 * result + (cacheLoaders != null ? cacheLoaders.hashCode() : 0);
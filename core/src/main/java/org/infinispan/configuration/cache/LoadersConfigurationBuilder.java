@@ -34,6 +34,8 @@
 public class LoadersConfigurationBuilder extends AbstractConfigurationChildBuilder<LoadersConfiguration> {
 
    private boolean passivation = false;
+   private boolean asyncPassivation = false;
+   private int passivationBatchSize = 64;
    private boolean preload = false;
    private boolean shared = false;
    private List<LoaderConfigurationBuilder<?,?>> cacheLoaders = new ArrayList<LoaderConfigurationBuilder<?,?>>(2);
@@ -60,6 +62,36 @@ boolean passivation() {
       return passivation;
    }
 
+   /**
+    * If true, entries chosen for eviction are handed to a dedicated passivation thread which writes them to the
+    * cache store in batches, instead of being written on the thread which triggered the eviction. Entries stay
+    * readable in memory until they have been stored. If the passivation thread falls behind, the evicting thread
+    * passivates entries itself. Requires passivation to be enabled, and has no effect with an async store, which already
+    * writes evicted entries in the background.
+    */
+   public LoadersConfigurationBuilder asyncPassivation(boolean b) {
+      this.asyncPassivation = b;
+      return this;
+   }
+
+   boolean asyncPassivation() {
+      return asyncPassivation;
+   }
+
+   /**
+    * The maximum number of entries the passivation thread writes to the cache store in one go when
+    * {@link #asyncPassivation(boolean)} is enabled. Up to 16 batches can be waiting to be passivated before
+    * the evicting threads start passivating entries themselves. Defaults to 64.
+    */
+   public LoadersConfigurationBuilder passivationBatchSize(int passivationBatchSize) {
+      this.passivationBatchSize = passivationBatchSize;
+      return this;
+   }
+
+   int passivationBatchSize() {
+      return passivationBatchSize;
+   }
+
    /**
     * If true, when the cache starts, data stored in the cache store will be pre-loaded into memory.
     * This is particularly useful when data in the cache store will be needed immediately after
@@ -224,6 +256,10 @@ public void validate() {
       for (LoaderConfigurationBuilder<?, ?> b : cacheLoaders) {
          b.validate();
       }
+      if (passivationBatchSize <= 0)
+         throw new ConfigurationException("Passivation batch size must be greater than 0");
+      if (asyncPassivation && !passivation)
+         throw new ConfigurationException("Asynchronous passivation requires passivation to be enabled");
    }
 
    @Override
@@ -231,7 +267,7 @@ public LoadersConfiguration create() {
       List<LoaderConfiguration> loaders = new LinkedList<LoaderConfiguration>();
       for (LoaderConfigurationBuilder<?, ?> loader : cacheLoaders)
          loaders.add(loader.create());
-      return new LoadersConfiguration(passivation, preload, shared, loaders);
+      return new LoadersConfiguration(passivation, asyncPassivation, passivationBatchSize, preload, shared, loaders);
    }
 
    @SuppressWarnings("unchecked")
@@ -247,6 +283,8 @@ public LoadersConfigurationBuilder read(LoadersConfiguration template) {
          builder.read(c);
       }
       this.passivation = template.passivation();
+      this.asyncPassivation = template.asyncPassivation();
+      this.passivationBatchSize = template.passivationBatchSize();
       this.preload = template.preload();
       this.shared = template.shared();
 
@@ -258,6 +296,8 @@ public String toString() {
       return "LoadersConfigurationBuilder{" +
             "cacheLoaders=" + cacheLoaders +
             ", passivation=" + passivation +
+            ", asyncPassivation=" + asyncPassivation +
+            ", passivationBatchSize=" + passivationBatchSize +
             ", preload=" + preload +
             ", shared=" + shared +
             '}';
@@ -33,14 +33,16 @@ public class LockingConfiguration {
    private long lockAcquisitionTimeout;
    private final boolean useLockStriping;
    private final boolean writeSkewCheck;
+   private final boolean nonBlockingValidation;
 
    LockingConfiguration(int concurrencyLevel, IsolationLevel isolationLevel, long lockAcquisitionTimeout,
-         boolean useLockStriping, boolean writeSkewCheck) {
+         boolean useLockStriping, boolean writeSkewCheck, boolean nonBlockingValidation) {
       this.concurrencyLevel = concurrencyLevel;
       this.isolationLevel = isolationLevel;
       this.lockAcquisitionTimeout = lockAcquisitionTimeout;
       this.useLockStriping = useLockStriping;
       this.writeSkewCheck = writeSkewCheck;
+      this.nonBlockingValidation = nonBlockingValidation;
    }
 
    /**
@@ -93,6 +95,14 @@ public boolean writeSkewCheck() {
       return writeSkewCheck;
    }
 
+   /**
+    * If true, the write-skew checking prepare doesn't wait for the locks of the keys the transaction read: such a key
+    * locked by a concurrent transaction fails the validation straight away.
+    */
+   public boolean nonBlockingValidation() {
+      return nonBlockingValidation;
+   }
+
    @Override
    public String toString() {
       return "LockingConfiguration{" +
@@ -101,6 +111,7 @@ public String toString() {
             ", lockAcquisitionTimeout=" + lockAcquisitionTimeout +
             ", useLockStriping=" + useLockStriping +
             ", writeSkewCheck=" + writeSkewCheck +
+            ", nonBlockingValidation=" + nonBlockingValidation +
             '}';
    }
 
@@ -115,6 +126,7 @@ public boolean equals(Object o) {
       if (lockAcquisitionTimeout != that.lockAcquisitionTimeout) return false;
       if (useLockStriping != that.useLockStriping) return false;
       if (writeSkewCheck != that.writeSkewCheck) return false;
+      if (nonBlockingValidation != that.nonBlockingValidation) return false;
       if (isolationLevel != that.isolationLevel) return false;
 
       return true;
@@ -127,6 +139,7 @@ public int hashCode() {
       result = 31 * result + (int) (lockAcquisitionTimeout ^ (lockAcquisitionTimeout >>> 32));
       result = 31 * result + (useLockStriping ? 1 : 0);
       result = 31 * result + (writeSkewCheck ? 1 : 0);
+      result = 31 * result + (nonBlockingValidation ? 1 : 0);
       return result;
    }
 
@@ -37,6 +37,7 @@ public class LockingConfigurationBuilder extends AbstractConfigurationChildBuild
    private long lockAcquisitionTimeout = TimeUnit.SECONDS.toMillis(10);
    private boolean useLockStriping = false;
    boolean writeSkewCheck = false;
+   private boolean nonBlockingValidation = false;
 
    protected LockingConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -99,8 +100,25 @@ public LockingConfigurationBuilder writeSkewCheck(boolean b) {
       return this;
    }
 
+   /**
+    * Only applicable when {@link #writeSkewCheck(boolean)} is enabled. If true, the locks of the keys a transaction
+    * read and then modified are acquired without waiting during prepare: such a key already locked by a concurrent
+    * transaction means that transaction is about to write a new version, so the prepare fails straight away with a
+    * write-skew instead of queueing behind it. Keys written without being read wait for their locks as usual. Only
+    * the originator knows which keys were read, so the owners of the keys always wait. Cannot be combined with
+    * {@link #useLockStriping(boolean)}, as a lock shared with an unrelated key would fail the validation.
+    */
+   public LockingConfigurationBuilder nonBlockingValidation(boolean b) {
+      this.nonBlockingValidation = b;
+      return this;
+   }
+
    @Override
    public void validate() {
+      if (nonBlockingValidation && !writeSkewCheck)
+         throw new ConfigurationException("Non-blocking validation requires write-skew checking to be enabled");
+      if (nonBlockingValidation && useLockStriping)
+         throw new ConfigurationException("Non-blocking validation cannot be used with lock striping");
       if (writeSkewCheck) {
          if (isolationLevel != IsolationLevel.REPEATABLE_READ)
             throw new ConfigurationException("Write-skew checking only allowed with REPEATABLE_READ isolation level for cache");
@@ -127,7 +145,8 @@ && clustering().cacheMode() != CacheMode.LOCAL)
 
    @Override
    public LockingConfiguration create() {
-      return new LockingConfiguration(concurrencyLevel, isolationLevel, lockAcquisitionTimeout, useLockStriping, writeSkewCheck);
+      return new LockingConfiguration(concurrencyLevel, isolationLevel, lockAcquisitionTimeout, useLockStriping, writeSkewCheck,
+            nonBlockingValidation);
    }
 
    @Override
@@ -137,6 +156,7 @@ public LockingConfigurationBuilder read(LockingConfiguration template) {
       lockAcquisitionTimeout = template.lockAcquisitionTimeout();
       useLockStriping = template.useLockStriping();
       writeSkewCheck = template.writeSkewCheck();
+      nonBlockingValidation = template.nonBlockingValidation();
 
       return this;
    }
@@ -149,6 +169,7 @@ public String toString() {
             ", lockAcquisitionTimeout=" + lockAcquisitionTimeout +
             ", useLockStriping=" + useLockStriping +
             ", writeSkewCheck=" + writeSkewCheck +
+            ", nonBlockingValidation=" + nonBlockingValidation +
             '}';
    }
 
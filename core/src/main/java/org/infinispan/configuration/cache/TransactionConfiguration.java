@@ -20,6 +20,7 @@
 
 import org.infinispan.transaction.LockingMode;
 import org.infinispan.transaction.TransactionMode;
+import org.infinispan.transaction.TransactionProtocol;
 import org.infinispan.transaction.lookup.TransactionManagerLookup;
 import org.infinispan.transaction.lookup.TransactionSynchronizationRegistryLookup;
 
@@ -44,12 +45,13 @@ public class TransactionConfiguration {
    private final boolean useSynchronization;
    private final RecoveryConfiguration recovery;
    private final boolean use1PcForAutoCommitTransactions;
+   private final TransactionProtocol transactionProtocol;
 
    TransactionConfiguration(boolean autoCommit, long cacheStopTimeout, boolean eagerLockingSingleNode, LockingMode lockingMode,
          boolean syncCommitPhase, boolean syncRollbackPhase, TransactionManagerLookup transactionManagerLookup,
          TransactionSynchronizationRegistryLookup transactionSynchronizationRegistryLookup, TransactionMode transactionMode,
          boolean useEagerLocking, boolean useSynchronization, boolean use1PcForAutoCommitTransactions,
-         RecoveryConfiguration recovery) {
+         TransactionProtocol transactionProtocol, RecoveryConfiguration recovery) {
       this.autoCommit = autoCommit;
       this.cacheStopTimeout = cacheStopTimeout;
       this.eagerLockingSingleNode = eagerLockingSingleNode;
@@ -63,6 +65,7 @@ public class TransactionConfiguration {
       this.useSynchronization = useSynchronization;
       this.recovery = recovery;
       this.use1PcForAutoCommitTransactions = use1PcForAutoCommitTransactions;
+      this.transactionProtocol = transactionProtocol;
    }
 
    /**
@@ -260,6 +263,14 @@ public boolean use1PcForAutoCommitTransactions() {
       return use1PcForAutoCommitTransactions;
    }
 
+   /**
+    * The commit protocol used by optimistic transactions.  With {@link TransactionProtocol#TOTAL_ORDER} the prepares
+    * are sequenced by the coordinator of the cluster and committed in a single phase by every member in that order.
+    */
+   public TransactionProtocol transactionProtocol() {
+      return transactionProtocol;
+   }
+
    @Override
    public String toString() {
       return "TransactionConfiguration{" +
@@ -276,6 +287,7 @@ public String toString() {
             ", useSynchronization=" + useSynchronization +
             ", recovery=" + recovery +
             ", use1PcForAutoCommitTransactions=" + use1PcForAutoCommitTransactions +
+            ", transactionProtocol=" + transactionProtocol +
             '}';
    }
 
@@ -301,6 +313,7 @@ public boolean equals(Object o) {
       if (transactionManagerLookup != null ? !transactionManagerLookup.equals(that.transactionManagerLookup) : that.transactionManagerLookup != null)
          return false;
       if (transactionMode != that.transactionMode) return false;
+      if (transactionProtocol != that.transactionProtocol) return false;
       if (transactionSynchronizationRegistryLookup != null ? !transactionSynchronizationRegistryLookup.equals(that.transactionSynchronizationRegistryLookup) : that.transactionSynchronizationRegistryLookup != null)
          return false;
 
@@ -322,6 +335,7 @@ public int hashCode() {
       result = 31 * result + (useSynchronization ? 1 : 0);
       result = 31 * result + (recovery != null ? recovery.hashCode() : 0);
       result = 31 * result + (use1PcForAutoCommitTransactions ? 1 : 0);
+      result = 31 * result + (transactionProtocol != null ? transactionProtocol.hashCode() : 0);
       return result;
    }
 
@@ -18,8 +18,10 @@
  */
 package org.infinispan.configuration.cache;
 
+import org.infinispan.config.ConfigurationException;
 import org.infinispan.transaction.LockingMode;
 import org.infinispan.transaction.TransactionMode;
+import org.infinispan.transaction.TransactionProtocol;
 import org.infinispan.transaction.lookup.GenericTransactionManagerLookup;
 import org.infinispan.transaction.lookup.TransactionManagerLookup;
 import org.infinispan.transaction.lookup.TransactionSynchronizationRegistryLookup;
@@ -48,6 +50,7 @@ public class TransactionConfigurationBuilder extends AbstractConfigurationChildB
    private boolean useSynchronization = true;
    private final RecoveryConfigurationBuilder recovery;
    private boolean use1PcForAutoCommitTransactions = false;
+   private TransactionProtocol transactionProtocol = TransactionProtocol.DEFAULT;
 
    TransactionConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -233,8 +236,34 @@ public TransactionConfigurationBuilder use1PcForAutoCommitTransactions(boolean b
       return this;
    }
 
+   /**
+    * Configures the commit protocol used by optimistic transactions.  With {@link TransactionProtocol#TOTAL_ORDER} the
+    * prepares are sequenced by the coordinator of the cluster and committed in a single phase by every member in that
+    * order, instead of locking the modified keys on all the owners in a two phase commit.  Defaults to
+    * {@link TransactionProtocol#DEFAULT}.
+    * <p/>
+    * The total order protocol is only supported by OPTIMISTIC transactions in REPL_SYNC and DIST_SYNC modes, without
+    * write-skew checking.  A transaction is committed as soon as the sequencer has applied it, so an owner which then
+    * fails to apply it, e.g. because its cache store or a listener throws, only logs the failure and keeps stale
+    * values for the transaction's keys.
+    */
+   public TransactionConfigurationBuilder transactionProtocol(TransactionProtocol transactionProtocol) {
+      this.transactionProtocol = transactionProtocol;
+      return this;
+   }
+
    @Override
    public void validate() {
+      if (transactionProtocol == TransactionProtocol.TOTAL_ORDER && transactionMode == TransactionMode.TRANSACTIONAL) {
+         if (lockingMode != LockingMode.OPTIMISTIC || useEagerLocking)
+            throw new ConfigurationException("The total order protocol is only supported by OPTIMISTIC transactions");
+         if (!clustering().cacheMode().isClustered() || !clustering().cacheMode().isSynchronous()
+               || clustering().cacheMode().isInvalidation())
+            throw new ConfigurationException("The total order protocol is only supported in REPL_SYNC and DIST_SYNC modes.  "
+                  + clustering().cacheMode() + " cannot be used with the total order protocol");
+         if (locking().writeSkewCheck)
+            throw new ConfigurationException("The total order protocol cannot be combined with write-skew checking");
+      }
    }
 
    @Override
@@ -248,7 +277,7 @@ else if (transactionMode == null)
          transactionMode = TransactionMode.NON_TRANSACTIONAL;
       return new TransactionConfiguration(autoCommit, cacheStopTimeout, eagerLockingSingleNode, lockingMode, syncCommitPhase,
             syncRollbackPhase, transactionManagerLookup, transactionSynchronizationRegistryLookup, transactionMode,
-            useEagerLocking, useSynchronization, use1PcForAutoCommitTransactions, recovery.create());
+            useEagerLocking, useSynchronization, use1PcForAutoCommitTransactions, transactionProtocol, recovery.create());
    }
 
    @Override
@@ -265,6 +294,7 @@ public TransactionConfigurationBuilder read(TransactionConfiguration template) {
       this.useEagerLocking = template.useEagerLocking();
       this.useSynchronization = template.useSynchronization();
       this.use1PcForAutoCommitTransactions = template.use1PcForAutoCommitTransactions();
+      this.transactionProtocol = template.transactionProtocol();
       this.recovery.read(template.recovery());
 
       return this;
@@ -286,6 +316,7 @@ public String toString() {
             ", useSynchronization=" + useSynchronization +
             ", recovery=" + recovery +
             ", use1PcForAutoCommitTransactions=" + use1PcForAutoCommitTransactions +
+            ", transactionProtocol=" + transactionProtocol +
             '}';
    }
 
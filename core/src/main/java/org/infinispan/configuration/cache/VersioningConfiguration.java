@@ -26,10 +26,12 @@
 public class VersioningConfiguration {
    private final boolean enabled;
    private final VersioningScheme scheme;
+   private final int retainedVersions;
 
-   VersioningConfiguration(boolean enabled, VersioningScheme scheme) {
+   VersioningConfiguration(boolean enabled, VersioningScheme scheme, int retainedVersions) {
       this.enabled = enabled;
       this.scheme = scheme;
+      this.retainedVersions = retainedVersions;
    }
 
    public boolean enabled() {
@@ -40,11 +42,19 @@ public VersioningScheme scheme() {
       return scheme;
    }
 
+   /**
+    * Number of committed versions retained per key for snapshot reads, 0 if snapshot reads are disabled.
+    */
+   public int retainedVersions() {
+      return retainedVersions;
+   }
+
    @Override
    public String toString() {
       return "VersioningConfiguration{" +
             "enabled=" + enabled +
             ", scheme=" + scheme +
+            ", retainedVersions=" + retainedVersions +
             '}';
    }
 
@@ -56,6 +66,7 @@ public boolean equals(Object o) {
       VersioningConfiguration that = (VersioningConfiguration) o;
 
       if (enabled != that.enabled) return false;
+      if (retainedVersions != that.retainedVersions) return false;
       if (scheme != that.scheme) return false;
 
       return true;
@@ -65,6 +76,7 @@ public boolean equals(Object o) {
    public int hashCode() {
       int result = (enabled ? 1 : 0);
       result = 31 * result + (scheme != null ? scheme.hashCode() : 0);
+      result = 31 * result + retainedVersions;
       return result;
    }
 
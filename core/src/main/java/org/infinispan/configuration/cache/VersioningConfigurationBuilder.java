@@ -19,10 +19,13 @@
 
 package org.infinispan.configuration.cache;
 
+import org.infinispan.config.ConfigurationException;
+
 public class VersioningConfigurationBuilder extends AbstractConfigurationChildBuilder<VersioningConfiguration> {
 
    boolean enabled = false;
    VersioningScheme scheme = VersioningScheme.NONE;
+   private int retainedVersions = 0;
 
    protected VersioningConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -48,19 +51,35 @@ public VersioningConfigurationBuilder scheme(VersioningScheme scheme) {
       return this;
    }
 
+   /**
+    * Number of committed versions retained per key for snapshot reads, 0 (the default) to disable snapshot reads.
+    * When enabled, a transaction reads all the keys as they were committed when it first read from the cache, however
+    * long it runs, as long as no more than this many newer versions of a key were committed in the meantime.
+    * Requires write skew checking, so a transaction writing a key that changed since its snapshot fails to commit.
+    */
+   public VersioningConfigurationBuilder retainedVersions(int retainedVersions) {
+      this.retainedVersions = retainedVersions;
+      return this;
+   }
+
    @Override
    public void validate() {
+      if (retainedVersions < 0)
+         throw new ConfigurationException("The number of retained versions cannot be negative: " + retainedVersions);
+      if (retainedVersions > 0 && !locking().writeSkewCheck)
+         throw new ConfigurationException("Retaining versions for snapshot reads requires write skew checking to be enabled");
    }
 
    @Override
    public VersioningConfiguration create() {
-      return new VersioningConfiguration(enabled, scheme);
+      return new VersioningConfiguration(enabled, scheme, retainedVersions);
    }
 
    @Override
    public VersioningConfigurationBuilder read(VersioningConfiguration template) {
       this.enabled = template.enabled();
       this.scheme = template.scheme();
+      this.retainedVersions = template.retainedVersions();
 
       return this;
    }
@@ -70,6 +89,7 @@ public String toString() {
       return "VersioningConfigurationBuilder{" +
             "enabled=" + enabled +
             ", scheme=" + scheme +
+            ", retainedVersions=" + retainedVersions +
             '}';
    }
 
@@ -30,14 +30,21 @@ public class SerializationConfiguration {
    private final short version;
    private final Map<Integer, AdvancedExternalizer<?>> advancedExternalizers;
    private final ClassResolver classResolver;
+   private final boolean compressLargePayloads;
+   private final int compressionThreshold;
+   private final int compressionLevel;
    
    SerializationConfiguration(Marshaller marshaller, short version,
          Map<Integer, AdvancedExternalizer<?>> advancedExternalizers,
-         ClassResolver classResolver) {
+         ClassResolver classResolver, boolean compressLargePayloads,
+         int compressionThreshold, int compressionLevel) {
       this.marshaller = marshaller;
       this.version = version;
       this.advancedExternalizers = advancedExternalizers;
       this.classResolver = classResolver;
+      this.compressLargePayloads = compressLargePayloads;
+      this.compressionThreshold = compressionThreshold;
+      this.compressionLevel = compressionLevel;
    }
 
    public Marshaller marshaller() {
@@ -56,6 +63,21 @@ public ClassResolver classResolver() {
       return classResolver;
    }
 
+   /**
+    * Whether commands and responses larger than the {@link #compressionThreshold()} are compressed on the wire.
+    */
+   public boolean compressLargePayloads() {
+      return compressLargePayloads;
+   }
+
+   public int compressionThreshold() {
+      return compressionThreshold;
+   }
+
+   public int compressionLevel() {
+      return compressionLevel;
+   }
+
    @Override
    public String toString() {
       return "SerializationConfiguration{" +
@@ -63,6 +85,9 @@ public String toString() {
             ", marshaller=" + marshaller +
             ", version=" + version +
             ", classResolver=" + classResolver +
+            ", compressLargePayloads=" + compressLargePayloads +
+            ", compressionThreshold=" + compressionThreshold +
+            ", compressionLevel=" + compressionLevel +
             '}';
    }
 
@@ -37,6 +37,9 @@ public class SerializationConfigurationBuilder extends AbstractGlobalConfigurati
    private short marshallVersion = Short.valueOf(Version.MAJOR_MINOR.replace(".", ""));
    private Map<Integer, AdvancedExternalizer<?>> advancedExternalizers = new HashMap<Integer, AdvancedExternalizer<?>>();
    private ClassResolver classResolver;
+   private boolean compressLargePayloads = false;
+   private int compressionThreshold = 64 * 1024;
+   private int compressionLevel = 1;
 
    SerializationConfigurationBuilder(GlobalConfigurationBuilder globalConfig) {
       super(globalConfig);
@@ -137,15 +140,45 @@ public SerializationConfigurationBuilder classResolver(ClassResolver classResolv
       return this;
    }
 
+   /**
+    * Compresses the commands and responses exchanged with other nodes when their marshalled form exceeds the
+    * {@link #compressionThreshold(int)}, e.g. state transfer chunks or large putAll batches. Compressed payloads are
+    * flagged in their header, so nodes can read them whether or not they compress their own payloads.
+    */
+   public SerializationConfigurationBuilder compressLargePayloads(boolean compressLargePayloads) {
+      this.compressLargePayloads = compressLargePayloads;
+      return this;
+   }
+
+   /**
+    * Payloads whose marshalled form is smaller than this number of bytes are never compressed. Defaults to 65536.
+    */
+   public SerializationConfigurationBuilder compressionThreshold(int compressionThreshold) {
+      this.compressionThreshold = compressionThreshold;
+      return this;
+   }
+
+   /**
+    * The level payloads are compressed with, from 1 (fastest) to 9 (smallest output). Defaults to 1.
+    */
+   public SerializationConfigurationBuilder compressionLevel(int compressionLevel) {
+      this.compressionLevel = compressionLevel;
+      return this;
+   }
+
    @Override
    protected void validate() {
-      // No-op, no validation required
+      if (compressionThreshold < 0)
+         throw new ConfigurationException("Compression threshold cannot be negative");
+      if (compressionLevel < 1 || compressionLevel > 9)
+         throw new ConfigurationException("Compression level must be between 1 and 9");
    }
 
    @Override
    SerializationConfiguration create() {
       return new SerializationConfiguration(
-            marshaller, marshallVersion, advancedExternalizers, classResolver);
+            marshaller, marshallVersion, advancedExternalizers, classResolver,
+            compressLargePayloads, compressionThreshold, compressionLevel);
    }
 
    @Override
@@ -155,6 +188,9 @@ SerializationConfigurationBuilder read(SerializationConfiguration template) {
       this.marshaller = template.marshaller();
       this.marshallVersion = template.version();
       this.classResolver = template.classResolver();
+      this.compressLargePayloads = template.compressLargePayloads();
+      this.compressionThreshold = template.compressionThreshold();
+      this.compressionLevel = template.compressionLevel();
 
       return this;
    }
@@ -166,6 +202,9 @@ public String toString() {
             ", marshaller=" + marshaller +
             ", marshallVersion=" + marshallVersion +
             ", classResolver=" + classResolver +
+            ", compressLargePayloads=" + compressLargePayloads +
+            ", compressionThreshold=" + compressionThreshold +
+            ", compressionLevel=" + compressionLevel +
             '}';
    }
 
@@ -177,6 +216,9 @@ public boolean equals(Object o) {
       SerializationConfigurationBuilder that = (SerializationConfigurationBuilder) o;
 
       if (marshallVersion != that.marshallVersion) return false;
+      if (compressLargePayloads != that.compressLargePayloads) return false;
+      if (compressionThreshold != that.compressionThreshold) return false;
+      if (compressionLevel != that.compressionLevel) return false;
       if (advancedExternalizers != null ? !advancedExternalizers.equals(that.advancedExternalizers) : that.advancedExternalizers != null)
          return false;
       if (marshaller != null ? !marshaller.equals(that.marshaller) : that.marshaller != null)
@@ -193,6 +235,9 @@ public int hashCode() {
       result = 31 * result + marshallVersion;
       result = 31 * result + (advancedExternalizers != null ? advancedExternalizers.hashCode() : 0);
       result = 31 * result + (classResolver != null ? classResolver.hashCode() : 0);
+      result = 31 * result + (compressLargePayloads ? 1 : 0);
+      result = 31 * result + compressionThreshold;
+      result = 31 * result + compressionLevel;
       return result;
    }
 
@@ -38,6 +38,7 @@ public enum Attribute {
     ALLOW_DUPLICATE_DOMAINS("allowDuplicateDomains"),
     ALWAYS_PROVIDE_IN_MEMORY_STATE("alwaysProvideInMemoryState"),
     ASYNC_MARSHALLING("asyncMarshalling"),
+    ASYNC_PASSIVATION("asyncPassivation"),
     AUTO_COMMIT("autoCommit"),
     BEFORE("before"),
     CACHE_MANAGER_NAME("cacheManagerName"),
@@ -45,10 +46,14 @@ public enum Attribute {
     CHUNK_SIZE("chunkSize"),
     CLASS("class"),
     CLUSTER_NAME("clusterName"),
+    COMPRESS_LARGE_PAYLOADS("compressLargePayloads"),
+    COMPRESSION_LEVEL("compressionLevel"),
+    COMPRESSION_THRESHOLD("compressionThreshold"),
     CONCURRENCY_LEVEL("concurrencyLevel"),
     DISTRIBUTED_SYNC_TIMEOUT("distributedSyncTimeout"),
     EAGER_LOCK_SINGLE_NODE("eagerLockSingleNode"),
     ENABLED("enabled"),
+    EXACT_EXPIRATION("exactExpiration"),
     EXTERNALIZER_CLASS("externalizerClass"),
     FACTORY("factory"),
     FETCH_IN_MEMORY_STATE("fetchInMemoryState"),
@@ -64,9 +69,11 @@ public enum Attribute {
     INDEX("index"),
     INDEX_LOCAL_ONLY("indexLocalOnly"),
     INITIAL_RETRY_WAIT_TIME("initialRetryWaitTime"),
+    INVALIDATION_FLUSH_INTERVAL("invalidationFlushInterval"),
     INVALIDATION_THRESHOLD("invalidationThreshold"),
     ISOLATION_LEVEL("isolationLevel"),
     JMX_DOMAIN("jmxDomain"),
+    LEVEL("level"),
     LIFESPAN("lifespan"),
     LOCATION("location"),
     INVALIDATION_CLEANUP_TASK_FREQUENCY("cleanupTaskFrequency"),
@@ -77,18 +84,24 @@ public enum Attribute {
     MARSHALLER_CLASS("marshallerClass"),
     MAX_ENTRIES("maxEntries"),
     MAX_IDLE("maxIdle"),
+    MAX_IN_FLIGHT("maxInFlight"),
+    MAX_MEMORY("maxMemory"),
     MAX_NON_PROGRESSING_LOG_WRITES("maxProgressingLogWrites"),
     MBEAN_SERVER_LOOKUP("mBeanServerLookup"),
     MODE("mode"),
     NODE_NAME("nodeName"),
     MODIFICATION_QUEUE_SIZE("modificationQueueSize"),
     NAME("name"),
+    NON_BLOCKING_VALIDATION("nonBlockingValidation"),
     NUM_OWNERS("numOwners"),
     NUM_SEGMENTS("numSegments"),
     NUM_RETRIES("numRetries"),
     NUM_VIRTUAL_NODES("numVirtualNodes"),
     ON_REHASH("onRehash"),
+    OFF_HEAP("offHeap"),
     PASSIVATION("passivation"),
+    PASSIVATION_BATCH_SIZE("passivationBatchSize"),
+    PIPELINED("pipelined"),
     POSITION("position"),
     PRELOAD("preload"),
     PURGE_ON_STARTUP("purgeOnStartup"),
@@ -103,14 +116,19 @@ public enum Attribute {
     REHASH_RPC_TIMEOUT("rehashRpcTimeout"),
     REHASH_WAIT("rehashWait"),
     REMOTE_CALL_TIMEOUT("remoteCallTimeout"),
+    RETAINED_VERSIONS("retainedVersions"),
     REPL_QUEUE_INTERVAL("replQueueInterval"),
     REPL_QUEUE_CLASS("replQueueClass"),
     REPL_QUEUE_MAX_ELEMENTS("replQueueMaxElements"),
+    REQUESTOR_FILTER_BITS("requestorFilterBits"),
     REPL_TIMEOUT("replTimeout"),
     RETRY_WAIT_TIME_INCREASE_FACTOR("retryWaitTimeIncreaseFactor"),
+    SEGMENTED("segmented"),
     SHARED("shared"),
     SHUTDOWN_TIMEOUT("shutdownTimeout"),
     SITE_ID("siteId"),
+    SIZE_ESTIMATOR("sizeEstimator"),
+    SLAB_SIZE("slabSize"),
     SPIN_DURATION("spinDuration"),
     STORE_KEYS_AS_BINARY("storeKeysAsBinary"),
     STORE_VALUES_AS_BINARY("storeValuesAsBinary"),
@@ -120,10 +138,14 @@ public enum Attribute {
     SYNC_ROLLBACK_PHASE("syncRollbackPhase"),
     STRICT_PEER_TO_PEER("strictPeerToPeer"),
     THREAD_POLICY("threadPolicy"),
+    THRESHOLD("threshold"),
     THREAD_POOL_SIZE("threadPoolSize"),
     TIMEOUT("timeout"),
+    TIMING_WHEEL("timingWheel"),
+    TIMING_WHEEL_TICK("timingWheelTick"),
     TRANSACTION_MANAGER_LOOKUP_CLASS("transactionManagerLookupClass"),
     TRANSACTION_MODE("transactionMode"),
+    TRANSACTION_PROTOCOL("transactionProtocol"),
     TRANSPORT_CLASS("transportClass"),
     UNRELIABLE_RETURN_VALUES("unreliableReturnValues"),
     USE_EAGER_LOCKING("useEagerLocking"),
@@ -42,6 +42,7 @@ public enum Element {
     ASYNC_TRANSPORT_EXECUTOR("asyncTransportExecutor"),
     CLUSTERING("clustering"),
     CLUSTER_LOADER("clusterLoader"),
+    COMPRESSION("compression"),
     CUSTOM_INTERCEPTORS("customInterceptors"),
     DATA_CONTAINER("dataContainer"),
     DEADLOCK_DETECTION("deadlockDetection"),
@@ -41,6 +41,7 @@
 import org.infinispan.container.DataContainer;
 import org.infinispan.distribution.ch.ConsistentHashFactory;
 import org.infinispan.distribution.group.Grouper;
+import org.infinispan.eviction.EntrySizeEstimator;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 import org.infinispan.executors.ExecutorFactory;
@@ -57,6 +58,7 @@
 import org.infinispan.remoting.transport.Transport;
 import org.infinispan.transaction.LockingMode;
 import org.infinispan.transaction.TransactionMode;
+import org.infinispan.transaction.TransactionProtocol;
 import org.infinispan.transaction.lookup.TransactionManagerLookup;
 import org.infinispan.util.Util;
 import org.infinispan.util.concurrent.IsolationLevel;
@@ -152,6 +154,9 @@ private void parseCache(final XMLExtendedStreamReader reader, final Configuratio
             case CLUSTERING:
                parseClustering(reader, holder);
                break;
+            case COMPRESSION:
+               parseCompression(reader, holder);
+               break;
             case CUSTOM_INTERCEPTORS:
                parseCustomInterceptors(reader, holder);
                break;
@@ -228,6 +233,9 @@ private void parseVersioning(final XMLExtendedStreamReader reader, final Configu
             case ENABLED:
                builder.versioning().enable();
                break;
+            case RETAINED_VERSIONS:
+               builder.versioning().retainedVersions(Integer.parseInt(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -386,6 +394,9 @@ private void parseTransaction(final XMLExtendedStreamReader reader, final Config
             case USE_1PC_FOR_AUTOCOMMIT_TX:
                builder.transaction().use1PcForAutoCommitTransactions(Boolean.parseBoolean(value));
                break;
+            case TRANSACTION_PROTOCOL:
+               builder.transaction().transactionProtocol(TransactionProtocol.valueOf(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -481,6 +492,35 @@ private void parseStoreAsBinary(final XMLExtendedStreamReader reader, final Conf
 
    }
 
+   private void parseCompression(final XMLExtendedStreamReader reader, final ConfigurationBuilderHolder holder) throws XMLStreamException {
+      ConfigurationBuilder builder = holder.getCurrentConfigurationBuilder();
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+         ParseUtils.requireNoNamespaceAttribute(reader, i);
+         String value = replaceProperties(reader.getAttributeValue(i));
+         Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+         switch (attribute) {
+            case ENABLED:
+               if (Boolean.parseBoolean(value)) {
+                  builder.compression().enable();
+               } else {
+                  builder.compression().disable();
+               }
+               break;
+            case THRESHOLD:
+               builder.compression().threshold(Integer.parseInt(value));
+               break;
+            case LEVEL:
+               builder.compression().level(Integer.parseInt(value));
+               break;
+            default:
+               throw ParseUtils.unexpectedAttribute(reader, i);
+         }
+      }
+
+      ParseUtils.requireNoContent(reader);
+
+   }
+
    private void parseLocking(final XMLExtendedStreamReader reader, final ConfigurationBuilderHolder holder) throws XMLStreamException {
       ConfigurationBuilder builder = holder.getCurrentConfigurationBuilder();
       for (int i = 0; i < reader.getAttributeCount(); i++) {
@@ -503,6 +543,9 @@ private void parseLocking(final XMLExtendedStreamReader reader, final Configurat
             case WRITE_SKEW_CHECK:
                builder.locking().writeSkewCheck(Boolean.parseBoolean(value));
                break;
+            case NON_BLOCKING_VALIDATION:
+               builder.locking().nonBlockingValidation(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -522,6 +565,12 @@ private void parseLoaders(final XMLExtendedStreamReader reader, final Configurat
             case PASSIVATION:
                builder.loaders().passivation(Boolean.parseBoolean(value));
                break;
+            case ASYNC_PASSIVATION:
+               builder.loaders().asyncPassivation(Boolean.parseBoolean(value));
+               break;
+            case PASSIVATION_BATCH_SIZE:
+               builder.loaders().passivationBatchSize(Integer.parseInt(value));
+               break;
             case PRELOAD:
                builder.loaders().preload(Boolean.parseBoolean(value));
                break;
@@ -1016,6 +1065,15 @@ private void parseExpiration(final XMLExtendedStreamReader reader, final Configu
             case WAKE_UP_INTERVAL:
                builder.expiration().wakeUpInterval(Long.parseLong(value));
                break;
+            case TIMING_WHEEL:
+               builder.expiration().timingWheel(Boolean.parseBoolean(value));
+               break;
+            case TIMING_WHEEL_TICK:
+               builder.expiration().timingWheelTick(Long.parseLong(value));
+               break;
+            case EXACT_EXPIRATION:
+               builder.expiration().exactExpiration(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1035,6 +1093,12 @@ private void parseEviction(final XMLExtendedStreamReader reader, final Configura
             case MAX_ENTRIES:
                builder.eviction().maxEntries(Integer.parseInt(value));
                break;
+            case MAX_MEMORY:
+               builder.eviction().maxMemory(Long.parseLong(value));
+               break;
+            case SIZE_ESTIMATOR:
+               builder.eviction().sizeEstimator(Util.<EntrySizeEstimator>getInstance(value, holder.getClassLoader()));
+               break;
             case STRATEGY:
                builder.eviction().strategy(EvictionStrategy.valueOf(value));
                break;
@@ -1086,6 +1150,15 @@ private void parseDataContainer(final XMLExtendedStreamReader reader, final Conf
             case CLASS:
                builder.dataContainer().dataContainer(Util.<DataContainer>getInstance(value, holder.getClassLoader()));
                break;
+            case OFF_HEAP:
+               builder.dataContainer().offHeap(Boolean.parseBoolean(value));
+               break;
+            case SLAB_SIZE:
+               builder.dataContainer().slabSize(Integer.parseInt(value));
+               break;
+            case SEGMENTED:
+               builder.dataContainer().segmented(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1312,6 +1385,12 @@ private void parseL1reader(final XMLExtendedStreamReader reader, final Configura
             case INVALIDATION_CLEANUP_TASK_FREQUENCY:
                builder.clustering().l1().cleanupTaskFrequency(Long.parseLong(value));
                break;
+            case REQUESTOR_FILTER_BITS:
+               builder.clustering().l1().requestorFilterBits(Integer.parseInt(value));
+               break;
+            case INVALIDATION_FLUSH_INTERVAL:
+               builder.clustering().l1().invalidationFlushInterval(Long.parseLong(value));
+               break;
             case ON_REHASH:
                if (Boolean.parseBoolean(value)) {
                   builder.clustering().l1().enableOnRehash();
@@ -1427,6 +1506,12 @@ private void parseAsync(final XMLExtendedStreamReader reader, final Configuratio
             case USE_REPL_QUEUE:
                builder.clustering().async().useReplQueue(Boolean.parseBoolean(value));
                break;
+            case PIPELINED:
+               builder.clustering().async().pipelined(Boolean.parseBoolean(value));
+               break;
+            case MAX_IN_FLIGHT:
+               builder.clustering().async().maxInFlight(Integer.parseInt(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1596,6 +1681,18 @@ private void parseSerialization(final XMLExtendedStreamReader reader, final Conf
                builder.serialization().version(value);
                break;
             }
+            case COMPRESS_LARGE_PAYLOADS: {
+               builder.serialization().compressLargePayloads(Boolean.parseBoolean(value));
+               break;
+            }
+            case COMPRESSION_THRESHOLD: {
+               builder.serialization().compressionThreshold(Integer.parseInt(value));
+               break;
+            }
+            case COMPRESSION_LEVEL: {
+               builder.serialization().compressionLevel(Integer.parseInt(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -27,18 +27,21 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.entries.InternalNullEntry;
 import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.eviction.EntrySizeEstimator;
 import org.infinispan.eviction.EvictionManager;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 import org.infinispan.eviction.PassivationManager;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
 import org.infinispan.loaders.CacheLoaderManager;
 import org.infinispan.loaders.decorators.AsyncStore;
 import org.infinispan.util.Immutables;
 import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
 import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
 import org.infinispan.util.concurrent.BoundedConcurrentHashMap.EvictionListener;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Weigher;
 import org.infinispan.util.concurrent.ConcurrentMapFactory;
 
 import java.util.AbstractCollection;
@@ -73,12 +76,23 @@ public class DefaultDataContainer implements DataContainer {
    private CacheLoaderManager cacheLoaderManager;
    private Configuration config;
    private AsyncStore asyncStore;
+   private TimingWheel timingWheel;
+   private PassivationStage passivationStage;
+   private final TimingWheel.ExpirationHandler expirationHandler = new ExpirationHandler();
 
    public DefaultDataContainer(int concurrencyLevel) {
       entries = ConcurrentMapFactory.makeConcurrentMap(128, concurrencyLevel);
       evictionListener = null;
    }
 
+   /**
+    * Creates an unbounded data container storing its entries in the given map.
+    */
+   protected DefaultDataContainer(ConcurrentMap<Object, InternalCacheEntry> entries) {
+      this.entries = entries;
+      evictionListener = null;
+   }
+
    protected DefaultDataContainer(int concurrencyLevel, int maxEntries, EvictionStrategy strategy, EvictionThreadPolicy policy) {
       // translate eviction policy and strategy
       switch (policy) {
@@ -100,12 +114,28 @@ protected DefaultDataContainer(int concurrencyLevel, int maxEntries, EvictionStr
          case LIRS:
             eviction = Eviction.LIRS;
             break;
+         case TINY_LFU:
+            eviction = Eviction.TINY_LFU;
+            break;
          default:
             throw new IllegalArgumentException("No such eviction strategy " + strategy);
       }
       entries = new BoundedConcurrentHashMap<Object, InternalCacheEntry>(maxEntries, concurrencyLevel, eviction, evictionListener);
    }
 
+   protected DefaultDataContainer(int concurrencyLevel, long maxMemory, EntrySizeEstimator estimator, EvictionThreadPolicy policy) {
+      switch (policy) {
+         case PIGGYBACK:
+         case DEFAULT:
+            evictionListener = new DefaultEvictionListener();
+            break;
+         default:
+            throw new IllegalArgumentException("No such eviction thread policy " + policy);
+      }
+      entries = new BoundedConcurrentHashMap<Object, InternalCacheEntry>(maxMemory, concurrencyLevel, Eviction.LRU,
+            evictionListener, new EstimatorWeigher(estimator));
+   }
+
    @Inject
    public void initialize(EvictionManager evictionManager, PassivationManager passivator,
          InternalEntryFactory entryFactory, Configuration config, CacheLoaderManager cacheLoaderManager) {
@@ -121,6 +151,23 @@ public void start() {
       this.isAsyncStore = config.loaders().usingAsyncStore();
       if (isAsyncStore)
          this.asyncStore = (AsyncStore) cacheLoaderManager.getCacheStore();
+      if (config.expiration().timingWheel())
+         this.timingWheel = new TimingWheel(config.expiration().timingWheelTick(), System.currentTimeMillis());
+      // an async store already writes evicted entries in the background
+      if (evictionListener != null && !isAsyncStore && config.loaders().passivation()
+            && config.loaders().asyncPassivation()) {
+         passivationStage = new PassivationStage(entries, passivator, evictionManager,
+               config.loaders().passivationBatchSize());
+         passivationStage.start();
+      }
+   }
+
+   @Stop(priority = 8) // Stop before passivating the remaining entries
+   public void stop() {
+      if (passivationStage != null) {
+         passivationStage.stop(config.transaction().cacheStopTimeout());
+         passivationStage = null;
+      }
    }
 
    public static DataContainer boundedDataContainer(int concurrencyLevel, int maxEntries,
@@ -128,6 +175,15 @@ public static DataContainer boundedDataContainer(int concurrencyLevel, int maxEn
       return new DefaultDataContainer(concurrencyLevel, maxEntries, strategy, policy);
    }
 
+   /**
+    * Creates a data container bounded by the estimated memory footprint of its entries, evicting least recently used
+    * entries once <tt>maxMemory</tt> bytes are exceeded.
+    */
+   public static DataContainer memoryBoundedDataContainer(int concurrencyLevel, long maxMemory,
+            EntrySizeEstimator estimator, EvictionThreadPolicy policy) {
+      return new DefaultDataContainer(concurrencyLevel, maxMemory, estimator, policy);
+   }
+
    public static DataContainer unBoundedDataContainer(int concurrencyLevel) {
       return new DefaultDataContainer(concurrencyLevel);
    }
@@ -139,7 +195,7 @@ public InternalCacheEntry peek(Object key) {
       // marked as 'evicted', so check whether the key has been flushed to
       // the cache store, and if it has, return null so that it can go through
       // the activation process.
-      if (entry != null && entry.isEvicted() && isKeyFlushedToStore(key))
+      if (entry != null && entry.isEvicted() && isAsyncStore && isKeyFlushedToStore(key))
          return null;
 
       return entry;
@@ -163,7 +219,12 @@ public InternalCacheEntry get(Object k) {
    @Override
    public void put(Object k, Object v, EntryVersion version, long lifespan, long maxIdle) {
       InternalCacheEntry e = peek(k);
+      boolean schedule = true;
+      // don't update an entry queued for passivation in place, as it's about to be written to the store and dropped
+      if (e != null && e.isEvicted() && passivationStage != null)
+         e = null;
       if (e != null) {
+         long previousExpiry = e.canExpire() ? e.getExpiryTime() : -1;
          e.setValue(v);
          InternalCacheEntry original = e;
          e.setVersion(version);
@@ -171,12 +232,17 @@ public void put(Object k, Object v, EntryVersion version, long lifespan, long ma
          // we have the same instance. So we need to reincarnate.
          if(original == e) {
             e.reincarnate();
+            // the timer of this instance is still pending and will be rescheduled when it fires,
+            // unless the entry now expires earlier than it was due to
+            schedule = previousExpiry < 0 || e.getExpiryTime() < previousExpiry;
          }
       } else {
          // this is a brand-new entry
          e = entryFactory.create(k, v, version, lifespan, maxIdle);
       }
       entries.put(k, e);
+      if (timingWheel != null && schedule && e.canExpire())
+         timingWheel.schedule(k, e, e.getExpiryTime());
    }
 
    @Override
@@ -193,7 +259,11 @@ public boolean containsKey(Object k) {
    public InternalCacheEntry remove(Object k) {
       InternalCacheEntry e;
       if (isAsyncStore) {
-         e = entries.replace(k, new InternalNullEntry(asyncStore));
+         InternalNullEntry nullEntry = new InternalNullEntry(asyncStore);
+         e = entries.replace(k, nullEntry);
+         // null entries expire once the async store has flushed the removal, so check them on the next tick
+         if (e != null && timingWheel != null)
+            timingWheel.schedule(k, nullEntry, System.currentTimeMillis());
       } else {
          e = entries.remove(k);
       }
@@ -207,7 +277,11 @@ public int size() {
 
    @Override
    public void clear() {
+      if (passivationStage != null)
+         passivationStage.clear();
       entries.clear();
+      if (timingWheel != null)
+         timingWheel.clear();
    }
 
    @Override
@@ -228,6 +302,10 @@ public Set<InternalCacheEntry> entrySet() {
    @Override
    public void purgeExpired() {
       long currentTimeMillis = System.currentTimeMillis();
+      if (timingWheel != null) {
+         timingWheel.advance(currentTimeMillis, expirationHandler);
+         return;
+      }
       for (Iterator<InternalCacheEntry> purgeCandidates = entries.values().iterator(); purgeCandidates.hasNext();) {
          InternalCacheEntry e = purgeCandidates.next();
          if (isAsyncStore && e instanceof InternalNullEntry) {
@@ -244,6 +322,14 @@ public void purgeExpired() {
       }
    }
 
+   TimingWheel getTimingWheel() {
+      return timingWheel;
+   }
+
+   PassivationStage getPassivationStage() {
+      return passivationStage;
+   }
+
    private boolean isKeyFlushedToStore(Object key) {
       return !isAsyncStore || (isAsyncStore && !asyncStore.isLocked(key));
    }
@@ -262,6 +348,16 @@ public void onEntryEviction(Map<Object, InternalCacheEntry> evicted) {
 
       @Override
       public boolean onEntryChosenForEviction(InternalCacheEntry entry) {
+         PassivationStage stage = passivationStage;
+         if (stage != null) {
+            // leave the entry in memory until the passivation stage has stored it, unless the stage can't keep up; a
+            // refused entry no longer counts towards the container's bound, so only one entry is queued per eviction
+            if (stage.offer(entry))
+               return false;
+            passivator.passivate(entry);
+            return true;
+         }
+
          boolean allowEviction = isKeyFlushedToStore(entry.getKey());
 
          if (allowEviction) {
@@ -281,6 +377,47 @@ public boolean onEntryChosenForEviction(InternalCacheEntry entry) {
       }
    }
 
+   private final class ExpirationHandler implements TimingWheel.ExpirationHandler {
+
+      @Override
+      public long onTimer(Object key, InternalCacheEntry entry, long now) {
+         InternalCacheEntry current = entries.get(key);
+         // the entry was removed, evicted or replaced by a new instance with its own timer
+         if (current != entry || !current.canExpire())
+            return -1;
+
+         if (isAsyncStore && current instanceof InternalNullEntry) {
+            if (((InternalNullEntry) current).isExpired(asyncStore.getAsyncProcessorId())) {
+               entries.remove(key, current);
+               return -1;
+            }
+            return now;
+         }
+
+         if (current.isExpired(now)) {
+            entries.remove(key, current);
+            return -1;
+         }
+         // touched or updated since the timer was scheduled
+         return current.getExpiryTime();
+      }
+   }
+
+   private static final class EstimatorWeigher implements Weigher<Object, InternalCacheEntry> {
+
+      private final EntrySizeEstimator estimator;
+
+      EstimatorWeigher(EntrySizeEstimator estimator) {
+         this.estimator = estimator;
+      }
+
+      @Override
+      public int weigh(Object key, InternalCacheEntry entry) {
+         long size = estimator.estimateSize(key, entry);
+         return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.max(1, size);
+      }
+   }
+
    private static class ImmutableEntryIterator extends EntryIterator {
       ImmutableEntryIterator(Iterator<InternalCacheEntry> it){
          super(it);
@@ -37,11 +37,14 @@
 import org.infinispan.container.entries.RepeatableReadEntry;
 import org.infinispan.container.entries.StateChangingEntry;
 import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.container.versioning.SnapshotManager;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
+import org.infinispan.transaction.LocalTransaction;
 import org.infinispan.util.concurrent.IsolationLevel;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -62,12 +65,15 @@ public class EntryFactoryImpl implements EntryFactory {
    protected boolean localModeWriteSkewCheck;
    private Configuration configuration;
    private CacheNotifier notifier;
+   private SnapshotManager snapshotManager;
 
    @Inject
-   public void injectDependencies(DataContainer dataContainer, Configuration configuration, CacheNotifier notifier) {
+   public void injectDependencies(DataContainer dataContainer, Configuration configuration, CacheNotifier notifier,
+                                  SnapshotManager snapshotManager) {
       this.container = dataContainer;
       this.configuration = configuration;
       this.notifier = notifier;
+      this.snapshotManager = snapshotManager;
    }
 
    @Start (priority = 8)
@@ -80,7 +86,7 @@ public void init() {
    public final CacheEntry wrapEntryForReading(InvocationContext ctx, Object key) throws InterruptedException {
       CacheEntry cacheEntry = getFromContext(ctx, key);
       if (cacheEntry == null) {
-         cacheEntry = getFromContainer(key);
+         cacheEntry = readsFromSnapshot(ctx) ? getFromSnapshot((TxInvocationContext) ctx, key) : getFromContainer(key);
 
          // do not bother wrapping though if this is not in a tx.  repeatable read etc are all meaningless unless there is a tx.
          if (useRepeatableRead) {
@@ -214,6 +220,23 @@ private InternalCacheEntry getFromContainer(Object key) {
       return ice;
    }
 
+   private boolean readsFromSnapshot(InvocationContext ctx) {
+      return ctx.isInTxScope() && ctx.isOriginLocal() && snapshotManager.isEnabled();
+   }
+
+   private InternalCacheEntry getFromSnapshot(TxInvocationContext ctx, Object key) {
+      LocalTransaction localTransaction = (LocalTransaction) ctx.getCacheTransaction();
+      long snapshot = localTransaction.getSnapshotId();
+      if (snapshot == LocalTransaction.NO_SNAPSHOT) {
+         // the snapshot is taken on the first read, and closed when the transaction is removed from the tx table
+         snapshot = snapshotManager.beginSnapshot();
+         localTransaction.setSnapshotId(snapshot);
+      }
+      final InternalCacheEntry ice = snapshotManager.get(key, snapshot);
+      if (trace) log.tracef("Retrieved from snapshot %s: %s", snapshot, ice);
+      return ice;
+   }
+
    private MVCCEntry newMvccEntryForPut(InvocationContext ctx, Object key) {
       MVCCEntry mvccEntry;
       if (trace) log.trace("Creating new entry.");
@@ -0,0 +1,912 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.CacheException;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.loaders.CacheLoaderManager;
+import org.infinispan.loaders.decorators.AsyncStore;
+import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.util.Immutables;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
+
+/**
+ * A {@link DataContainer} that keeps marshalled keys, values and versions, together with the expiration metadata, in
+ * direct memory slabs rather than on the Java heap.
+ * <p/>
+ * The container is split into lock-striped segments. Each segment owns a list of direct {@link ByteBuffer} slabs to
+ * which records are appended, plus a compact open-addressing index made of two primitive arrays (hashes and record
+ * addresses), so the on-heap cost of an entry is 12 bytes regardless of its size. {@link InternalCacheEntry} instances
+ * are only materialized when an entry is read, and are never retained by the container. Space held by overwritten or
+ * removed records is reclaimed by compacting a segment once more than half of its slab space is garbage.
+ * <p/>
+ * Iterators are weakly consistent. They capture the index of one segment at a time and read its records without
+ * holding the segment lock, materializing one entry at a time. Records are never modified once written, apart from
+ * their last used time, and slabs are never written to again once compaction has replaced them, so a captured record
+ * stays readable even if it is overwritten, removed or compacted while iterating.
+ * <p/>
+ * When bounded, each segment holds at most <tt>maxEntries / segments</tt> entries. Victims are chosen by sampling a few
+ * index slots and picking the least recently used one, which approximates LRU without any per-entry bookkeeping.
+ * <p/>
+ * Key equality is first checked by comparing marshalled bytes and only falls back to unmarshalling the stored key and
+ * calling {@link Object#equals(Object)} when the hashes match but the bytes differ.
+ *
+ * @since 5.2
+ */
+@ThreadSafe
+public class OffHeapDataContainer implements DataContainer {
+
+   private static final Log log = LogFactory.getLog(OffHeapDataContainer.class);
+
+   /**
+    * Default size, in bytes, of each direct memory slab
+    */
+   public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+   // Record layout: key length, value length, version length, created, last used, lifespan, max idle, followed by the
+   // key, value and version bytes
+   private static final int KEY_LENGTH = 0;
+   private static final int VALUE_LENGTH = 4;
+   private static final int VERSION_LENGTH = 8;
+   private static final int CREATED = 12;
+   private static final int LAST_USED = 20;
+   private static final int LIFESPAN = 28;
+   private static final int MAX_IDLE = 36;
+   static final int HEADER_SIZE = 44;
+
+   private static final long EMPTY = 0L;
+   private static final long REMOVED = -1L;
+   private static final int INITIAL_INDEX_CAPACITY = 64;
+   private static final int EVICTION_SAMPLE_SIZE = 8;
+   private static final int MAX_SEGMENTS = 1 << 16;
+
+   private final Segment[] segments;
+   private final int segmentShift;
+   private final int segmentMask;
+   private final int slabSize;
+
+   private StreamingMarshaller marshaller;
+   private InternalEntryFactory entryFactory;
+   private EvictionManager evictionManager;
+   private PassivationManager passivator;
+   private CacheLoaderManager cacheLoaderManager;
+   private Configuration config;
+   private boolean isAsyncStore;
+   private AsyncStore asyncStore;
+
+   protected OffHeapDataContainer(int concurrencyLevel, int maxEntries, int slabSize) {
+      if (concurrencyLevel <= 0 || slabSize <= HEADER_SIZE)
+         throw new IllegalArgumentException();
+      if (maxEntries > 0) {
+         // at least two entries per segment
+         concurrencyLevel = Math.max(1, Math.min(maxEntries / 2, concurrencyLevel));
+      }
+      concurrencyLevel = Math.min(concurrencyLevel, MAX_SEGMENTS);
+
+      int sshift = 0;
+      int ssize = 1;
+      while (ssize < concurrencyLevel) {
+         ++sshift;
+         ssize <<= 1;
+      }
+      this.segmentShift = 32 - sshift;
+      this.segmentMask = ssize - 1;
+      this.slabSize = slabSize;
+      this.segments = new Segment[ssize];
+      int segmentCapacity = maxEntries > 0 ? Math.max(1, maxEntries / ssize) : -1;
+      for (int i = 0; i < ssize; i++)
+         segments[i] = new Segment(segmentCapacity);
+   }
+
+   @Inject
+   public void initialize(EvictionManager evictionManager, PassivationManager passivator,
+         InternalEntryFactory entryFactory, Configuration config, CacheLoaderManager cacheLoaderManager,
+         @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
+      this.evictionManager = evictionManager;
+      this.passivator = passivator;
+      this.entryFactory = entryFactory;
+      this.config = config;
+      this.cacheLoaderManager = cacheLoaderManager;
+      this.marshaller = marshaller;
+   }
+
+   @Start(priority = 11) // Start after cache loader manager
+   public void start() {
+      this.isAsyncStore = config.loaders().usingAsyncStore();
+      if (isAsyncStore)
+         this.asyncStore = (AsyncStore) cacheLoaderManager.getCacheStore();
+   }
+
+   public static DataContainer boundedDataContainer(int concurrencyLevel, int maxEntries, int slabSize) {
+      return new OffHeapDataContainer(concurrencyLevel, maxEntries, slabSize);
+   }
+
+   public static DataContainer unBoundedDataContainer(int concurrencyLevel, int slabSize) {
+      return new OffHeapDataContainer(concurrencyLevel, -1, slabSize);
+   }
+
+   @Override
+   public InternalCacheEntry get(Object k) {
+      int hash = hash(k.hashCode());
+      return segmentFor(hash).get(k, marshall(k), hash, true);
+   }
+
+   @Override
+   public InternalCacheEntry peek(Object k) {
+      int hash = hash(k.hashCode());
+      return segmentFor(hash).get(k, marshall(k), hash, false);
+   }
+
+   @Override
+   public void put(Object k, Object v, EntryVersion version, long lifespan, long maxIdle) {
+      byte[] keyBytes = marshall(k);
+      byte[] valueBytes = marshall(v);
+      byte[] versionBytes = version == null ? null : marshall(version);
+      int hash = hash(k.hashCode());
+      Map<Object, InternalCacheEntry> evicted = segmentFor(hash).put(k, keyBytes, hash, valueBytes, versionBytes,
+                                                                     lifespan, maxIdle);
+      if (evicted != null)
+         evictionManager.onEntryEviction(evicted);
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      int hash = hash(k.hashCode());
+      return segmentFor(hash).containsKey(k, marshall(k), hash);
+   }
+
+   @Override
+   public InternalCacheEntry remove(Object k) {
+      int hash = hash(k.hashCode());
+      return segmentFor(hash).remove(k, marshall(k), hash);
+   }
+
+   @Override
+   public int size() {
+      long size = 0;
+      for (Segment s : segments)
+         size += s.count;
+      return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+   }
+
+   @Override
+   public void clear() {
+      for (Segment s : segments)
+         s.clear();
+   }
+
+   @Override
+   public Set<Object> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<Object> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      long currentTimeMillis = System.currentTimeMillis();
+      for (Segment s : segments)
+         s.purgeExpired(currentTimeMillis);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> iterator() {
+      return new EntryIterator();
+   }
+
+   /**
+    * @return the number of bytes of direct memory currently allocated by this container
+    */
+   public long getAllocatedBytes() {
+      long bytes = 0;
+      for (Segment s : segments)
+         bytes += s.allocatedBytes;
+      return bytes;
+   }
+
+   private Segment segmentFor(int hash) {
+      return segments[hash >>> segmentShift & segmentMask];
+   }
+
+   private boolean isKeyFlushedToStore(Object key) {
+      return !isAsyncStore || !asyncStore.isLocked(key);
+   }
+
+   private byte[] marshall(Object o) {
+      try {
+         return marshaller.objectToByteBuffer(o);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException("Interrupted while marshalling " + o, e);
+      } catch (Exception e) {
+         throw new CacheException("Unable to marshall " + o, e);
+      }
+   }
+
+   private Object unmarshall(byte[] bytes) {
+      try {
+         return marshaller.objectFromByteBuffer(bytes);
+      } catch (Exception e) {
+         throw new CacheException("Unable to unmarshall off-heap entry", e);
+      }
+   }
+
+   private static boolean isExpired(long created, long lastUsed, long lifespan, long maxIdle, long now) {
+      return (lifespan > -1 && created > -1 && now > created + lifespan)
+            || (maxIdle > -1 && lastUsed > -1 && now > lastUsed + maxIdle);
+   }
+
+   /**
+    * Same supplemental hash as {@link org.infinispan.util.concurrent.BoundedConcurrentHashMap}
+    */
+   private static int hash(int h) {
+      h += h <<  15 ^ 0xffffcd7d;
+      h ^= h >>> 10;
+      h += h <<   3;
+      h ^= h >>>  6;
+      h += (h <<   2) + (h << 14);
+      return h ^ h >>> 16;
+   }
+
+   /**
+    * A copy of an off-heap record taken under the segment lock, so that unmarshalling can happen without holding it.
+    */
+   private static final class RecordCopy {
+      byte[] key;
+      byte[] value;
+      byte[] version;
+      long created;
+      long lastUsed;
+      long lifespan;
+      long maxIdle;
+   }
+
+   /**
+    * Segments are lock-striped regions of the container, each with its own slabs and index. All state is guarded by
+    * the segment lock apart from {@link #count}, which is read without locking to compute sizes.
+    */
+   private final class Segment extends ReentrantLock {
+
+      private static final long serialVersionUID = -4413497373364419736L;
+
+      final int capacity;
+      volatile int count;
+      long allocatedBytes;
+      long deadBytes;
+
+      // index
+      int[] hashes = new int[INITIAL_INDEX_CAPACITY];
+      long[] addresses = new long[INITIAL_INDEX_CAPACITY];
+      int removedSlots;
+
+      // storage
+      final List<ByteBuffer> slabs = new ArrayList<ByteBuffer>();
+      int tailSlab = -1;
+      int tail;
+
+      Segment(int capacity) {
+         this.capacity = capacity;
+      }
+
+      InternalCacheEntry get(Object key, byte[] keyBytes, int hash, boolean touch) {
+         RecordCopy copy;
+         lock();
+         try {
+            int slot = find(key, keyBytes, hash);
+            if (slot < 0)
+               return null;
+            long address = addresses[slot];
+            if (touch) {
+               long now = System.currentTimeMillis();
+               if (isExpired(address, now)) {
+                  removeSlot(slot);
+                  return null;
+               }
+               if (readLong(address, MAX_IDLE) > -1)
+                  writeLong(address, LAST_USED, now);
+            }
+            copy = copy(address, false);
+         } finally {
+            unlock();
+         }
+         return toEntry(key, copy);
+      }
+
+      boolean containsKey(Object key, byte[] keyBytes, int hash) {
+         lock();
+         try {
+            int slot = find(key, keyBytes, hash);
+            if (slot < 0)
+               return false;
+            if (isExpired(addresses[slot], System.currentTimeMillis())) {
+               removeSlot(slot);
+               return false;
+            }
+            return true;
+         } finally {
+            unlock();
+         }
+      }
+
+      Map<Object, InternalCacheEntry> put(Object key, byte[] keyBytes, int hash, byte[] value, byte[] version,
+                                          long lifespan, long maxIdle) {
+         Map<Object, InternalCacheEntry> evicted = null;
+         lock();
+         try {
+            long now = System.currentTimeMillis();
+            long address = append(keyBytes, value, version, now, lifespan, maxIdle);
+            int slot = find(key, keyBytes, hash);
+            if (slot >= 0) {
+               deadBytes += recordSize(addresses[slot]);
+               addresses[slot] = address;
+            } else {
+               insert(hash, address);
+               count++;
+               if (capacity > 0 && count > capacity)
+                  evicted = evict(address);
+            }
+            compactIfNeeded();
+         } finally {
+            unlock();
+         }
+         return evicted;
+      }
+
+      InternalCacheEntry remove(Object key, byte[] keyBytes, int hash) {
+         RecordCopy copy;
+         lock();
+         try {
+            int slot = find(key, keyBytes, hash);
+            if (slot < 0)
+               return null;
+            long address = addresses[slot];
+            copy = isExpired(address, System.currentTimeMillis()) ? null : copy(address, false);
+            removeSlot(slot);
+            compactIfNeeded();
+         } finally {
+            unlock();
+         }
+         return copy == null ? null : toEntry(key, copy);
+      }
+
+      void purgeExpired(long now) {
+         lock();
+         try {
+            for (int i = 0; i < addresses.length; i++) {
+               long address = addresses[i];
+               if (address != EMPTY && address != REMOVED && isExpired(address, now))
+                  removeSlot(i);
+            }
+            compactIfNeeded();
+         } finally {
+            unlock();
+         }
+      }
+
+      void clear() {
+         lock();
+         try {
+            hashes = new int[INITIAL_INDEX_CAPACITY];
+            addresses = new long[INITIAL_INDEX_CAPACITY];
+            removedSlots = 0;
+            slabs.clear();
+            tailSlab = -1;
+            tail = 0;
+            allocatedBytes = 0;
+            deadBytes = 0;
+            count = 0;
+         } finally {
+            unlock();
+         }
+      }
+
+      private int find(Object key, byte[] keyBytes, int hash) {
+         int mask = addresses.length - 1;
+         for (int i = hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            long address = addresses[i];
+            if (address == EMPTY)
+               return -1;
+            if (address != REMOVED && hashes[i] == hash && keyEquals(address, key, keyBytes))
+               return i;
+         }
+         return -1;
+      }
+
+      private boolean keyEquals(long address, Object key, byte[] keyBytes) {
+         ByteBuffer slab = slab(address);
+         int offset = offset(address);
+         int keyLength = slab.getInt(offset + KEY_LENGTH);
+         if (keyLength == keyBytes.length && view(slab, offset + HEADER_SIZE, keyLength).equals(ByteBuffer.wrap(keyBytes)))
+            return true;
+         // equal keys may still marshall differently, so fall back to equals()
+         return key.equals(unmarshall(read(slab, offset + HEADER_SIZE, keyLength)));
+      }
+
+      private void insert(int hash, long address) {
+         if ((count + removedSlots + 1) * 4 > addresses.length * 3)
+            resizeIndex(count * 4 > addresses.length ? addresses.length << 1 : addresses.length);
+         int mask = addresses.length - 1;
+         int i = hash & mask;
+         while (addresses[i] != EMPTY && addresses[i] != REMOVED)
+            i = (i + 1) & mask;
+         if (addresses[i] == REMOVED)
+            removedSlots--;
+         hashes[i] = hash;
+         addresses[i] = address;
+      }
+
+      private void resizeIndex(int newCapacity) {
+         int[] oldHashes = hashes;
+         long[] oldAddresses = addresses;
+         hashes = new int[newCapacity];
+         addresses = new long[newCapacity];
+         removedSlots = 0;
+         int mask = newCapacity - 1;
+         for (int j = 0; j < oldAddresses.length; j++) {
+            long address = oldAddresses[j];
+            if (address != EMPTY && address != REMOVED) {
+               int i = oldHashes[j] & mask;
+               while (addresses[i] != EMPTY)
+                  i = (i + 1) & mask;
+               hashes[i] = oldHashes[j];
+               addresses[i] = address;
+            }
+         }
+      }
+
+      private void removeSlot(int slot) {
+         deadBytes += recordSize(addresses[slot]);
+         addresses[slot] = REMOVED;
+         removedSlots++;
+         count--;
+      }
+
+      /**
+       * Evicts entries until the segment is back within capacity, never picking the record that was just written.
+       * Victims are passivated before being removed, mirroring what the default container does while holding the
+       * segment lock.
+       */
+      private Map<Object, InternalCacheEntry> evict(long justWritten) {
+         Map<Object, InternalCacheEntry> evicted = null;
+         int mask = addresses.length - 1;
+         int cursor = justWritten == EMPTY ? 0 : (int) (justWritten ^ (justWritten >>> 32)) & mask;
+         int attempts = 0;
+         while (count > capacity && attempts++ < addresses.length) {
+            int victim = -1;
+            long oldest = Long.MAX_VALUE;
+            for (int sampled = 0, probes = 0; sampled < EVICTION_SAMPLE_SIZE && probes <= mask; probes++) {
+               cursor = (cursor + 1) & mask;
+               long address = addresses[cursor];
+               if (address == EMPTY || address == REMOVED || address == justWritten)
+                  continue;
+               sampled++;
+               long lastUsed = Math.max(readLong(address, LAST_USED), readLong(address, CREATED));
+               if (lastUsed < oldest) {
+                  oldest = lastUsed;
+                  victim = cursor;
+               }
+            }
+            if (victim < 0)
+               break;
+
+            RecordCopy copy = copy(addresses[victim], true);
+            Object key = unmarshall(copy.key);
+            if (!isKeyFlushedToStore(key))
+               continue;
+            InternalCacheEntry entry = toEntry(key, copy);
+            passivator.passivate(entry);
+            removeSlot(victim);
+            if (evicted == null)
+               evicted = new HashMap<Object, InternalCacheEntry>();
+            evicted.put(key, entry);
+         }
+         return evicted == null ? null : Collections.unmodifiableMap(evicted);
+      }
+
+      private long append(byte[] key, byte[] value, byte[] version, long now, long lifespan, long maxIdle) {
+         int versionLength = version == null ? 0 : version.length;
+         int size = HEADER_SIZE + key.length + value.length + versionLength;
+         ByteBuffer slab = tailSlab < 0 ? null : slabs.get(tailSlab);
+         if (slab == null || slab.capacity() - tail < size) {
+            // records larger than a slab get a dedicated buffer of their own
+            slab = ByteBuffer.allocateDirect(Math.max(slabSize, size));
+            slabs.add(slab);
+            allocatedBytes += slab.capacity();
+            tailSlab = slabs.size() - 1;
+            tail = 0;
+         }
+         int offset = tail;
+         slab.putInt(offset + KEY_LENGTH, key.length);
+         slab.putInt(offset + VALUE_LENGTH, value.length);
+         slab.putInt(offset + VERSION_LENGTH, versionLength);
+         slab.putLong(offset + CREATED, now);
+         slab.putLong(offset + LAST_USED, now);
+         slab.putLong(offset + LIFESPAN, lifespan);
+         slab.putLong(offset + MAX_IDLE, maxIdle);
+         int position = offset + HEADER_SIZE;
+         position = write(slab, position, key);
+         position = write(slab, position, value);
+         if (version != null)
+            position = write(slab, position, version);
+         tail = position;
+         return address(tailSlab, offset);
+      }
+
+      /**
+       * Copies all live records into fresh slabs once at least half of the allocated space is garbage.
+       */
+      private void compactIfNeeded() {
+         if (count == 0) {
+            if (!slabs.isEmpty()) {
+               slabs.clear();
+               tailSlab = -1;
+               tail = 0;
+               allocatedBytes = 0;
+               deadBytes = 0;
+            }
+            return;
+         }
+         if (allocatedBytes <= slabSize || deadBytes * 2 < allocatedBytes)
+            return;
+
+         List<ByteBuffer> oldSlabs = new ArrayList<ByteBuffer>(slabs);
+         slabs.clear();
+         tailSlab = -1;
+         tail = 0;
+         allocatedBytes = 0;
+         deadBytes = 0;
+         for (int i = 0; i < addresses.length; i++) {
+            long address = addresses[i];
+            if (address == EMPTY || address == REMOVED)
+               continue;
+            ByteBuffer from = oldSlabs.get(slabIndex(address));
+            int offset = offset(address);
+            int size = recordSize(from, offset);
+            ByteBuffer to = tailSlab < 0 ? null : slabs.get(tailSlab);
+            if (to == null || to.capacity() - tail < size) {
+               to = ByteBuffer.allocateDirect(Math.max(slabSize, size));
+               slabs.add(to);
+               allocatedBytes += to.capacity();
+               tailSlab = slabs.size() - 1;
+               tail = 0;
+            }
+            ByteBuffer target = to.duplicate();
+            target.position(tail);
+            target.put(view(from, offset, size));
+            addresses[i] = address(tailSlab, tail);
+            tail += size;
+         }
+         if (removedSlots > 0)
+            resizeIndex(addresses.length);
+         if (log.isTraceEnabled())
+            log.tracef("Compacted off-heap segment, %d entries now in %d bytes", count, allocatedBytes);
+      }
+
+      private boolean isExpired(long address, long now) {
+         return OffHeapDataContainer.isExpired(slab(address), offset(address), now);
+      }
+
+      private RecordCopy copy(long address, boolean withKey) {
+         return OffHeapDataContainer.copy(slab(address), offset(address), withKey);
+      }
+
+      private int recordSize(long address) {
+         return recordSize(slab(address), offset(address));
+      }
+
+      private int recordSize(ByteBuffer slab, int offset) {
+         return HEADER_SIZE + slab.getInt(offset + KEY_LENGTH) + slab.getInt(offset + VALUE_LENGTH)
+               + slab.getInt(offset + VERSION_LENGTH);
+      }
+
+      private long readLong(long address, int field) {
+         return slab(address).getLong(offset(address) + field);
+      }
+
+      private void writeLong(long address, int field, long value) {
+         slab(address).putLong(offset(address) + field, value);
+      }
+
+      private ByteBuffer slab(long address) {
+         return slabs.get(slabIndex(address));
+      }
+   }
+
+   private static boolean isExpired(ByteBuffer slab, int offset, long now) {
+      return isExpired(slab.getLong(offset + CREATED), slab.getLong(offset + LAST_USED),
+                       slab.getLong(offset + LIFESPAN), slab.getLong(offset + MAX_IDLE), now);
+   }
+
+   private static RecordCopy copy(ByteBuffer slab, int offset, boolean withKey) {
+      RecordCopy copy = new RecordCopy();
+      int keyLength = slab.getInt(offset + KEY_LENGTH);
+      int valueLength = slab.getInt(offset + VALUE_LENGTH);
+      int versionLength = slab.getInt(offset + VERSION_LENGTH);
+      copy.created = slab.getLong(offset + CREATED);
+      copy.lastUsed = slab.getLong(offset + LAST_USED);
+      copy.lifespan = slab.getLong(offset + LIFESPAN);
+      copy.maxIdle = slab.getLong(offset + MAX_IDLE);
+      int position = offset + HEADER_SIZE;
+      if (withKey)
+         copy.key = read(slab, position, keyLength);
+      position += keyLength;
+      copy.value = read(slab, position, valueLength);
+      position += valueLength;
+      if (versionLength > 0)
+         copy.version = read(slab, position, versionLength);
+      return copy;
+   }
+
+   private InternalCacheEntry toEntry(Object key, RecordCopy copy) {
+      Object value = unmarshall(copy.value);
+      EntryVersion version = copy.version == null ? null : (EntryVersion) unmarshall(copy.version);
+      return entryFactory.create(key, value, version, copy.created, copy.lifespan, copy.lastUsed, copy.maxIdle);
+   }
+
+   // Addresses are (slab index + 1) in the upper 32 bits and the offset within the slab in the lower 32 bits, so that
+   // no valid address can be confused with EMPTY or REMOVED
+   private static long address(int slabIndex, int offset) {
+      return ((long) (slabIndex + 1) << 32) | (offset & 0xFFFFFFFFL);
+   }
+
+   private static int slabIndex(long address) {
+      return (int) (address >>> 32) - 1;
+   }
+
+   private static int offset(long address) {
+      return (int) address;
+   }
+
+   /**
+    * @return a buffer over the given region of the slab, whose position and limit can be changed without affecting the
+    *         slab itself, so that the bulk {@link ByteBuffer} operations can be used
+    */
+   private static ByteBuffer view(ByteBuffer slab, int position, int length) {
+      ByteBuffer view = slab.duplicate();
+      view.limit(position + length);
+      view.position(position);
+      return view;
+   }
+
+   private static int write(ByteBuffer slab, int position, byte[] bytes) {
+      ByteBuffer view = slab.duplicate();
+      view.position(position);
+      view.put(bytes);
+      return position + bytes.length;
+   }
+
+   private static byte[] read(ByteBuffer slab, int position, int length) {
+      byte[] bytes = new byte[length];
+      view(slab, position, length).get(bytes);
+      return bytes;
+   }
+
+   private class EntryIterator implements Iterator<InternalCacheEntry> {
+      private int nextSegment = 0;
+      // the index and slabs of the current segment, as captured when the iterator reached it
+      private long[] addresses;
+      private List<ByteBuffer> slabs;
+      private int nextSlot;
+      private InternalCacheEntry next;
+
+      @Override
+      public boolean hasNext() {
+         if (next == null)
+            next = advance();
+         return next != null;
+      }
+
+      @Override
+      public InternalCacheEntry next() {
+         if (!hasNext())
+            throw new NoSuchElementException();
+         InternalCacheEntry entry = next;
+         next = null;
+         return entry;
+      }
+
+      private InternalCacheEntry advance() {
+         long now = System.currentTimeMillis();
+         while (true) {
+            if (addresses == null || nextSlot >= addresses.length) {
+               if (nextSegment >= segments.length)
+                  return null;
+               capture(segments[nextSegment++]);
+               continue;
+            }
+            long address = addresses[nextSlot++];
+            if (address == EMPTY || address == REMOVED)
+               continue;
+            ByteBuffer slab = slabs.get(slabIndex(address));
+            int offset = offset(address);
+            if (isExpired(slab, offset, now))
+               continue;
+            RecordCopy copy = copy(slab, offset, true);
+            return toEntry(unmarshall(copy.key), copy);
+         }
+      }
+
+      private void capture(Segment segment) {
+         nextSlot = 0;
+         if (segment.count == 0) {
+            addresses = null;
+            slabs = null;
+            return;
+         }
+         segment.lock();
+         try {
+            addresses = segment.addresses.clone();
+            slabs = new ArrayList<ByteBuffer>(segment.slabs);
+         } finally {
+            segment.unlock();
+         }
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class KeySet extends AbstractSet<Object> {
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = new EntryIterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         return peek(o) != null;
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class EntrySet extends AbstractSet<InternalCacheEntry> {
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry))
+            return false;
+
+         @SuppressWarnings("rawtypes")
+         Map.Entry e = (Map.Entry) o;
+         InternalCacheEntry ice = peek(e.getKey());
+         return ice != null && ice.getValue().equals(e.getValue());
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry> iterator() {
+         final Iterator<InternalCacheEntry> it = new EntryIterator();
+         return new Iterator<InternalCacheEntry>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public InternalCacheEntry next() {
+               return Immutables.immutableInternalCacheEntry(it.next());
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Collection
+    */
+   private class Values extends AbstractCollection<Object> {
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = new EntryIterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getValue();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+}
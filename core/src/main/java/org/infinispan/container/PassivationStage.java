@@ -0,0 +1,185 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.executors.DefaultExecutorFactory;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passivates the entries chosen for eviction on a dedicated thread, so that threads writing to a cache at its size
+ * bound don't pay for the cache store write.
+ * <p/>
+ * An entry handed to the stage is marked as evicted but stays in the data container, and thus readable, until it has
+ * been passivated; only then is it removed from memory, provided it hasn't been removed or replaced in the meantime.
+ * The stage drains its queue in batches of up to {@code batchSize} entries into a buffer which is reused for the
+ * lifetime of the stage. The queue is bounded: once it is full, {@link #offer(InternalCacheEntry)} fails and the
+ * evicting thread has to passivate the entry itself, which throttles writers down to the speed of the cache store.
+ *
+ * @since 5.2
+ */
+@ThreadSafe
+final class PassivationStage implements Runnable {
+
+   private static final Log log = LogFactory.getLog(PassivationStage.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   /**
+    * Number of batches which can be waiting to be passivated before evicting threads are pushed back.
+    */
+   static final int QUEUED_BATCHES = 16;
+
+   private final ConcurrentMap<Object, InternalCacheEntry> entries;
+   private final PassivationManager passivator;
+   private final EvictionManager evictionManager;
+   private final int batchSize;
+   private final BlockingQueue<InternalCacheEntry> queue;
+   private final List<InternalCacheEntry> batch;
+   private volatile ExecutorService executor;
+
+   PassivationStage(ConcurrentMap<Object, InternalCacheEntry> entries, PassivationManager passivator,
+         EvictionManager evictionManager, int batchSize) {
+      this.entries = entries;
+      this.passivator = passivator;
+      this.evictionManager = evictionManager;
+      this.batchSize = batchSize;
+      this.queue = new ArrayBlockingQueue<InternalCacheEntry>(batchSize * QUEUED_BATCHES);
+      this.batch = new ArrayList<InternalCacheEntry>(batchSize);
+   }
+
+   void start() {
+      Properties p = new Properties();
+      p.setProperty("maxThreads", "1");
+      p.setProperty("threadNamePrefix", "PassivationStage");
+      p.setProperty("threadPriority", String.valueOf(Thread.NORM_PRIORITY));
+      ExecutorService e = new DefaultExecutorFactory().getExecutor(p);
+      executor = e;
+      e.execute(this);
+   }
+
+   /**
+    * Stops the passivation thread, waiting for it to finish the batch it is passivating. Entries still queued remain
+    * in the data container, so they are passivated along with all other entries when the cache stops.
+    *
+    * @param timeoutMillis how long to wait for the passivation thread to finish
+    */
+   void stop(long timeoutMillis) {
+      ExecutorService e = executor;
+      executor = null;
+      if (e != null) {
+         e.shutdownNow();
+         try {
+            if (!e.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS))
+               log.debug("Passivation thread did not stop in time");
+         } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+         }
+      }
+      queue.clear();
+   }
+
+   /**
+    * Drops all queued entries, e.g. because the data container was cleared.
+    */
+   void clear() {
+      queue.clear();
+   }
+
+   /**
+    * Queues an entry chosen for eviction.
+    *
+    * @return true if the entry was queued and must stay in memory until passivated, false if the queue is full or the
+    *         stage is stopped, in which case the caller has to passivate the entry itself
+    */
+   boolean offer(InternalCacheEntry entry) {
+      if (executor == null)
+         return false;
+      entry.setEvicted(true);
+      if (queue.offer(entry))
+         return true;
+      entry.setEvicted(false);
+      return false;
+   }
+
+   int getQueueSize() {
+      return queue.size();
+   }
+
+   @Override
+   public void run() {
+      try {
+         while (!Thread.currentThread().isInterrupted()) {
+            batch.add(queue.take());
+            queue.drainTo(batch, batchSize - 1);
+            try {
+               passivateBatch();
+            } finally {
+               batch.clear();
+            }
+         }
+      } catch (InterruptedException e) {
+         // stopped
+      }
+   }
+
+   private void passivateBatch() {
+      if (trace) log.tracef("Passivating a batch of %d entries", batch.size());
+      Map<Object, InternalCacheEntry> evicted = null;
+      for (int i = 0; i < batch.size(); i++) {
+         InternalCacheEntry entry = batch.get(i);
+         Object key = entry.getKey();
+         // skip entries which were removed or replaced while they were queued
+         if (entries.get(key) != entry)
+            continue;
+         try {
+            passivator.passivate(entry);
+         } catch (RuntimeException e) {
+            log.unableToPassivateEntry(key, e);
+            entry.setEvicted(false);
+            continue;
+         }
+         if (entries.remove(key, entry)) {
+            if (evicted == null)
+               evicted = new HashMap<Object, InternalCacheEntry>(batch.size() * 4 / 3 + 1);
+            evicted.put(key, entry);
+         }
+      }
+      if (evicted != null)
+         evictionManager.onEntryEviction(evicted);
+   }
+}
@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A {@link DataContainer} which partitions its entries by the same segments as the consistent hash, so that the
+ * entries of a segment can be visited, counted and dropped without going through the whole container.
+ *
+ * @since 5.2
+ */
+public interface SegmentAwareDataContainer extends DataContainer {
+
+   /**
+    * @return the number of segments the entries are partitioned into
+    */
+   int getNumSegments();
+
+   /**
+    * @return the segment the given key belongs to
+    */
+   int getSegment(Object key);
+
+   /**
+    * Checks whether the segments of this container are the same as the segments of the given consistent hash, i.e.
+    * whether every key maps to the same segment id in both. Only then can the per-segment operations be used in
+    * place of iterating over the container and hashing every key.
+    */
+   boolean isAlignedWith(ConsistentHash consistentHash);
+
+   /**
+    * @return an iterator over the entries of a segment. As with {@link #iterator()}, the iterator is weakly consistent
+    * and does not support removal.
+    */
+   Iterator<InternalCacheEntry> segmentIterator(int segment);
+
+   /**
+    * @return an unmodifiable view of the keys stored in a segment
+    */
+   Set<Object> segmentKeySet(int segment);
+
+   /**
+    * @return the number of entries in a segment, including expired entries which were not purged yet
+    */
+   int segmentSize(int segment);
+
+   /**
+    * Drops all the entries of the given segments, in constant time per segment. No eviction, passivation or
+    * notification takes place, so this is meant for releasing segments which are no longer owned by this node.
+    * <p/>
+    * Writes to a segment while it is being dropped may be lost, and L1 entries are dropped along with the owned ones,
+    * so callers must make sure no other thread writes to these segments and that they don't need to keep L1 copies.
+    */
+   void removeSegments(Set<Integer> segments);
+}
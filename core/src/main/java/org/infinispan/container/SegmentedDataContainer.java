@@ -0,0 +1,261 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.commons.hash.Hash;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.ch.DefaultConsistentHash;
+import org.infinispan.util.concurrent.ConcurrentMapFactory;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An unbounded {@link DefaultDataContainer} keeping a separate map per consistent hash segment. Keys are assigned to
+ * segments the same way as {@link DefaultConsistentHash#getSegment(Object)} does, using the hash function and number
+ * of segments of the cache configuration.
+ *
+ * @since 5.2
+ */
+@ThreadSafe
+public class SegmentedDataContainer extends DefaultDataContainer implements SegmentAwareDataContainer {
+
+   private final SegmentedMap segmentedEntries;
+
+   protected SegmentedDataContainer(int concurrencyLevel, Hash hashFunction, int numSegments) {
+      this(new SegmentedMap(concurrencyLevel, hashFunction, numSegments));
+   }
+
+   private SegmentedDataContainer(SegmentedMap entries) {
+      super(entries);
+      this.segmentedEntries = entries;
+   }
+
+   public static DataContainer segmentedDataContainer(int concurrencyLevel, Hash hashFunction, int numSegments) {
+      return new SegmentedDataContainer(concurrencyLevel, hashFunction, numSegments);
+   }
+
+   @Override
+   public int getNumSegments() {
+      return segmentedEntries.maps.length();
+   }
+
+   @Override
+   public int getSegment(Object key) {
+      return segmentedEntries.segmentFor(key);
+   }
+
+   @Override
+   public boolean isAlignedWith(ConsistentHash consistentHash) {
+      return consistentHash instanceof DefaultConsistentHash
+            && consistentHash.getNumSegments() == getNumSegments()
+            && segmentedEntries.hashFunction.equals(consistentHash.getHashFunction());
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> segmentIterator(int segment) {
+      return new EntryIterator(segmentedEntries.maps.get(segment).values().iterator());
+   }
+
+   @Override
+   public Set<Object> segmentKeySet(int segment) {
+      return Collections.unmodifiableSet(segmentedEntries.maps.get(segment).keySet());
+   }
+
+   @Override
+   public int segmentSize(int segment) {
+      return segmentedEntries.maps.get(segment).size();
+   }
+
+   @Override
+   public void removeSegments(Set<Integer> segments) {
+      for (int segment : segments) {
+         segmentedEntries.maps.set(segment, segmentedEntries.newSegmentMap());
+      }
+   }
+
+   /**
+    * A concurrent map made of one map per segment. Replacing the map of a segment releases all its entries at once.
+    */
+   static final class SegmentedMap extends AbstractMap<Object, InternalCacheEntry>
+         implements ConcurrentMap<Object, InternalCacheEntry> {
+
+      private final Hash hashFunction;
+      private final int segmentSize;
+      private final int concurrencyLevel;
+      final AtomicReferenceArray<ConcurrentMap<Object, InternalCacheEntry>> maps;
+      private final Set<Map.Entry<Object, InternalCacheEntry>> entrySet = new EntrySet();
+
+      SegmentedMap(int concurrencyLevel, Hash hashFunction, int numSegments) {
+         if (numSegments < 1)
+            throw new IllegalArgumentException("The number of segments must be strictly positive");
+         this.hashFunction = hashFunction;
+         this.concurrencyLevel = concurrencyLevel;
+         // same arithmetic as DefaultConsistentHash, so that segment ids match
+         this.segmentSize = (int) Math.ceil((double) Integer.MAX_VALUE / numSegments);
+         this.maps = new AtomicReferenceArray<ConcurrentMap<Object, InternalCacheEntry>>(numSegments);
+         for (int i = 0; i < numSegments; i++) {
+            maps.set(i, newSegmentMap());
+         }
+      }
+
+      ConcurrentMap<Object, InternalCacheEntry> newSegmentMap() {
+         return ConcurrentMapFactory.makeConcurrentMap(16, concurrencyLevel);
+      }
+
+      int segmentFor(Object key) {
+         return (hashFunction.hash(key) & Integer.MAX_VALUE) / segmentSize;
+      }
+
+      private ConcurrentMap<Object, InternalCacheEntry> mapFor(Object key) {
+         return maps.get(segmentFor(key));
+      }
+
+      @Override
+      public InternalCacheEntry get(Object key) {
+         return mapFor(key).get(key);
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+         return mapFor(key).containsKey(key);
+      }
+
+      @Override
+      public InternalCacheEntry put(Object key, InternalCacheEntry value) {
+         return mapFor(key).put(key, value);
+      }
+
+      @Override
+      public InternalCacheEntry remove(Object key) {
+         return mapFor(key).remove(key);
+      }
+
+      @Override
+      public InternalCacheEntry putIfAbsent(Object key, InternalCacheEntry value) {
+         return mapFor(key).putIfAbsent(key, value);
+      }
+
+      @Override
+      public boolean remove(Object key, Object value) {
+         return mapFor(key).remove(key, value);
+      }
+
+      @Override
+      public boolean replace(Object key, InternalCacheEntry oldValue, InternalCacheEntry newValue) {
+         return mapFor(key).replace(key, oldValue, newValue);
+      }
+
+      @Override
+      public InternalCacheEntry replace(Object key, InternalCacheEntry value) {
+         return mapFor(key).replace(key, value);
+      }
+
+      @Override
+      public int size() {
+         long size = 0;
+         for (int i = 0; i < maps.length(); i++) {
+            size += maps.get(i).size();
+         }
+         return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+      }
+
+      @Override
+      public boolean isEmpty() {
+         for (int i = 0; i < maps.length(); i++) {
+            if (!maps.get(i).isEmpty()) return false;
+         }
+         return true;
+      }
+
+      @Override
+      public void clear() {
+         for (int i = 0; i < maps.length(); i++) {
+            maps.get(i).clear();
+         }
+      }
+
+      @Override
+      public Set<Map.Entry<Object, InternalCacheEntry>> entrySet() {
+         return entrySet;
+      }
+
+      private final class EntrySet extends AbstractSet<Map.Entry<Object, InternalCacheEntry>> {
+         @Override
+         public Iterator<Map.Entry<Object, InternalCacheEntry>> iterator() {
+            return new SegmentsIterator();
+         }
+
+         @Override
+         public int size() {
+            return SegmentedMap.this.size();
+         }
+
+         @Override
+         public void clear() {
+            SegmentedMap.this.clear();
+         }
+      }
+
+      /**
+       * Visits the segments one after the other. Removal is delegated to the iterator of the current segment.
+       */
+      private final class SegmentsIterator implements Iterator<Map.Entry<Object, InternalCacheEntry>> {
+         private int nextSegment;
+         private Iterator<Map.Entry<Object, InternalCacheEntry>> current = Collections.<Map.Entry<Object, InternalCacheEntry>>emptySet().iterator();
+         private Iterator<Map.Entry<Object, InternalCacheEntry>> last;
+
+         @Override
+         public boolean hasNext() {
+            while (!current.hasNext()) {
+               if (nextSegment >= maps.length()) return false;
+               current = maps.get(nextSegment++).entrySet().iterator();
+            }
+            return true;
+         }
+
+         @Override
+         public Map.Entry<Object, InternalCacheEntry> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            last = current;
+            return current.next();
+         }
+
+         @Override
+         public void remove() {
+            if (last == null) throw new IllegalStateException();
+            last.remove();
+            last = null;
+         }
+      }
+   }
+}
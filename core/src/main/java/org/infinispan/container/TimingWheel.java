@@ -0,0 +1,257 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.container.entries.InternalCacheEntry;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A hierarchical timing wheel indexing cache entries by their expiry time, so that purging expired entries costs
+ * time proportional to the number of entries that are scheduled or due rather than to the size of the container.
+ * <p/>
+ * Scheduling is lock-free: writers only append to a concurrent queue of pending timers. The wheel itself is owned by
+ * whichever thread {@link #advance(long, ExpirationHandler) advances} it, which first distributes the pending timers
+ * across the wheel levels and then walks the ticks elapsed since the previous advance, cascading timers from coarser to
+ * finer levels as it goes.
+ * <p/>
+ * Timers are not cancelled when entries are removed, replaced or touched. Instead, the {@link ExpirationHandler}
+ * decides what to do with a timer once it becomes due: drop it if the entry is gone, remove the entry if it has
+ * expired, or reschedule it at the entry's new expiry time (e.g. after a transient entry was touched). Timers only hold
+ * a weak reference to their entry, so the entries which were removed or evicted, along with their keys and values, can
+ * be garbage collected before their timers become due; such timers are dropped without invoking the handler.
+ *
+ * @since 5.2
+ */
+@ThreadSafe
+final class TimingWheel {
+
+   /**
+    * Decides the fate of a timer which became due.
+    */
+   interface ExpirationHandler {
+      /**
+       * @return the time at which the timer should fire again, or a negative value to discard the timer
+       */
+      long onTimer(Object key, InternalCacheEntry entry, long now);
+   }
+
+   private static final int BITS_PER_LEVEL = 6;
+   private static final int SLOTS_PER_LEVEL = 1 << BITS_PER_LEVEL;
+   private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+   private static final int LEVELS = 4;
+   /**
+    * Number of ticks covered by the whole wheel; timers further away are parked in the overflow list.
+    */
+   private static final long SPAN = 1L << (BITS_PER_LEVEL * LEVELS);
+
+   private final long tickMillis;
+   private final ConcurrentLinkedQueue<Timer> pending = new ConcurrentLinkedQueue<Timer>();
+   private final ReentrantLock lock = new ReentrantLock();
+   // guarded by lock
+   private final ArrayDeque<Timer>[][] slots;
+   private final ArrayDeque<Timer> overflow = new ArrayDeque<Timer>();
+   private final ArrayDeque<Timer> due = new ArrayDeque<Timer>();
+   private long currentTick;
+   private int size;
+
+   @SuppressWarnings("unchecked")
+   TimingWheel(long tickMillis, long now) {
+      if (tickMillis <= 0) throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+      this.tickMillis = tickMillis;
+      this.currentTick = now / tickMillis;
+      this.slots = new ArrayDeque[LEVELS][SLOTS_PER_LEVEL];
+      for (int level = 0; level < LEVELS; level++) {
+         for (int slot = 0; slot < SLOTS_PER_LEVEL; slot++) {
+            slots[level][slot] = new ArrayDeque<Timer>();
+         }
+      }
+   }
+
+   /**
+    * Schedules a timer for the given entry, to fire once <tt>expiryTime</tt> has passed. Never blocks. The key is only
+    * retained if the entry doesn't carry it, e.g. for an {@link org.infinispan.container.entries.InternalNullEntry}.
+    */
+   void schedule(Object key, InternalCacheEntry entry, long expiryTime) {
+      pending.offer(new Timer(key, entry, toTick(expiryTime)));
+   }
+
+   /**
+    * Advances the wheel up to <tt>now</tt>, passing every timer which became due to the handler. If another thread is
+    * already advancing the wheel this call returns immediately, as that thread will take care of the due timers.
+    *
+    * @return the number of timers processed
+    */
+   int advance(long now, ExpirationHandler handler) {
+      if (!lock.tryLock()) return 0;
+      try {
+         long targetTick = now / tickMillis;
+         if (targetTick - currentTick >= SPAN) {
+            // the wheel hasn't been advanced for longer than it spans, so walking each tick would be wasteful
+            currentTick = targetTick;
+            redistributeAll();
+         }
+         drainPending();
+         int processed = fireDue(now, handler);
+         while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            ArrayDeque<Timer> slot = slots[0][(int) (currentTick & SLOT_MASK)];
+            due.addAll(slot);
+            size -= slot.size();
+            slot.clear();
+            processed += fireDue(now, handler);
+         }
+         return processed;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Discards all the timers, e.g. after the container was cleared.
+    */
+   void clear() {
+      lock.lock();
+      try {
+         pending.clear();
+         for (ArrayDeque<Timer>[] level : slots) {
+            for (ArrayDeque<Timer> slot : level) {
+               slot.clear();
+            }
+         }
+         overflow.clear();
+         due.clear();
+         size = 0;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * @return the approximate number of timers held by the wheel
+    */
+   int size() {
+      return size + pending.size();
+   }
+
+   long getTickMillis() {
+      return tickMillis;
+   }
+
+   private long toTick(long time) {
+      // entries expire once the current time is strictly greater than their expiry time
+      return time / tickMillis + 1;
+   }
+
+   private void drainPending() {
+      Timer timer;
+      while ((timer = pending.poll()) != null) {
+         place(timer);
+      }
+   }
+
+   private int fireDue(long now, ExpirationHandler handler) {
+      int processed = 0;
+      Timer timer;
+      while ((timer = due.poll()) != null) {
+         processed++;
+         InternalCacheEntry entry = null;
+         // the entry was collected, so it can't be in the container anymore
+         if (timer.entry != null && (entry = timer.entry.get()) == null)
+            continue;
+         long nextExpiry = handler.onTimer(timer.key != null ? timer.key : entry.getKey(), entry, now);
+         if (nextExpiry >= 0) {
+            timer.tick = Math.max(toTick(nextExpiry), currentTick + 1);
+            place(timer);
+         }
+      }
+      return processed;
+   }
+
+   /**
+    * Moves timers from the coarser levels whose slot boundary was just crossed down to the finer levels, starting with
+    * the coarsest level so that timers cascade all the way down within a single tick.
+    */
+   private void cascade() {
+      int crossed = 0;
+      while (crossed < LEVELS - 1 && (currentTick & ((1L << (BITS_PER_LEVEL * (crossed + 1))) - 1)) == 0) {
+         crossed++;
+      }
+      if (crossed == LEVELS - 1 && (currentTick & (SPAN - 1)) == 0) {
+         replace(overflow);
+      }
+      for (int level = crossed; level > 0; level--) {
+         replace(slots[level][(int) ((currentTick >>> (BITS_PER_LEVEL * level)) & SLOT_MASK)]);
+      }
+   }
+
+   private void redistributeAll() {
+      for (ArrayDeque<Timer>[] level : slots) {
+         for (ArrayDeque<Timer> slot : level) {
+            replace(slot);
+         }
+      }
+      replace(overflow);
+   }
+
+   private void replace(ArrayDeque<Timer> timers) {
+      int count = timers.size();
+      size -= count;
+      for (int i = 0; i < count; i++) {
+         place(timers.poll());
+      }
+   }
+
+   private void place(Timer timer) {
+      long delta = timer.tick - currentTick;
+      if (delta <= 0) {
+         due.add(timer);
+         return;
+      }
+      size++;
+      for (int level = 0; level < LEVELS; level++) {
+         if (delta < 1L << (BITS_PER_LEVEL * (level + 1))) {
+            slots[level][(int) ((timer.tick >>> (BITS_PER_LEVEL * level)) & SLOT_MASK)].add(timer);
+            return;
+         }
+      }
+      overflow.add(timer);
+   }
+
+   private static final class Timer {
+      final Object key;
+      final WeakReference<InternalCacheEntry> entry;
+      long tick;
+
+      Timer(Object key, InternalCacheEntry entry, long tick) {
+         this.key = entry == null || entry.getKey() == null ? key : null;
+         this.entry = entry == null ? null : new WeakReference<InternalCacheEntry>(entry);
+         this.tick = tick;
+      }
+   }
+}
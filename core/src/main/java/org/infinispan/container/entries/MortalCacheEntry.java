@@ -39,21 +39,24 @@
  * @since 4.0
  */
 public class MortalCacheEntry extends AbstractInternalCacheEntry {
-   protected MortalCacheValue cacheValue;
+   protected Object value;
+   protected long created;
+   protected long lifespan;
 
    protected MortalCacheEntry(Object key, MortalCacheValue cacheValue) {
-      super(key);
-      this.cacheValue = cacheValue;
+      this(key, cacheValue.value, cacheValue.getLifespan(), cacheValue.getCreated());
    }
 
    @Override
    public Object getValue() {
-      return cacheValue.value;
+      return value;
    }
 
    @Override
    public Object setValue(Object value) {
-      return cacheValue.setValue(value);
+      Object old = this.value;
+      this.value = value;
+      return old;
    }
 
    public MortalCacheEntry(Object key, Object value, long lifespan) {
@@ -62,17 +65,19 @@ public MortalCacheEntry(Object key, Object value, long lifespan) {
 
    public MortalCacheEntry(Object key, Object value, long lifespan, long created) {
       super(key);
-      cacheValue = new MortalCacheValue(value, created, lifespan);
+      this.value = value;
+      this.created = created;
+      this.lifespan = lifespan;
    }
 
    @Override
    public final boolean isExpired(long now) {
-      return ExpiryHelper.isExpiredMortal(cacheValue.lifespan, cacheValue.created, now);
+      return ExpiryHelper.isExpiredMortal(lifespan, created, now);
    }
 
    @Override
    public final boolean isExpired() {
-      return ExpiryHelper.isExpiredMortal(cacheValue.lifespan, cacheValue.created);
+      return ExpiryHelper.isExpiredMortal(lifespan, created);
    }
 
    @Override
@@ -82,12 +87,12 @@ public final boolean canExpire() {
 
    @Override
    public void setLifespan(long lifespan) {
-      cacheValue.setLifespan(lifespan);
+      this.lifespan = lifespan;
    }
 
    @Override
    public final long getCreated() {
-      return cacheValue.created;
+      return created;
    }
 
    @Override
@@ -97,7 +102,7 @@ public final long getLastUsed() {
 
    @Override
    public final long getLifespan() {
-      return cacheValue.lifespan;
+      return lifespan;
    }
 
    @Override
@@ -107,7 +112,7 @@ public final long getMaxIdle() {
 
    @Override
    public final long getExpiryTime() {
-      return cacheValue.lifespan > -1 ? cacheValue.created + cacheValue.lifespan : -1;
+      return lifespan > -1 ? created + lifespan : -1;
    }
 
    @Override
@@ -122,12 +127,12 @@ public final void touch(long currentTimeMillis) {
 
    @Override
    public final void reincarnate() {
-      cacheValue.created = System.currentTimeMillis();
+      created = System.currentTimeMillis();
    }
 
    @Override
    public InternalCacheValue toInternalCacheValue() {
-      return cacheValue;
+      return new MortalCacheValue(value, created, lifespan);
    }
 
    @Override
@@ -138,35 +143,32 @@ public boolean equals(Object o) {
       MortalCacheEntry that = (MortalCacheEntry) o;
 
       if (key != null ? !key.equals(that.key) : that.key != null) return false;
-      if (cacheValue.value != null ? !cacheValue.value.equals(that.cacheValue.value) : that.cacheValue.value != null)
-         return false;
-      if (cacheValue.created != that.cacheValue.created) return false;
-      return cacheValue.lifespan == that.cacheValue.lifespan;
+      if (value != null ? !value.equals(that.value) : that.value != null) return false;
+      if (created != that.created) return false;
+      return lifespan == that.lifespan;
    }
 
    @Override
    public int hashCode() {
       int result = key != null ? key.hashCode() : 0;
-      result = 31 * result + (cacheValue.value != null ? cacheValue.value.hashCode() : 0);
-      result = 31 * result + (int) (cacheValue.created ^ (cacheValue.created >>> 32));
-      result = 31 * result + (int) (cacheValue.lifespan ^ (cacheValue.lifespan >>> 32));
+      result = 31 * result + (value != null ? value.hashCode() : 0);
+      result = 31 * result + (int) (created ^ (created >>> 32));
+      result = 31 * result + (int) (lifespan ^ (lifespan >>> 32));
       return result;
    }
 
    @Override
    public MortalCacheEntry clone() {
-      MortalCacheEntry clone = (MortalCacheEntry) super.clone();
-      clone.cacheValue = cacheValue.clone();
-      return clone;
+      return (MortalCacheEntry) super.clone();
    }
 
    public static class Externalizer extends AbstractExternalizer<MortalCacheEntry> {
       @Override
       public void writeObject(ObjectOutput output, MortalCacheEntry mce) throws IOException {
          output.writeObject(mce.key);
-         output.writeObject(mce.cacheValue.value);
-         UnsignedNumeric.writeUnsignedLong(output, mce.cacheValue.created);
-         output.writeLong(mce.cacheValue.lifespan); // could be negative so should not use unsigned longs
+         output.writeObject(mce.value);
+         UnsignedNumeric.writeUnsignedLong(output, mce.created);
+         output.writeLong(mce.lifespan); // could be negative so should not use unsigned longs
       }
 
       @Override
@@ -193,7 +195,9 @@ public Set<Class<? extends MortalCacheEntry>> getTypeClasses() {
    public String toString() {
       return "MortalCacheEntry{" +
             "key=" + key +
-            ", value=" + cacheValue +
+            ", value=" + value +
+            ", created=" + created +
+            ", lifespan=" + lifespan +
             "}";
    }
 }
@@ -20,6 +20,7 @@
 package org.infinispan.container.entries.versioned;
 
 import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheValue;
 import org.infinispan.container.versioning.EntryVersion;
 import org.infinispan.marshall.AbstractExternalizer;
 import org.infinispan.marshall.Ids;
@@ -38,30 +39,38 @@
  */
 public class VersionedImmortalCacheEntry extends ImmortalCacheEntry implements Versioned {
 
+   private EntryVersion version;
+
    public VersionedImmortalCacheEntry(Object key, Object value, EntryVersion version) {
-      super(key, new VersionedImmortalCacheValue(value, version));
+      super(key, value);
+      this.version = version;
    }
 
    VersionedImmortalCacheEntry(Object key, VersionedImmortalCacheValue cacheValue) {
-      super(key, cacheValue);
+      this(key, cacheValue.value, cacheValue.getVersion());
    }
 
    @Override
    public EntryVersion getVersion() {
-      return ((Versioned) cacheValue).getVersion();
+      return version;
    }
 
    @Override
    public void setVersion(EntryVersion version) {
-      ((Versioned) cacheValue).setVersion(version);
+      this.version = version;
+   }
+
+   @Override
+   public InternalCacheValue toInternalCacheValue() {
+      return new VersionedImmortalCacheValue(value, version);
    }
 
    public static class Externalizer extends AbstractExternalizer<VersionedImmortalCacheEntry> {
       @Override
       public void writeObject(ObjectOutput output, VersionedImmortalCacheEntry ice) throws IOException {
          output.writeObject(ice.key);
-         output.writeObject(ice.cacheValue.value);
-         output.writeObject(((Versioned) ice.cacheValue).getVersion());
+         output.writeObject(ice.value);
+         output.writeObject(ice.version);
       }
 
       @Override
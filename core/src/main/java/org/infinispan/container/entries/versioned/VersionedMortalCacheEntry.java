@@ -19,6 +19,7 @@
 
 package org.infinispan.container.entries.versioned;
 
+import org.infinispan.container.entries.InternalCacheValue;
 import org.infinispan.container.entries.MortalCacheEntry;
 import org.infinispan.container.versioning.EntryVersion;
 import org.infinispan.io.UnsignedNumeric;
@@ -39,8 +40,11 @@
  */
 public class VersionedMortalCacheEntry extends MortalCacheEntry implements Versioned {
 
+   private EntryVersion version;
+
    public VersionedMortalCacheEntry(Object key, Object value, EntryVersion version, long lifespan, long created) {
-      super(key, new VersionedMortalCacheValue(value, version, created, lifespan));
+      super(key, value, lifespan, created);
+      this.version = version;
    }
 
    public VersionedMortalCacheEntry(Object key, Object value, EntryVersion version, long lifespan) {
@@ -48,27 +52,32 @@ public VersionedMortalCacheEntry(Object key, Object value, EntryVersion version,
    }
 
    VersionedMortalCacheEntry(Object key, VersionedMortalCacheValue cacheValue) {
-      super(key, cacheValue);
+      this(key, cacheValue.value, cacheValue.getVersion(), cacheValue.getLifespan(), cacheValue.getCreated());
    }
 
    @Override
    public EntryVersion getVersion() {
-      return ((Versioned) cacheValue).getVersion();
+      return version;
    }
 
    @Override
    public void setVersion(EntryVersion version) {
-      ((Versioned) cacheValue).setVersion(version);
+      this.version = version;
+   }
+
+   @Override
+   public InternalCacheValue toInternalCacheValue() {
+      return new VersionedMortalCacheValue(value, version, created, lifespan);
    }
 
    public static class Externalizer extends AbstractExternalizer<VersionedMortalCacheEntry> {
       @Override
       public void writeObject(ObjectOutput output, VersionedMortalCacheEntry ice) throws IOException {
          output.writeObject(ice.key);
-         output.writeObject(ice.cacheValue.value);
-         output.writeObject(((Versioned) ice.cacheValue).getVersion());
-         UnsignedNumeric.writeUnsignedLong(output, ice.cacheValue.getCreated());
-         output.writeLong(ice.cacheValue.getLifespan()); // could be negative so should not use unsigned longs
+         output.writeObject(ice.value);
+         output.writeObject(ice.version);
+         UnsignedNumeric.writeUnsignedLong(output, ice.created);
+         output.writeLong(ice.lifespan); // could be negative so should not use unsigned longs
       }
 
       @Override
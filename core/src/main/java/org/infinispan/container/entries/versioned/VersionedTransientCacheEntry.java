@@ -19,6 +19,7 @@
 
 package org.infinispan.container.entries.versioned;
 
+import org.infinispan.container.entries.InternalCacheValue;
 import org.infinispan.container.entries.TransientCacheEntry;
 import org.infinispan.container.versioning.EntryVersion;
 import org.infinispan.io.UnsignedNumeric;
@@ -39,36 +40,44 @@
  */
 public class VersionedTransientCacheEntry extends TransientCacheEntry implements Versioned {
 
+   private EntryVersion version;
+
    public VersionedTransientCacheEntry(Object key, Object value, EntryVersion version, long maxIdle) {
       this(key, value, version, maxIdle, System.currentTimeMillis());
    }
 
    public VersionedTransientCacheEntry(Object key, Object value, EntryVersion version, long maxIdle, long lastUsed) {
-      super(key, new VersionedTransientCacheValue(value, version, maxIdle, lastUsed));
+      super(key, value, maxIdle, lastUsed);
+      this.version = version;
    }
 
    VersionedTransientCacheEntry(Object key, VersionedTransientCacheValue cacheValue) {
-      super(key, cacheValue);
+      this(key, cacheValue.value, cacheValue.getVersion(), cacheValue.getMaxIdle(), cacheValue.getLastUsed());
    }
 
    @Override
    public EntryVersion getVersion() {
-      return ((Versioned) cacheValue).getVersion();
+      return version;
    }
 
    @Override
    public void setVersion(EntryVersion version) {
-      ((Versioned) cacheValue).setVersion(version);
+      this.version = version;
+   }
+
+   @Override
+   public InternalCacheValue toInternalCacheValue() {
+      return new VersionedTransientCacheValue(value, version, maxIdle, lastUsed);
    }
 
    public static class Externalizer extends AbstractExternalizer<VersionedTransientCacheEntry> {
       @Override
       public void writeObject(ObjectOutput output, VersionedTransientCacheEntry ice) throws IOException {
          output.writeObject(ice.key);
-         output.writeObject(ice.cacheValue.value);
-         output.writeObject(((Versioned) ice.cacheValue).getVersion());
-         UnsignedNumeric.writeUnsignedLong(output, ice.cacheValue.getLastUsed());
-         output.writeLong(ice.cacheValue.getMaxIdle()); // could be negative so should not use unsigned longs
+         output.writeObject(ice.value);
+         output.writeObject(ice.version);
+         UnsignedNumeric.writeUnsignedLong(output, ice.lastUsed);
+         output.writeLong(ice.maxIdle); // could be negative so should not use unsigned longs
       }
 
       @Override
@@ -19,6 +19,7 @@
 
 package org.infinispan.container.entries.versioned;
 
+import org.infinispan.container.entries.InternalCacheValue;
 import org.infinispan.container.entries.TransientMortalCacheEntry;
 import org.infinispan.container.versioning.EntryVersion;
 import org.infinispan.io.UnsignedNumeric;
@@ -39,44 +40,53 @@
  */
 public class VersionedTransientMortalCacheEntry extends TransientMortalCacheEntry implements Versioned {
 
+   private EntryVersion version;
+
    public VersionedTransientMortalCacheEntry(Object key, Object value, EntryVersion version, long maxIdle, long lifespan) {
-      super(key, new VersionedTransientMortalCacheValue(value, version, System.currentTimeMillis(), lifespan, maxIdle));
-      touch(this.cacheValue.getCreated());
+      super(key, value, maxIdle, lifespan);
+      this.version = version;
    }
 
    VersionedTransientMortalCacheEntry(Object key, Object value, EntryVersion version) {
-      super(key, new VersionedTransientMortalCacheValue(value, version, System.currentTimeMillis()));
-      touch(this.cacheValue.getCreated());
+      super(key, value);
+      this.version = version;
    }
 
    public VersionedTransientMortalCacheEntry(Object key, Object value, EntryVersion version, long maxIdle, long lifespan, long lastUsed, long created) {
-      super(key, new VersionedTransientMortalCacheValue(value, version, created, lifespan, maxIdle, lastUsed));
+      super(key, value, maxIdle, lifespan, lastUsed, created);
+      this.version = version;
    }
 
    VersionedTransientMortalCacheEntry(Object key, VersionedTransientMortalCacheValue cacheValue) {
-      super(key, cacheValue);
+      this(key, cacheValue.value, cacheValue.getVersion(), cacheValue.getMaxIdle(), cacheValue.getLifespan(),
+           cacheValue.getLastUsed(), cacheValue.getCreated());
    }
 
    @Override
    public EntryVersion getVersion() {
-      return ((Versioned) cacheValue).getVersion();
+      return version;
    }
 
    @Override
    public void setVersion(EntryVersion version) {
-      ((Versioned) cacheValue).setVersion(version);
+      this.version = version;
+   }
+
+   @Override
+   public InternalCacheValue toInternalCacheValue() {
+      return new VersionedTransientMortalCacheValue(value, version, created, lifespan, maxIdle, lastUsed);
    }
 
    public static class Externalizer extends AbstractExternalizer<VersionedTransientMortalCacheEntry> {
       @Override
       public void writeObject(ObjectOutput output, VersionedTransientMortalCacheEntry ice) throws IOException {
          output.writeObject(ice.key);
-         output.writeObject(ice.cacheValue.value);
-         output.writeObject(((Versioned) ice.cacheValue).getVersion());
-         UnsignedNumeric.writeUnsignedLong(output, ice.cacheValue.getCreated());
-         output.writeLong(ice.cacheValue.getLifespan()); // could be negative so should not use unsigned longs
-         UnsignedNumeric.writeUnsignedLong(output, ice.cacheValue.getLastUsed());
-         output.writeLong(ice.cacheValue.getMaxIdle()); // could be negative so should not use unsigned longs
+         output.writeObject(ice.value);
+         output.writeObject(ice.version);
+         UnsignedNumeric.writeUnsignedLong(output, ice.created);
+         output.writeLong(ice.lifespan); // could be negative so should not use unsigned longs
+         UnsignedNumeric.writeUnsignedLong(output, ice.lastUsed);
+         output.writeLong(ice.maxIdle); // could be negative so should not use unsigned longs
       }
 
       @Override
@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container.versioning;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+
+/**
+ * Retains the recently overwritten versions of the entries so that transactions can read a consistent snapshot of the
+ * cache, as it was committed when they first read from it, however long they run.
+ * <p/>
+ * Snapshots and commits are ordered by epochs: a snapshot sees all the commits applied before it was taken, and none
+ * of those applied after.  Whenever a committed entry overwrites another while a snapshot is open, the previous
+ * version is retained until no open snapshot can read it any more, so neither readers nor writers take any lock on
+ * the keys.  At most {@link org.infinispan.configuration.cache.VersioningConfiguration#retainedVersions()} versions
+ * are retained per key; reading a key whose visible version has been discarded fails.
+ *
+ * @since 5.2
+ */
+@Scope(Scopes.NAMED_CACHE)
+public interface SnapshotManager {
+
+   /**
+    * @return true if snapshot reads are enabled, false otherwise.
+    */
+   boolean isEnabled();
+
+   /**
+    * Opens a snapshot of the committed state of the cache.  Every opened snapshot must be closed with {@link
+    * #endSnapshot(long)}, otherwise the versions it could read are retained until they are evicted by newer ones.
+    *
+    * @return the id of the snapshot
+    */
+   long beginSnapshot();
+
+   /**
+    * Closes a snapshot, allowing the versions only it could read to be discarded.
+    */
+   void endSnapshot(long snapshot);
+
+   /**
+    * Reads a key in a snapshot.
+    *
+    * @return the version of the entry visible in the snapshot, or null if the key didn't exist in the snapshot
+    * @throws org.infinispan.CacheException if the version visible in the snapshot has been discarded
+    */
+   InternalCacheEntry get(Object key, long snapshot);
+
+   /**
+    * Must be invoked before applying committed entries to the data container, and followed by {@link #endCommit()}
+    * once they have all been applied: the entries committed in between become visible to snapshots atomically.
+    */
+   void beginCommit();
+
+   /**
+    * Retains the current version of the entry for the open snapshots, if any.  Must be invoked between {@link
+    * #beginCommit()} and {@link #endCommit()}, before the new version of the entry is written to the data container.
+    */
+   void retainPreviousVersion(Object key);
+
+   void endCommit();
+}
@@ -0,0 +1,256 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container.versioning;
+
+import org.infinispan.CacheException;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.util.concurrent.ConcurrentMapFactory;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.rhq.helpers.pluginAnnotations.agent.DisplayType;
+import org.rhq.helpers.pluginAnnotations.agent.MeasurementType;
+import org.rhq.helpers.pluginAnnotations.agent.Metric;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Default {@link SnapshotManager}.
+ * <p/>
+ * Commits hold the read side of a read-write lock while they apply their entries, tagging the versions they overwrite
+ * with the current epoch, and opening a snapshot takes the write side just long enough to read and bump the epoch.
+ * A snapshot therefore sees exactly the commits tagged with an epoch lower or equal to its own, and a retained version
+ * is visible to the snapshots older than the epoch that overwrote it.  Retained versions are discarded once they are
+ * no longer visible to any open snapshot, or when more than the configured number of them is retained for a key.
+ *
+ * @since 5.2
+ */
+@MBean(objectName = "SnapshotManager", description = "Retains the versions of the entries read by transaction snapshots")
+public class SnapshotManagerImpl implements SnapshotManager {
+
+   private static final Log log = LogFactory.getLog(SnapshotManagerImpl.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private DataContainer dataContainer;
+   private InternalEntryFactory entryFactory;
+   private Configuration configuration;
+   private boolean enabled;
+   private int maxVersions;
+
+   private final ReadWriteLock epochLock = new ReentrantReadWriteLock();
+   // only incremented while holding the write lock
+   private volatile long epoch = 0;
+   private final ConcurrentSkipListSet<Long> openSnapshots = new ConcurrentSkipListSet<Long>();
+   private final ConcurrentMap<Object, VersionChain> chains = ConcurrentMapFactory.makeConcurrentMap();
+   private final AtomicLong tooOldReads = new AtomicLong(0);
+
+   @Inject
+   public void inject(DataContainer dataContainer, InternalEntryFactory entryFactory, Configuration configuration) {
+      this.dataContainer = dataContainer;
+      this.entryFactory = entryFactory;
+      this.configuration = configuration;
+   }
+
+   @Start
+   public void start() {
+      maxVersions = configuration.versioning().retainedVersions();
+      enabled = maxVersions > 0 && configuration.transaction().transactionMode().isTransactional();
+   }
+
+   @Override
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   @Override
+   public long beginSnapshot() {
+      epochLock.writeLock().lock();
+      try {
+         long snapshot = epoch++;
+         openSnapshots.add(snapshot);
+         return snapshot;
+      } finally {
+         epochLock.writeLock().unlock();
+      }
+   }
+
+   @Override
+   public void endSnapshot(long snapshot) {
+      openSnapshots.remove(snapshot);
+      // only closing the oldest snapshot makes retained versions invisible
+      if (snapshot < oldestOpenSnapshot()) discardInvisibleVersions();
+   }
+
+   @Override
+   public InternalCacheEntry get(Object key, long snapshot) {
+      // read the container first: if the entry is overwritten after this, its version has been retained already
+      InternalCacheEntry current = dataContainer.get(key);
+      VersionChain chain = chains.get(key);
+      if (chain != null) {
+         synchronized (chain) {
+            if (snapshot < chain.discardedUntil) {
+               tooOldReads.incrementAndGet();
+               throw new CacheException("Snapshot " + snapshot + " is too old to read key " + key + ": more than "
+                                              + maxVersions + " newer versions have been committed since");
+            }
+            for (RetainedVersion version : chain.versions) {
+               if (version.visibleBefore > snapshot) return version.entry;
+            }
+         }
+      }
+      return current;
+   }
+
+   @Override
+   public void beginCommit() {
+      epochLock.readLock().lock();
+   }
+
+   @Override
+   public void retainPreviousVersion(Object key) {
+      if (openSnapshots.isEmpty()) return;
+      long visibleBefore = epoch;
+      long horizon = horizon();
+      while (true) {
+         VersionChain chain = chains.get(key);
+         if (chain == null) {
+            chain = new VersionChain();
+            VersionChain existing = chains.putIfAbsent(key, chain);
+            if (existing != null) chain = existing;
+         }
+         synchronized (chain) {
+            if (chain.discarded) continue;
+            RetainedVersion last = chain.versions.peekLast();
+            // a version both written and overwritten in the same epoch is not visible to any snapshot
+            if (last == null || last.visibleBefore != visibleBefore) {
+               InternalCacheEntry previous = copy(dataContainer.peek(key));
+               chain.versions.addLast(new RetainedVersion(previous, visibleBefore));
+               if (chain.versions.size() > maxVersions) {
+                  chain.discardedUntil = chain.versions.removeFirst().visibleBefore;
+               }
+               if (trace) log.tracef("Retained version %s of key %s, visible before epoch %s", previous, key, visibleBefore);
+            }
+            discardInvisibleVersions(key, chain, horizon);
+         }
+         return;
+      }
+   }
+
+   @Override
+   public void endCommit() {
+      epochLock.readLock().unlock();
+   }
+
+   /**
+    * The versions overwritten before this epoch are not visible to any open snapshot.  Snapshots opened later than
+    * this is computed have a higher epoch, so they can't see any version retained until now either.
+    */
+   private long horizon() {
+      return Math.min(epoch, oldestOpenSnapshot());
+   }
+
+   private long oldestOpenSnapshot() {
+      try {
+         return openSnapshots.first();
+      } catch (NoSuchElementException e) {
+         return Long.MAX_VALUE;
+      }
+   }
+
+   private InternalCacheEntry copy(InternalCacheEntry entry) {
+      // the container updates its entries in place
+      if (entry == null) return null;
+      return entryFactory.create(entry.getKey(), entry.getValue(), entry.getVersion(), entry.getCreated(),
+                                 entry.getLifespan(), entry.getLastUsed(), entry.getMaxIdle());
+   }
+
+   private void discardInvisibleVersions() {
+      long horizon = horizon();
+      for (Map.Entry<Object, VersionChain> e : chains.entrySet()) {
+         VersionChain chain = e.getValue();
+         synchronized (chain) {
+            discardInvisibleVersions(e.getKey(), chain, horizon);
+         }
+      }
+   }
+
+   private void discardInvisibleVersions(Object key, VersionChain chain, long horizon) {
+      Iterator<RetainedVersion> it = chain.versions.iterator();
+      while (it.hasNext() && it.next().visibleBefore <= horizon) it.remove();
+      if (chain.versions.isEmpty() && chain.discardedUntil <= horizon) {
+         chain.discarded = true;
+         chains.remove(key, chain);
+      }
+   }
+
+   @ManagedAttribute(description = "Number of open transaction snapshots")
+   @Metric(displayName = "Open snapshots", displayType = DisplayType.SUMMARY)
+   public int getOpenSnapshots() {
+      return openSnapshots.size();
+   }
+
+   @ManagedAttribute(description = "Number of keys with retained versions")
+   @Metric(displayName = "Keys with retained versions", displayType = DisplayType.SUMMARY)
+   public int getKeysWithRetainedVersions() {
+      return chains.size();
+   }
+
+   @ManagedAttribute(description = "Number of snapshot reads that failed because the visible version had been discarded")
+   @Metric(displayName = "Snapshot too old reads", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getTooOldReads() {
+      return tooOldReads.get();
+   }
+
+   private static class VersionChain {
+      // ordered by epoch, oldest first
+      final LinkedList<RetainedVersion> versions = new LinkedList<RetainedVersion>();
+      // snapshots older than this might need a version that has been discarded
+      long discardedUntil = -1;
+      boolean discarded;
+   }
+
+   private static class RetainedVersion {
+      final InternalCacheEntry entry;
+      // the epoch of the commit that overwrote this version
+      final long visibleBefore;
+
+      RetainedVersion(InternalCacheEntry entry, long visibleBefore) {
+         this.entry = entry;
+         this.visibleBefore = visibleBefore;
+      }
+   }
+}
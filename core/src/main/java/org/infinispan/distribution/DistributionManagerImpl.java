@@ -22,6 +22,7 @@
  */
 package org.infinispan.distribution;
 
+import org.infinispan.CacheException;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
@@ -35,23 +36,34 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.statetransfer.StateTransferManager;
-import org.infinispan.remoting.responses.ClusteredGetResponseValidityFilter;
+import org.infinispan.remoting.responses.FirstSuccessfulResponseCollector;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.responses.SuccessfulResponse;
-import org.infinispan.remoting.rpc.ResponseFilter;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.Immutables;
+import org.infinispan.util.concurrent.FutureListener;
+import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
+import org.rhq.helpers.pluginAnnotations.agent.DisplayType;
+import org.rhq.helpers.pluginAnnotations.agent.MeasurementType;
+import org.rhq.helpers.pluginAnnotations.agent.Metric;
 import org.rhq.helpers.pluginAnnotations.agent.Operation;
 import org.rhq.helpers.pluginAnnotations.agent.Parameter;
 
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The default distribution manager implementation
@@ -75,6 +87,11 @@ public class DistributionManagerImpl implements DistributionManager {
    private CommandsFactory cf;
    private StateTransferManager stateTransferManager;
 
+   private static final double STAGGER_PERCENTILE = 0.9;
+   private final NodeLatencyTracker latencies = new NodeLatencyTracker(STAGGER_PERCENTILE);
+   private final AtomicLong staggeredGetsSentToBackups = new AtomicLong();
+   private boolean staggeredRemoteGets;
+
    /**
     * Default constructor
     */
@@ -88,6 +105,7 @@ public void init(Configuration configuration, RpcManager rpcManager, CommandsFac
       this.rpcManager = rpcManager;
       this.cf = cf;
       this.stateTransferManager = stateTransferManager;
+      this.staggeredRemoteGets = configuration.clustering().staggeredRemoteGets();
    }
 
    // The DMI is cache-scoped, so it will always start after the RMI, which is global-scoped
@@ -154,23 +172,117 @@ public InternalCacheEntry retrieveFromRemoteSource(Object key, InvocationContext
 
       List<Address> targets = new ArrayList<Address>(getReadConsistentHash().locateOwners(key));
       // if any of the recipients has left the cluster since the command was issued, just don't wait for its response
-      targets.retainAll(rpcManager.getTransport().getMembers());
-      ResponseFilter filter = new ClusteredGetResponseValidityFilter(targets, getAddress());
-      Map<Address, Response> responses = rpcManager.invokeRemotely(targets, get, ResponseMode.WAIT_FOR_VALID_RESPONSE,
-                                                                   configuration.clustering().sync().replTimeout(), true, filter);
-
-      if (!responses.isEmpty()) {
-         for (Response r : responses.values()) {
-            if (r instanceof SuccessfulResponse) {
-               InternalCacheValue cacheValue = (InternalCacheValue) ((SuccessfulResponse) r).getResponseValue();
-               return cacheValue.toInternalCacheEntry(key);
+      List<Address> members = rpcManager.getTransport().getMembers();
+      targets.retainAll(members);
+      // a get that acquires remote locks must reach all the owners at once, so it is never staggered
+      if (staggeredRemoteGets && !acquireRemoteLock) {
+         targets.remove(getAddress());
+         latencies.retainAll(members);
+         if (targets.size() > 1) return retrieveStaggered(key, get, targets);
+      }
+      SuccessfulResponse response = rpcManager.invokeRemotelyAndCollect(targets, get, ResponseMode.WAIT_FOR_VALID_RESPONSE,
+            configuration.clustering().sync().replTimeout(), true, new FirstSuccessfulResponseCollector());
+
+      if (response != null) {
+         InternalCacheValue cacheValue = (InternalCacheValue) response.getResponseValue();
+         return cacheValue.toInternalCacheEntry(key);
+      }
+
+      return null;
+   }
+
+   /**
+    * Sends the get to the first owner in the list, and to the others only if it doesn't produce a value within the
+    * stagger delay.  The first successful response wins, whichever owner it comes from.  A failure is only reported
+    * if none of the owners answered.
+    */
+   private InternalCacheEntry retrieveStaggered(Object key, ClusteredGetCommand get, List<Address> targets) throws Exception {
+      long timeout = configuration.clustering().sync().replTimeout();
+      BlockingQueue<Future<Map<Address, Response>>> completed = new LinkedBlockingQueue<Future<Map<Address, Response>>>();
+      Address primary = targets.get(0);
+      List<Address> backups = targets.subList(1, targets.size());
+
+      long now = System.nanoTime();
+      long deadline = now + TimeUnit.MILLISECONDS.toNanos(timeout);
+      long staggerTime = now + getStaggerDelay(primary, backups);
+      sendRemoteGet(get, primary, timeout, completed);
+      int pending = 1;
+      boolean backupsContacted = false;
+      boolean answered = false;
+      Throwable failure = null;
+      while (true) {
+         if (!backupsContacted && System.nanoTime() - staggerTime >= 0) {
+            if (trace) log.tracef("No value for key %s from %s yet, asking %s", key, primary, backups);
+            for (Address backup : backups) sendRemoteGet(get, backup, timeout, completed);
+            pending += backups.size();
+            backupsContacted = true;
+            staggeredGetsSentToBackups.incrementAndGet();
+         }
+         if (pending == 0) break;
+
+         Future<Map<Address, Response>> future = completed.poll((backupsContacted ? deadline : staggerTime) - System.nanoTime(), TimeUnit.NANOSECONDS);
+         if (future == null) {
+            if (backupsContacted)
+               throw new TimeoutException("Timed out waiting for a valid response for key " + key);
+            continue;
+         }
+         pending--;
+         try {
+            for (Response r : future.get().values()) {
+               if (r instanceof SuccessfulResponse) {
+                  InternalCacheValue cacheValue = (InternalCacheValue) ((SuccessfulResponse) r).getResponseValue();
+                  return cacheValue.toInternalCacheEntry(key);
+               }
             }
+            answered = true;
+         } catch (ExecutionException e) {
+            failure = e.getCause();
          }
+         // the owner failed or couldn't provide a value, so ask the backups now instead of waiting for the stagger delay
+         staggerTime = System.nanoTime();
       }
 
+      if (!answered && failure != null) {
+         if (failure instanceof Exception) throw (Exception) failure;
+         throw new CacheException(failure);
+      }
       return null;
    }
 
+   private void sendRemoteGet(ClusteredGetCommand get, final Address target, long timeout,
+                              final BlockingQueue<Future<Map<Address, Response>>> completed) {
+      final long start = System.nanoTime();
+      rpcManager.invokeRemotelyAsync(Collections.singleton(target), get, ResponseMode.WAIT_FOR_VALID_RESPONSE, timeout, true, null)
+            .attachListener(new FutureListener<Map<Address, Response>>() {
+               @Override
+               public void futureDone(Future<Map<Address, Response>> future) {
+                  latencies.recordLatency(target, System.nanoTime() - start);
+                  completed.add(future);
+               }
+            });
+   }
+
+   /**
+    * We wait for the primary owner as long as it usually takes to answer, but no longer than the fastest backup owner
+    * usually takes, so that a primary owner that is slow (e.g. because of a GC pause) doesn't drag the tail latency
+    * up.  Until we know how fast the primary owner is, all the owners are asked at once.
+    */
+   private long getStaggerDelay(Address primary, List<Address> backups) {
+      long delay = latencies.getPercentile(primary);
+      if (delay < 0) return 0;
+      for (Address backup : backups) {
+         long backupLatency = latencies.getPercentile(backup);
+         if (backupLatency >= 0) delay = Math.min(delay, backupLatency);
+      }
+      return delay;
+   }
+
+   @ManagedAttribute(description = "Number of staggered remote gets that had to be sent to the backup owners as well")
+   @Metric(displayName = "Staggered remote gets sent to backup owners", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getStaggeredGetsSentToBackups() {
+      return staggeredGetsSentToBackups.get();
+   }
+
    @Override
    public ConsistentHash getConsistentHash() {
       return getWriteConsistentHash();
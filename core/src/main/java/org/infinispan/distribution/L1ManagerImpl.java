@@ -26,6 +26,7 @@
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.write.InvalidateCommand;
 import org.infinispan.context.Flag;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.configuration.cache.Configuration;
@@ -46,9 +47,12 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -70,15 +74,25 @@ public class L1ManagerImpl implements L1Manager {
    private long rpcTimeout;
    private long l1Lifespan;
    private ExecutorService asyncTransportExecutor;
+   private DistributionManager distributionManager;
 
    // TODO replace this with a custom, expirable collection
    private final ConcurrentMap<Object, ConcurrentMap<Address, Long>> requestors;
    private ScheduledExecutorService scheduledExecutor;
    private ScheduledFuture<?> scheduledRequestorsCleanupTask;
 
+   // used instead of the requestors map if requestorFilterBits > 0
+   private RequestorBloomFilter requestorFilter;
+   private int numSegments;
+
+   // keys waiting to be invalidated on each node, if invalidationFlushInterval > 0
+   private final ConcurrentMap<Address, Queue<Object>> pendingInvalidations;
+   private boolean batchInvalidations;
+   private ScheduledFuture<?> scheduledFlushTask;
 
    public L1ManagerImpl() {
 	   requestors = ConcurrentMapFactory.makeConcurrentMap();
+      pendingInvalidations = ConcurrentMapFactory.makeConcurrentMap();
    }
 
    @Inject
@@ -91,13 +105,40 @@ public void init(Configuration configuration, RpcManager rpcManager, CommandsFac
       this.asyncTransportExecutor = asyncTransportExecutor;
       this.scheduledExecutor = scheduledExecutor;
    }
+
+   @Inject
+   public void injectDistributionManager(DistributionManager distributionManager) {
+      this.distributionManager = distributionManager;
+   }
    
    @Start (priority = 3)
    public void start() {
       this.threshold = configuration.clustering().l1().invalidationThreshold();
       this.rpcTimeout = configuration.clustering().sync().replTimeout();
       this.l1Lifespan = configuration.clustering().l1().lifespan();
-      if (configuration.clustering().l1().cleanupTaskFrequency() > 0) {
+      int requestorFilterBits = configuration.clustering().l1().requestorFilterBits();
+      long flushInterval = configuration.clustering().l1().invalidationFlushInterval();
+      if (flushInterval > 0) {
+         batchInvalidations = true;
+         scheduledFlushTask = scheduledExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+               flushPendingInvalidations();
+            }
+         }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+      }
+
+      if (requestorFilterBits > 0) {
+         // an L1 entry expires after l1Lifespan, so it's safe to forget about it after that
+         numSegments = configuration.clustering().hash().numSegments();
+         requestorFilter = new RequestorBloomFilter(numSegments, requestorFilterBits);
+         scheduledRequestorsCleanupTask = scheduledExecutor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+               requestorFilter.rotate();
+            }
+         }, l1Lifespan, l1Lifespan, TimeUnit.MILLISECONDS);
+      } else if (configuration.clustering().l1().cleanupTaskFrequency() > 0) {
          scheduledRequestorsCleanupTask = scheduledExecutor.scheduleAtFixedRate(new Runnable() {
             @Override
             public void run() {
@@ -113,6 +154,8 @@ public void run() {
    @Stop (priority = 3)
    public void stop() {
       if (scheduledRequestorsCleanupTask != null) scheduledRequestorsCleanupTask.cancel(true);
+      if (scheduledFlushTask != null) scheduledFlushTask.cancel(true);
+      pendingInvalidations.clear();
    }
 
    private void cleanUpRequestors() {
@@ -133,6 +176,11 @@ private void prune(ConcurrentMap<Address, Long> reqs, long expiryTime) {
    
    @Override
    public void addRequestor(Object key, Address origin) {
+      if (requestorFilter != null) {
+         requestorFilter.add(getSegment(key), key, origin);
+         return;
+      }
+
       //we do a plain get first as that's likely to be enough
       ConcurrentMap<Address, Long> as = requestors.get(key);
       long now = System.currentTimeMillis();
@@ -163,6 +211,11 @@ public NotifyingNotifiableFuture<Object> flushCache(Collection<Object> keys, Obj
    private Future<Object> flushCache(Collection<Object> keys, final Object retval, Address origin, boolean assumeOriginKeptEntryInL1, boolean useNotifyingFuture) {
       if (trace) log.tracef("Invalidating L1 caches for keys %s", keys);
 
+      if (batchInvalidations) {
+         addPendingInvalidations(keys, origin, assumeOriginKeptEntryInL1);
+         return useNotifyingFuture ? new NotifyingFutureImpl(retval) : new NoOpFuture<Object>(retval);
+      }
+
       final Collection<Address> invalidationAddresses = buildInvalidationAddressList(keys, origin, assumeOriginKeptEntryInL1);
 
       int nodes = invalidationAddresses.size();
@@ -219,6 +272,14 @@ private Collection<Address> buildInvalidationAddressList(Collection<Object> keys
       Collection<Address> addresses = new HashSet<Address>(2);
       boolean originIsInRequestorsList = false;
       for (Object key : keys) {
+         if (requestorFilter != null) {
+            // keys can't be removed from the filter, so the requestors will be invalidated again until it's rotated
+            Set<Address> requestorAddresses = requestorFilter.getRequestors(getSegment(key), key);
+            addresses.addAll(requestorAddresses);
+            if (assumeOriginKeptEntryInL1 && origin != null && requestorAddresses.contains(origin))
+               originIsInRequestorsList = true;
+            continue;
+         }
          ConcurrentMap<Address, Long> as = requestors.remove(key);
          if (as != null) {
             Set<Address> requestorAddresses = as.keySet();
@@ -235,6 +296,59 @@ private Collection<Address> buildInvalidationAddressList(Collection<Object> keys
       return addresses;
    }
 
+   private int getSegment(Object key) {
+      ConsistentHash ch = distributionManager.getReadConsistentHash();
+      return ch == null ? 0 : ch.getSegment(key) % numSegments;
+   }
+
+   private void addPendingInvalidations(Collection<Object> keys, Address origin, boolean assumeOriginKeptEntryInL1) {
+      for (Object key : keys) {
+         // each node is only sent the keys it requested
+         Collection<Address> addresses = buildInvalidationAddressList(Collections.singleton(key), origin, assumeOriginKeptEntryInL1);
+         for (Address address : addresses) {
+            Queue<Object> queue = pendingInvalidations.get(address);
+            if (queue == null) {
+               queue = new ConcurrentLinkedQueue<Object>();
+               Queue<Object> existing = pendingInvalidations.putIfAbsent(address, queue);
+               if (existing != null) queue = existing;
+            }
+            queue.add(key);
+         }
+      }
+   }
+
+   /**
+    * Sends the keys pending invalidation on each node in a single command per node. Queues are drained rather than
+    * removed, so that keys added concurrently are sent with the next flush.
+    */
+   void flushPendingInvalidations() {
+      List<Address> members = rpcManager.getTransport().getMembers();
+      for (Map.Entry<Address, Queue<Object>> entry : pendingInvalidations.entrySet()) {
+         Address address = entry.getKey();
+         if (!members.contains(address)) {
+            // the node left, along with its L1 cache
+            pendingInvalidations.remove(address);
+            if (requestorFilter != null) requestorFilter.removeRequestor(address);
+            continue;
+         }
+
+         Set<Object> keys = new HashSet<Object>();
+         Queue<Object> queue = entry.getValue();
+         Object key;
+         while ((key = queue.poll()) != null) keys.add(key);
+         if (keys.isEmpty()) continue;
+
+         if (trace) log.tracef("Invalidating L1 keys %s on %s", keys, address);
+         CacheRpcCommand rpc = commandsFactory.buildSingleRpcCommand(
+               commandsFactory.buildInvalidateFromL1Command(false, Collections.<Flag>emptySet(), keys));
+         try {
+            rpcManager.invokeRemotely(Collections.singleton(address), rpc, ResponseMode.ASYNCHRONOUS, rpcTimeout, true);
+         } catch (Exception e) {
+            log.debugf(e, "Unable to invalidate L1 keys %s on %s", keys, address);
+         }
+      }
+   }
+
    private boolean isUseMulticast(int nodes) {
       // User has requested unicast only
       if (threshold == -1) return false;
@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.distribution;
+
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.concurrent.ConcurrentMapFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the most recent remote call latencies observed for each member, and a percentile computed over them.  Used by
+ * staggered remote gets to decide how long to wait for the primary owner before asking the backup owners as well.
+ * <p/>
+ * The percentile is only recomputed every {@link #RECOMPUTE_INTERVAL} samples, so that reading it is a volatile read
+ * rather than a sort.
+ *
+ * @since 5.2
+ */
+class NodeLatencyTracker {
+
+   static final int WINDOW_SIZE = 64;
+   static final int MIN_SAMPLES = 8;
+   static final int RECOMPUTE_INTERVAL = 8;
+
+   private final double percentile;
+   private final ConcurrentMap<Address, Window> windows = ConcurrentMapFactory.makeConcurrentMap();
+
+   /**
+    * @param percentile fraction of the recent calls to a node that must have completed within the reported latency
+    */
+   NodeLatencyTracker(double percentile) {
+      this.percentile = percentile;
+   }
+
+   void recordLatency(Address node, long nanos) {
+      Window window = windows.get(node);
+      if (window == null) {
+         window = new Window();
+         Window existing = windows.putIfAbsent(node, window);
+         if (existing != null) window = existing;
+      }
+      window.add(nanos);
+   }
+
+   /**
+    * @return the latency, in nanoseconds, below which the configured fraction of the recent calls to the node
+    *         completed, or -1 if too few calls have been recorded
+    */
+   long getPercentile(Address node) {
+      Window window = windows.get(node);
+      return window == null ? -1 : window.cachedPercentile;
+   }
+
+   /**
+    * Drops the latencies of the members that are no longer in the given list.
+    */
+   void retainAll(Collection<Address> members) {
+      if (windows.size() > members.size()) windows.keySet().retainAll(members);
+   }
+
+   private final class Window {
+      private final long[] samples = new long[WINDOW_SIZE];
+      private final long[] sorted = new long[WINDOW_SIZE];
+      private int size;
+      private int next;
+      private int sinceRecompute;
+      volatile long cachedPercentile = -1;
+
+      synchronized void add(long nanos) {
+         samples[next] = nanos;
+         next = (next + 1) % WINDOW_SIZE;
+         if (size < WINDOW_SIZE) size++;
+         if (++sinceRecompute >= RECOMPUTE_INTERVAL && size >= MIN_SAMPLES) {
+            sinceRecompute = 0;
+            System.arraycopy(samples, 0, sorted, 0, size);
+            Arrays.sort(sorted, 0, size);
+            int index = (int) Math.ceil(percentile * size) - 1;
+            cachedPercentile = sorted[Math.max(0, Math.min(size - 1, index))];
+         }
+      }
+   }
+}
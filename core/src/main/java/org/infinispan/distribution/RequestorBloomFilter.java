@@ -0,0 +1,147 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.distribution;
+
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.concurrent.ConcurrentMapFactory;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records which nodes have requested which keys, for L1 invalidation, in one bloom filter per segment and per
+ * requestor.
+ * <p/>
+ * The memory used is bounded by the number of requestors, regardless of the number of keys requested, at the cost of
+ * false positives: a node may be reported as a requestor of a key it never asked for. Since keys can't be removed
+ * from a bloom filter, filters are kept in two generations instead: keys are added to the current one, lookups check
+ * both, and {@link #rotate()} discards the older one. A key is therefore remembered for at least one rotation period.
+ * <p/>
+ * This class is thread safe: bits are set with CAS and generations are swapped atomically.
+ *
+ * @since 5.2
+ */
+final class RequestorBloomFilter {
+
+   private static final int NUM_HASHES = 3;
+
+   private final int numSegments;
+   private final int wordsPerSegment;
+   private final int bitsPerSegment;
+
+   private volatile ConcurrentMap<Address, AtomicLongArray> current = ConcurrentMapFactory.makeConcurrentMap();
+   private volatile ConcurrentMap<Address, AtomicLongArray> previous = ConcurrentMapFactory.makeConcurrentMap();
+
+   RequestorBloomFilter(int numSegments, int bitsPerSegment) {
+      this.numSegments = numSegments;
+      this.wordsPerSegment = Math.max(1, (bitsPerSegment + 63) >>> 6);
+      this.bitsPerSegment = wordsPerSegment << 6;
+   }
+
+   void add(int segment, Object key, Address requestor) {
+      ConcurrentMap<Address, AtomicLongArray> filters = current;
+      AtomicLongArray bits = filters.get(requestor);
+      if (bits == null) {
+         bits = new AtomicLongArray(numSegments * wordsPerSegment);
+         AtomicLongArray existing = filters.putIfAbsent(requestor, bits);
+         if (existing != null) bits = existing;
+      }
+
+      int h1 = spread(key.hashCode());
+      int h2 = spread(h1) | 1;
+      int base = segment * wordsPerSegment;
+      for (int i = 0; i < NUM_HASHES; i++) {
+         int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitsPerSegment;
+         int word = base + (bit >>> 6);
+         long mask = 1L << bit;
+         long old;
+         do {
+            old = bits.get(word);
+            if ((old & mask) != 0) break;
+         } while (!bits.compareAndSet(word, old, old | mask));
+      }
+   }
+
+   /**
+    * Returns the nodes which may have requested the given key.
+    */
+   Set<Address> getRequestors(int segment, Object key) {
+      Set<Address> requestors = new HashSet<Address>(4);
+      int h1 = spread(key.hashCode());
+      int h2 = spread(h1) | 1;
+      collect(current, segment, h1, h2, requestors);
+      collect(previous, segment, h1, h2, requestors);
+      return requestors;
+   }
+
+   /**
+    * Starts a new generation, forgetting the keys added before the previous call to this method.
+    */
+   void rotate() {
+      previous = current;
+      current = ConcurrentMapFactory.makeConcurrentMap();
+   }
+
+   /**
+    * Forgets all keys requested by the given node, e.g. because it left the cluster.
+    */
+   void removeRequestor(Address requestor) {
+      current.remove(requestor);
+      previous.remove(requestor);
+   }
+
+   Set<Address> getTrackedRequestors() {
+      Set<Address> requestors = new HashSet<Address>(current.keySet());
+      requestors.addAll(previous.keySet());
+      return requestors;
+   }
+
+   private void collect(ConcurrentMap<Address, AtomicLongArray> filters, int segment, int h1, int h2, Set<Address> requestors) {
+      int base = segment * wordsPerSegment;
+      for (Map.Entry<Address, AtomicLongArray> e : filters.entrySet()) {
+         if (requestors.contains(e.getKey())) continue;
+         AtomicLongArray bits = e.getValue();
+         boolean found = true;
+         for (int i = 0; i < NUM_HASHES && found; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitsPerSegment;
+            found = (bits.get(base + (bit >>> 6)) & (1L << bit)) != 0;
+         }
+         if (found) requestors.add(e.getKey());
+      }
+   }
+
+   /**
+    * Applies a supplemental hash function, as key hash codes are often poorly distributed in their low bits.
+    */
+   private static int spread(int h) {
+      h += (h << 15) ^ 0xffffcd7d;
+      h ^= (h >>> 10);
+      h += (h << 3);
+      h ^= (h >>> 6);
+      h += (h << 2) + (h << 14);
+      return h ^ (h >>> 16);
+   }
+}
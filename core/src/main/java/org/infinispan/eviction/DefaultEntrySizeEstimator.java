@@ -0,0 +1,107 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.eviction;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.MortalCacheEntry;
+import org.infinispan.container.entries.TransientCacheEntry;
+import org.infinispan.container.entries.TransientMortalCacheEntry;
+import org.infinispan.container.entries.versioned.Versioned;
+import org.infinispan.marshall.MarshalledValue;
+
+/**
+ * Default {@link EntrySizeEstimator}, which assumes a 64-bit JVM with compressed references.
+ * <p/>
+ * When entries are stored as binary, keys and values are {@link MarshalledValue} instances and are sized after their
+ * marshalled form. Values that haven't been marshalled yet aren't marshalled just to be sized: the size of their last
+ * marshalled form, or a guess, is used instead. Otherwise byte arrays, strings and boxed primitives are sized from
+ * their contents, and any other type is assumed to take {@link #DEFAULT_OBJECT_SIZE} bytes. Caches storing other types
+ * should either enable storeAsBinary or configure a custom estimator to get accurate accounting.
+ *
+ * @since 5.2
+ */
+public class DefaultEntrySizeEstimator implements EntrySizeEstimator {
+
+   /**
+    * Size assumed for objects of unknown types
+    */
+   public static final int DEFAULT_OBJECT_SIZE = 64;
+
+   // Hash table node of the data container plus its eviction bookkeeping
+   private static final int CONTAINER_OVERHEAD = 32 + 40;
+   private static final int OBJECT_HEADER = 12;
+   private static final int ARRAY_HEADER = 16;
+   private static final int REFERENCE = 4;
+
+   @Override
+   public long estimateSize(Object key, InternalCacheEntry entry) {
+      return CONTAINER_OVERHEAD + entrySize(entry) + objectSize(key) + objectSize(entry.getValue());
+   }
+
+   protected long entrySize(InternalCacheEntry entry) {
+      // a single object holding the key, the value, the evicted flag and the expiration timestamps inline
+      long size = OBJECT_HEADER + 2 * REFERENCE + 1;
+      if (entry instanceof MortalCacheEntry || entry instanceof TransientCacheEntry)
+         size += 16;
+      else if (entry instanceof TransientMortalCacheEntry)
+         size += 32;
+      if (entry instanceof Versioned)
+         size += REFERENCE;
+      return align(size);
+   }
+
+   protected long objectSize(Object o) {
+      if (o == null)
+         return 0;
+      if (o instanceof MarshalledValue)
+         // the marshalled value wrapper, its byte stream and the marshalled bytes; this is invoked under the data
+         // container's segment lock, so never force the value to be serialized here
+         return align(OBJECT_HEADER + 4 * REFERENCE) + align(OBJECT_HEADER + REFERENCE + 4)
+               + align(ARRAY_HEADER + ((MarshalledValue) o).getSerializedSize());
+      if (o instanceof byte[])
+         return align(ARRAY_HEADER + ((byte[]) o).length);
+      if (o instanceof String)
+         // the string and its backing char array
+         return align(OBJECT_HEADER + REFERENCE + 3 * 4) + align(ARRAY_HEADER + 2 * ((String) o).length());
+      if (o instanceof Long || o instanceof Double)
+         return align(OBJECT_HEADER + 8);
+      if (o instanceof Number || o instanceof Boolean || o instanceof Character)
+         return align(OBJECT_HEADER + 4);
+      return DEFAULT_OBJECT_SIZE;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      // stateless, so all instances of the same class are interchangeable
+      return o != null && o.getClass() == getClass();
+   }
+
+   @Override
+   public int hashCode() {
+      return getClass().hashCode();
+   }
+
+   private static long align(long size) {
+      return (size + 7) & ~7L;
+   }
+}
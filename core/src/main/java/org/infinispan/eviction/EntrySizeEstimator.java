@@ -0,0 +1,47 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.eviction;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * Estimates the memory footprint of cache entries, so that the data container can be bounded by memory rather than by
+ * number of entries. Implementations must be thread safe, and should be cheap since they're invoked every time an
+ * entry is stored in the data container.
+ *
+ * @see DefaultEntrySizeEstimator
+ * @see org.infinispan.configuration.cache.EvictionConfigurationBuilder#maxMemory(long)
+ * @since 5.2
+ */
+public interface EntrySizeEstimator {
+
+   /**
+    * Estimates how many bytes of memory are retained by the given entry, including the key, the value and the entry
+    * itself.
+    *
+    * @param key key under which the entry is stored
+    * @param entry entry stored in the data container
+    * @return estimated size in bytes, always positive
+    */
+   long estimateSize(Object key, InternalCacheEntry entry);
+}
@@ -51,6 +51,7 @@ public class EvictionManagerImpl implements EvictionManager {
    private static final Log log = LogFactory.getLog(EvictionManagerImpl.class);
    private static final boolean trace = log.isTraceEnabled();
    ScheduledFuture <?> evictionTask;
+   ScheduledFuture <?> expirationTask;
 
    // components to be injected
    private ScheduledExecutorService executor;
@@ -99,6 +100,12 @@ public void start() {
             evictionTask = executor.scheduleWithFixedDelay(new ScheduledTask(),
                   expWakeUpInt, expWakeUpInt, TimeUnit.MILLISECONDS);
          }
+         // With exact expiration the timing wheel of the data container is advanced on every tick, which is cheap
+         // as only the entries due in that tick are visited; cache stores are still purged every wake up interval.
+         if (configuration.expiration().exactExpiration()) {
+            long tick = configuration.expiration().timingWheelTick();
+            expirationTask = executor.scheduleWithFixedDelay(new ExpirationTask(), tick, tick, TimeUnit.MILLISECONDS);
+         }
       }
    }
 
@@ -148,6 +155,9 @@ public void stop() {
       if (evictionTask != null) {
          evictionTask.cancel(true);
       }
+      if (expirationTask != null) {
+         expirationTask.cancel(true);
+      }
    }
 
    class ScheduledTask implements Runnable {
@@ -162,8 +172,23 @@ public void run() {
       }
    }
 
+   class ExpirationTask implements Runnable {
+      @Override
+      public void run() {
+         LogFactory.pushNDC(cacheName, trace);
+         try {
+            dataContainer.purgeExpired();
+         } catch (Exception e) {
+            log.exceptionPurgingDataContainer(e);
+         } finally {
+            LogFactory.popNDC(trace);
+         }
+      }
+   }
+
    @Override
    public void onEntryEviction(Map<Object, InternalCacheEntry> evicted) {
+      if (!cacheNotifier.hasEvictionListeners()) return;
       // don't reuse the threadlocal context as we don't want to include eviction
       // operations in any ongoing transaction, nor be affected by flags
       // especially see ISPN-1154: it's illegal to acquire locks in a committing transaction
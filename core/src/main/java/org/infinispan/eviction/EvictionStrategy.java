@@ -38,7 +38,12 @@ public enum EvictionStrategy {
    @Deprecated
    FIFO, 
    LRU, 
-   LIRS;
+   LIRS,
+   /*
+    * Window TinyLFU: LRU admission window followed by a segmented LRU main region, guarded by a frequency sketch
+    * so that entries read once, e.g. by scans, do not flush frequently used ones.
+    */
+   TINY_LFU;
 
    public boolean isEnabled() {
       return this != NONE;
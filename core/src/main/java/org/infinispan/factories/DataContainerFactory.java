@@ -25,6 +25,8 @@
 import org.infinispan.config.ConfigurationException;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.OffHeapDataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 import org.infinispan.factories.annotations.DefaultFactoryFor;
@@ -48,7 +50,14 @@ public <T> T construct(Class<T> componentType) {
       } else {
          EvictionStrategy st = configuration.eviction().strategy();
          int level = configuration.locking().concurrencyLevel();
-        
+
+         if (configuration.dataContainer().offHeap())
+            return (T) constructOffHeap(st, level);
+
+         if (configuration.dataContainer().segmented())
+            return (T) SegmentedDataContainer.segmentedDataContainer(level, configuration.clustering().hash().hash(),
+                  configuration.clustering().hash().numSegments());
+
          switch (st) {
             case NONE:         
                return (T) DefaultDataContainer.unBoundedDataContainer(level);
@@ -56,6 +65,12 @@ public <T> T construct(Class<T> componentType) {
             case LRU:
             case FIFO:
             case LIRS:
+            case TINY_LFU:
+               long maxMemory = configuration.eviction().maxMemory();
+               if (maxMemory > 0) {
+                  return (T) DefaultDataContainer.memoryBoundedDataContainer(level, maxMemory,
+                        configuration.eviction().sizeEstimator(), configuration.eviction().threadPolicy());
+               }
                int maxEntries = configuration.eviction().maxEntries();
                //handle case when < 0 value signifies unbounded container 
                if(maxEntries < 0) {
@@ -69,4 +84,12 @@ public <T> T construct(Class<T> componentType) {
          }
       }
    }
+
+   private DataContainer constructOffHeap(EvictionStrategy st, int level) {
+      int slabSize = configuration.dataContainer().slabSize();
+      int maxEntries = configuration.eviction().maxEntries();
+      if (!st.isEnabled() || maxEntries < 0)
+         return OffHeapDataContainer.unBoundedDataContainer(level, slabSize);
+      return OffHeapDataContainer.boundedDataContainer(level, maxEntries, slabSize);
+   }
 }
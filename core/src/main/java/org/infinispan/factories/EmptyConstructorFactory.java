@@ -30,6 +30,9 @@
 import org.infinispan.marshall.jboss.ExternalizerTable;
 import org.infinispan.remoting.InboundInvocationHandler;
 import org.infinispan.remoting.InboundInvocationHandlerImpl;
+import org.infinispan.remoting.InboundPartitionExecutor;
+import org.infinispan.remoting.InboundPartitionExecutorImpl;
+import org.infinispan.remoting.rpc.RpcLatencyMonitor;
 import org.infinispan.topology.ClusterTopologyManager;
 import org.infinispan.topology.ClusterTopologyManagerImpl;
 import org.infinispan.topology.DefaultRebalancePolicy;
@@ -47,7 +50,8 @@
  * @since 4.0
  */
 @DefaultFactoryFor(classes = {InboundInvocationHandler.class, RemoteCommandsFactory.class, ExternalizerTable.class,
-                              LocalTopologyManager.class, ClusterTopologyManager.class, RebalancePolicy.class, BackupReceiverRepository.class})
+                              LocalTopologyManager.class, ClusterTopologyManager.class, RebalancePolicy.class, BackupReceiverRepository.class,
+                              InboundPartitionExecutor.class, RpcLatencyMonitor.class})
 @Scope(Scopes.GLOBAL)
 public class EmptyConstructorFactory extends AbstractComponentFactory implements AutoInstantiableFactory {
 
@@ -68,6 +72,10 @@ else if (componentType.equals(RebalancePolicy.class))
          return (T) new DefaultRebalancePolicy();
       else if (componentType.equals(BackupReceiverRepository.class))
          return (T) new BackupReceiverRepositoryImpl();
+      else if (componentType.equals(InboundPartitionExecutor.class))
+         return (T) new InboundPartitionExecutorImpl();
+      else if (componentType.equals(RpcLatencyMonitor.class))
+         return (T) new RpcLatencyMonitor();
 
       throw new ConfigurationException("Don't know how to create a " + componentType.getName());
    }
@@ -28,6 +28,8 @@
 import org.infinispan.commands.CommandsFactoryImpl;
 import org.infinispan.config.ConfigurationException;
 import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.container.versioning.SnapshotManager;
+import org.infinispan.container.versioning.SnapshotManagerImpl;
 import org.infinispan.context.InvocationContextContainer;
 import org.infinispan.context.NonTransactionalInvocationContextContainer;
 import org.infinispan.context.TransactionalInvocationContextContainer;
@@ -41,10 +43,16 @@
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.loaders.CacheLoaderManager;
 import org.infinispan.loaders.CacheLoaderManagerImpl;
+import org.infinispan.marshall.CompressionManager;
+import org.infinispan.marshall.CompressionManagerImpl;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.notifications.cachelistener.CacheNotifierImpl;
+import org.infinispan.remoting.ReplicationPipeline;
+import org.infinispan.remoting.ReplicationPipelineImpl;
 import org.infinispan.statetransfer.StateTransferLock;
 import org.infinispan.statetransfer.StateTransferLockImpl;
+import org.infinispan.transaction.TotalOrderManager;
+import org.infinispan.transaction.TotalOrderManagerImpl;
 import org.infinispan.transaction.TransactionCoordinator;
 import org.infinispan.transaction.xa.TransactionFactory;
 import org.infinispan.transaction.xa.recovery.RecoveryAdminOperations;
@@ -69,7 +77,9 @@
                               BatchContainer.class, EvictionManager.class,
                               TransactionCoordinator.class, RecoveryAdminOperations.class, StateTransferLock.class,
                               ClusteringDependentLogic.class, LockContainer.class,
-                              L1Manager.class, TransactionFactory.class, BackupSender.class})
+                              L1Manager.class, TransactionFactory.class, BackupSender.class,
+                              CompressionManager.class, ReplicationPipeline.class, TotalOrderManager.class,
+                              SnapshotManager.class})
 public class EmptyConstructorNamedCacheFactory extends AbstractNamedCacheComponentFactory implements AutoInstantiableFactory {
 
    @Override
@@ -97,6 +107,14 @@ public <T> T construct(Class<T> componentType) {
             return (T) new CacheLoaderManagerImpl();
          } else if (componentType.equals(PassivationManager.class)) {
             return (T) new PassivationManagerImpl();
+         } else if (componentType.equals(CompressionManager.class)) {
+            return (T) new CompressionManagerImpl();
+         } else if (componentType.equals(ReplicationPipeline.class)) {
+            return (T) new ReplicationPipelineImpl();
+         } else if (componentType.equals(TotalOrderManager.class)) {
+            return (T) new TotalOrderManagerImpl();
+         } else if (componentType.equals(SnapshotManager.class)) {
+            return (T) new SnapshotManagerImpl();
          } else if (componentType.equals(BatchContainer.class)) {
             return (T) new BatchContainer();
          } else if (componentType.equals(TransactionCoordinator.class)) {
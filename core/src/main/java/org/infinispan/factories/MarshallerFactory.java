@@ -29,6 +29,7 @@
 import org.infinispan.marshall.Marshaller;
 import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.marshall.VersionAwareMarshaller;
+import org.infinispan.marshall.compact.CompactMarshaller;
 
 import static org.infinispan.factories.KnownComponentNames.*;
 
@@ -48,7 +49,9 @@ public <T> T construct(Class<T> componentType, String componentName) {
          comp = new GlobalMarshaller((VersionAwareMarshaller)
                globalConfiguration.serialization().marshaller());
       else if (componentName.equals(CACHE_MARSHALLER))
-         comp = new CacheMarshaller(new VersionAwareMarshaller());
+         // Caches of a cache manager using the compact format use it too, any other cache uses the default format
+         comp = new CacheMarshaller(globalConfiguration.serialization().marshaller() instanceof CompactMarshaller
+               ? new CompactMarshaller() : new VersionAwareMarshaller());
       else
          throw new CacheException("Don't know how to handle type " + componentType);
 
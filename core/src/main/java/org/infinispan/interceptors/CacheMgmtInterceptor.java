@@ -34,6 +34,7 @@
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.marshall.CompressionManager;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 import org.rhq.helpers.pluginAnnotations.agent.DisplayType;
@@ -67,6 +68,7 @@ public class CacheMgmtInterceptor extends JmxStatsCommandInterceptor {
    private final AtomicLong removeMisses = new AtomicLong(0);
 
    private DataContainer dataContainer;
+   private CompressionManager compressionManager;
 
    private static final Log log = LogFactory.getLog(CacheMgmtInterceptor.class);
 
@@ -81,6 +83,12 @@ public void setDependencies(DataContainer dataContainer) {
       this.dataContainer = dataContainer;
    }
 
+   @Inject
+   @SuppressWarnings("unused")
+   public void injectCompressionManager(CompressionManager compressionManager) {
+      this.compressionManager = compressionManager;
+   }
+
    @Override
    public Object visitEvictCommand(InvocationContext ctx, EvictCommand command) throws Throwable {
       Object returnValue = invokeNextInterceptor(ctx, command);
@@ -243,6 +251,48 @@ public long getTimeSinceReset() {
       return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - resetNanoseconds.get());
    }
 
+   @ManagedAttribute(description = "Number of values compressed, in memory or in cache stores")
+   @Metric(displayName = "Number of compressed values", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getCompressions() {
+      return compressionManager == null ? 0 : compressionManager.getCompressions();
+   }
+
+   @ManagedAttribute(description = "Number of compressed values that have been decompressed")
+   @Metric(displayName = "Number of decompressed values", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getDecompressions() {
+      return compressionManager == null ? 0 : compressionManager.getDecompressions();
+   }
+
+   @ManagedAttribute(description = "Ratio of the uncompressed size to the compressed size of compressed values")
+   @Metric(displayName = "Compression ratio", displayType = DisplayType.SUMMARY)
+   @SuppressWarnings("unused")
+   public double getCompressionRatio() {
+      long compressed = compressionManager == null ? 0 : compressionManager.getCompressedBytes();
+      if (compressed == 0)
+         return 0;
+      return (double) compressionManager.getUncompressedBytes() / (double) compressed;
+   }
+
+   @ManagedAttribute(description = "Average number of microseconds spent compressing a value")
+   @Metric(displayName = "Average compression time (us)", displayType = DisplayType.SUMMARY)
+   @SuppressWarnings("unused")
+   public long getAverageCompressionTime() {
+      long total = getCompressions();
+      if (total == 0)
+         return 0;
+      return TimeUnit.NANOSECONDS.toMicros(compressionManager.getCompressionTime()) / total;
+   }
+
+   @ManagedAttribute(description = "Average number of microseconds spent decompressing a value")
+   @Metric(displayName = "Average decompression time (us)", displayType = DisplayType.SUMMARY)
+   @SuppressWarnings("unused")
+   public long getAverageDecompressionTime() {
+      long total = getDecompressions();
+      if (total == 0)
+         return 0;
+      return TimeUnit.NANOSECONDS.toMicros(compressionManager.getDecompressionTime()) / total;
+   }
+
    @Override
    @ManagedOperation(description = "Resets statistics gathered by this component")
    @Operation(displayName = "Reset Statistics (Statistics)")
@@ -256,6 +306,7 @@ public void resetStatistics() {
       storeTimes.set(0);
       removeHits.set(0);
       removeMisses.set(0);
+      if (compressionManager != null) compressionManager.resetStatistics();
       resetNanoseconds.set(System.nanoTime());
    }
 
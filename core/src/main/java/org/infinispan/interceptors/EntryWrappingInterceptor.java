@@ -39,6 +39,7 @@
 import org.infinispan.container.EntryFactory;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.versioning.SnapshotManager;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.SingleKeyNonTxInvocationContext;
@@ -67,6 +68,7 @@ public class EntryWrappingInterceptor extends CommandInterceptor {
    protected ClusteringDependentLogic cll;
    protected final EntryWrappingVisitor entryWrappingVisitor = new EntryWrappingVisitor();
    private CommandsFactory commandFactory;
+   private SnapshotManager snapshotManager;
 
    private static final Log log = LogFactory.getLog(EntryWrappingInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -77,11 +79,13 @@ protected Log getLog() {
    }
 
    @Inject
-   public void init(EntryFactory entryFactory, DataContainer dataContainer, ClusteringDependentLogic cll, CommandsFactory commandFactory) {
+   public void init(EntryFactory entryFactory, DataContainer dataContainer, ClusteringDependentLogic cll, CommandsFactory commandFactory,
+                    SnapshotManager snapshotManager) {
       this.entryFactory =  entryFactory;
       this.dataContainer = dataContainer;
       this.cll = cll;
       this.commandFactory = commandFactory;
+      this.snapshotManager = snapshotManager;
    }
 
    @Override
@@ -181,6 +185,20 @@ public Object visitEvictCommand(InvocationContext ctx, EvictCommand command) thr
    }
 
    protected void commitContextEntries(final InvocationContext ctx, boolean skipOwnershipCheck) {
+      if (!snapshotManager.isEnabled()) {
+         doCommitContextEntries(ctx, skipOwnershipCheck);
+         return;
+      }
+      // all the entries of a transaction become visible to the snapshots at once
+      snapshotManager.beginCommit();
+      try {
+         doCommitContextEntries(ctx, skipOwnershipCheck);
+      } finally {
+         snapshotManager.endCommit();
+      }
+   }
+
+   private void doCommitContextEntries(InvocationContext ctx, boolean skipOwnershipCheck) {
       if (ctx instanceof SingleKeyNonTxInvocationContext) {
          CacheEntry entry = ((SingleKeyNonTxInvocationContext)ctx).getCacheEntry();
          commitEntryIfNeeded(ctx, skipOwnershipCheck, entry);
@@ -284,6 +302,7 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
 
    private boolean commitEntryIfNeeded(InvocationContext ctx, boolean skipOwnershipCheck, CacheEntry entry) {
       if (entry != null && entry.isChanged()) {
+         if (snapshotManager.isEnabled()) snapshotManager.retainPreviousVersion(entry.getKey());
          commitContextEntry(entry, ctx, skipOwnershipCheck);
          log.tracef("Committed entry %s", entry);
          return true;
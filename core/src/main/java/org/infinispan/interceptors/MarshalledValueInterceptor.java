@@ -40,6 +40,7 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.marshall.CompressionManager;
 import org.infinispan.marshall.MarshalledValue;
 import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.util.Immutables;
@@ -76,6 +77,7 @@ public class MarshalledValueInterceptor extends CommandInterceptor {
    private boolean wrapKeys = true;
    private boolean wrapValues = true;
    private InternalEntryFactory entryFactory;
+   private CompressionManager compressionManager;
 
    private static final Log log = LogFactory.getLog(MarshalledValueInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -91,6 +93,11 @@ protected void injectMarshaller(@ComponentName(CACHE_MARSHALLER) StreamingMarsha
       this.entryFactory = entryFactory;
    }
 
+   @Inject
+   protected void injectCompressionManager(CompressionManager compressionManager) {
+      this.compressionManager = compressionManager;
+   }
+
    @Start
    protected void start() {
       wrapKeys = cacheConfiguration.storeAsBinary().storeKeysAsBinary();
@@ -139,7 +146,7 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
 
       if (wrapValues) {
          if (!isTypeExcluded(command.getValue().getClass())) {
-            value = createMarshalledValue(command.getValue(), ctx);
+            value = createMarshalledValue(command.getValue(), ctx, true);
             command.setValue(value);
          }
       }
@@ -269,11 +276,11 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
          command.setKey(key);
       }
       if (wrapValues && !isTypeExcluded(command.getNewValue().getClass())) {
-         newValue = createMarshalledValue(command.getNewValue(), ctx);
+         newValue = createMarshalledValue(command.getNewValue(), ctx, true);
          command.setNewValue(newValue);
       }
       if (wrapValues && command.getOldValue() != null && !isTypeExcluded(command.getOldValue().getClass())) {
-         oldValue = createMarshalledValue(command.getOldValue(), ctx);
+         oldValue = createMarshalledValue(command.getOldValue(), ctx, true);
          command.setOldValue(oldValue);
       }
       Object retVal = invokeNextInterceptor(ctx, command);
@@ -341,7 +348,7 @@ protected Map<Object, Object> wrapMap(Map<Object, Object> m, Set<MarshalledValue
          Object key = me.getKey();
          Object value = me.getValue();
          Object newKey = (key == null || isTypeExcluded(key.getClass())) || !wrapKeys ? key : createMarshalledValue(key, ctx);
-         Object newValue = (value == null || isTypeExcluded(value.getClass()) || !wrapValues) ? value : createMarshalledValue(value, ctx);
+         Object newValue = (value == null || isTypeExcluded(value.getClass()) || !wrapValues) ? value : createMarshalledValue(value, ctx, true);
          if (newKey instanceof MarshalledValue) marshalledValues.add((MarshalledValue) newKey);
          if (newValue instanceof MarshalledValue) marshalledValues.add((MarshalledValue) newValue);
          copy.put(newKey, newValue);
@@ -350,6 +357,16 @@ protected Map<Object, Object> wrapMap(Map<Object, Object> m, Set<MarshalledValue
    }
 
    protected MarshalledValue createMarshalledValue(Object toWrap, InvocationContext ctx) {
-      return new MarshalledValue(toWrap, ctx.isOriginLocal(), marshaller);
+      return createMarshalledValue(toWrap, ctx, false);
+   }
+
+   /**
+    * @param compressible whether the serialized form may be compressed; only ever true for values, since keys must
+    *                     keep a stable binary form for equality
+    */
+   protected MarshalledValue createMarshalledValue(Object toWrap, InvocationContext ctx, boolean compressible) {
+      CompressionManager compression = compressible && compressionManager != null && compressionManager.isEnabled()
+            ? compressionManager : null;
+      return new MarshalledValue(toWrap, ctx.isOriginLocal(), marshaller, compression);
    }
 }
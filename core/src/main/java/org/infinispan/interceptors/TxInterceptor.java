@@ -255,6 +255,7 @@ public void resetStatistics() {
       prepares.set(0);
       commits.set(0);
       rollbacks.set(0);
+      txCoordinator.resetStatistics();
    }
 
    @Operation(displayName = "Enable/disable statistics")
@@ -284,4 +285,10 @@ public long getCommits() {
    public long getRollbacks() {
       return rollbacks.get();
    }
+
+   @ManagedAttribute(description = "Number of read only transactions completed without prepare or commit since last reset")
+   @Metric(displayName = "Read only completions", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getReadOnlyCompletions() {
+      return txCoordinator.getReadOnlyCompletions();
+   }
 }
@@ -21,17 +21,17 @@
 
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.VersionedPrepareCommand;
+import org.infinispan.container.versioning.EntryVersionsMap;
 import org.infinispan.context.impl.TxInvocationContext;
-import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.EntryVersionsResponseCollector;
+import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.transaction.xa.CacheTransaction;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.Collection;
-import java.util.Map;
 
-import static org.infinispan.transaction.WriteSkewHelper.readVersionsFromResponse;
 import static org.infinispan.transaction.WriteSkewHelper.setVersionsSeenOnPrepareCommand;
 
 /**
@@ -53,11 +53,12 @@ protected Log getLog() {
    protected void prepareOnAffectedNodes(TxInvocationContext ctx, PrepareCommand command, Collection<Address> recipients, boolean ignored) {
       setVersionsSeenOnPrepareCommand((VersionedPrepareCommand) command, ctx);
 
-      // Perform the RPC
-      Map<Address, Response> resps = rpcManager.invokeRemotely(recipients, command, true, true);
+      // Perform the RPC, merging the newly generated versions from the lock owners as the responses are checked
+      EntryVersionsMap uv = rpcManager.invokeRemotelyAndCollect(recipients, command, ResponseMode.SYNCHRONOUS,
+            cacheConfiguration.clustering().sync().replTimeout(), true, new EntryVersionsResponseCollector());
 
-      // Now store newly generated versions from lock owners for use during the commit phase.
+      // Now store them for use during the commit phase.
       CacheTransaction ct = ctx.getCacheTransaction();
-      for (Response r : resps.values()) readVersionsFromResponse(r, ct);
+      if (uv != null) ct.setUpdatedEntryVersions(uv.merge(ct.getUpdatedEntryVersions()));
    }
 }
@@ -48,8 +48,10 @@
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.transaction.WriteSkewException;
 import org.infinispan.util.TimSort;
 import org.infinispan.util.concurrent.IsolationLevel;
+import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -67,6 +69,7 @@
 public class OptimisticLockingInterceptor extends AbstractTxLockingInterceptor {
 
    private LockAcquisitionVisitor lockAcquisitionVisitor;
+   private boolean nonBlockingValidation;
    private static final MurmurHash3 HASH = new MurmurHash3();
    private boolean needToMarkReads;
    private final static Comparator<Object> keyComparator = new Comparator<Object>() {
@@ -105,6 +108,12 @@ public void start() {
          lockAcquisitionVisitor = new LockAcquisitionVisitor();
          needToMarkReads = false;
       }
+      nonBlockingValidation = cacheConfiguration.locking().writeSkewCheck() &&
+            cacheConfiguration.locking().nonBlockingValidation();
+      if (nonBlockingValidation) {
+         // only the keys read by the transaction can fail the validation without waiting
+         needToMarkReads = true;
+      }
    }
 
    private void markKeyAsRead(InvocationContext ctx, AbstractDataCommand command) {
@@ -252,7 +261,7 @@ private Object visitSingleKeyCommand(InvocationContext ctx, AbstractDataCommand
       }
 
       private void lockAndRecord(TxInvocationContext txC, boolean skipLocking, long lockTimeout, Object key) throws InterruptedException {
-         lockAndRegisterBackupLock(txC, key, lockTimeout, skipLocking);
+         lockKey(txC, key, lockTimeout, skipLocking);
          performWriteSkewCheck(txC, key);
          txC.addAffectedKey(key);
       }
@@ -266,7 +275,7 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
             long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
             for (Object key : compositeKeys) {
                performWriteSkewCheck(txC, key);
-               lockAndRegisterBackupLock(txC, key, lockTimeout, skipLocking);
+               lockKey(txC, key, lockTimeout, skipLocking);
                txC.addAffectedKey(key);
             }
          }
@@ -286,6 +295,24 @@ protected void performWriteSkewCheck(TxInvocationContext ctx, Object key) {
       }
    }
 
+   /**
+    * With non-blocking validation, a key read by the transaction and locked by a concurrent one is about to get a new
+    * version, so the lock isn't waited for: the prepare fails with a write skew straight away. Keys written without
+    * being read can't cause a write skew, so their locks are waited for as usual.
+    */
+   private void lockKey(TxInvocationContext ctx, Object key, long lockTimeout, boolean skipLocking) throws InterruptedException {
+      if (nonBlockingValidation && !skipLocking && ctx.getCacheTransaction().keyRead(key)) {
+         try {
+            lockAndRegisterBackupLock(ctx, key, 0, false);
+         } catch (TimeoutException e) {
+            throw new WriteSkewException("Write skew detected on key " + key + " for transaction " +
+                                               ctx.getGlobalTransaction(), e);
+         }
+      } else {
+         lockAndRegisterBackupLock(ctx, key, lockTimeout, skipLocking);
+      }
+   }
+
    private void performLocalWriteSkewCheck(TxInvocationContext ctx, Object key) {
       CacheEntry ce = ctx.lookupEntry(key);
       if (ce instanceof RepeatableReadEntry && ctx.getCacheTransaction().keyRead(key)) {
@@ -325,8 +352,9 @@ private Object[] sort(WriteCommand[] writes) {
    private void acquireAllLocks(TxInvocationContext ctx, Object[] orderedKeys) throws InterruptedException {
       long lockTimeout = cacheConfiguration.locking().lockAcquisitionTimeout();
       for (Object key: orderedKeys) {
-         lockAndRegisterBackupLock(ctx, key, lockTimeout, false);
-         performLocalWriteSkewCheck(ctx, key);
+         lockKey(ctx, key, lockTimeout, false);
+         // reads are also tracked for non-blocking validation, so only check them here when checking write skews locally
+         lockAcquisitionVisitor.performWriteSkewCheck(ctx, key);
          ctx.addAffectedKey(key);
       }
    }
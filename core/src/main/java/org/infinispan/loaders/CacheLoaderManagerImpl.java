@@ -64,6 +64,8 @@
 import org.infinispan.loaders.decorators.ReadOnlyStore;
 import org.infinispan.loaders.decorators.SingletonStore;
 import org.infinispan.loaders.decorators.SingletonStoreConfig;
+import org.infinispan.marshall.CompressingMarshaller;
+import org.infinispan.marshall.CompressionManager;
 import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.statetransfer.StateTransferManager;
 import org.infinispan.topology.CacheTopology;
@@ -82,6 +84,7 @@ public class CacheLoaderManagerImpl implements CacheLoaderManager {
    InvocationContextContainer icc;
    TransactionManager transactionManager;
    StateTransferManager stateTransferManager;
+   CompressionManager compressionManager;
 
    @Inject
    public void inject(AdvancedCache<Object, Object> cache,
@@ -96,6 +99,11 @@ public void inject(AdvancedCache<Object, Object> cache,
       this.stateTransferManager = stateTransferManager;
    }
 
+   @Inject
+   public void injectCompressionManager(CompressionManager compressionManager) {
+      this.compressionManager = compressionManager;
+   }
+
    @Override
    public CacheLoader getCacheLoader() {
       return loader;
@@ -154,6 +162,8 @@ public boolean isFetchPersistentState() {
    public void start() {
       clmConfig = configuration.loaders();
       if (clmConfig != null) {
+         if (compressionManager != null && compressionManager.isEnabled() && !(m instanceof CompressingMarshaller))
+            m = new CompressingMarshaller(m, compressionManager);
          try {
             loader = createCacheLoader();
             Transaction xaTx = null;
@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall;
+
+import org.infinispan.io.ByteBuffer;
+import org.infinispan.io.ExposedByteArrayOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+import static org.infinispan.marshall.MarshallUtil.COMPRESSED_HEADER_LENGTH;
+
+/**
+ * A marshaller which compresses the byte buffers produced by another marshaller using a {@link CompressionManager},
+ * so that cache stores write large values compressed without any change to their own code.
+ * <p/>
+ * Buffers are decompressed transparently on the way back, whether they are read from a byte array or from an input
+ * stream holding a single buffer, and uncompressed buffers written before compression was enabled can still be read.
+ * Object streams opened with {@link #startObjectOutput(java.io.OutputStream, boolean, int)} are left untouched, as
+ * they usually hold several objects, e.g. when a store's contents are streamed during state transfer.
+ * <p/>
+ * Buffers are compressed as a whole, so marshalled values already compressed by the cache are deflated a second time.
+ * That is wasted effort when such values make up most of the buffer, and the result is then usually discarded for
+ * not being any smaller; enable compression either for the cache or here, rather than for both.
+ *
+ * @since 5.2
+ */
+public class CompressingMarshaller extends AbstractDelegatingMarshaller {
+
+   private final CompressionManager compressionManager;
+
+   public CompressingMarshaller(StreamingMarshaller marshaller, CompressionManager compressionManager) {
+      this.marshaller = marshaller;
+      this.compressionManager = compressionManager;
+   }
+
+   @Override
+   public void stop() {
+      // the delegate belongs to the cache, which stops it
+   }
+
+   @Override
+   public byte[] objectToByteBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
+      return compress(marshaller.objectToByteBuffer(obj, estimatedSize));
+   }
+
+   @Override
+   public byte[] objectToByteBuffer(Object obj) throws IOException, InterruptedException {
+      return compress(marshaller.objectToByteBuffer(obj));
+   }
+
+   @Override
+   public ByteBuffer objectToBuffer(Object o) throws IOException, InterruptedException {
+      ByteBuffer buffer = marshaller.objectToBuffer(o);
+      byte[] compressed = compressionManager.compress(buffer.getBuf(), buffer.getOffset(), buffer.getLength());
+      return compressed == null ? buffer : new ByteBuffer(compressed, 0, compressed.length);
+   }
+
+   @Override
+   public Object objectFromByteBuffer(byte[] buf) throws IOException, ClassNotFoundException {
+      return objectFromByteBuffer(buf, 0, buf.length);
+   }
+
+   @Override
+   public Object objectFromByteBuffer(byte[] buf, int offset, int length) throws IOException, ClassNotFoundException {
+      if (MarshallUtil.isCompressed(buf, offset, length)) {
+         byte[] uncompressed = compressionManager.decompress(buf, offset, length);
+         return marshaller.objectFromByteBuffer(uncompressed, 0, uncompressed.length);
+      }
+      return marshaller.objectFromByteBuffer(buf, offset, length);
+   }
+
+   @Override
+   public Object objectFromInputStream(InputStream is) throws IOException, ClassNotFoundException {
+      return marshaller.objectFromInputStream(decompress(is));
+   }
+
+   private byte[] compress(byte[] buf) {
+      byte[] compressed = compressionManager.compress(buf, 0, buf.length);
+      return compressed == null ? buf : compressed;
+   }
+
+   /**
+    * Peeks at the start of the stream and pushes the header back if it turns out not to be compressed.
+    */
+   private InputStream decompress(InputStream is) throws IOException {
+      PushbackInputStream pis = new PushbackInputStream(is, COMPRESSED_HEADER_LENGTH);
+      byte[] header = new byte[COMPRESSED_HEADER_LENGTH];
+      int read = 0;
+      while (read < header.length) {
+         int n = pis.read(header, read, header.length - read);
+         if (n < 0) break;
+         read += n;
+      }
+      if (read == header.length && MarshallUtil.isCompressed(header, 0, read)) {
+         ExposedByteArrayOutputStream rest = new ExposedByteArrayOutputStream();
+         rest.write(header, 0, read);
+         byte[] chunk = new byte[4096];
+         int n;
+         while ((n = pis.read(chunk)) >= 0)
+            rest.write(chunk, 0, n);
+         byte[] uncompressed = compressionManager.decompress(rest.getRawBuffer(), 0, rest.size());
+         return new ByteArrayInputStream(uncompressed);
+      }
+      if (read > 0)
+         pis.unread(header, 0, read);
+      return pis;
+   }
+}
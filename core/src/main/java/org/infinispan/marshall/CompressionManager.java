@@ -0,0 +1,86 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+
+import java.io.IOException;
+
+/**
+ * Compresses the serialized form of large values, as configured by
+ * {@link org.infinispan.configuration.cache.CompressionConfiguration}, and keeps statistics on how well it pays off.
+ * <p/>
+ * Compressed values are framed so that they can be recognised with {@link MarshallUtil#isCompressed(byte[], int, int)}
+ * and inflated with {@link MarshallUtil#decompress(byte[], int, int)} by any node, whether or not it compresses values
+ * itself.
+ *
+ * @since 5.2
+ */
+@ThreadSafe
+@Scope(Scopes.NAMED_CACHE)
+public interface CompressionManager {
+
+   boolean isEnabled();
+
+   /**
+    * Compresses the given serialized value.
+    *
+    * @return the compressed value, or null if compression is disabled, the value is smaller than the configured
+    *         threshold or compressing it would not save any space
+    */
+   byte[] compress(byte[] buf, int offset, int length);
+
+   /**
+    * Inflates a compressed value, accounting for the time spent in the statistics.
+    */
+   byte[] decompress(byte[] buf, int offset, int length) throws IOException;
+
+   long getCompressions();
+
+   long getDecompressions();
+
+   /**
+    * @return the total size of the values compressed, before compression
+    */
+   long getUncompressedBytes();
+
+   /**
+    * @return the total size of the values compressed, after compression
+    */
+   long getCompressedBytes();
+
+   /**
+    * @return the total time spent compressing values, including values which turned out not to be worth compressing,
+    *         in nanoseconds
+    */
+   long getCompressionTime();
+
+   /**
+    * @return the total time spent decompressing values, in nanoseconds
+    */
+   long getDecompressionTime();
+
+   void resetStatistics();
+}
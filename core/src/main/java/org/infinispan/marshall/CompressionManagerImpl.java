@@ -0,0 +1,201 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall;
+
+import org.infinispan.configuration.cache.CompressionConfiguration;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+import static org.infinispan.marshall.MarshallUtil.COMPRESSED_HEADER_LENGTH;
+import static org.infinispan.marshall.MarshallUtil.COMPRESSED_MAGIC;
+
+/**
+ * Deflate based {@link CompressionManager}. {@link Deflater}s are pooled, as creating one is expensive, and their native
+ * memory is released when they are dropped from the pool or when the manager is stopped.
+ *
+ * @since 5.2
+ */
+public class CompressionManagerImpl implements CompressionManager {
+
+   private Configuration configuration;
+   private boolean enabled;
+   private int threshold;
+   private int level;
+   private boolean statsEnabled;
+
+   private static final int MAX_POOLED_DEFLATERS = Runtime.getRuntime().availableProcessors();
+
+   private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<Deflater>(MAX_POOLED_DEFLATERS);
+   private final AtomicLong compressions = new AtomicLong(0);
+   private final AtomicLong decompressions = new AtomicLong(0);
+   private final AtomicLong uncompressedBytes = new AtomicLong(0);
+   private final AtomicLong compressedBytes = new AtomicLong(0);
+   private final AtomicLong compressionTime = new AtomicLong(0);
+   private final AtomicLong decompressionTime = new AtomicLong(0);
+
+   public CompressionManagerImpl() {
+   }
+
+   /**
+    * Creates a compression manager with the given settings, for use outside of a cache.  Values compressed by other
+    * nodes can be decompressed even if it is not enabled.
+    */
+   CompressionManagerImpl(boolean enabled, int threshold, int level, boolean statsEnabled) {
+      this.enabled = enabled;
+      this.threshold = threshold;
+      this.level = level;
+      this.statsEnabled = statsEnabled;
+   }
+
+   @Inject
+   public void inject(Configuration configuration) {
+      this.configuration = configuration;
+   }
+
+   @Start(priority = 9) // Start before cache loader manager, which wraps store marshallers if compression is enabled
+   public void start() {
+      CompressionConfiguration compression = configuration.compression();
+      enabled = compression.enabled();
+      threshold = compression.threshold();
+      level = compression.level();
+      statsEnabled = configuration.jmxStatistics().enabled();
+   }
+
+   @Stop
+   public void stop() {
+      Deflater deflater;
+      while ((deflater = deflaters.poll()) != null)
+         deflater.end();
+   }
+
+   @Override
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   @Override
+   public byte[] compress(byte[] buf, int offset, int length) {
+      if (!enabled || length < threshold || length <= COMPRESSED_HEADER_LENGTH)
+         return null;
+
+      long start = statsEnabled ? System.nanoTime() : 0;
+      Deflater deflater = deflaters.poll();
+      if (deflater == null)
+         deflater = new Deflater(level);
+      byte[] compressed = null;
+      try {
+         deflater.setInput(buf, offset, length);
+         deflater.finish();
+
+         // the compressed value must be smaller than the original one to be worth keeping
+         byte[] out = new byte[length];
+         System.arraycopy(COMPRESSED_MAGIC, 0, out, 0, COMPRESSED_MAGIC.length);
+         int pos = COMPRESSED_MAGIC.length;
+         out[pos++] = (byte) (length >>> 24);
+         out[pos++] = (byte) (length >>> 16);
+         out[pos++] = (byte) (length >>> 8);
+         out[pos++] = (byte) length;
+         while (!deflater.finished() && pos < out.length)
+            pos += deflater.deflate(out, pos, out.length - pos);
+
+         if (deflater.finished() && pos < length) {
+            compressed = new byte[pos];
+            System.arraycopy(out, 0, compressed, 0, pos);
+         }
+      } finally {
+         deflater.reset();
+         if (!deflaters.offer(deflater))
+            deflater.end();
+      }
+
+      if (statsEnabled) {
+         compressionTime.addAndGet(System.nanoTime() - start);
+         if (compressed != null) {
+            compressions.incrementAndGet();
+            uncompressedBytes.addAndGet(length);
+            compressedBytes.addAndGet(compressed.length);
+         }
+      }
+      return compressed;
+   }
+
+   @Override
+   public byte[] decompress(byte[] buf, int offset, int length) throws IOException {
+      if (!statsEnabled)
+         return MarshallUtil.decompress(buf, offset, length);
+
+      long start = System.nanoTime();
+      byte[] uncompressed = MarshallUtil.decompress(buf, offset, length);
+      decompressionTime.addAndGet(System.nanoTime() - start);
+      decompressions.incrementAndGet();
+      return uncompressed;
+   }
+
+   @Override
+   public long getCompressions() {
+      return compressions.get();
+   }
+
+   @Override
+   public long getDecompressions() {
+      return decompressions.get();
+   }
+
+   @Override
+   public long getUncompressedBytes() {
+      return uncompressedBytes.get();
+   }
+
+   @Override
+   public long getCompressedBytes() {
+      return compressedBytes.get();
+   }
+
+   @Override
+   public long getCompressionTime() {
+      return compressionTime.get();
+   }
+
+   @Override
+   public long getDecompressionTime() {
+      return decompressionTime.get();
+   }
+
+   @Override
+   public void resetStatistics() {
+      compressions.set(0);
+      decompressions.set(0);
+      uncompressedBytes.set(0);
+      compressedBytes.set(0);
+      compressionTime.set(0);
+      decompressionTime.set(0);
+   }
+}
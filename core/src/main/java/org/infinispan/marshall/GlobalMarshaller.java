@@ -1,38 +1,110 @@
 package org.infinispan.marshall;
 
 import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.configuration.global.SerializationConfiguration;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.marshall.jboss.ExternalizerTable;
+import org.rhq.helpers.pluginAnnotations.agent.DataType;
+import org.rhq.helpers.pluginAnnotations.agent.DisplayType;
+import org.rhq.helpers.pluginAnnotations.agent.MeasurementType;
+import org.rhq.helpers.pluginAnnotations.agent.Metric;
+import org.rhq.helpers.pluginAnnotations.agent.Operation;
+import org.rhq.helpers.pluginAnnotations.agent.Units;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * A globally-scoped marshaller. This is needed so that the transport layer
  * can unmarshall requests even before it's known which cache's marshaller can
  * do the job.
+ * <p/>
+ * If {@link SerializationConfiguration#compressLargePayloads()} is enabled, payloads
+ * larger than the configured threshold are compressed.  Compressed payloads are
+ * always recognised and inflated when reading, so nodes with and without
+ * compression enabled can talk to each other. Payloads are compressed as a whole,
+ * including any values the cache has already compressed, so enabling both wastes
+ * CPU deflating those values again.
  *
  * @author Galder Zamarreño
  * @since 5.0
  */
 @Scope(Scopes.GLOBAL)
+@MBean(objectName = "GlobalMarshaller", description = "Marshalls the commands and responses exchanged with other nodes")
 public class GlobalMarshaller extends AbstractDelegatingMarshaller {
 
+   private final VersionAwareMarshaller versionAwareMarshaller;
+   private CompressionManager compressionManager;
+
    public GlobalMarshaller(VersionAwareMarshaller marshaller) {
       this.marshaller = marshaller;
+      this.versionAwareMarshaller = marshaller;
    }
 
    @Inject
    public void inject(ClassLoader loader, ExternalizerTable extTable,
             GlobalConfiguration globalCfg) {
-      ((VersionAwareMarshaller) this.marshaller).inject(
+      versionAwareMarshaller.inject(
             null, null, loader, null, extTable, globalCfg);
+      SerializationConfiguration serialization = globalCfg.serialization();
+      compressionManager = new CompressionManagerImpl(serialization.compressLargePayloads(),
+            serialization.compressionThreshold(), serialization.compressionLevel(),
+            globalCfg.globalJmxStatistics().enabled());
+      // Incoming payloads are inflated even if this node doesn't compress the ones it sends
+      this.marshaller = new CompressingMarshaller(versionAwareMarshaller, compressionManager);
    }
 
    @Override
    @Stop(priority = 11) // Stop after transport to avoid send/receive and marshaller not being ready
    public void stop() {
-      super.stop();
+      versionAwareMarshaller.stop();
+   }
+
+   @ManagedAttribute(description = "Number of payloads compressed")
+   @Metric(displayName = "Number of compressed payloads", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getCompressedPayloads() {
+      return compressionManager.getCompressions();
+   }
+
+   @ManagedAttribute(description = "Number of compressed payloads received and inflated")
+   @Metric(displayName = "Number of decompressed payloads", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getDecompressedPayloads() {
+      return compressionManager.getDecompressions();
+   }
+
+   @ManagedAttribute(description = "Size of the compressed payloads as a ratio of their uncompressed size")
+   @Metric(displayName = "Compression ratio", units = Units.PERCENTAGE, displayType = DisplayType.SUMMARY)
+   public double getCompressionRatio() {
+      long uncompressed = compressionManager.getUncompressedBytes();
+      return uncompressed == 0 ? 0 : (double) compressionManager.getCompressedBytes() / uncompressed;
+   }
+
+   @ManagedAttribute(description = "Time spent compressing payloads, in milliseconds")
+   @Metric(displayName = "Compression time", units = Units.MILLISECONDS, measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getCompressionTime() {
+      return TimeUnit.NANOSECONDS.toMillis(compressionManager.getCompressionTime());
+   }
+
+   @ManagedAttribute(description = "Time spent decompressing payloads, in milliseconds")
+   @Metric(displayName = "Decompression time", units = Units.MILLISECONDS, measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getDecompressionTime() {
+      return TimeUnit.NANOSECONDS.toMillis(compressionManager.getDecompressionTime());
+   }
+
+   @Metric(displayName = "Compression of large payloads enabled", dataType = DataType.TRAIT)
+   public boolean isCompressionEnabled() {
+      return compressionManager.isEnabled();
+   }
+
+   @ManagedOperation(description = "Resets the compression statistics")
+   @Operation(displayName = "Reset statistics")
+   public void resetStatistics() {
+      compressionManager.resetStatistics();
    }
 
 }
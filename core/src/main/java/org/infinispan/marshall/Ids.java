@@ -113,4 +113,6 @@ public interface Ids {
 
    int STATE_CHUNK = 86;
    int CACHE_JOIN_INFO = 87;
+
+   int SEQUENCED_TRANSACTION = 88;
 }
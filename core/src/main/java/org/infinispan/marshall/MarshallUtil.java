@@ -30,6 +30,8 @@
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 import org.infinispan.io.UnsignedNumeric;
 
@@ -42,6 +44,18 @@
 @Immutable
 public class MarshallUtil {
 
+   /**
+    * Marks the start of a value compressed by a {@link CompressionManager}. It is followed by the length of the
+    * uncompressed value, as a 4 byte big-endian int, and then by the deflated bytes.
+    */
+   static final byte[] COMPRESSED_MAGIC = {(byte) 0xC5, 'D', 'F', 'L'};
+   static final int COMPRESSED_HEADER_LENGTH = COMPRESSED_MAGIC.length + 4;
+
+   /**
+    * Deflate cannot expand its input by more than this factor, so headers claiming more are rejected before allocating.
+    */
+   private static final int MAX_COMPRESSION_RATIO = 1032;
+
    public static void marshallCollection(Collection<?> c, ObjectOutput out) throws IOException {
       UnsignedNumeric.writeUnsignedInt(out, c.size());
       for (Object o : c) {
@@ -64,4 +78,46 @@ public static void unmarshallMap(Map<Object, Object> map, ObjectInput in) throws
       int size = UnsignedNumeric.readUnsignedInt(in);
       for (int i = 0; i < size; i++) map.put(in.readObject(), in.readObject());
    }
+
+   /**
+    * Checks whether the given bytes hold a value compressed by a {@link CompressionManager}.
+    */
+   public static boolean isCompressed(byte[] buf, int offset, int length) {
+      if (length < COMPRESSED_HEADER_LENGTH) return false;
+      for (int i = 0; i < COMPRESSED_MAGIC.length; i++) {
+         if (buf[offset + i] != COMPRESSED_MAGIC[i]) return false;
+      }
+      return true;
+   }
+
+   /**
+    * Inflates a value compressed by a {@link CompressionManager}. Values can be decompressed regardless of whether
+    * compression is enabled for the cache reading them, as long as {@link #isCompressed(byte[], int, int)} holds.
+    */
+   public static byte[] decompress(byte[] buf, int offset, int length) throws IOException {
+      int pos = offset + COMPRESSED_MAGIC.length;
+      int uncompressedLength = ((buf[pos] & 0xFF) << 24) | ((buf[pos + 1] & 0xFF) << 16)
+            | ((buf[pos + 2] & 0xFF) << 8) | (buf[pos + 3] & 0xFF);
+      if (uncompressedLength < 0 || uncompressedLength > (long) (length - COMPRESSED_HEADER_LENGTH) * MAX_COMPRESSION_RATIO)
+         throw new IOException("Corrupt compressed value: invalid uncompressed length " + uncompressedLength);
+      byte[] uncompressed = new byte[uncompressedLength];
+      Inflater inflater = new Inflater();
+      try {
+         inflater.setInput(buf, offset + COMPRESSED_HEADER_LENGTH, length - COMPRESSED_HEADER_LENGTH);
+         int inflated = 0;
+         while (inflated < uncompressedLength) {
+            int n = inflater.inflate(uncompressed, inflated, uncompressedLength - inflated);
+            if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+               break;
+            inflated += n;
+         }
+         if (inflated != uncompressedLength)
+            throw new IOException("Corrupt compressed value: expected " + uncompressedLength + " bytes, inflated " + inflated);
+      } catch (DataFormatException e) {
+         throw new IOException("Corrupt compressed value", e);
+      } finally {
+         inflater.end();
+      }
+      return uncompressed;
+   }
 }
@@ -79,18 +79,33 @@ public final class MarshalledValue implements Serializable {
    private transient volatile boolean equalityPreferenceForInstance = true;
    // A marshaller is needed at construction time to handle equals/hashCode impls
    private transient final StreamingMarshaller marshaller;
+   // Only set on values, never on keys, as compressed bytes cannot be hashed consistently across nodes
+   private transient final CompressionManager compressionManager;
 
    public MarshalledValue(Object instance, boolean equalityPreferenceForInstance, StreamingMarshaller marshaller) {
+      this(instance, equalityPreferenceForInstance, marshaller, null);
+   }
+
+   /**
+    * Creates a marshalled value whose serialized form is compressed by the given {@link CompressionManager} once it
+    * exceeds the configured threshold. A <tt>null</tt> compression manager disables compression.
+    *
+    * @since 5.2
+    */
+   public MarshalledValue(Object instance, boolean equalityPreferenceForInstance, StreamingMarshaller marshaller,
+                          CompressionManager compressionManager) {
       if (instance == null) throw new NullPointerException("Null values cannot be wrapped as MarshalledValues!");
 
       this.instance = instance;
       this.equalityPreferenceForInstance = equalityPreferenceForInstance;
       this.marshaller = marshaller;
+      this.compressionManager = compressionManager;
    }
 
    private MarshalledValue(byte[] raw, int cachedHashCode, StreamingMarshaller marshaller) {
       init(raw, cachedHashCode);
       this.marshaller = marshaller;
+      this.compressionManager = null;
    }
 
    private void init(byte[] raw, int cachedHashCode) {
@@ -122,7 +137,11 @@ private MarshalledValueByteStream serialize0() {
             }
             serialisedSize = baos.size();
             localRaw = baos;
-            raw = baos;
+            if (compressionManager != null) {
+               byte[] compressed = compressionManager.compress(baos.getRaw(), 0, baos.size());
+               if (compressed != null) localRaw = new ImmutableMarshalledValueByteStream(compressed);
+            }
+            raw = localRaw;
          } catch (Exception e) {
             throw new CacheException("Unable to marshall value " + instance, e);
          }
@@ -141,8 +160,17 @@ private Object deserialize0() {
       Object instanceValue = instance;
       if (instanceValue == null) {
          try {
+            MarshalledValueByteStream localRaw = raw;
+            byte[] buf = localRaw.getRaw();
+            int length = localRaw.size();
+            if (MarshallUtil.isCompressed(buf, 0, length)) {
+               // may have been compressed by another node, so don't rely on compression being enabled here
+               buf = compressionManager != null ? compressionManager.decompress(buf, 0, length)
+                     : MarshallUtil.decompress(buf, 0, length);
+               length = buf.length;
+            }
             // StreamingMarshaller underneath deals with making sure the right classloader is set.
-            instanceValue = marshaller.objectFromByteBuffer(raw.getRaw(), 0, raw.size());
+            instanceValue = marshaller.objectFromByteBuffer(buf, 0, length);
             instance = instanceValue;
             return instanceValue;
          }
@@ -206,6 +234,15 @@ public MarshalledValueByteStream getRaw() {
       return rawValue;
    }
 
+   /**
+    * Returns the size of the serialized representation without serializing the instance: the actual size if it has
+    * been serialized already, otherwise the size of its last serialized form, or a guess if it was never serialized.
+    */
+   public int getSerializedSize() {
+      MarshalledValueByteStream rawValue = raw;
+      return rawValue != null ? rawValue.size() : serialisedSize;
+   }
+
    /**
     * Returns the 'cached' instance
     */
@@ -238,7 +275,7 @@ public boolean equals(Object o) {
 
       MarshalledValueByteStream thisRaw = this.raw;
       MarshalledValueByteStream thatRaw = that.raw;
-      if (thisRaw != null && thatRaw != null) return thisRaw.equals(thatRaw);
+      if (thisRaw != null && thatRaw != null) return uncompressed(thisRaw).equals(uncompressed(thatRaw));
       if (thisInstance != null && thatInstance != null) {
          return thisInstance.equals(thatInstance);
       }
@@ -259,7 +296,22 @@ public boolean equals(Object o) {
          if (thatRaw == null) {
             thatRaw = that.serialize();
          }
-         return thisRaw.equals(thatRaw);
+         return uncompressed(thisRaw).equals(uncompressed(thatRaw));
+      }
+   }
+
+   /**
+    * The same value may be held compressed by one instance and uncompressed by another (e.g. if it was received from a
+    * node with different compression settings), so serialized forms are always compared uncompressed.
+    */
+   private static MarshalledValueByteStream uncompressed(MarshalledValueByteStream raw) {
+      byte[] buf = raw.getRaw();
+      int length = raw.size();
+      if (!MarshallUtil.isCompressed(buf, 0, length)) return raw;
+      try {
+         return new ImmutableMarshalledValueByteStream(MarshallUtil.decompress(buf, 0, length));
+      } catch (IOException e) {
+         throw new CacheException("Unable to decompress value", e);
       }
    }
 
@@ -56,6 +56,17 @@ public class VersionAwareMarshaller extends AbstractMarshaller implements Stream
 
    private static final int VERSION_510 = 510;
 
+   /**
+    * Scratch buffers that grew beyond this size while marshalling a large object are dropped rather than kept for the
+    * thread's next call, so that an occasional large object does not pin memory on every thread.
+    */
+   static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+   /**
+    * Shared by all the marshallers, so that each thread pins at most one scratch buffer however many caches it uses.
+    */
+   private static final ThreadLocal<ExposedByteArrayOutputStream> SCRATCH_BUFFER = new ThreadLocal<ExposedByteArrayOutputStream>();
+
    private final JBossMarshaller defaultMarshaller;
    private String cacheName;
 
@@ -81,12 +92,60 @@ public void inject(Cache cache, Configuration cfg, ClassLoader loader,
    @Override
    public void stop() {
       defaultMarshaller.stop();
+      // only the stopping thread's buffer can be released, the others go away with their threads
+      SCRATCH_BUFFER.remove();
+   }
+
+   /**
+    * The JBoss Marshalling based marshaller objects are delegated to.
+    */
+   protected JBossMarshaller getDefaultMarshaller() {
+      return defaultMarshaller;
    }
 
    @Override
    protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
       ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
-      ObjectOutput out = startObjectOutput(baos, false, estimatedSize);
+      writeObject(obj, baos, estimatedSize);
+      return new ByteBuffer(baos.getRawBuffer(), 0, baos.size());
+   }
+
+   /**
+    * Marshalls into a per-thread scratch buffer and hands back a copy of exactly the marshalled length, so that the
+    * only allocation is the returned array.  Buffers passed to JGroups are kept in its retransmission tables until
+    * they are acknowledged, so they must never be recycled, but neither should they carry the unused capacity of an
+    * over-estimated buffer.
+    */
+   @Override
+   public ByteBuffer objectToBuffer(Object obj) throws IOException, InterruptedException {
+      byte[] bytes = objectToByteBuffer(obj);
+      return new ByteBuffer(bytes, 0, bytes.length);
+   }
+
+   @Override
+   public byte[] objectToByteBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
+      ExposedByteArrayOutputStream baos = SCRATCH_BUFFER.get();
+      if (baos == null) {
+         baos = new ExposedByteArrayOutputStream(Math.max(estimatedSize, 1));
+      } else {
+         // Taken out of the thread local while in use, in case an object marshalls another one with this marshaller
+         SCRATCH_BUFFER.remove();
+      }
+      try {
+         writeObject(obj, baos, estimatedSize);
+         byte[] bytes = new byte[baos.size()];
+         System.arraycopy(baos.getRawBuffer(), 0, bytes, 0, bytes.length);
+         return bytes;
+      } finally {
+         if (baos.getRawBuffer().length <= MAX_POOLED_BUFFER_SIZE) {
+            baos.reset();
+            SCRATCH_BUFFER.set(baos);
+         }
+      }
+   }
+
+   private void writeObject(Object obj, OutputStream os, int estimatedSize) throws IOException, InterruptedException {
+      ObjectOutput out = startObjectOutput(os, false, estimatedSize);
       try {
          defaultMarshaller.objectToObjectStream(obj, out);
       } catch (java.io.NotSerializableException nse) {
@@ -103,7 +162,6 @@ protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOExce
       } finally {
          finishObjectOutput(out);
       }
-      return new ByteBuffer(baos.getRawBuffer(), 0, baos.size());
    }
 
    @Override
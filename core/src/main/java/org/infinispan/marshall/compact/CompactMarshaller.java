@@ -0,0 +1,120 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall.compact;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.context.InvocationContextContainer;
+import org.infinispan.marshall.AdvancedExternalizer;
+import org.infinispan.marshall.VersionAwareMarshaller;
+import org.infinispan.marshall.jboss.ExternalizerTable;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.OutputStream;
+
+/**
+ * A marshaller that writes objects using the {@link AdvancedExternalizer}s registered with the cache manager as their
+ * schemas, without going through JBoss Marshalling.  Every object is written as a one byte tag followed by the
+ * externalizer's id and the fields written by the externalizer, with integers, longs and lengths encoded as
+ * variable-length integers.  No class names, class or instance tables, or stream headers are written, which keeps
+ * small keys, values, cache entries and commands considerably smaller.
+ * <p/>
+ * Strings, boxed primitives and byte arrays have built-in encodings.  Objects of any other type without a registered
+ * externalizer, such as plain {@link java.io.Serializable} user types, are marshalled with JBoss Marshalling and
+ * embedded as a length-prefixed byte array, so registering an externalizer is what makes a user type compact.
+ * <p/>
+ * It is selected per cache manager with
+ * {@link org.infinispan.configuration.global.SerializationConfigurationBuilder#marshaller(org.infinispan.marshall.Marshaller)}.
+ * All the nodes of a cluster, and all the readers of a cache store, must use the same marshaller.
+ *
+ * @since 5.2
+ */
+public class CompactMarshaller extends VersionAwareMarshaller {
+   private static final Log log = LogFactory.getLog(CompactMarshaller.class);
+
+   private ExternalizerTable externalizerTable;
+
+   @Override
+   public void inject(Cache cache, Configuration cfg, ClassLoader loader, InvocationContextContainer icc,
+                      ExternalizerTable extTable, GlobalConfiguration globalCfg) {
+      super.inject(cache, cfg, loader, icc, extTable, globalCfg);
+      this.externalizerTable = extTable;
+   }
+
+   @Override
+   public ObjectOutput startObjectOutput(OutputStream os, boolean isReentrant, int estimatedSize) throws IOException {
+      return new CompactObjectOutput(os, this);
+   }
+
+   @Override
+   public void finishObjectOutput(ObjectOutput oo) {
+      try {
+         oo.flush();
+      } catch (IOException e) {
+         log.trace("Unable to flush compact object output", e);
+      }
+   }
+
+   @Override
+   public Object objectFromByteBuffer(byte[] bytes, int offset, int len) throws IOException, ClassNotFoundException {
+      // Read straight from the array, without the synchronization of a ByteArrayInputStream
+      return new CompactObjectInput(bytes, offset, len, this).readObject();
+   }
+
+   @Override
+   public ObjectInput startObjectInput(InputStream is, boolean isReentrant) throws IOException {
+      return new CompactObjectInput(is, this);
+   }
+
+   @Override
+   public void finishObjectInput(ObjectInput oi) {
+      // nothing is buffered beyond what the caller asked for, so there's nothing to release
+   }
+
+   int getReaderIndex(Class<?> type) throws IOException {
+      return externalizerTable.getReaderIndex(type);
+   }
+
+   AdvancedExternalizer<Object> getExternalizer(int readerIndex) throws IOException {
+      return externalizerTable.getExternalizer(readerIndex);
+   }
+
+   byte[] fallbackToByteBuffer(Object obj) throws IOException {
+      try {
+         return getDefaultMarshaller().objectToByteBuffer(obj);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IOException(e);
+      }
+   }
+
+   Object fallbackFromByteBuffer(byte[] buf, int offset, int length) throws IOException, ClassNotFoundException {
+      return getDefaultMarshaller().objectFromByteBuffer(buf, offset, length);
+   }
+}
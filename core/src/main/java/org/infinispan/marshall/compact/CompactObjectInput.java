@@ -0,0 +1,258 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall.compact;
+
+import org.infinispan.io.UnsignedNumeric;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.StreamCorruptedException;
+
+import static org.infinispan.marshall.compact.CompactObjectOutput.*;
+
+/**
+ * Reads the compact format written by {@link CompactObjectOutput}, either from a byte array or from a stream.  Only
+ * the bytes that make up the objects read are consumed from a stream.
+ *
+ * @since 5.2
+ */
+final class CompactObjectInput implements ObjectInput {
+
+   private final CompactMarshaller marshaller;
+   private final InputStream in;
+   private final byte[] buf;
+   private int pos;
+   private final int limit;
+
+   CompactObjectInput(InputStream in, CompactMarshaller marshaller) {
+      this.in = in;
+      this.marshaller = marshaller;
+      this.buf = null;
+      this.limit = 0;
+   }
+
+   CompactObjectInput(byte[] buf, int offset, int length, CompactMarshaller marshaller) {
+      this.in = null;
+      this.marshaller = marshaller;
+      this.buf = buf;
+      this.pos = offset;
+      this.limit = offset + length;
+   }
+
+   @Override
+   public Object readObject() throws ClassNotFoundException, IOException {
+      int tag = readUnsignedByte();
+      switch (tag) {
+         case NULL:
+            return null;
+         case STRING:
+            return readUTF();
+         case BYTE_ARRAY:
+            byte[] bytes = new byte[UnsignedNumeric.readUnsignedInt(this)];
+            readFully(bytes);
+            return bytes;
+         case INTEGER:
+            return readInt();
+         case LONG:
+            return readLong();
+         case TRUE:
+            return Boolean.TRUE;
+         case FALSE:
+            return Boolean.FALSE;
+         case DOUBLE:
+            return readDouble();
+         case FLOAT:
+            return readFloat();
+         case SHORT:
+            return readShort();
+         case BYTE:
+            return readByte();
+         case CHARACTER:
+            return readChar();
+         case INTERNAL_EXTERNALIZER:
+            return marshaller.getExternalizer(readUnsignedByte()).readObject(this);
+         case FOREIGN_EXTERNALIZER:
+            return marshaller.getExternalizer(0x80000000 | UnsignedNumeric.readUnsignedInt(this)).readObject(this);
+         case FALLBACK:
+            int length = UnsignedNumeric.readUnsignedInt(this);
+            if (in == null) {
+               checkAvailable(length);
+               Object o = marshaller.fallbackFromByteBuffer(buf, pos, length);
+               pos += length;
+               return o;
+            }
+            byte[] fallback = new byte[length];
+            readFully(fallback);
+            return marshaller.fallbackFromByteBuffer(fallback, 0, length);
+         default:
+            throw new StreamCorruptedException("Unknown type tag " + tag);
+      }
+   }
+
+   @Override
+   public int read() throws IOException {
+      if (in != null) return in.read();
+      return pos < limit ? buf[pos++] & 0xFF : -1;
+   }
+
+   @Override
+   public int read(byte[] b) throws IOException {
+      return read(b, 0, b.length);
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) throws IOException {
+      if (in != null) return in.read(b, off, len);
+      if (pos >= limit) return len == 0 ? 0 : -1;
+      int n = Math.min(len, limit - pos);
+      System.arraycopy(buf, pos, b, off, n);
+      pos += n;
+      return n;
+   }
+
+   @Override
+   public void readFully(byte[] b) throws IOException {
+      readFully(b, 0, b.length);
+   }
+
+   @Override
+   public void readFully(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+         int n = read(b, off, len);
+         if (n < 0) throw new EOFException();
+         off += n;
+         len -= n;
+      }
+   }
+
+   @Override
+   public int skipBytes(int n) throws IOException {
+      if (in != null) return (int) in.skip(n);
+      int skipped = Math.max(0, Math.min(n, limit - pos));
+      pos += skipped;
+      return skipped;
+   }
+
+   @Override
+   public long skip(long n) throws IOException {
+      return skipBytes((int) Math.min(n, Integer.MAX_VALUE));
+   }
+
+   @Override
+   public int available() throws IOException {
+      return in != null ? in.available() : limit - pos;
+   }
+
+   @Override
+   public boolean readBoolean() throws IOException {
+      return readUnsignedByte() != 0;
+   }
+
+   @Override
+   public byte readByte() throws IOException {
+      return (byte) readUnsignedByte();
+   }
+
+   @Override
+   public int readUnsignedByte() throws IOException {
+      int b = read();
+      if (b < 0) throw new EOFException();
+      return b;
+   }
+
+   @Override
+   public short readShort() throws IOException {
+      return (short) readInt();
+   }
+
+   @Override
+   public int readUnsignedShort() throws IOException {
+      return readShort() & 0xFFFF;
+   }
+
+   @Override
+   public char readChar() throws IOException {
+      return (char) UnsignedNumeric.readUnsignedInt(this);
+   }
+
+   @Override
+   public int readInt() throws IOException {
+      int v = UnsignedNumeric.readUnsignedInt(this);
+      return (v >>> 1) ^ -(v & 1);
+   }
+
+   @Override
+   public long readLong() throws IOException {
+      long v = UnsignedNumeric.readUnsignedLong(this);
+      return (v >>> 1) ^ -(v & 1);
+   }
+
+   @Override
+   public float readFloat() throws IOException {
+      return Float.intBitsToFloat(readFixedInt());
+   }
+
+   @Override
+   public double readDouble() throws IOException {
+      long high = readFixedInt();
+      return Double.longBitsToDouble((high << 32) | (readFixedInt() & 0xFFFFFFFFL));
+   }
+
+   @Override
+   public String readLine() throws IOException {
+      throw new UnsupportedOperationException("readLine is not supported by the compact format");
+   }
+
+   @Override
+   public String readUTF() throws IOException {
+      int length = UnsignedNumeric.readUnsignedInt(this);
+      char[] chars = new char[length];
+      for (int i = 0; i < length; i++) {
+         int b = readUnsignedByte();
+         if (b < 0x80) {
+            chars[i] = (char) b;
+         } else if ((b & 0xE0) == 0xC0) {
+            chars[i] = (char) (((b & 0x1F) << 6) | (readUnsignedByte() & 0x3F));
+         } else {
+            int b2 = readUnsignedByte();
+            chars[i] = (char) (((b & 0x0F) << 12) | ((b2 & 0x3F) << 6) | (readUnsignedByte() & 0x3F));
+         }
+      }
+      return new String(chars);
+   }
+
+   @Override
+   public void close() throws IOException {
+      if (in != null) in.close();
+   }
+
+   private int readFixedInt() throws IOException {
+      return (readUnsignedByte() << 24) | (readUnsignedByte() << 16) | (readUnsignedByte() << 8) | readUnsignedByte();
+   }
+
+   private void checkAvailable(int length) throws EOFException {
+      if (length > limit - pos) throw new EOFException();
+   }
+}
@@ -0,0 +1,238 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall.compact;
+
+import org.infinispan.io.ExposedByteArrayOutputStream;
+import org.infinispan.io.UnsignedNumeric;
+import org.infinispan.marshall.jboss.ExternalizerTable;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutput;
+import java.io.OutputStream;
+
+/**
+ * Writes the compact format of {@link CompactMarshaller}.  Integral values are written as zig-zag encoded
+ * variable-length integers, so {@link #writeInt(int)}, {@link #writeLong(long)}, {@link #writeShort(int)} and
+ * {@link #writeChar(int)} take between one and ten bytes; they must be read back with the matching methods of
+ * {@link CompactObjectInput}.
+ *
+ * @since 5.2
+ */
+final class CompactObjectOutput implements ObjectOutput {
+
+   static final int NULL = 0;
+   static final int STRING = 1;
+   static final int BYTE_ARRAY = 2;
+   static final int INTEGER = 3;
+   static final int LONG = 4;
+   static final int TRUE = 5;
+   static final int FALSE = 6;
+   static final int DOUBLE = 7;
+   static final int FLOAT = 8;
+   static final int SHORT = 9;
+   static final int BYTE = 10;
+   static final int CHARACTER = 11;
+   static final int INTERNAL_EXTERNALIZER = 12;
+   static final int FOREIGN_EXTERNALIZER = 13;
+   static final int FALLBACK = 14;
+
+   private final OutputStream out;
+   private final CompactMarshaller marshaller;
+
+   CompactObjectOutput(OutputStream out, CompactMarshaller marshaller) {
+      this.out = out instanceof ExposedByteArrayOutputStream ? out : new BufferedOutputStream(out);
+      this.marshaller = marshaller;
+   }
+
+   @Override
+   public void writeObject(Object obj) throws IOException {
+      if (obj == null) {
+         out.write(NULL);
+         return;
+      }
+
+      Class<?> type = obj.getClass();
+      if (type == String.class) {
+         out.write(STRING);
+         writeUTF((String) obj);
+      } else if (type == byte[].class) {
+         byte[] bytes = (byte[]) obj;
+         out.write(BYTE_ARRAY);
+         UnsignedNumeric.writeUnsignedInt(out, bytes.length);
+         out.write(bytes);
+      } else if (type == Integer.class) {
+         out.write(INTEGER);
+         writeInt((Integer) obj);
+      } else if (type == Long.class) {
+         out.write(LONG);
+         writeLong((Long) obj);
+      } else if (type == Boolean.class) {
+         out.write((Boolean) obj ? TRUE : FALSE);
+      } else if (type == Double.class) {
+         out.write(DOUBLE);
+         writeDouble((Double) obj);
+      } else if (type == Float.class) {
+         out.write(FLOAT);
+         writeFloat((Float) obj);
+      } else if (type == Short.class) {
+         out.write(SHORT);
+         writeShort((Short) obj);
+      } else if (type == Byte.class) {
+         out.write(BYTE);
+         out.write((Byte) obj);
+      } else if (type == Character.class) {
+         out.write(CHARACTER);
+         writeChar((Character) obj);
+      } else {
+         int readerIndex = marshaller.getReaderIndex(type);
+         if (readerIndex == ExternalizerTable.NO_READER_INDEX) {
+            byte[] bytes = marshaller.fallbackToByteBuffer(obj);
+            out.write(FALLBACK);
+            UnsignedNumeric.writeUnsignedInt(out, bytes.length);
+            out.write(bytes);
+         } else {
+            if (readerIndex >= 0) {
+               out.write(INTERNAL_EXTERNALIZER);
+               out.write(readerIndex);
+            } else {
+               out.write(FOREIGN_EXTERNALIZER);
+               UnsignedNumeric.writeUnsignedInt(out, readerIndex & 0x7FFFFFFF);
+            }
+            marshaller.getExternalizer(readerIndex).writeObject(this, obj);
+         }
+      }
+   }
+
+   @Override
+   public void write(int b) throws IOException {
+      out.write(b);
+   }
+
+   @Override
+   public void write(byte[] b) throws IOException {
+      out.write(b, 0, b.length);
+   }
+
+   @Override
+   public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+   }
+
+   @Override
+   public void writeBoolean(boolean v) throws IOException {
+      out.write(v ? 1 : 0);
+   }
+
+   @Override
+   public void writeByte(int v) throws IOException {
+      out.write(v);
+   }
+
+   @Override
+   public void writeShort(int v) throws IOException {
+      writeInt((short) v);
+   }
+
+   @Override
+   public void writeChar(int v) throws IOException {
+      UnsignedNumeric.writeUnsignedInt(out, (char) v);
+   }
+
+   @Override
+   public void writeInt(int v) throws IOException {
+      UnsignedNumeric.writeUnsignedInt(out, (v << 1) ^ (v >> 31));
+   }
+
+   @Override
+   public void writeLong(long v) throws IOException {
+      UnsignedNumeric.writeUnsignedLong(out, (v << 1) ^ (v >> 63));
+   }
+
+   @Override
+   public void writeFloat(float v) throws IOException {
+      writeFixedInt(Float.floatToIntBits(v));
+   }
+
+   @Override
+   public void writeDouble(double v) throws IOException {
+      long bits = Double.doubleToLongBits(v);
+      writeFixedInt((int) (bits >>> 32));
+      writeFixedInt((int) bits);
+   }
+
+   @Override
+   public void writeBytes(String s) throws IOException {
+      for (int i = 0; i < s.length(); i++)
+         out.write(s.charAt(i));
+   }
+
+   @Override
+   public void writeChars(String s) throws IOException {
+      for (int i = 0; i < s.length(); i++) {
+         char c = s.charAt(i);
+         out.write(c >>> 8);
+         out.write(c);
+      }
+   }
+
+   /**
+    * Writes the number of chars followed by each char in one to three bytes, as in modified UTF-8.  Unlike
+    * {@link java.io.DataOutput#writeUTF(String)}, strings of any length can be written.
+    */
+   @Override
+   public void writeUTF(String s) throws IOException {
+      int length = s.length();
+      UnsignedNumeric.writeUnsignedInt(out, length);
+      for (int i = 0; i < length; i++) {
+         char c = s.charAt(i);
+         if (c < 0x80) {
+            out.write(c);
+         } else if (c < 0x800) {
+            out.write(0xC0 | (c >> 6));
+            out.write(0x80 | (c & 0x3F));
+         } else {
+            out.write(0xE0 | (c >> 12));
+            out.write(0x80 | ((c >> 6) & 0x3F));
+            out.write(0x80 | (c & 0x3F));
+         }
+      }
+   }
+
+   @Override
+   public void flush() throws IOException {
+      out.flush();
+   }
+
+   @Override
+   public void close() throws IOException {
+      out.close();
+   }
+
+   private void writeFixedInt(int v) throws IOException {
+      out.write(v >>> 24);
+      out.write(v >>> 16);
+      out.write(v >>> 8);
+      out.write(v);
+   }
+}
@@ -36,6 +36,7 @@
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.commands.tx.TotalOrderPrepareCommand;
 import org.infinispan.commands.tx.VersionedCommitCommand;
 import org.infinispan.commands.tx.VersionedPrepareCommand;
 import org.infinispan.factories.ComponentRegistry;
@@ -88,7 +89,7 @@ public Set<Class<? extends CacheRpcCommand>> getTypeClasses() {
             TxCompletionNotificationCommand.class, GetInDoubtTransactionsCommand.class,
             GetInDoubtTxInfoCommand.class, CompleteTransactionCommand.class,
             VersionedPrepareCommand.class, CreateCacheCommand.class,
-            VersionedCommitCommand.class);
+            VersionedCommitCommand.class, TotalOrderPrepareCommand.class);
       // Only interested in cache specific replicable commands
       coreCommands.addAll(gcr.getModuleProperties().moduleCacheRpcCommands());
       return coreCommands;
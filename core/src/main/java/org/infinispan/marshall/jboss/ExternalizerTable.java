@@ -84,6 +84,7 @@
 import org.infinispan.remoting.transport.jgroups.JGroupsTopologyAwareAddress;
 import org.infinispan.topology.CacheJoinInfo;
 import org.infinispan.topology.CacheTopology;
+import org.infinispan.transaction.SequencedTransaction;
 import org.infinispan.transaction.xa.DldGlobalTransaction;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.transaction.xa.recovery.InDoubtTxInfoImpl;
@@ -137,6 +138,12 @@ public class ExternalizerTable implements ObjectTable {
     */
    private final Map<Integer, ExternalizerAdapter> readers = new HashMap<Integer, ExternalizerAdapter>();
 
+   /**
+    * Returned by {@link #getReaderIndex(Class)} for types without an externalizer.  Never a valid reader index,
+    * since internal ids must be smaller and foreign reader indexes are negative.
+    */
+   public static final int NO_READER_INDEX = Ids.MAX_ID;
+
    private volatile boolean started;
 
    private RemoteCommandsFactory cmdFactory;
@@ -172,7 +179,10 @@ public void stop() {
 
    @Override
    public Writer getObjectWriter(Object o) throws IOException {
-      Class<?> clazz = o.getClass();
+      return findWriter(o.getClass());
+   }
+
+   private Writer findWriter(Class<?> clazz) throws IOException {
       Writer writer = writers.get(clazz);
       if (writer == null) {
          if (Thread.currentThread().isInterrupted())
@@ -189,6 +199,29 @@ public Object readObject(Unmarshaller input) throws IOException, ClassNotFoundEx
       if (readerIndex == Ids.MAX_ID) // User defined externalizer
          readerIndex = generateForeignReaderIndex(UnsignedNumeric.readUnsignedInt(input));
 
+      return findReader(readerIndex, input).readObject(input);
+   }
+
+   /**
+    * Returns the index identifying the externalizer registered for the given type, for marshallers that drive the
+    * externalizers without JBoss Marshalling.  Internal externalizers are identified by their id, which is smaller
+    * than {@link Ids#MAX_ID}, and foreign ones by a negative index derived from their id.
+    *
+    * @return the reader index, or {@link #NO_READER_INDEX} if no externalizer is registered for the exact type
+    */
+   public int getReaderIndex(Class<?> type) throws IOException {
+      ExternalizerAdapter adapter = (ExternalizerAdapter) findWriter(type);
+      return adapter == null ? NO_READER_INDEX : adapter.getReaderIndex();
+   }
+
+   /**
+    * Returns the externalizer identified by a reader index obtained from {@link #getReaderIndex(Class)}.
+    */
+   public AdvancedExternalizer<Object> getExternalizer(int readerIndex) throws IOException {
+      return findReader(readerIndex, null).externalizer;
+   }
+
+   private ExternalizerAdapter findReader(int readerIndex, Unmarshaller input) throws IOException {
       ExternalizerAdapter adapter = readers.get(readerIndex);
       if (adapter == null) {
          if (!started) {
@@ -205,7 +238,7 @@ public Object readObject(Unmarshaller input) throws IOException, ClassNotFoundEx
             }
          } else {
             if (log.isTraceEnabled()) {
-               log.tracef("Unknown type. Input stream has %s to read", input.available());
+               if (input != null) log.tracef("Unknown type. Input stream has %s to read", input.available());
                log.tracef("Check contents of read externalizers: %s", readers);
             }
 
@@ -215,7 +248,7 @@ public Object readObject(Unmarshaller input) throws IOException, ClassNotFoundEx
          }
       }
 
-      return adapter.readObject(input);
+      return adapter;
    }
 
    boolean isMarshallableCandidate(Object o) {
@@ -291,6 +324,7 @@ private void loadInternalMarshallables() {
       addInternalExternalizer(new CacheJoinInfo.Externalizer());
       addInternalExternalizer(new TransactionInfo.Externalizer());
       addInternalExternalizer(new StateChunk.Externalizer());
+      addInternalExternalizer(new SequencedTransaction.Externalizer());
 
       addInternalExternalizer(new Flag.Externalizer());
    }
@@ -397,6 +431,10 @@ int getExternalizerId() {
          return id;
       }
 
+      int getReaderIndex() {
+         return id;
+      }
+
       @Override
       public String toString() {
          // Each adapter is represented by the externalizer it delegates to, so just return the class name
@@ -434,6 +472,11 @@ int getExternalizerId() {
          return foreignId;
       }
 
+      @Override
+      int getReaderIndex() {
+         return 0x80000000 | foreignId;
+      }
+
       @Override
       public void writeObject(Marshaller output, Object object) throws IOException {
          output.write(id);
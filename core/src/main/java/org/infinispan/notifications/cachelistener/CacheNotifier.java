@@ -74,6 +74,18 @@ public interface CacheNotifier extends Listenable {
     */
    void notifyCacheEntryEvicted(Object key, Object value, InvocationContext ctx);
 
+   /**
+    * Checks whether any listener is registered for CacheEntriesEvicted or CacheEntryEvicted events, so that evicting
+    * components can skip collecting the evicted entries altogether when nobody is interested in them.
+    */
+   boolean hasEvictionListeners();
+
+   /**
+    * Checks whether any listener is registered for CacheEntryInvalidated events, so that components which could drop
+    * entries in bulk know whether the entries have to be invalidated one by one instead.
+    */
+   boolean hasInvalidationListeners();
+
    /**
     * Notifies all registered listeners of a CacheEntryInvalidated event.
     */
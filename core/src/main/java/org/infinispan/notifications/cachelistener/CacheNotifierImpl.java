@@ -33,7 +33,6 @@
 import org.infinispan.notifications.cachelistener.event.*;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.transaction.xa.GlobalTransaction;
-import org.infinispan.util.InfinispanCollections;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -46,7 +45,6 @@
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.infinispan.notifications.cachelistener.event.Event.Type.*;
-import static org.infinispan.util.InfinispanCollections.transformCollectionToMap;
 
 /**
  * Helper class that handles all notifications to registered listeners.
@@ -192,30 +190,15 @@ public void notifyCacheEntriesEvicted(Collection<InternalCacheEntry> entries, In
       if (!entries.isEmpty()) {
          if (!cacheEntriesEvictedListeners.isEmpty()) {
             EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_EVICTED);
-            Map<Object, Object> evictedKeysAndValues = transformCollectionToMap(entries,
-                                                                                new InfinispanCollections.MapMakerFunction<Object, Object, InternalCacheEntry>() {
-                                                                                   @Override
-                                                                                   public Map.Entry<Object, Object> transform(final InternalCacheEntry input) {
-                                                                                      return new Map.Entry<Object, Object>() {
-
-                                                                                         @Override
-                                                                                         public Object getKey() {
-                                                                                            return input.getKey();
-                                                                                         }
-
-                                                                                         @Override
-                                                                                         public Object getValue() {
-                                                                                            return input.getValue();
-                                                                                         }
-
-                                                                                         @Override
-                                                                                         public Object setValue(Object value) {
-                                                                                            throw new UnsupportedOperationException();
-                                                                                         }
-                                                                                      };
-                                                                                   }
-                                                                                }
-            );
+            // build the event map straight from the evicted entries rather than through per-entry wrappers
+            Map<Object, Object> evictedKeysAndValues;
+            if (entries.size() == 1) {
+               InternalCacheEntry ice = entries.iterator().next();
+               evictedKeysAndValues = Collections.singletonMap(ice.getKey(), ice.getValue());
+            } else {
+               evictedKeysAndValues = new HashMap<Object, Object>(entries.size() * 4 / 3 + 1);
+               for (InternalCacheEntry ice : entries) evictedKeysAndValues.put(ice.getKey(), ice.getValue());
+            }
 
             e.setEntries(evictedKeysAndValues);
             for (ListenerInvocation listener : cacheEntriesEvictedListeners) listener.invoke(e);
@@ -233,6 +216,11 @@ public Object setValue(Object value) {
       }
    }
 
+   @Override
+   public boolean hasEvictionListeners() {
+      return !cacheEntriesEvictedListeners.isEmpty() || !cacheEntryEvictedListeners.isEmpty();
+   }
+
    @Override
    public void notifyCacheEntryEvicted(Object key, Object value, InvocationContext ctx) {
       if (!cacheEntriesEvictedListeners.isEmpty()) {
@@ -250,6 +238,11 @@ public void notifyCacheEntryEvicted(Object key, Object value, InvocationContext
       }
    }
 
+   @Override
+   public boolean hasInvalidationListeners() {
+      return !cacheEntryInvalidatedListeners.isEmpty();
+   }
+
    @Override
    public void notifyCacheEntryInvalidated(final Object key, Object value, final boolean pre, InvocationContext ctx) {
       if (!cacheEntryInvalidatedListeners.isEmpty()) {
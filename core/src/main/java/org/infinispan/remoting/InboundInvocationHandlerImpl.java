@@ -23,8 +23,16 @@
 package org.infinispan.remoting;
 
 import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.DataCommand;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.TopologyAffectedCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.write.InvalidateCommand;
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.factories.annotations.Inject;
@@ -32,14 +40,19 @@
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.manager.NamedCacheNotFoundException;
 import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.topology.CacheTopology;
 import org.infinispan.remoting.responses.ExceptionResponse;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.responses.ResponseGenerator;
+import org.infinispan.remoting.rpc.RpcLatencyMonitor;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
 /**
  * Sets the cache interceptor chain on an RPCCommand before calling it to perform
  *
@@ -53,13 +66,18 @@ public class InboundInvocationHandlerImpl implements InboundInvocationHandler {
    private static final boolean trace = log.isTraceEnabled();
    private GlobalConfiguration globalConfiguration;
    private Transport transport;
+   private InboundPartitionExecutor partitionExecutor;
+   private RpcLatencyMonitor latencyMonitor;
 
    @Inject
    public void inject(GlobalComponentRegistry gcr, Transport transport,
-                      GlobalConfiguration globalConfiguration) {
+                      GlobalConfiguration globalConfiguration, InboundPartitionExecutor partitionExecutor,
+                      RpcLatencyMonitor latencyMonitor) {
       this.gcr = gcr;
       this.transport = transport;
       this.globalConfiguration = globalConfiguration;
+      this.partitionExecutor = partitionExecutor;
+      this.latencyMonitor = latencyMonitor;
    }
 
    @Override
@@ -107,7 +125,13 @@ private Response handleWithWaitForBlocks(final CacheRpcCommand cmd, final Compon
       if (!stm.isJoinComplete())
          return null;
 
-      Response resp = handleInternal(cmd, cr);
+      Configuration configuration = cr.getComponent(Configuration.class);
+      boolean recordLatency = latencyMonitor.isStatisticsEnabled();
+      long startNanos = recordLatency ? System.nanoTime() : 0;
+      Response resp = configuration.clustering().partitionRemoteCommands() ?
+            handlePartitioned(cmd, cr) : handleInternal(cmd, cr);
+      if (recordLatency)
+         latencyMonitor.record(RpcLatencyMonitor.Phase.REMOTE_EXECUTION, cmd, cmd.getOrigin(), System.nanoTime() - startNanos);
 
       // A null response is valid and OK ...
       if (trace && resp != null && !resp.isValid()) {
@@ -118,5 +142,63 @@ private Response handleWithWaitForBlocks(final CacheRpcCommand cmd, final Compon
       return resp;
    }
 
+   /**
+    * Single key commands are executed on the partition owning the key's segment, so that commands for the same key
+    * run in the order they were received.  Any other command runs on the calling thread, without waiting for the
+    * partitions: those commands may issue synchronous RPCs (e.g. L1 invalidations), and waiting for a partition whose
+    * thread is itself blocked on an RPC to this node would stall both nodes until the replication timeout.  For the
+    * same reason, commands from an older topology run on the calling thread, because they are forwarded synchronously
+    * to their new owners.
+    */
+   private Response handlePartitioned(final CacheRpcCommand cmd, final ComponentRegistry cr) throws Throwable {
+      CacheTopology cacheTopology = cr.getStateTransferManager().getCacheTopology();
+      Object key = singleKey(cmd);
+      if (key == null || isFromOlderTopology(cmd, cacheTopology)) return handleInternal(cmd, cr);
+
+      int partition = partition(key, cacheTopology.getReadConsistentHash());
+      if (trace) log.tracef("Executing %s on partition %s", cmd, partition);
+      try {
+         return partitionExecutor.submit(partition, new Callable<Response>() {
+            @Override
+            public Response call() throws Exception {
+               try {
+                  return handleInternal(cmd, cr);
+               } catch (Exception e) {
+                  throw e;
+               } catch (Throwable t) {
+                  throw new ExecutionException(t);
+               }
+            }
+         }).get();
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         throw cause instanceof ExecutionException && cause.getCause() != null ? cause.getCause() : cause;
+      }
+   }
+
+   private static Object singleKey(CacheRpcCommand cmd) {
+      if (cmd instanceof ClusteredGetCommand)
+         return ((ClusteredGetCommand) cmd).getKey();
+      if (cmd instanceof SingleRpcCommand) {
+         ReplicableCommand command = ((SingleRpcCommand) cmd).getCommand();
+         // invalidations are data commands, but they address several keys
+         if (command instanceof DataCommand && !(command instanceof InvalidateCommand))
+            return ((DataCommand) command).getKey();
+      }
+      return null;
+   }
+
+   private static boolean isFromOlderTopology(CacheRpcCommand cmd, CacheTopology cacheTopology) {
+      if (!(cmd instanceof SingleRpcCommand)) return false;
+      ReplicableCommand command = ((SingleRpcCommand) cmd).getCommand();
+      return command instanceof TopologyAffectedCommand
+            && ((TopologyAffectedCommand) command).getTopologyId() < cacheTopology.getTopologyId();
+   }
+
+   private static int partition(Object key, ConsistentHash ch) {
+      // the replicated consistent hash maps all the keys to a single segment
+      if (ch.getNumSegments() > 1) return ch.getSegment(key);
+      return ch.getHashFunction().hash(key) & Integer.MAX_VALUE;
+   }
 }
 
@@ -0,0 +1,51 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting;
+
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Executes remote commands on a fixed number of partitions, each served by a single thread.  Tasks submitted to the
+ * same partition are executed one at a time, in submission order.
+ *
+ * @since 5.2
+ */
+@Scope(Scopes.GLOBAL)
+public interface InboundPartitionExecutor {
+
+   /**
+    * @return the number of partitions, one per available processor
+    */
+   int getPartitionCount();
+
+   /**
+    * Queues a task on the given partition.
+    *
+    * @param partition a partition index, reduced modulo {@link #getPartitionCount()}
+    */
+   <T> Future<T> submit(int partition, Callable<T> task);
+}
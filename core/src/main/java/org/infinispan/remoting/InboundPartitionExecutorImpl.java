@@ -0,0 +1,152 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting;
+
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.rhq.helpers.pluginAnnotations.agent.DataType;
+import org.rhq.helpers.pluginAnnotations.agent.Metric;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InboundPartitionExecutor} backed by one single-threaded executor per available processor.  Partition threads
+ * are only started when a task is submitted and they terminate after a minute without work, so cache managers that
+ * never partition remote commands do not pay for them.
+ *
+ * @since 5.2
+ */
+@MBean(objectName = "InboundPartitionExecutor", description = "Executes remote commands on key-partitioned threads")
+public class InboundPartitionExecutorImpl implements InboundPartitionExecutor {
+
+   private final int partitionCount;
+   private volatile ThreadPoolExecutor[] partitions;
+   private String nodeName;
+
+   public InboundPartitionExecutorImpl() {
+      this(Runtime.getRuntime().availableProcessors());
+   }
+
+   InboundPartitionExecutorImpl(int partitionCount) {
+      this.partitionCount = partitionCount;
+   }
+
+   @Inject
+   public void inject(GlobalConfiguration globalConfiguration) {
+      this.nodeName = globalConfiguration.transport().nodeName();
+   }
+
+   @Start
+   public void start() {
+      ThreadPoolExecutor[] executors = new ThreadPoolExecutor[partitionCount];
+      for (int i = 0; i < partitionCount; i++) {
+         final String threadName = "InboundPartition-" + i + (nodeName != null ? "," + nodeName : "");
+         ThreadFactory tf = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+               Thread th = new Thread(r, threadName);
+               th.setDaemon(true);
+               return th;
+            }
+         };
+         executors[i] = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), tf);
+         executors[i].allowCoreThreadTimeOut(true);
+      }
+      partitions = executors;
+   }
+
+   @Stop
+   public void stop() {
+      ThreadPoolExecutor[] executors = partitions;
+      if (executors != null) {
+         for (ThreadPoolExecutor executor : executors)
+            executor.shutdownNow();
+         partitions = null;
+      }
+   }
+
+   @Override
+   @ManagedAttribute(description = "Number of partitions")
+   @Metric(displayName = "Number of partitions", dataType = DataType.TRAIT)
+   public int getPartitionCount() {
+      return partitionCount;
+   }
+
+   @Override
+   public <T> Future<T> submit(int partition, Callable<T> task) {
+      return partitions()[(partition & Integer.MAX_VALUE) % partitionCount].submit(task);
+   }
+
+   @ManagedAttribute(description = "Number of tasks waiting in each partition's queue")
+   @Metric(displayName = "Queue depth per partition", dataType = DataType.TRAIT)
+   public String getQueueDepths() {
+      ThreadPoolExecutor[] executors = partitions;
+      if (executors == null) return "N/A";
+      StringBuilder sb = new StringBuilder("[");
+      for (int i = 0; i < executors.length; i++) {
+         if (i > 0) sb.append(", ");
+         sb.append(executors[i].getQueue().size());
+      }
+      return sb.append(']').toString();
+   }
+
+   @ManagedAttribute(description = "Total number of tasks waiting in the partition queues")
+   @Metric(displayName = "Total queue depth")
+   public int getTotalQueueDepth() {
+      ThreadPoolExecutor[] executors = partitions;
+      int total = 0;
+      if (executors != null) {
+         for (ThreadPoolExecutor executor : executors)
+            total += executor.getQueue().size();
+      }
+      return total;
+   }
+
+   @ManagedAttribute(description = "Number of tasks waiting in the most loaded partition queue")
+   @Metric(displayName = "Maximum queue depth")
+   public int getMaxQueueDepth() {
+      ThreadPoolExecutor[] executors = partitions;
+      int max = 0;
+      if (executors != null) {
+         for (ThreadPoolExecutor executor : executors)
+            max = Math.max(max, executor.getQueue().size());
+      }
+      return max;
+   }
+
+   private ThreadPoolExecutor[] partitions() {
+      ThreadPoolExecutor[] executors = partitions;
+      if (executors == null)
+         throw new IllegalStateException("Inbound partition executor is not running");
+      return executors;
+   }
+}
@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.concurrent.NotifyingFuture;
+
+import java.util.Collection;
+
+/**
+ * Sends asynchronous writes without waiting for them to be applied, like the asynchronous cache modes do, but has the
+ * owners acknowledge them.  Each write gets a sequence number and writes are acknowledged in sequence order: the
+ * future of a write only completes once it and every write sent before it have been acknowledged, so completion means
+ * that all the writes up to that point have reached their owners.
+ * <p/>
+ * The number of writes waiting for an acknowledgement is bounded by
+ * {@link org.infinispan.configuration.cache.AsyncConfiguration#maxInFlight()}, writers block once it is reached.
+ * Only used if {@link org.infinispan.configuration.cache.AsyncConfiguration#pipelined()} is enabled.
+ *
+ * @since 5.2
+ */
+@Scope(Scopes.NAMED_CACHE)
+public interface ReplicationPipeline {
+
+   /**
+    * @return true if asynchronous writes are pipelined, false otherwise.
+    */
+   boolean isEnabled();
+
+   /**
+    * Sends a command to the given recipients, waiting only if the maximum number of in-flight writes is reached.
+    *
+    * @param recipients       the recipients, or null to send the command to the entire cluster
+    * @param command          the command to send, already wrapped in a {@link org.infinispan.commands.remote.CacheRpcCommand}
+    * @param usePriorityQueue if true, a priority queue is used
+    * @return a future completed once this write and all the writes sent before it have been acknowledged, or failed if
+    *         this write could not be applied by one of the recipients
+    * @throws org.infinispan.util.concurrent.TimeoutException if no write was acknowledged for the replication timeout
+    *                                                         while the pipeline was full
+    */
+   NotifyingFuture<Void> replicate(Collection<Address> recipients, ReplicableCommand command, boolean usePriorityQueue);
+
+   /**
+    * @return a future completed once the last write replicated by the calling thread has been acknowledged, e.g. to
+    *         wait until a value written with {@link org.infinispan.Cache#put(Object, Object)} is on its backups
+    */
+   NotifyingFuture<Void> lastWriteAcknowledged();
+
+   /**
+    * @return a future completed once all the writes sent so far have been acknowledged
+    */
+   NotifyingFuture<Void> flush();
+
+   /**
+    * @return the sequence number of the last write sent
+    */
+   long getSentSequence();
+
+   /**
+    * @return the sequence number up to which all writes have been acknowledged
+    */
+   long getAcknowledgedSequence();
+
+   /**
+    * @return the number of writes waiting for an acknowledgement
+    */
+   int getInFlight();
+}
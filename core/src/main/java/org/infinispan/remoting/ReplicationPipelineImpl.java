@@ -0,0 +1,243 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting;
+
+import org.infinispan.CacheException;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.remoting.responses.ExceptionResponse;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.util.concurrent.FutureListener;
+import org.infinispan.util.concurrent.NotifyingFuture;
+import org.infinispan.util.concurrent.TimeoutException;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.rhq.helpers.pluginAnnotations.agent.DisplayType;
+import org.rhq.helpers.pluginAnnotations.agent.MeasurementType;
+import org.rhq.helpers.pluginAnnotations.agent.Metric;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default {@link ReplicationPipeline}.  Writes are sent with {@link ResponseMode#PIPELINED}, so they are delivered in
+ * the same order as plain asynchronous writes, and their responses are the acknowledgements.  Acknowledged writes are
+ * only released from the head of the pipeline, which is what makes the acknowledgements ordered.
+ *
+ * @since 5.2
+ */
+@MBean(objectName = "ReplicationPipeline", description = "Tracks the acknowledgements of pipelined asynchronous writes")
+public class ReplicationPipelineImpl implements ReplicationPipeline {
+
+   private static final Log log = LogFactory.getLog(ReplicationPipelineImpl.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private RpcManager rpcManager;
+   private Configuration configuration;
+   private boolean enabled;
+   private long timeout;
+   private Semaphore window;
+
+   // guarded by this
+   private final ArrayDeque<Write> pending = new ArrayDeque<Write>();
+   private long sentSequence;
+   private volatile long acknowledgedSequence;
+
+   private final ThreadLocal<Write> lastWrite = new ThreadLocal<Write>();
+   private final AtomicLong failedWrites = new AtomicLong(0);
+   private final AtomicLong blockedWrites = new AtomicLong(0);
+
+   @Inject
+   public void inject(RpcManager rpcManager, Configuration configuration) {
+      this.rpcManager = rpcManager;
+      this.configuration = configuration;
+   }
+
+   @Start
+   public void start() {
+      enabled = configuration.clustering().cacheMode().isClustered() && configuration.clustering().async().pipelined();
+      timeout = configuration.clustering().sync().replTimeout();
+      window = new Semaphore(configuration.clustering().async().maxInFlight());
+   }
+
+   @Override
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   @Override
+   public NotifyingFuture<Void> replicate(Collection<Address> recipients, ReplicableCommand command, boolean usePriorityQueue) {
+      acquire();
+      final Write write;
+      synchronized (this) {
+         write = new Write(++sentSequence);
+         pending.add(write);
+      }
+      lastWrite.set(write);
+      if (trace) log.tracef("Sending pipelined write %s: %s", write.sequence, command);
+
+      NotifyingFuture<Map<Address, Response>> responses;
+      try {
+         responses = rpcManager.invokeRemotelyAsync(recipients, command, ResponseMode.PIPELINED, timeout, usePriorityQueue, null);
+      } catch (RuntimeException e) {
+         acknowledge(write, e);
+         throw e;
+      }
+      responses.attachListener(new FutureListener<Map<Address, Response>>() {
+         @Override
+         public void futureDone(Future<Map<Address, Response>> future) {
+            acknowledge(write, failure(future));
+         }
+      });
+      return write.future;
+   }
+
+   private void acquire() {
+      if (window.tryAcquire()) return;
+      blockedWrites.incrementAndGet();
+      try {
+         if (!window.tryAcquire(timeout, TimeUnit.MILLISECONDS))
+            throw new TimeoutException("Timed out after " + timeout + " ms waiting for pipelined writes to be acknowledged");
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException("Interrupted while waiting for pipelined writes to be acknowledged", e);
+      }
+   }
+
+   private static Throwable failure(Future<Map<Address, Response>> future) {
+      try {
+         for (Response response : future.get().values()) {
+            if (response instanceof ExceptionResponse)
+               return ((ExceptionResponse) response).getException();
+         }
+         return null;
+      } catch (ExecutionException e) {
+         return e.getCause();
+      } catch (InterruptedException e) {
+         // the future is done, so get() doesn't block
+         Thread.currentThread().interrupt();
+         return e;
+      }
+   }
+
+   private void acknowledge(Write write, Throwable failure) {
+      window.release();
+      List<Write> acknowledged = new ArrayList<Write>();
+      synchronized (this) {
+         write.done = true;
+         write.failure = failure;
+         while (!pending.isEmpty() && pending.peek().done) {
+            Write head = pending.poll();
+            acknowledgedSequence = head.sequence;
+            acknowledged.add(head);
+         }
+      }
+      // complete the futures outside the lock, as their listeners may send more writes
+      for (Write w : acknowledged) {
+         if (w.failure == null) {
+            w.future.complete(null);
+         } else {
+            failedWrites.incrementAndGet();
+            if (trace) log.tracef(w.failure, "Pipelined write %s failed", w.sequence);
+            w.future.completeExceptionally(w.failure);
+         }
+      }
+   }
+
+   @Override
+   public NotifyingFuture<Void> lastWriteAcknowledged() {
+      Write write = lastWrite.get();
+      return write == null ? CompletableNotifyingFuture.<Void>completed(null) : write.future;
+   }
+
+   @Override
+   public NotifyingFuture<Void> flush() {
+      Write last;
+      synchronized (this) {
+         last = pending.peekLast();
+      }
+      // writes are released in order, so the last one completes after all the others
+      return last == null ? CompletableNotifyingFuture.<Void>completed(null) : last.future;
+   }
+
+   @Override
+   @ManagedAttribute(description = "Sequence number of the last pipelined write sent")
+   @Metric(displayName = "Last sent write", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public synchronized long getSentSequence() {
+      return sentSequence;
+   }
+
+   @Override
+   @ManagedAttribute(description = "Sequence number up to which all pipelined writes have been acknowledged")
+   @Metric(displayName = "Last acknowledged write", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getAcknowledgedSequence() {
+      return acknowledgedSequence;
+   }
+
+   @Override
+   @ManagedAttribute(description = "Number of pipelined writes waiting for an acknowledgement")
+   @Metric(displayName = "Writes in flight", displayType = DisplayType.SUMMARY)
+   public synchronized int getInFlight() {
+      return pending.size();
+   }
+
+   @ManagedAttribute(description = "Number of pipelined writes which failed on at least one owner")
+   @Metric(displayName = "Failed writes", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getFailedWrites() {
+      return failedWrites.get();
+   }
+
+   @ManagedAttribute(description = "Number of writes which had to wait because the pipeline was full")
+   @Metric(displayName = "Blocked writes", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getBlockedWrites() {
+      return blockedWrites.get();
+   }
+
+   private static class Write {
+      final long sequence;
+      final CompletableNotifyingFuture<Void> future = new CompletableNotifyingFuture<Void>();
+      // guarded by the pipeline
+      boolean done;
+      Throwable failure;
+
+      Write(long sequence) {
+         this.sequence = sequence;
+      }
+   }
+}
@@ -0,0 +1,52 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting.responses;
+
+import org.infinispan.container.versioning.EntryVersionsMap;
+import org.infinispan.remoting.rpc.ResponseCollector;
+import org.infinispan.remoting.transport.Address;
+
+/**
+ * Merges the {@link EntryVersionsMap}s returned by the lock owners of a versioned prepare into a single map, in the
+ * order the responses are added.
+ *
+ * @since 5.2
+ */
+public class EntryVersionsResponseCollector implements ResponseCollector<EntryVersionsMap> {
+
+   private EntryVersionsMap versions;
+
+   @Override
+   public boolean addResponse(Address sender, Response response) {
+      if (response.isSuccessful() && response instanceof SuccessfulResponse) {
+         EntryVersionsMap uv = (EntryVersionsMap) ((SuccessfulResponse) response).getResponseValue();
+         if (uv != null) versions = uv.merge(versions);
+      }
+      return true;
+   }
+
+   @Override
+   public EntryVersionsMap finish() {
+      return versions;
+   }
+}
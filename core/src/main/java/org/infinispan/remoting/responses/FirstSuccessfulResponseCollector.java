@@ -0,0 +1,52 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting.responses;
+
+import org.infinispan.remoting.rpc.ResponseCollector;
+import org.infinispan.remoting.transport.Address;
+
+/**
+ * Keeps the first {@link SuccessfulResponse} and completes the request as soon as it has been received.  This is the
+ * collector counterpart of {@link ClusteredGetResponseValidityFilter}, for remote gets that only need one owner to
+ * answer.
+ *
+ * @since 5.2
+ */
+public class FirstSuccessfulResponseCollector implements ResponseCollector<SuccessfulResponse> {
+
+   private SuccessfulResponse response;
+
+   @Override
+   public boolean addResponse(Address sender, Response response) {
+      if (response instanceof SuccessfulResponse) {
+         this.response = (SuccessfulResponse) response;
+         return false;
+      }
+      return true;
+   }
+
+   @Override
+   public SuccessfulResponse finish() {
+      return response;
+   }
+}
@@ -0,0 +1,59 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting.rpc;
+
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.transport.Address;
+
+/**
+ * Aggregates the responses of a remote invocation as the transport receives them, so that callers interested in a
+ * single value (the first valid response, the merged versions of a prepare, etc.) don't need a map holding every
+ * response.  Used with {@link RpcManager#invokeRemotelyAndCollect(java.util.Collection,
+ * org.infinispan.commands.ReplicableCommand, ResponseMode, long, boolean, ResponseCollector)}.
+ * <p/>
+ * Only valid responses are passed to the collector: failures are still reported by the transport, which throws the
+ * same exceptions it would throw when returning a response map.  The transport never calls a collector concurrently,
+ * so implementations don't need any synchronization, but a collector instance must not be reused across invocations.
+ *
+ * @since 5.2
+ */
+public interface ResponseCollector<T> {
+
+   /**
+    * Adds a valid response.  With {@link ResponseMode#WAIT_FOR_VALID_RESPONSE} this is invoked as soon as the response
+    * arrives, and returning false completes the request without waiting for the remaining members.  With the other
+    * synchronous modes the responses are added once all of them have been received.
+    *
+    * @param sender   the member that sent the response
+    * @param response the response, never null
+    * @return true if more responses are needed, false if the collector is done
+    */
+   boolean addResponse(Address sender, Response response);
+
+   /**
+    * Invoked once, after the responses have been added, to obtain the result of the invocation.
+    *
+    * @return the aggregated result, possibly null
+    */
+   T finish();
+}
@@ -39,7 +39,14 @@ public enum ResponseMode {
    SYNCHRONOUS_IGNORE_LEAVERS,
    ASYNCHRONOUS,
    ASYNCHRONOUS_WITH_SYNC_MARSHALLING,
-   WAIT_FOR_VALID_RESPONSE;
+   WAIT_FOR_VALID_RESPONSE,
+   /**
+    * Waits for the responses of all the recipients still in the cluster, like {@link #SYNCHRONOUS_IGNORE_LEAVERS},
+    * but the command is delivered in order with the asynchronous commands sent before and after it rather than out of
+    * band.  Used to acknowledge pipelined asynchronous writes and to deliver the prepares of transactions committed in
+    * total order.
+    */
+   PIPELINED;
 
    public boolean isSynchronous() {
       return !isAsynchronous();
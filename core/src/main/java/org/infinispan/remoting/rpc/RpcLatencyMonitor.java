@@ -0,0 +1,234 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting.rpc;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.LatencyHistogram;
+import org.rhq.helpers.pluginAnnotations.agent.DataType;
+import org.rhq.helpers.pluginAnnotations.agent.DisplayType;
+import org.rhq.helpers.pluginAnnotations.agent.Metric;
+import org.rhq.helpers.pluginAnnotations.agent.Operation;
+import org.rhq.helpers.pluginAnnotations.agent.Parameter;
+import org.rhq.helpers.pluginAnnotations.agent.Units;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Formatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of remote calls in {@link LatencyHistogram}s, one per phase, command type and peer, so that
+ * tail latencies can be attributed to a specific command or node.  The phases are:
+ * <ul>
+ *    <li>{@link Phase#SEND}: the time taken to hand an asynchronous command to the transport</li>
+ *    <li>{@link Phase#REMOTE_EXECUTION}: the time this node spent executing a command received from a peer</li>
+ *    <li>{@link Phase#RESPONSE}: the full round trip of a synchronous command, until its responses were received</li>
+ * </ul>
+ * Calls sent to more than one node are recorded under the {@link #ALL_MEMBERS} peer.
+ * <p/>
+ * Resetting the statistics starts a new window: the histograms of the previous one are simply dropped, so recording
+ * threads never wait for a reset.
+ *
+ * @since 5.2
+ */
+@Scope(Scopes.GLOBAL)
+@MBean(objectName = "RpcLatencyMonitor", description = "Records remote call latencies per command type and peer")
+public class RpcLatencyMonitor {
+
+   public enum Phase {
+      SEND, REMOTE_EXECUTION, RESPONSE
+   }
+
+   /**
+    * The peer under which calls sent to several nodes, or broadcast to the whole cluster, are recorded.
+    */
+   public static final String ALL_MEMBERS = "*";
+
+   @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", writable = true)
+   private volatile boolean statisticsEnabled = false;
+   private volatile Window window = new Window();
+
+   @Inject
+   public void inject(GlobalConfiguration globalConfiguration) {
+      statisticsEnabled = globalConfiguration.globalJmxStatistics().enabled();
+   }
+
+   /**
+    * Records a call made through the {@link RpcManager}: synchronous calls are recorded in the {@link Phase#RESPONSE}
+    * phase and asynchronous ones in the {@link Phase#SEND} phase.
+    *
+    * @param recipients the recipients of the call, or null for a broadcast
+    */
+   public void recordRemoteCall(ReplicableCommand command, Collection<Address> recipients, ResponseMode mode, long nanos) {
+      Object peer = recipients != null && recipients.size() == 1 ? recipients.iterator().next() : ALL_MEMBERS;
+      record(mode.isSynchronous() ? Phase.RESPONSE : Phase.SEND, command, peer, nanos);
+   }
+
+   public void record(Phase phase, ReplicableCommand command, Object peer, long nanos) {
+      if (!statisticsEnabled) return;
+      if (command instanceof SingleRpcCommand) {
+         ReplicableCommand wrapped = ((SingleRpcCommand) command).getCommand();
+         if (wrapped != null) command = wrapped;
+      }
+      Window w = window;
+      w.total[phase.ordinal()].record(nanos);
+      w.histogram(phase, command.getClass(), peer).record(nanos);
+   }
+
+   /**
+    * @return the histogram for the given phase, command type and peer in the current window, or null if no such call
+    *         was recorded since the last reset
+    */
+   public LatencyHistogram getHistogram(Phase phase, Class<?> commandType, Object peer) {
+      ConcurrentMap<Object, LatencyHistogram> byPeer = window.byCommand[phase.ordinal()].get(commandType);
+      return byPeer == null ? null : byPeer.get(peer);
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component")
+   @Operation(displayName = "Reset statistics")
+   public void resetStatistics() {
+      window = new Window();
+   }
+
+   @ManagedAttribute(description = "Number of seconds since the latency statistics were last reset")
+   @Metric(displayName = "Seconds since latency statistics were reset", units = Units.SECONDS, displayType = DisplayType.SUMMARY)
+   public long getTimeSinceReset() {
+      return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - window.startNanos);
+   }
+
+   @Metric(displayName = "Statistics enabled", dataType = DataType.TRAIT)
+   public boolean isStatisticsEnabled() {
+      return statisticsEnabled;
+   }
+
+   @Operation(displayName = "Enable/disable statistics")
+   public void setStatisticsEnabled(@Parameter(name = "enabled", description = "Whether statistics should be enabled or disabled (true/false)") boolean statisticsEnabled) {
+      this.statisticsEnabled = statisticsEnabled;
+   }
+
+   @ManagedAttribute(description = "Median round trip time of synchronous remote calls, in microseconds")
+   @Metric(displayName = "Median round trip time", units = Units.NONE, displayType = DisplayType.SUMMARY)
+   public long getRoundTripTimeP50() {
+      return micros(window.total[Phase.RESPONSE.ordinal()].getPercentile(0.5));
+   }
+
+   @ManagedAttribute(description = "99th percentile round trip time of synchronous remote calls, in microseconds")
+   @Metric(displayName = "99th percentile round trip time", units = Units.NONE, displayType = DisplayType.SUMMARY)
+   public long getRoundTripTimeP99() {
+      return micros(window.total[Phase.RESPONSE.ordinal()].getPercentile(0.99));
+   }
+
+   @ManagedAttribute(description = "99.9th percentile round trip time of synchronous remote calls, in microseconds")
+   @Metric(displayName = "99.9th percentile round trip time", units = Units.NONE, displayType = DisplayType.SUMMARY)
+   public long getRoundTripTimeP999() {
+      return micros(window.total[Phase.RESPONSE.ordinal()].getPercentile(0.999));
+   }
+
+   @ManagedAttribute(description = "99th percentile execution time of commands received from other nodes, in microseconds")
+   @Metric(displayName = "99th percentile remote execution time", units = Units.NONE, displayType = DisplayType.SUMMARY)
+   public long getRemoteExecutionTimeP99() {
+      return micros(window.total[Phase.REMOTE_EXECUTION.ordinal()].getPercentile(0.99));
+   }
+
+   @ManagedOperation(description = "Prints the latency percentiles of every phase, command type and peer, in microseconds")
+   @Operation(displayName = "Print latency percentiles")
+   public String printLatencyPercentiles() {
+      List<Object[]> rows = new ArrayList<Object[]>();
+      Window w = window;
+      for (Phase phase : Phase.values()) {
+         for (Map.Entry<Class<?>, ConcurrentMap<Object, LatencyHistogram>> byCommand : w.byCommand[phase.ordinal()].entrySet()) {
+            for (Map.Entry<Object, LatencyHistogram> byPeer : byCommand.getValue().entrySet()) {
+               rows.add(new Object[]{phase, byCommand.getKey().getSimpleName(), String.valueOf(byPeer.getKey()), byPeer.getValue()});
+            }
+         }
+      }
+      Collections.sort(rows, new Comparator<Object[]>() {
+         @Override
+         public int compare(Object[] o1, Object[] o2) {
+            int c = ((Phase) o1[0]).compareTo((Phase) o2[0]);
+            if (c == 0) c = ((String) o1[1]).compareTo((String) o2[1]);
+            if (c == 0) c = ((String) o1[2]).compareTo((String) o2[2]);
+            return c;
+         }
+      });
+
+      Formatter f = new Formatter();
+      f.format("%-16s %-32s %-24s %10s %10s %10s %10s %10s%n", "phase", "command", "peer", "count", "p50", "p99", "p999", "max");
+      for (Object[] row : rows) {
+         LatencyHistogram h = (LatencyHistogram) row[3];
+         f.format("%-16s %-32s %-24s %10d %10d %10d %10d %10d%n", row[0], row[1], row[2], h.getCount(),
+                  micros(h.getPercentile(0.5)), micros(h.getPercentile(0.99)), micros(h.getPercentile(0.999)), micros(h.getMax()));
+      }
+      return f.toString();
+   }
+
+   private static long micros(long nanos) {
+      return TimeUnit.NANOSECONDS.toMicros(nanos);
+   }
+
+   private static class Window {
+      final long startNanos = System.nanoTime();
+      final LatencyHistogram[] total = new LatencyHistogram[Phase.values().length];
+      @SuppressWarnings("unchecked")
+      final ConcurrentMap<Class<?>, ConcurrentMap<Object, LatencyHistogram>>[] byCommand = new ConcurrentMap[Phase.values().length];
+
+      Window() {
+         for (int i = 0; i < total.length; i++) {
+            total[i] = new LatencyHistogram();
+            byCommand[i] = new ConcurrentHashMap<Class<?>, ConcurrentMap<Object, LatencyHistogram>>();
+         }
+      }
+
+      LatencyHistogram histogram(Phase phase, Class<?> commandType, Object peer) {
+         ConcurrentMap<Class<?>, ConcurrentMap<Object, LatencyHistogram>> commands = byCommand[phase.ordinal()];
+         ConcurrentMap<Object, LatencyHistogram> byPeer = commands.get(commandType);
+         if (byPeer == null) {
+            byPeer = new ConcurrentHashMap<Object, LatencyHistogram>();
+            ConcurrentMap<Object, LatencyHistogram> existing = commands.putIfAbsent(commandType, byPeer);
+            if (existing != null) byPeer = existing;
+         }
+         LatencyHistogram histogram = byPeer.get(peer);
+         if (histogram == null) {
+            histogram = new LatencyHistogram();
+            LatencyHistogram existing = byPeer.putIfAbsent(peer, histogram);
+            if (existing != null) histogram = existing;
+         }
+         return histogram;
+      }
+   }
+}
@@ -27,6 +27,7 @@
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.NotifyingNotifiableFuture;
 
 import java.util.Collection;
@@ -56,6 +57,40 @@ public interface RpcManager {
     */
    Map<Address, Response> invokeRemotely(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout, boolean usePriorityQueue, ResponseFilter responseFilter);
 
+   /**
+    * Invokes an RPC call on other caches in the cluster without blocking the caller.  The command is sent before this
+    * method returns and the returned future is completed by the transport once the responses have arrived, so no
+    * thread is parked waiting for them.  Failures are reported through the future rather than thrown.
+    *
+    * @param recipients       a list of Addresses to invoke the call on.  If this is null, the call is broadcast to the
+    *                         entire cluster.
+    * @param rpcCommand       the cache command to invoke
+    * @param mode             the response mode to use
+    * @param timeout          a timeout after which the future fails with a replication exception.
+    * @param usePriorityQueue if true, a priority queue is used to deliver messages.  May not be supported by all
+    *                         implementations.
+    * @param responseFilter   a response filter with which to filter out failed/unwanted/invalid responses.
+    * @return a future holding the map of responses from each member contacted.
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout, boolean usePriorityQueue, ResponseFilter responseFilter);
+
+   /**
+    * Invokes an RPC call on other caches in the cluster, feeding the responses to a collector instead of returning
+    * them in a map.  With {@link ResponseMode#WAIT_FOR_VALID_RESPONSE} the collector is fed as the responses arrive and
+    * the call returns as soon as the collector doesn't need any more of them.
+    *
+    * @param recipients        a list of Addresses to invoke the call on.  If this is null, the call is broadcast to
+    *                          the entire cluster.
+    * @param rpcCommand        the cache command to invoke
+    * @param mode              the response mode to use
+    * @param timeout           a timeout after which to throw a replication exception.
+    * @param usePriorityQueue  if true, a priority queue is used to deliver messages.  May not be supported by all
+    *                          implementations.
+    * @param responseCollector the collector aggregating the valid responses
+    * @return the result of {@link ResponseCollector#finish()}
+    */
+   <T> T invokeRemotelyAndCollect(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout, boolean usePriorityQueue, ResponseCollector<T> responseCollector);
+
    /**
     * Invokes an RPC call on other caches in the cluster.
     *
@@ -37,6 +37,7 @@
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.remoting.ReplicationPipeline;
 import org.infinispan.remoting.ReplicationQueue;
 import org.infinispan.remoting.RpcException;
 import org.infinispan.remoting.responses.IgnoreExtraResponsesValidityFilter;
@@ -44,6 +45,9 @@
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
 import org.infinispan.topology.LocalTopologyManager;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.util.concurrent.FutureListener;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -60,9 +64,9 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -94,10 +98,12 @@ public class RpcManagerImpl implements RpcManager {
    private Configuration configuration;
    private GlobalConfiguration globalCfg;
    private ReplicationQueue replicationQueue;
+   private ReplicationPipeline replicationPipeline;
    private ExecutorService asyncExecutor;
    private CommandsFactory cf;
    private LocalTopologyManager localTopologyManager;
    private StateTransferManager stateTransferManager;
+   private RpcLatencyMonitor latencyMonitor;
    private String cacheName;
 
    @Inject
@@ -105,7 +111,7 @@ public void injectDependencies(Transport t, Cache cache, Configuration cfg,
             ReplicationQueue replicationQueue, CommandsFactory cf,
             @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService e,
             LocalTopologyManager localTopologyManager, StateTransferManager stateTransferManager,
-            GlobalConfiguration globalCfg) {
+            GlobalConfiguration globalCfg, RpcLatencyMonitor latencyMonitor, ReplicationPipeline replicationPipeline) {
       this.t = t;
       this.configuration = cfg;
       this.cacheName = cache.getName();
@@ -115,6 +121,8 @@ public void injectDependencies(Transport t, Cache cache, Configuration cfg,
       this.cf = cf;
       this.localTopologyManager = localTopologyManager;
       this.stateTransferManager = stateTransferManager;
+      this.latencyMonitor = latencyMonitor;
+      this.replicationPipeline = replicationPipeline;
    }
 
    @Start(priority = 9)
@@ -150,8 +158,9 @@ public final Map<Address, Response> invokeRemotely(Collection<Address> recipient
          log.tracef("We're the only member in the cluster; Don't invoke remotely.");
          return Collections.emptyMap();
       } else {
+         boolean recordLatency = latencyMonitor.isStatisticsEnabled();
          long startTimeNanos = 0;
-         if (statisticsEnabled) startTimeNanos = System.nanoTime();
+         if (statisticsEnabled || recordLatency) startTimeNanos = System.nanoTime();
          try {
             // TODO Re-enable the filter (and test MirrsingRpcDispatcherTest) after we find a way to update the cache members list before state transfer has started
             // add a response filter that will ensure we don't wait for replies from non-members
@@ -186,11 +195,94 @@ public final Map<Address, Response> invokeRemotely(Collection<Address> recipient
             if (statisticsEnabled) replicationFailures.incrementAndGet();
             throw new CacheException(th);
          } finally {
-            if (statisticsEnabled) {
-               long timeTaken = TimeUnit.MILLISECONDS.convert(System.nanoTime() - startTimeNanos, TimeUnit.NANOSECONDS);
-               totalReplicationTime.getAndAdd(timeTaken);
+            long elapsedNanos = System.nanoTime() - startTimeNanos;
+            if (statisticsEnabled)
+               totalReplicationTime.getAndAdd(TimeUnit.MILLISECONDS.convert(elapsedNanos, TimeUnit.NANOSECONDS));
+            if (recordLatency) latencyMonitor.recordRemoteCall(rpcCommand, recipients, mode, elapsedNanos);
+         }
+      }
+   }
+
+   @Override
+   public final NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(final Collection<Address> recipients, final ReplicableCommand rpcCommand, final ResponseMode mode, long timeout, boolean usePriorityQueue, ResponseFilter responseFilter) {
+      if (!configuration.clustering().cacheMode().isClustered())
+         return CompletableNotifyingFuture.failed(new IllegalStateException("Trying to invoke a remote command but the cache is not clustered"));
+
+      List<Address> clusterMembers = t.getMembers();
+      if (clusterMembers.size() < 2) {
+         log.tracef("We're the only member in the cluster; Don't invoke remotely.");
+         return CompletableNotifyingFuture.completed(Collections.<Address, Response>emptyMap());
+      }
+
+      final boolean recordLatency = latencyMonitor.isStatisticsEnabled();
+      final long startTimeNanos = statisticsEnabled || recordLatency ? System.nanoTime() : 0;
+      if (rpcCommand instanceof TopologyAffectedCommand) {
+         ((TopologyAffectedCommand)rpcCommand).setTopologyId(stateTransferManager.getCacheTopology().getTopologyId());
+      }
+      final CompletableNotifyingFuture<Map<Address, Response>> result = new CompletableNotifyingFuture<Map<Address, Response>>();
+      t.invokeRemotelyAsync(recipients, rpcCommand, mode, timeout, usePriorityQueue, responseFilter)
+            .attachListener(new FutureListener<Map<Address, Response>>() {
+         @Override
+         public void futureDone(Future<Map<Address, Response>> future) {
+            try {
+               Map<Address, Response> responses = future.get();
+               if (statisticsEnabled) replicationCount.incrementAndGet();
+               result.complete(responses);
+            } catch (Throwable th) {
+               Throwable cause = th instanceof ExecutionException ? th.getCause() : th;
+               if (cause instanceof CacheException) {
+                  log.trace("replication exception: ", cause);
+               } else {
+                  log.unexpectedErrorReplicating(cause);
+                  cause = new CacheException(cause);
+               }
+               if (statisticsEnabled) replicationFailures.incrementAndGet();
+               result.completeExceptionally(cause);
+            } finally {
+               long elapsedNanos = System.nanoTime() - startTimeNanos;
+               if (statisticsEnabled)
+                  totalReplicationTime.getAndAdd(TimeUnit.MILLISECONDS.convert(elapsedNanos, TimeUnit.NANOSECONDS));
+               if (recordLatency) latencyMonitor.recordRemoteCall(rpcCommand, recipients, mode, elapsedNanos);
             }
          }
+      });
+      return result;
+   }
+
+   @Override
+   public final <T> T invokeRemotelyAndCollect(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout, boolean usePriorityQueue, ResponseCollector<T> responseCollector) {
+      if (!configuration.clustering().cacheMode().isClustered())
+         throw new IllegalStateException("Trying to invoke a remote command but the cache is not clustered");
+
+      List<Address> clusterMembers = t.getMembers();
+      if (clusterMembers.size() < 2) {
+         log.tracef("We're the only member in the cluster; Don't invoke remotely.");
+         return responseCollector.finish();
+      }
+
+      boolean recordLatency = latencyMonitor.isStatisticsEnabled();
+      long startTimeNanos = 0;
+      if (statisticsEnabled || recordLatency) startTimeNanos = System.nanoTime();
+      try {
+         if (rpcCommand instanceof TopologyAffectedCommand) {
+            ((TopologyAffectedCommand)rpcCommand).setTopologyId(stateTransferManager.getCacheTopology().getTopologyId());
+         }
+         T result = t.invokeRemotelyAndCollect(recipients, rpcCommand, mode, timeout, usePriorityQueue, responseCollector);
+         if (statisticsEnabled) replicationCount.incrementAndGet();
+         return result;
+      } catch (CacheException e) {
+         log.trace("replication exception: ", e);
+         if (statisticsEnabled) replicationFailures.incrementAndGet();
+         throw e;
+      } catch (Throwable th) {
+         log.unexpectedErrorReplicating(th);
+         if (statisticsEnabled) replicationFailures.incrementAndGet();
+         throw new CacheException(th);
+      } finally {
+         long elapsedNanos = System.nanoTime() - startTimeNanos;
+         if (statisticsEnabled)
+            totalReplicationTime.getAndAdd(TimeUnit.MILLISECONDS.convert(elapsedNanos, TimeUnit.NANOSECONDS));
+         if (recordLatency) latencyMonitor.recordRemoteCall(rpcCommand, recipients, mode, elapsedNanos);
       }
    }
 
@@ -253,6 +345,10 @@ private Map<Address, Response> invokeRemotely(Collection<Address> recipients, Re
          if (!(rpc instanceof CacheRpcCommand)) {
             rpc = cf.buildSingleRpcCommand(rpc);
          }
+         if (!sync && replicationPipeline.isEnabled()) {
+            replicationPipeline.replicate(recipients, rpc, usePriorityQueue);
+            return null;
+         }
          Map<Address, Response> rsps = invokeRemotely(recipients, rpc, responseMode, timeout, usePriorityQueue);
          if (trace) log.tracef("Response(s) to %s is %s", rpc, rsps);
          if (sync) checkResponses(rsps);
@@ -280,28 +376,22 @@ public void invokeRemotelyInFuture(final Collection<Address> recipients, final R
                                       final boolean usePriorityQueue, final NotifyingNotifiableFuture<Object> l,
                                       final long timeout, final boolean ignoreLeavers) {
       if (trace) log.tracef("%s invoking in future call %s to recipient list %s", t.getAddress(), rpc, recipients);
-      final ResponseMode responseMode = ignoreLeavers ? ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS : ResponseMode.SYNCHRONOUS;
-      final CountDownLatch futureSet = new CountDownLatch(1);
-      Callable<Object> c = new Callable<Object>() {
+      ResponseMode responseMode = ignoreLeavers ? ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS : ResponseMode.SYNCHRONOUS;
+      ReplicableCommand command = rpc instanceof CacheRpcCommand ? rpc : cf.buildSingleRpcCommand(rpc);
+      // the transport completes the future from its response callback, so no transport thread is parked waiting
+      NotifyingFuture<Map<Address, Response>> f = invokeRemotelyAsync(recipients, command, responseMode, timeout, usePriorityQueue, null);
+      l.setNetworkFuture(asObjectFuture(f));
+      f.attachListener(new FutureListener<Map<Address, Response>>() {
          @Override
-         public Object call() throws Exception {
-            Object result = null;
-            try {
-               result = invokeRemotely(recipients, rpc, true, usePriorityQueue, timeout, responseMode);
-            } finally {
-               try {
-                  futureSet.await();
-               } catch (InterruptedException e) {
-                  Thread.currentThread().interrupt();
-               } finally {
-                  l.notifyDone();
-               }
-            }
-            return result;
+         public void futureDone(Future<Map<Address, Response>> future) {
+            l.notifyDone();
          }
-      };
-      l.setNetworkFuture(asyncExecutor.submit(c));
-      futureSet.countDown();
+      });
+   }
+
+   @SuppressWarnings("unchecked")
+   private static Future<Object> asObjectFuture(Future<?> future) {
+      return (Future<Object>) future;
    }
 
    @Override
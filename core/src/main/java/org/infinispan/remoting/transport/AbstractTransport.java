@@ -86,17 +86,29 @@ public final boolean checkResponse(Object responseObject, Address sender) throws
    protected final boolean parseResponseAndAddToResponseList(Object responseObject, Throwable exception, Map<Address, Response> responseListToAddTo, boolean wasSuspected,
                                                        boolean wasReceived, Address sender, boolean usedResponseFilter, boolean ignoreLeavers)
            throws Exception
+   {
+      if (checkReceivedResponse(responseObject, exception, wasSuspected, wasReceived, sender, usedResponseFilter, ignoreLeavers))
+         responseListToAddTo.put(sender, (Response) responseObject);
+      return wasSuspected || !wasReceived;
+   }
+
+   /**
+    * Checks the outcome of a remote call on a single member, throwing if the caller should see it as a failure.
+    *
+    * @return true if the member sent back a {@link Response} that should be handed to the caller
+    */
+   protected final boolean checkReceivedResponse(Object responseObject, Throwable exception, boolean wasSuspected,
+                                                 boolean wasReceived, Address sender, boolean usedResponseFilter, boolean ignoreLeavers)
+           throws Exception
    {
       Log log = getLog();
-      boolean invalidResponse = true;
       if (!wasSuspected && wasReceived) {
-         invalidResponse = false;
          if (exception != null) {
             log.tracef(exception, "Unexpected exception from %s", sender);
             throw new CacheException("Remote (" + sender + ") failed unexpectedly", exception);
          }
          
-         if (checkResponse(responseObject, sender)) responseListToAddTo.put(sender, (Response) responseObject);
+         return checkResponse(responseObject, sender);
       } else if (wasSuspected) {
          if (!ignoreLeavers) {
             throw new SuspectException("Suspected member: " + sender, sender);
@@ -108,6 +120,6 @@ protected final boolean parseResponseAndAddToResponseList(Object responseObject,
          if (!usedResponseFilter) throw new TimeoutException("Replication timeout for " + sender);
       }
 
-      return invalidResponse;
+      return false;
    }
 }
@@ -29,8 +29,10 @@
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.lifecycle.Lifecycle;
 import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.rpc.ResponseCollector;
 import org.infinispan.remoting.rpc.ResponseFilter;
 import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.xsite.XSiteBackup;
 
@@ -70,6 +72,33 @@ public interface Transport extends Lifecycle {
    Map<Address, Response> invokeRemotely(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout,
                                          boolean usePriorityQueue, ResponseFilter responseFilter) throws Exception;
 
+   /**
+    * Asynchronous variant of {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand,
+    * org.infinispan.remoting.rpc.ResponseMode, long, boolean, org.infinispan.remoting.rpc.ResponseFilter)}.  The
+    * command is sent before this method returns, but the caller is not blocked waiting for the responses: the
+    * returned future is completed once all the expected responses have been received (or the response filter does
+    * not need any more of them), and fails with the same exceptions the synchronous variant would have thrown.
+    * <p/>
+    * For asynchronous response modes the returned future is already completed with an empty map.
+    *
+    * @return a future that will hold the responses from each member contacted.
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpcCommand,
+                                                                ResponseMode mode, long timeout, boolean usePriorityQueue,
+                                                                ResponseFilter responseFilter);
+
+   /**
+    * Variant of {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand,
+    * org.infinispan.remoting.rpc.ResponseMode, long, boolean, org.infinispan.remoting.rpc.ResponseFilter)} that hands
+    * the valid responses to a collector instead of building a response map.  Failed, suspected and timed out
+    * members are reported with the same exceptions.
+    *
+    * @return the result of {@link ResponseCollector#finish()}
+    * @throws Exception in the event of problems.
+    */
+   <T> T invokeRemotelyAndCollect(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode,
+                                  long timeout, boolean usePriorityQueue, ResponseCollector<T> responseCollector) throws Exception;
+
 
    BackupResponse backupRemotely(Collection<XSiteBackup> backups, ReplicableCommand rpcCommand) throws Exception;
 
@@ -25,6 +25,7 @@
 import net.jcip.annotations.GuardedBy;
 import org.infinispan.CacheException;
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.BatchedRpcCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
 import org.infinispan.factories.GlobalComponentRegistry;
@@ -36,6 +37,7 @@
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.topology.CacheTopologyControlCommand;
 import org.infinispan.util.Util;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -58,11 +60,13 @@
 import org.jgroups.util.RspList;
 
 import java.io.NotSerializableException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -88,6 +92,7 @@ public class CommandAwareRpcDispatcher extends RpcDispatcher {
    private final JGroupsTransport transport;
    private final GlobalComponentRegistry gcr;
    private final BackupReceiverRepository backupReceiverRepository;
+   private CommandBatcher batcher;
 
    public CommandAwareRpcDispatcher(Channel channel,
                                     JGroupsTransport transport,
@@ -114,6 +119,23 @@ public CommandAwareRpcDispatcher(Channel channel,
       channel.addChannelListener(this);
    }
 
+   /**
+    * Coalesces unicast commands bound for the same node into a single message when that node is busy.  Must be called
+    * before the dispatcher is used.
+    *
+    * @param maxBatchSize the maximum number of commands to send in a single message
+    */
+   void enableBatching(int maxBatchSize) {
+      batcher = new CommandBatcher(this, maxBatchSize);
+   }
+
+   /**
+    * Discards the batching state of nodes that are no longer cluster members.
+    */
+   void retainBatchQueues(List<Address> members) {
+      if (batcher != null) batcher.retainAll(members);
+   }
+
    private boolean isValid(Message req) {
       if (req == null || req.getLength() == 0) {
          log.msgOrMsgBufferEmpty();
@@ -194,6 +216,85 @@ public RspList<Object> broadcastRemoteCommands(ReplicableCommand command, Respon
       return invokeRemoteCommands(null, command, mode, timeout, anycasting, oob, filter, asyncMarshalling);
    }
 
+   /**
+    * Non-blocking variant of {@link #invokeRemoteCommands(java.util.List, org.infinispan.commands.ReplicableCommand,
+    * org.jgroups.blocks.ResponseMode, long, boolean, boolean, org.jgroups.blocks.RspFilter, boolean)} for synchronous
+    * response modes.  The command is marshalled and sent in the calling thread, and the returned future is completed
+    * from the JGroups response callbacks.  The caller is responsible for enforcing the timeout on the returned future,
+    * since JGroups only applies it to threads blocked waiting for a response.
+    *
+    * @param recipients if null, the command is broadcast to the entire cluster.  Must <b>not</b> contain self.
+    */
+   public CompletableNotifyingFuture<RspList<Object>> invokeRemoteCommandsAsync(List<Address> recipients, ReplicableCommand command,
+                                                                                 ResponseMode mode, long timeout, boolean oob,
+                                                                                 RspFilter filter) {
+      if (trace) log.tracef("Replication task sending %s to addresses %s with response mode %s, not waiting for responses", command, recipients, mode);
+
+      /// HACK ALERT!  Used for ISPN-1789.  Enable RSVP if the command is a state transfer control command or cache topology control command.
+      boolean rsvp = command instanceof StateRequestCommand || command instanceof StateResponseCommand
+            || command instanceof CacheTopologyControlCommand;
+
+      final CompletableNotifyingFuture<RspList<Object>> result = new CompletableNotifyingFuture<RspList<Object>>();
+      try {
+         Buffer buf = marshallCall(req_marshaller, command);
+         if (recipients == null || FORCE_MCAST) {
+            final NotifyingFuture<RspList<Object>> f = castMessageWithFuture(recipients,
+                  constructMessage(buf, null, oob, mode, rsvp), new RequestOptions(mode, timeout, false, filter));
+            f.setListener(new FutureListener<RspList<Object>>() {
+               @Override
+               public void futureDone(Future<RspList<Object>> future) {
+                  try {
+                     result.complete(future.get());
+                  } catch (CancellationException e) {
+                     // cancelled below, the result is already done
+                  } catch (InterruptedException e) {
+                     Thread.currentThread().interrupt();
+                     result.completeExceptionally(e);
+                  } catch (ExecutionException e) {
+                     result.completeExceptionally(translateException(e.getCause(), null));
+                  }
+               }
+            });
+            // if the caller times out or cancels the result, unregister the request from the RequestCorrelator
+            result.attachListener(new org.infinispan.util.concurrent.FutureListener<RspList<Object>>() {
+               @Override
+               public void futureDone(Future<RspList<Object>> future) {
+                  if (!f.isDone()) f.cancel(true);
+               }
+            });
+         } else if (recipients.isEmpty()) {
+            result.complete(new RspList<Object>());
+         } else {
+            RequestOptions opts = new RequestOptions(mode, timeout);
+            final AsyncFutureCollator collator = new AsyncFutureCollator(filter, recipients.size(), result);
+            for (Address a : recipients) {
+               NotifyingFuture<Object> f = sendUnicast(buf, a, oob, mode, rsvp, opts);
+               collator.watchFuture(f, a);
+            }
+            result.attachListener(new org.infinispan.util.concurrent.FutureListener<RspList<Object>>() {
+               @Override
+               public void futureDone(Future<RspList<Object>> future) {
+                  collator.cancelPendingFutures();
+               }
+            });
+         }
+      } catch (Exception e) {
+         result.completeExceptionally(rewrapAsCacheException(e));
+      }
+      return result;
+   }
+
+   private static Exception translateException(Throwable t, Address sender) {
+      if (t instanceof org.jgroups.TimeoutException)
+         return new TimeoutException(sender == null ? "Timed out waiting for responses" : "Timed out waiting for a response from " + sender, t);
+      else if (t instanceof SuspectedException)
+         return new SuspectException(sender == null ? "One of the nodes was suspected" : "Node " + sender + " was suspected", t);
+      else if (t instanceof Exception)
+         return (Exception) t;
+      else
+         return new CacheException("Caught a throwable", t);
+   }
+
    private boolean containsOnlyNulls(RspList<Object> l) {
       for (Rsp<Object> r : l.values()) {
          if (r.getValue() != null || !r.wasReceived() || r.wasSuspected()) return false;
@@ -207,28 +308,70 @@ private boolean containsOnlyNulls(RspList<Object> l) {
    @Override
    public Object handle(Message req) {
       if (isValid(req)) {
-         ReplicableCommand cmd = null;
-         try {
-            cmd = (ReplicableCommand) req_marshaller.objectFromBuffer(req.getRawBuffer(), req.getOffset(), req.getLength());
-            if (cmd == null) throw new NullPointerException("Unable to execute a null command!  Message was " + req);
-            if (req.getSrc() instanceof SiteAddress) {
-               return executeCommandFromRemoteSite(cmd, (SiteAddress)req.getSrc());
-            } else {
-               return executeCommandFromLocalCluster(cmd, req);
+         return handle(req, req.getRawBuffer(), req.getOffset(), req.getLength());
+      } else {
+         return null;
+      }
+   }
+
+   private Object handle(Message req, byte[] buf, int offset, int length) {
+      ReplicableCommand cmd = null;
+      try {
+         cmd = (ReplicableCommand) req_marshaller.objectFromBuffer(buf, offset, length);
+         if (cmd == null) throw new NullPointerException("Unable to execute a null command!  Message was " + req);
+         if (req.getSrc() instanceof SiteAddress) {
+            return executeCommandFromRemoteSite(cmd, (SiteAddress)req.getSrc());
+         } else if (cmd instanceof BatchedRpcCommand) {
+            return executeBatch((BatchedRpcCommand) cmd, req);
+         } else {
+            return executeCommandFromLocalCluster(cmd, req);
+         }
+      } catch (InterruptedException e) {
+         log.warnf("Shutdown while handling command %s", cmd);
+         return new ExceptionResponse(new CacheException("Cache is shutting down"));
+      } catch (Throwable x) {
+         if (cmd == null)
+            log.warnf(x, "Problems unmarshalling remote command from byte buffer");
+         else
+            log.warnf(x, "Problems invoking command %s", cmd);
+         return new ExceptionResponse(new CacheException("Problems invoking command.", x));
+      }
+   }
+
+   /**
+    * Executes each command of a batch as if it had been received in a message of its own.  Commands sent as regular
+    * messages are executed in order, like JGroups would have delivered them.  OOB messages carry no ordering guarantees,
+    * so their commands are executed in parallel, which also prevents a command that blocks (e.g. waiting for a lock)
+    * from holding up the rest of the batch.
+    */
+   private Object[] executeBatch(BatchedRpcCommand batch, final Message req) throws InterruptedException {
+      byte[][] payloads = batch.getPayloads();
+      if (trace) log.tracef("Executing a batch of %s commands [sender=%s]", payloads.length, req.getSrc());
+      Object[] responses = new Object[payloads.length];
+      if (req.isFlagSet(Message.OOB) && payloads.length > 1) {
+         List<Future<Object>> futures = new ArrayList<Future<Object>>(payloads.length - 1);
+         for (int i = 1; i < payloads.length; i++) {
+            final byte[] payload = payloads[i];
+            futures.add(asyncExecutor.submit(new Callable<Object>() {
+               @Override
+               public Object call() {
+                  return handle(req, payload, 0, payload.length);
+               }
+            }));
+         }
+         responses[0] = handle(req, payloads[0], 0, payloads[0].length);
+         for (int i = 1; i < payloads.length; i++) {
+            try {
+               responses[i] = futures.get(i - 1).get();
+            } catch (ExecutionException e) {
+               responses[i] = new ExceptionResponse(rewrapAsCacheException(e.getCause()));
             }
-         } catch (InterruptedException e) {
-            log.warnf("Shutdown while handling command %s", cmd);
-            return new ExceptionResponse(new CacheException("Cache is shutting down"));
-         } catch (Throwable x) {
-            if (cmd == null)
-               log.warnf(x, "Problems unmarshalling remote command from byte buffer");
-            else
-               log.warnf(x, "Problems invoking command %s", cmd);
-            return new ExceptionResponse(new CacheException("Problems invoking command.", x));
          }
       } else {
-         return null;
+         for (int i = 0; i < payloads.length; i++)
+            responses[i] = handle(req, payloads[i], 0, payloads[i].length);
       }
+      return responses;
    }
 
    private Object executeCommandFromRemoteSite(ReplicableCommand cmd, SiteAddress src) throws Throwable {
@@ -280,6 +423,30 @@ static Buffer marshallCall(Marshaller marshaller, ReplicableCommand command) {
       return buf;
    }
 
+   /**
+    * Sends a unicast request, through the batcher if batching is enabled.  RSVP messages are never batched.
+    */
+   private NotifyingFuture<Object> sendUnicast(Buffer buf, Address destination, boolean oob, ResponseMode mode,
+                                               boolean rsvp, RequestOptions opts) throws Exception {
+      if (batcher != null && !rsvp)
+         return batcher.send(destination, buf, mode, oob, opts.getTimeout());
+      else
+         return sendMessageWithFuture(constructMessage(buf, destination, oob, mode, rsvp), opts);
+   }
+
+   private static Object await(Future<Object> future, long timeout, Address destination) throws Exception {
+      try {
+         return future.get(timeout, MILLISECONDS);
+      } catch (java.util.concurrent.TimeoutException te) {
+         throw new TimeoutException(formatString("Timed out after %s waiting for a response from %s",
+                                                 prettyPrintTime(timeout), destination));
+      } catch (ExecutionException e) {
+         // rethrow what a blocking JGroups call would have thrown
+         if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+         throw new CacheException(e.getCause());
+      }
+   }
+
    private static Response processSingleCall(ReplicableCommand command, long timeout,
                                              Address destination, ResponseMode mode,
                                              Marshaller marshaller, CommandAwareRpcDispatcher card, boolean oob,
@@ -294,8 +461,12 @@ private static Response processSingleCall(ReplicableCommand command, long timeou
       Response retval;
       Buffer buf;
       buf = marshallCall(marshaller, command);
-      retval = card.sendMessage(constructMessage(buf, destination, oob, mode, rsvp),
-                                new RequestOptions(mode, timeout));
+      if (card.batcher != null && !rsvp) {
+         retval = (Response) await(card.batcher.send(destination, buf, mode, oob, timeout), timeout, destination);
+      } else {
+         retval = card.sendMessage(constructMessage(buf, destination, oob, mode, rsvp),
+                                   new RequestOptions(mode, timeout));
+      }
 
       // we only bother parsing responses if we are not in ASYNC mode.
       if (trace) log.tracef("Response: %s", retval);
@@ -339,7 +510,7 @@ private static RspList<Object> processCalls(ReplicableCommand command, boolean b
             // (see FutureCollator) and the first successful response is used.
             FutureCollator futureCollator = new FutureCollator(filter, dests.size(), timeout);
             for (Address a : dests) {
-               NotifyingFuture<Object> f = card.sendMessageWithFuture(constructMessage(buf, a, oob, mode, rsvp), opts);
+               NotifyingFuture<Object> f = card.sendUnicast(buf, a, oob, mode, rsvp, opts);
                futureCollator.watchFuture(f, a);
             }
             retval = futureCollator.getResponseList();
@@ -348,7 +519,7 @@ private static RspList<Object> processCalls(ReplicableCommand command, boolean b
             Map<Address, Future<Object>> futures = new HashMap<Address, Future<Object>>(dests.size());
 
             for (Address dest : dests)
-               futures.put(dest, card.sendMessageWithFuture(constructMessage(buf, dest, oob, mode, rsvp), opts));
+               futures.put(dest, card.sendUnicast(buf, dest, oob, mode, rsvp, opts));
 
             retval = new RspList<Object>();
 
@@ -363,7 +534,16 @@ private static RspList<Object> processCalls(ReplicableCommand command, boolean b
             }
          } else if (mode == ResponseMode.GET_NONE) {
             // An ASYNC call.  We don't care about responses.
-            for (Address dest : dests) card.sendMessage(constructMessage(buf, dest, oob, mode, rsvp), opts);
+            if (card.batcher != null && !rsvp) {
+               // batched commands may be sent by another thread: wait until they have been handed to JGroups, so
+               // that later messages from this thread can't overtake them
+               Map<Address, Future<Object>> futures = new HashMap<Address, Future<Object>>(dests.size());
+               for (Address dest : dests) futures.put(dest, card.batcher.send(dest, buf, mode, oob, timeout));
+               for (Map.Entry<Address, Future<Object>> entry : futures.entrySet())
+                  await(entry.getValue(), timeout, entry.getKey());
+            } else {
+               for (Address dest : dests) card.sendMessage(constructMessage(buf, dest, oob, mode, rsvp), opts);
+            }
          }
       }
 
@@ -491,5 +671,101 @@ else if (e.getCause() instanceof Exception)
          }
       }
    }
-}
 
+   /**
+    * Collects the responses of a {@link #invokeRemoteCommandsAsync} call and completes the result future, without any
+    * thread waiting on it.  With a response filter, the first acceptable response completes the call and errors are only
+    * reported if no sender returned a valid response; without a filter all responses are needed, and the first error
+    * fails the call.
+    */
+   final static class AsyncFutureCollator implements FutureListener<Object> {
+      final RspFilter filter;
+      final CompletableNotifyingFuture<RspList<Object>> result;
+      @GuardedBy("this")
+      final Map<Future<Object>, SenderContainer> futures = new HashMap<Future<Object>, SenderContainer>(4);
+      @GuardedBy("this")
+      private final RspList<Object> responses = new RspList<Object>();
+      @GuardedBy("this")
+      private Exception exception;
+      @GuardedBy("this")
+      private int expectedResponses;
+
+      AsyncFutureCollator(RspFilter filter, int expectedResponses, CompletableNotifyingFuture<RspList<Object>> result) {
+         this.filter = filter;
+         this.expectedResponses = expectedResponses;
+         this.result = result;
+      }
+
+      public synchronized void watchFuture(NotifyingFuture<Object> f, Address address) {
+         futures.put(f, new SenderContainer(address));
+         f.setListener(this);
+      }
+
+      /**
+       * Cancels the requests still waiting for a response once the result is done, e.g. because the caller timed out,
+       * so that they don't stay registered in the RequestCorrelator until their senders leave.  The futures are
+       * cancelled outside the lock, since JGroups may invoke {@link #futureDone} while holding a request's lock.
+       */
+      void cancelPendingFutures() {
+         List<Future<Object>> pending;
+         synchronized (this) {
+            pending = new ArrayList<Future<Object>>(futures.size());
+            for (Map.Entry<Future<Object>, SenderContainer> e : futures.entrySet()) {
+               if (!e.getValue().processed) pending.add(e.getKey());
+            }
+         }
+         for (Future<Object> f : pending) {
+            if (!f.isDone()) f.cancel(true);
+         }
+      }
+
+      @Override
+      public synchronized void futureDone(Future<Object> objectFuture) {
+         SenderContainer sc = futures.get(objectFuture);
+         if (sc == null || sc.processed) {
+            // see FutureCollator: JGroups may notify a listener twice
+            return;
+         }
+         sc.processed = true;
+         Address sender = sc.address;
+         expectedResponses--;
+         if (result.isDone()) {
+            if (trace) log.tracef("Skipping response from %s since the request has already completed", sender);
+            return;
+         }
+         try {
+            Object response = objectFuture.get();
+            if (trace) log.tracef("Received response: %s from %s", response, sender);
+            if (filter != null) {
+               filter.isAcceptable(response, sender);
+               if (!filter.needMoreResponses()) {
+                  result.complete(new RspList<Object>(Collections.singleton(new Rsp<Object>(sender, response))));
+                  return;
+               }
+            } else {
+               responses.addRsp(sender, response);
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exception = e;
+         } catch (ExecutionException e) {
+            exception = translateException(e.getCause(), sender);
+            if (filter == null) {
+               result.completeExceptionally(exception);
+               return;
+            }
+            if (log.isDebugEnabled())
+               log.debugf("Caught exception %s from sender %s.  Will skip this response.", exception.getClass().getName(), sender);
+         }
+
+         if (expectedResponses == 0) {
+            if (filter == null && exception == null)
+               result.complete(responses);
+            else if (exception != null)
+               result.completeExceptionally(exception);
+            else
+               result.completeExceptionally(new RpcException(format("No more valid responses.  Received invalid responses from all of %s", futures.values())));
+         }
+      }
+   }
+}
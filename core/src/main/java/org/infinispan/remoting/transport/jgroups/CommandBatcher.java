@@ -0,0 +1,269 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting.transport.jgroups;
+
+import org.infinispan.commands.remote.BatchedRpcCommand;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.util.concurrent.ConcurrentMapFactory;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.jgroups.Address;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.blocks.ResponseMode;
+import org.jgroups.util.Buffer;
+import org.jgroups.util.FutureListener;
+import org.jgroups.util.NotifyingFuture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.infinispan.remoting.transport.jgroups.CommandAwareRpcDispatcher.constructMessage;
+import static org.infinispan.remoting.transport.jgroups.CommandAwareRpcDispatcher.marshallCall;
+
+/**
+ * Coalesces commands bound for the same node into a single message.
+ * <p/>
+ * Batching is adaptive: a thread sending to a node that has no send in progress sends its own command straight away,
+ * so an idle node pays no extra latency.  Commands submitted while another thread is sending to that node are queued,
+ * and the sending thread drains the queue once its own send has been handed to JGroups, packing whatever accumulated
+ * into a {@link BatchedRpcCommand}.  The busier the link, the larger the batches.
+ * <p/>
+ * A batch never mixes OOB and regular commands, and regular commands leave in the order they were submitted, so
+ * JGroups' ordering guarantees for regular messages still hold.  The batch expects responses if any of its commands
+ * does, and the response to each command is handed to its own future.
+ *
+ * @since 5.2
+ */
+final class CommandBatcher {
+
+   private static final Log log = LogFactory.getLog(CommandBatcher.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final CommandAwareRpcDispatcher card;
+   private final int maxBatchSize;
+   private final ConcurrentMap<Address, DestinationQueue> queues = ConcurrentMapFactory.makeConcurrentMap();
+
+   CommandBatcher(CommandAwareRpcDispatcher card, int maxBatchSize) {
+      this.card = card;
+      this.maxBatchSize = maxBatchSize;
+   }
+
+   /**
+    * Sends an already marshalled command to the given node, possibly batched with other commands for the same node.
+    * For {@link ResponseMode#GET_NONE} the returned future completes once the command has been handed to JGroups.
+    */
+   NotifyingFuture<Object> send(Address destination, Buffer buf, ResponseMode mode, boolean oob, long timeout) {
+      DestinationQueue queue = queues.get(destination);
+      if (queue == null) {
+         queue = new DestinationQueue(destination);
+         DestinationQueue existing = queues.putIfAbsent(destination, queue);
+         if (existing != null) queue = existing;
+      }
+      PendingCommand command = new PendingCommand(buf, mode, oob, timeout);
+      queue.pending.add(command);
+      queue.drain();
+      return command;
+   }
+
+   /**
+    * Forgets the queues of nodes that have left the cluster.
+    */
+   void retainAll(List<Address> members) {
+      queues.keySet().retainAll(members);
+   }
+
+   private final class DestinationQueue {
+      final Address destination;
+      final Queue<PendingCommand> pending = new ConcurrentLinkedQueue<PendingCommand>();
+      final AtomicBoolean sending = new AtomicBoolean();
+
+      DestinationQueue(Address destination) {
+         this.destination = destination;
+      }
+
+      void drain() {
+         // re-check after releasing the flag, or a command queued just before the release would be stranded
+         while (!pending.isEmpty() && sending.compareAndSet(false, true)) {
+            try {
+               List<PendingCommand> batch;
+               while (!(batch = nextBatch()).isEmpty()) {
+                  if (batch.size() == 1)
+                     sendSingle(batch.get(0));
+                  else
+                     sendBatch(batch);
+               }
+            } finally {
+               sending.set(false);
+            }
+         }
+      }
+
+      private List<PendingCommand> nextBatch() {
+         List<PendingCommand> batch = new ArrayList<PendingCommand>(4);
+         PendingCommand first = pending.poll();
+         if (first == null) return batch;
+         batch.add(first);
+         // only the thread holding the sending flag removes commands, so peek-then-poll is safe
+         PendingCommand next;
+         while (batch.size() < maxBatchSize && (next = pending.peek()) != null && next.oob == first.oob)
+            batch.add(pending.poll());
+         return batch;
+      }
+
+      private void sendSingle(final PendingCommand command) {
+         try {
+            final NotifyingFuture<Object> f = card.sendMessageWithFuture(
+                  constructMessage(command.buf, destination, command.oob, command.mode, false),
+                  new RequestOptions(command.mode, command.timeout));
+            if (command.mode == ResponseMode.GET_NONE) {
+               command.complete(null);
+            } else {
+               f.setListener(new FutureListener<Object>() {
+                  @Override
+                  public void futureDone(Future<Object> future) {
+                     try {
+                        command.complete(future.get());
+                     } catch (Throwable t) {
+                        command.fail(t);
+                     }
+                  }
+               });
+               cancelWhenAllDone(f, Collections.singletonList(command));
+            }
+         } catch (Throwable t) {
+            command.fail(t);
+         }
+      }
+
+      private void sendBatch(final List<PendingCommand> batch) {
+         ResponseMode mode = ResponseMode.GET_NONE;
+         long timeout = 0;
+         byte[][] payloads = new byte[batch.size()][];
+         for (int i = 0; i < payloads.length; i++) {
+            PendingCommand command = batch.get(i);
+            payloads[i] = command.payload();
+            if (command.mode != ResponseMode.GET_NONE) mode = ResponseMode.GET_ALL;
+            timeout = Math.max(timeout, command.timeout);
+         }
+         if (trace) log.tracef("Sending a batch of %s commands to %s", payloads.length, destination);
+
+         try {
+            Buffer buf = marshallCall(card.getMarshaller(), new BatchedRpcCommand(payloads));
+            final NotifyingFuture<Object> f = card.sendMessageWithFuture(
+                  constructMessage(buf, destination, batch.get(0).oob, mode, false), new RequestOptions(mode, timeout));
+            if (mode == ResponseMode.GET_NONE) {
+               for (PendingCommand command : batch) command.complete(null);
+            } else {
+               for (PendingCommand command : batch) {
+                  if (command.mode == ResponseMode.GET_NONE) command.complete(null);
+               }
+               f.setListener(new FutureListener<Object>() {
+                  @Override
+                  public void futureDone(Future<Object> future) {
+                     try {
+                        Object response = future.get();
+                        if (response instanceof Object[]) {
+                           Object[] responses = (Object[]) response;
+                           for (int i = 0; i < batch.size(); i++) batch.get(i).complete(responses[i]);
+                        } else {
+                           // the batch as a whole failed on the remote node, e.g. an ExceptionResponse
+                           for (PendingCommand command : batch) command.complete(response);
+                        }
+                     } catch (Throwable t) {
+                        for (PendingCommand command : batch) command.fail(t);
+                     }
+                  }
+               });
+               cancelWhenAllDone(f, batch);
+            }
+         } catch (Throwable t) {
+            for (PendingCommand command : batch) command.fail(t);
+         }
+      }
+
+      /**
+       * Cancels the request once all the commands it carries are done without it, i.e. their callers cancelled them
+       * after timing out, so that it doesn't stay registered in the RequestCorrelator waiting for a response.
+       */
+      private void cancelWhenAllDone(final NotifyingFuture<Object> request, List<PendingCommand> commands) {
+         final AtomicInteger outstanding = new AtomicInteger(commands.size());
+         for (PendingCommand command : commands) {
+            command.setListener(new FutureListener<Object>() {
+               @Override
+               public void futureDone(Future<Object> future) {
+                  if (outstanding.decrementAndGet() == 0 && !request.isDone()) request.cancel(true);
+               }
+            });
+         }
+      }
+   }
+
+   /**
+    * A command waiting to be sent, which doubles as the future handed back to the caller.  Failures are reported with
+    * the same exceptions a plain JGroups request would have raised.
+    */
+   private static final class PendingCommand extends CompletableNotifyingFuture<Object> implements NotifyingFuture<Object> {
+      final Buffer buf;
+      final ResponseMode mode;
+      final boolean oob;
+      final long timeout;
+
+      PendingCommand(Buffer buf, ResponseMode mode, boolean oob, long timeout) {
+         this.buf = buf;
+         this.mode = mode;
+         this.oob = oob;
+         this.timeout = timeout;
+      }
+
+      byte[] payload() {
+         byte[] bytes = buf.getBuf();
+         if (buf.getOffset() == 0 && buf.getLength() == bytes.length) return bytes;
+         byte[] copy = new byte[buf.getLength()];
+         System.arraycopy(bytes, buf.getOffset(), copy, 0, copy.length);
+         return copy;
+      }
+
+      void fail(Throwable t) {
+         completeExceptionally(t instanceof ExecutionException && t.getCause() != null ? t.getCause() : t);
+      }
+
+      @Override
+      public NotifyingFuture<Object> setListener(final FutureListener<Object> listener) {
+         attachListener(new org.infinispan.util.concurrent.FutureListener<Object>() {
+            @Override
+            public void futureDone(Future<Object> future) {
+               listener.futureDone(future);
+            }
+         });
+         return this;
+      }
+   }
+}
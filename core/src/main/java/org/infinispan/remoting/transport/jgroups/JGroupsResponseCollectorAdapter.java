@@ -0,0 +1,64 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting.transport.jgroups;
+
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.rpc.ResponseCollector;
+import org.jgroups.Address;
+import org.jgroups.blocks.RspFilter;
+
+/**
+ * Feeds a {@link ResponseCollector} from the JGroups {@link RspFilter} callback, so that the request completes as soon
+ * as the collector is done or all the targets have answered.
+ * <p/>
+ * JGroups calls the filter while holding the request's lock, so we don't need any synchronization.
+ *
+ * @since 5.2
+ */
+final class JGroupsResponseCollectorAdapter implements RspFilter {
+
+   private final ResponseCollector<?> collector;
+   private int missingResponses;
+   private boolean collectorNeedsMore = true;
+
+   JGroupsResponseCollectorAdapter(ResponseCollector<?> collector, int expectedResponses) {
+      this.collector = collector;
+      this.missingResponses = expectedResponses;
+   }
+
+   @Override
+   public boolean isAcceptable(Object response, Address sender) {
+      missingResponses--;
+      // exceptions are only reported once the request completes, like any other failure
+      if (collectorNeedsMore && response instanceof Response && ((Response) response).isValid())
+         collectorNeedsMore = collector.addResponse(JGroupsTransport.fromJGroupsAddress(sender), (Response) response);
+
+      // always return true to make sure a response is logged by the JGroups RpcDispatcher.
+      return true;
+   }
+
+   @Override
+   public boolean needMoreResponses() {
+      return collectorNeedsMore && missingResponses > 0;
+   }
+}
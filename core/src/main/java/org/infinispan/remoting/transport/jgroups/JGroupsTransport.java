@@ -36,6 +36,7 @@
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
 import org.infinispan.remoting.InboundInvocationHandler;
 import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.rpc.ResponseCollector;
 import org.infinispan.remoting.rpc.ResponseFilter;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.transport.AbstractTransport;
@@ -44,6 +45,9 @@
 import org.infinispan.util.FileLookupFactory;
 import org.infinispan.util.TypedProperties;
 import org.infinispan.util.Util;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.util.concurrent.FutureListener;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -78,8 +82,10 @@
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
 import static org.infinispan.factories.KnownComponentNames.GLOBAL_MARSHALLER;
@@ -94,6 +100,10 @@
  * <li><tt>channelLookup</tt> - Fully qualified class name of a
  * {@link org.infinispan.remoting.transport.jgroups.JGroupsChannelLookup} instance</li>
  * </ul>
+ * In addition, unicast commands bound for the same node can be coalesced into a single message while that node is
+ * busy, by setting <tt>messageBatching</tt> to <tt>true</tt>.  <tt>maxBatchSize</tt> caps the number of commands
+ * sent in a single message (defaults to {@value #DEFAULT_MAX_BATCH_SIZE}).
+ * <p/>
  * These are normally passed in as Properties in
  * {@link org.infinispan.config.GlobalConfiguration#setTransportProperties(java.util.Properties)} or
  * in the Infinispan XML configuration file.
@@ -107,6 +117,9 @@ public class JGroupsTransport extends AbstractTransport implements MembershipLis
    public static final String CONFIGURATION_XML = "configurationXml";
    public static final String CONFIGURATION_FILE = "configurationFile";
    public static final String CHANNEL_LOOKUP = "channelLookup";
+   public static final String MESSAGE_BATCHING = "messageBatching";
+   public static final String MAX_BATCH_SIZE = "maxBatchSize";
+   public static final int DEFAULT_MAX_BATCH_SIZE = 64;
    protected static final String DEFAULT_JGROUPS_CONFIGURATION_FILE = "jgroups-udp.xml";
 
    static final Log log = LogFactory.getLog(JGroupsTransport.class);
@@ -323,6 +336,13 @@ private void initChannelAndRPCDispatcher() throws CacheException {
       MarshallerAdapter adapter = new MarshallerAdapter(marshaller);
       dispatcher.setRequestMarshaller(adapter);
       dispatcher.setResponseMarshaller(adapter);
+      if (props != null && props.getBooleanProperty(MESSAGE_BATCHING, false)) {
+         int maxBatchSize = props.getIntProperty(MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE);
+         if (maxBatchSize < 2)
+            throw new CacheConfigurationException(MAX_BATCH_SIZE + " must be at least 2, was " + maxBatchSize);
+         log.debugf("Batching commands bound for the same node, up to %s commands per message", maxBatchSize);
+         dispatcher.enableBatching(maxBatchSize);
+      }
       dispatcher.start();
    }
 
@@ -460,19 +480,38 @@ public List<Address> getPhysicalAddresses() {
    // ------------------------------------------------------------------------------------------------------------------
 
    @Override
+   @SuppressWarnings("unchecked")
    public Map<Address, Response> invokeRemotely(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout, boolean usePriorityQueue, ResponseFilter responseFilter)
          throws Exception {
+      return (Map<Address, Response>) invokeRemotely(recipients, rpcCommand, mode, timeout, usePriorityQueue, responseFilter, null);
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public <T> T invokeRemotelyAndCollect(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout,
+                                         boolean usePriorityQueue, ResponseCollector<T> responseCollector) throws Exception {
+      if (responseCollector == null) throw new IllegalArgumentException("A response collector is required");
+      return (T) invokeRemotely(recipients, rpcCommand, mode, timeout, usePriorityQueue, null, responseCollector);
+   }
+
+   /**
+    * Returns the response map if no collector is given, and the result of the collector otherwise.
+    */
+   private Object invokeRemotely(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout,
+                                 boolean usePriorityQueue, ResponseFilter responseFilter, ResponseCollector<?> responseCollector)
+         throws Exception {
 
       if (recipients != null && recipients.isEmpty()) {
          // don't send if recipients list is empty
          log.trace("Destination list is empty: no need to send message");
-         return Collections.emptyMap();
+         return responseCollector == null ? Collections.emptyMap() : responseCollector.finish();
       }
 
       if (trace)
          log.tracef("dests=%s, command=%s, mode=%s, timeout=%s", recipients, rpcCommand, mode, timeout);
       Address self = getAddress();
-      boolean ignoreLeavers = mode == ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS || mode == ResponseMode.WAIT_FOR_VALID_RESPONSE;
+      boolean ignoreLeavers = mode == ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS || mode == ResponseMode.WAIT_FOR_VALID_RESPONSE
+            || mode == ResponseMode.PIPELINED;
       if (mode.isSynchronous() && recipients != null && !getMembers().containsAll(recipients)) {
          if (ignoreLeavers) { // SYNCHRONOUS_IGNORE_LEAVERS || WAIT_FOR_VALID_RESPONSE
             recipients = new HashSet<Address>(recipients);
@@ -489,13 +528,18 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
       int membersSize = members.size();
       boolean broadcast = jgAddressList == null || recipients.size() == membersSize;
       if (membersSize < 3 || (jgAddressList != null && jgAddressList.size() < 2)) broadcast = false;
+      RspFilter rspFilter = toJGroupsFilter(responseFilter);
+      // only a request waiting for a valid response can complete early, the others are collected once they complete
+      boolean collectOnArrival = responseCollector != null && mode == ResponseMode.WAIT_FOR_VALID_RESPONSE;
+      if (collectOnArrival)
+         rspFilter = new JGroupsResponseCollectorAdapter(responseCollector, jgAddressList == null ? membersSize - 1 : jgAddressList.size());
       RspList<Object> rsps = null;
       Response singleResponse = null;
       org.jgroups.Address singleJGAddress = null;
 
       if (broadcast) {
          rsps = dispatcher.broadcastRemoteCommands(rpcCommand, toJGroupsMode(mode), timeout, recipients != null,
-                                                   usePriorityQueue, toJGroupsFilter(responseFilter),
+                                                   usePriorityQueue, rspFilter,
                asyncMarshalling);
       } else {         
          if (jgAddressList == null || !jgAddressList.isEmpty()) {
@@ -515,7 +559,7 @@ usePriorityQueue, toJGroupsFilter(responseFilter),
                                                                   usePriorityQueue, asyncMarshalling);
                } else {
                   rsps = dispatcher.invokeRemoteCommands(jgAddressList, rpcCommand, toJGroupsMode(mode), timeout,
-                                                         recipients != null, usePriorityQueue, toJGroupsFilter(responseFilter),
+                                                         recipients != null, usePriorityQueue, rspFilter,
                         asyncMarshalling);
                }
             }
@@ -523,29 +567,138 @@ usePriorityQueue, toJGroupsFilter(responseFilter),
       }
 
       if (mode.isAsynchronous())
-         return Collections.emptyMap();// async case
+         return responseCollector == null ? Collections.emptyMap() : responseCollector.finish();// async case
 
-      Map<Address, Response> responses;
       if (rsps == null) {
-         if (singleJGAddress == null || (singleResponse == null && rpcCommand instanceof ClusteredGetCommand)) {
-            responses = Collections.emptyMap();
-         } else {
-            responses = Collections.singletonMap(fromJGroupsAddress(singleJGAddress), singleResponse);
+         boolean noResponse = singleJGAddress == null || (singleResponse == null && rpcCommand instanceof ClusteredGetCommand);
+         if (responseCollector == null) {
+            return noResponse ? Collections.emptyMap() : Collections.singletonMap(fromJGroupsAddress(singleJGAddress), singleResponse);
          }
-      } else {      
-         Map<Address, Response> retval = new HashMap<Address, Response>(rsps.size());
+         if (!noResponse) {
+            Address sender = fromJGroupsAddress(singleJGAddress);
+            if (checkResponse(singleResponse, sender) && singleResponse.isValid())
+               responseCollector.addResponse(sender, singleResponse);
+         }
+         return responseCollector.finish();
+      } else if (responseCollector == null) {
+         return parseResponses(rsps, responseFilter, ignoreLeavers);
+      } else {
+         return collectResponses(rsps, responseCollector, collectOnArrival, ignoreLeavers);
+      }
+   }
 
-         boolean noValidResponses = true;
-         for (Rsp<Object> rsp : rsps.values()) {
-            noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
-                  responseFilter != null, ignoreLeavers);
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, final ReplicableCommand rpcCommand,
+                                                                       ResponseMode mode, final long timeout, boolean usePriorityQueue,
+                                                                       final ResponseFilter responseFilter) {
+      if (mode.isAsynchronous() || (recipients != null && recipients.isEmpty())) {
+         // the synchronous variant doesn't wait for anything in these cases either
+         try {
+            invokeRemotely(recipients, rpcCommand, mode, timeout, usePriorityQueue, responseFilter);
+            return CompletableNotifyingFuture.completed(Collections.<Address, Response>emptyMap());
+         } catch (Exception e) {
+            return CompletableNotifyingFuture.failed(e);
+         }
+      }
+
+      if (trace)
+         log.tracef("dests=%s, command=%s, mode=%s, timeout=%s, not waiting for responses", recipients, rpcCommand, mode, timeout);
+      final boolean ignoreLeavers = mode == ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS || mode == ResponseMode.WAIT_FOR_VALID_RESPONSE
+            || mode == ResponseMode.PIPELINED;
+      if (recipients != null && !getMembers().containsAll(recipients)) {
+         if (ignoreLeavers) { // SYNCHRONOUS_IGNORE_LEAVERS || WAIT_FOR_VALID_RESPONSE
+            recipients = new HashSet<Address>(recipients);
+            recipients.retainAll(getMembers());
+         } else { // SYNCHRONOUS
+            return CompletableNotifyingFuture.failed(
+                  new SuspectException("One or more nodes have left the cluster while replicating command " + rpcCommand));
          }
+      }
+      if (!usePriorityQueue && (ResponseMode.SYNCHRONOUS == mode || ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS == mode))
+         usePriorityQueue = true;
+
+      List<org.jgroups.Address> jgAddressList = toJGroupsAddressListExcludingSelf(recipients);
+      int membersSize = members.size();
+      boolean broadcast = jgAddressList == null || recipients.size() == membersSize;
+      if (membersSize < 3 || (jgAddressList != null && jgAddressList.size() < 2)) broadcast = false;
+      if (!broadcast && jgAddressList == null) jgAddressList = toJGroupsAddressListExcludingSelf(members);
+      if (!broadcast && jgAddressList.isEmpty())
+         return CompletableNotifyingFuture.completed(Collections.<Address, Response>emptyMap());
+
+      final CompletableNotifyingFuture<Map<Address, Response>> result = new CompletableNotifyingFuture<Map<Address, Response>>();
+      final CompletableNotifyingFuture<RspList<Object>> rspFuture = dispatcher.invokeRemoteCommandsAsync(
+            broadcast ? null : jgAddressList, rpcCommand, toJGroupsMode(mode), timeout, usePriorityQueue,
+            toJGroupsFilter(responseFilter));
+      // nobody is blocked in JGroups waiting for these responses, so the timeout must be enforced here
+      final Future<?> timeoutTask = rspFuture.isDone() ? null : channel.getProtocolStack().getTransport().getTimer().schedule(new Runnable() {
+         @Override
+         public void run() {
+            rspFuture.completeExceptionally(new TimeoutException(String.format("Timed out after %s waiting for responses for %s",
+                                                                               Util.prettyPrintTime(timeout), rpcCommand)));
+         }
+      }, timeout, TimeUnit.MILLISECONDS);
+      rspFuture.attachListener(new FutureListener<RspList<Object>>() {
+         @Override
+         public void futureDone(Future<RspList<Object>> future) {
+            if (timeoutTask != null) timeoutTask.cancel(false);
+            try {
+               RspList<Object> rsps = future.get();
+               if (rsps.isEmpty() || containsOnlyNulls(rsps))
+                  result.complete(Collections.<Address, Response>emptyMap());
+               else
+                  result.complete(parseResponses(rsps, responseFilter, ignoreLeavers));
+            } catch (ExecutionException e) {
+               result.completeExceptionally(e.getCause());
+            } catch (Throwable t) {
+               result.completeExceptionally(t);
+            }
+         }
+      });
+      return result;
+   }
+
+   private Map<Address, Response> parseResponses(RspList<Object> rsps, ResponseFilter responseFilter, boolean ignoreLeavers) throws Exception {
+      Map<Address, Response> retval = new HashMap<Address, Response>(rsps.size());
+
+      boolean noValidResponses = true;
+      for (Rsp<Object> rsp : rsps.values()) {
+         noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
+               responseFilter != null, ignoreLeavers);
+      }
+
+      if (noValidResponses)
+         throw new TimeoutException("Timed out waiting for valid responses!");
+      return retval;
+   }
+
+   /**
+    * Checks the responses like {@link #parseResponses(RspList, ResponseFilter, boolean)}, but hands the valid ones to
+    * the collector instead of copying them into a map.
+    */
+   private <T> T collectResponses(RspList<Object> rsps, ResponseCollector<T> responseCollector, boolean collectedOnArrival,
+                                  boolean ignoreLeavers) throws Exception {
+      boolean noValidResponses = true;
+      boolean needMoreResponses = !collectedOnArrival;
+      for (Rsp<Object> rsp : rsps.values()) {
+         Address sender = fromJGroupsAddress(rsp.getSender());
+         Object value = rsp.getValue();
+         boolean received = checkReceivedResponse(value, rsp.getException(), rsp.wasSuspected(), rsp.wasReceived(), sender,
+                                                  collectedOnArrival, ignoreLeavers);
+         noValidResponses &= rsp.wasSuspected() || !rsp.wasReceived();
+         if (received && needMoreResponses && ((Response) value).isValid())
+            needMoreResponses = responseCollector.addResponse(sender, (Response) value);
+      }
+
+      if (noValidResponses)
+         throw new TimeoutException("Timed out waiting for valid responses!");
+      return responseCollector.finish();
+   }
 
-         if (noValidResponses)
-            throw new TimeoutException("Timed out waiting for valid responses!");
-         responses = retval;
+   private static boolean containsOnlyNulls(RspList<Object> rsps) {
+      for (Rsp<Object> r : rsps.values()) {
+         if (r.getValue() != null || !r.wasReceived() || r.wasSuspected()) return false;
       }
-      return responses;
+      return true;
    }
 
    @Override
@@ -573,6 +726,7 @@ private static org.jgroups.blocks.ResponseMode toJGroupsMode(ResponseMode mode)
             return org.jgroups.blocks.ResponseMode.GET_NONE;
          case SYNCHRONOUS:
          case SYNCHRONOUS_IGNORE_LEAVERS:
+         case PIPELINED:
             return org.jgroups.blocks.ResponseMode.GET_ALL;
          case WAIT_FOR_VALID_RESPONSE:
             return org.jgroups.blocks.ResponseMode.GET_FIRST;
@@ -630,6 +784,7 @@ public void viewAccepted(View newView) {
       List<Address> oldMembers = members;
       // we need a defensive copy anyway
       members = fromJGroupsAddressList(newMembers);
+      if (dispatcher != null) dispatcher.retainBatchQueues(newMembers);
 
       // Now that we have a view, figure out if we are the isCoordinator
       coordinator = fromJGroupsAddress(newView.getCreator());
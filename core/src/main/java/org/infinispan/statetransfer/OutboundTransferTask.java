@@ -26,6 +26,7 @@
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentAwareDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.loaders.CacheLoaderException;
@@ -152,11 +153,22 @@ public Set<Integer> getSegments() {
    public void run() {
       try {
          // send data container entries
-         for (InternalCacheEntry ice : dataContainer) {
-            Object key = ice.getKey();
-            int segmentId = readCh.getSegment(key);
-            if (segments.contains(segmentId)) {
-               sendEntry(ice, segmentId);
+         if (dataContainer instanceof SegmentAwareDataContainer
+               && ((SegmentAwareDataContainer) dataContainer).isAlignedWith(readCh)) {
+            // only visit the requested segments
+            SegmentAwareDataContainer segmentedContainer = (SegmentAwareDataContainer) dataContainer;
+            for (int segmentId : segments) {
+               for (Iterator<InternalCacheEntry> it = segmentedContainer.segmentIterator(segmentId); it.hasNext(); ) {
+                  sendEntry(it.next(), segmentId);
+               }
+            }
+         } else {
+            for (InternalCacheEntry ice : dataContainer) {
+               Object key = ice.getKey();
+               int segmentId = readCh.getSegment(key);
+               if (segments.contains(segmentId)) {
+                  sendEntry(ice, segmentId);
+               }
             }
          }
 
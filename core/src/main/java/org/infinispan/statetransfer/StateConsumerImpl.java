@@ -30,6 +30,7 @@
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentAwareDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
@@ -42,6 +43,7 @@
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheLoaderManager;
 import org.infinispan.loaders.CacheStore;
+import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.topology.CacheTopology;
@@ -82,6 +84,7 @@ public class StateConsumerImpl implements StateConsumer {
    private InterceptorChain interceptorChain;
    private InvocationContextContainer icc;
    private StateTransferLock stateTransferLock;
+   private CacheNotifier cacheNotifier;
    private long timeout;
    private boolean useVersionedPut;
    private boolean fetchEnabled;
@@ -127,7 +130,8 @@ public void init(Cache cache,
                     CacheLoaderManager cacheLoaderManager,
                     DataContainer dataContainer,
                     TransactionTable transactionTable,
-                    StateTransferLock stateTransferLock) {
+                    StateTransferLock stateTransferLock,
+                    CacheNotifier cacheNotifier) {
       this.cacheName = cache.getName();
       this.localTopologyManager = localTopologyManager;
       this.interceptorChain = interceptorChain;
@@ -139,6 +143,7 @@ public void init(Cache cache,
       this.dataContainer = dataContainer;
       this.transactionTable = transactionTable;
       this.stateTransferLock = stateTransferLock;
+      this.cacheNotifier = cacheNotifier;
 
       // we need to use a special form of PutKeyValueCommand that can apply versions too
       useVersionedPut = configuration.transaction().transactionMode().isTransactional() &&
@@ -481,16 +486,27 @@ private void discardSegments(Set<Integer> segments) {
          }
       }
 
+      SegmentAwareDataContainer segmentedContainer = getSegmentAwareDataContainer();
+      CacheStore cacheStore = getCacheStore();
       Set<Object> keysToRemove = new HashSet<Object>();
-      for (InternalCacheEntry ice : dataContainer) {
-         Object key = ice.getKey();
-         if (segments.contains(getSegment(key))) {
-            keysToRemove.add(key);
+      if (segmentedContainer != null && canDropSegments(cacheStore)) {
+         // nothing needs to see the discarded entries one by one, so release the segments at once
+         segmentedContainer.removeSegments(segments);
+         if (trace) log.tracef("Dropped segments %s, data container now has %d keys", segments, dataContainer.size());
+      } else if (segmentedContainer != null) {
+         for (int segmentId : segments) {
+            keysToRemove.addAll(segmentedContainer.segmentKeySet(segmentId));
+         }
+      } else {
+         for (InternalCacheEntry ice : dataContainer) {
+            Object key = ice.getKey();
+            if (segments.contains(getSegment(key))) {
+               keysToRemove.add(key);
+            }
          }
       }
 
       // we also remove keys from the cache store
-      CacheStore cacheStore = getCacheStore();
       if (cacheStore != null) {
          //todo [anistor] extend CacheStore interface to be able to specify a filter when loading keys (ie. keys should belong to desired segments)
          try {
@@ -521,6 +537,28 @@ private void discardSegments(Set<Integer> segments) {
       //todo [anistor] call CacheNotifier.notifyDataRehashed
    }
 
+   /**
+    * Checks whether the entries of discarded segments can be dropped from the data container without invalidating
+    * them one by one: they must not be kept as L1 entries, removed from a cache store or reported to listeners. The
+    * segments are discarded while installing the new topology, which no longer routes any write to them.
+    */
+   private boolean canDropSegments(CacheStore cacheStore) {
+      return cacheStore == null
+            && !(configuration.clustering().l1().enabled() && configuration.clustering().l1().onRehash())
+            && !cacheNotifier.hasInvalidationListeners();
+   }
+
+   /**
+    * Returns the data container if it is segmented the same way as the read consistent hash, or null otherwise.
+    */
+   private SegmentAwareDataContainer getSegmentAwareDataContainer() {
+      if (dataContainer instanceof SegmentAwareDataContainer
+            && ((SegmentAwareDataContainer) dataContainer).isAlignedWith(cacheTopology.getReadConsistentHash())) {
+         return (SegmentAwareDataContainer) dataContainer;
+      }
+      return null;
+   }
+
    private int getSegment(Object key) {
       // there we can use any CH version because the routing table is not involved
       return cacheTopology.getReadConsistentHash().getSegment(key);
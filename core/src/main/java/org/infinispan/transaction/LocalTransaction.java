@@ -64,6 +64,10 @@ public abstract class LocalTransaction extends AbstractCacheTransaction {
 
    private volatile boolean isFromRemoteSite;
 
+   private volatile long snapshotId = NO_SNAPSHOT;
+
+   public static final long NO_SNAPSHOT = -1;
+
    public LocalTransaction(Transaction transaction, GlobalTransaction tx, boolean implicitTransaction, int viewId) {
       super(tx, viewId);
       this.transaction = transaction;
@@ -201,4 +205,16 @@ public boolean isFromRemoteSite() {
    public void setFromRemoteSite(boolean fromRemoteSite) {
       isFromRemoteSite = fromRemoteSite;
    }
+
+   /**
+    * @return the id of the snapshot this transaction reads from, or {@link #NO_SNAPSHOT} if it hasn't opened one.
+    * @see org.infinispan.container.versioning.SnapshotManager
+    */
+   public long getSnapshotId() {
+      return snapshotId;
+   }
+
+   public void setSnapshotId(long snapshotId) {
+      this.snapshotId = snapshotId;
+   }
 }
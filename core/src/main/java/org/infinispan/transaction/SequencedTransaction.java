@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.transaction;
+
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.marshall.AbstractExternalizer;
+import org.infinispan.marshall.Ids;
+import org.infinispan.transaction.xa.GlobalTransaction;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A prepare applied by a member in {@link TransactionProtocol#TOTAL_ORDER total order}, as reported to a new sequencer
+ * so that it can deliver the prepares of its predecessor to the owners which missed them.
+ *
+ * @see TotalOrderManager#collect(int)
+ * @since 5.2
+ */
+public class SequencedTransaction implements Comparable<SequencedTransaction> {
+
+   private final GlobalTransaction globalTransaction;
+
+   private final int epoch;
+
+   private final long sequenceNumber;
+
+   private final PrepareCommand prepareCommand;
+
+   public SequencedTransaction(GlobalTransaction globalTransaction, int epoch, long sequenceNumber, PrepareCommand prepareCommand) {
+      this.globalTransaction = globalTransaction;
+      this.epoch = epoch;
+      this.sequenceNumber = sequenceNumber;
+      this.prepareCommand = prepareCommand;
+   }
+
+   public GlobalTransaction getGlobalTransaction() {
+      return globalTransaction;
+   }
+
+   /**
+    * @return the epoch of the sequencer which assigned the sequence number
+    */
+   public int getEpoch() {
+      return epoch;
+   }
+
+   public long getSequenceNumber() {
+      return sequenceNumber;
+   }
+
+   /**
+    * @return the prepare, or null if the sequencer reported that all its owners applied it
+    */
+   public PrepareCommand getPrepareCommand() {
+      return prepareCommand;
+   }
+
+   public boolean isStable() {
+      return prepareCommand == null;
+   }
+
+   @Override
+   public int compareTo(SequencedTransaction other) {
+      if (epoch != other.epoch) return epoch < other.epoch ? -1 : 1;
+      return sequenceNumber < other.sequenceNumber ? -1 : sequenceNumber == other.sequenceNumber ? 0 : 1;
+   }
+
+   @Override
+   public String toString() {
+      return "SequencedTransaction{" +
+            "globalTransaction=" + globalTransaction +
+            ", epoch=" + epoch +
+            ", sequenceNumber=" + sequenceNumber +
+            ", stable=" + isStable() +
+            '}';
+   }
+
+   public static class Externalizer extends AbstractExternalizer<SequencedTransaction> {
+
+      @Override
+      public Integer getId() {
+         return Ids.SEQUENCED_TRANSACTION;
+      }
+
+      @Override
+      public Set<Class<? extends SequencedTransaction>> getTypeClasses() {
+         return Collections.<Class<? extends SequencedTransaction>>singleton(SequencedTransaction.class);
+      }
+
+      @Override
+      public void writeObject(ObjectOutput output, SequencedTransaction object) throws IOException {
+         output.writeObject(object.globalTransaction);
+         output.writeInt(object.epoch);
+         output.writeLong(object.sequenceNumber);
+         output.writeObject(object.prepareCommand);
+      }
+
+      @Override
+      public SequencedTransaction readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         GlobalTransaction globalTransaction = (GlobalTransaction) input.readObject();
+         int epoch = input.readInt();
+         long sequenceNumber = input.readLong();
+         PrepareCommand prepareCommand = (PrepareCommand) input.readObject();
+         return new SequencedTransaction(globalTransaction, epoch, sequenceNumber, prepareCommand);
+      }
+   }
+}
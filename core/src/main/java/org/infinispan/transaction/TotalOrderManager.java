@@ -0,0 +1,110 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.transaction;
+
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.remoting.transport.Address;
+
+import java.util.List;
+
+/**
+ * Commits optimistic transactions with the {@link TransactionProtocol#TOTAL_ORDER total order} protocol.
+ * <p/>
+ * The coordinator of the cluster acts as the sequencer: it applies the one phase prepares of all transactions one at a
+ * time and sends them to the owners in that same order, over a single in-order channel per owner.  Every owner
+ * therefore applies the prepares in the same order, one at a time, so they never contend for locks and all reach the
+ * same outcome for each transaction without a second phase.  A transaction is committed once all the owners have
+ * applied its prepare, the originator included, so the originator doesn't commit its local copy of the transaction.
+ * <p/>
+ * When the coordinator leaves, some of the prepares it sent may have been applied by some of their owners only.  Before
+ * sequencing anything, the new coordinator therefore collects the prepares applied by every member and fences its
+ * predecessor off, so that no member applies any more of its prepares.  It then delivers the prepares which some owners
+ * missed to those owners, in their original order, and only then starts sequencing.  The originators of the prepares
+ * in flight send them to the new sequencer again, which only sequences those that were not applied.
+ * <p/>
+ * A prepare which fails on the sequencer is rolled back, as no other owner has received it yet.  Once the sequencer has
+ * applied it, the transaction is committed: an owner which fails to apply it, e.g. because its cache store or a
+ * listener throws, only logs the failure, as in the asynchronous modes, and keeps a stale copy of the keys until they
+ * are written again.
+ * <p/>
+ * Only used if {@link org.infinispan.configuration.cache.TransactionConfiguration#transactionProtocol()} is
+ * {@link TransactionProtocol#TOTAL_ORDER}.
+ *
+ * @since 5.2
+ */
+@Scope(Scopes.NAMED_CACHE)
+public interface TotalOrderManager {
+
+   /**
+    * @return true if transactions are committed with the total order protocol, false otherwise.
+    */
+   boolean isEnabled();
+
+   /**
+    * Commits a transaction originated on this node, returning once all the owners have applied it.
+    *
+    * @param prepareCommand the one phase prepare of the transaction
+    * @throws Throwable the failure of the prepare if it couldn't be applied, in which case the transaction must be rolled
+    *                   back locally
+    */
+   void commit(PrepareCommand prepareCommand) throws Throwable;
+
+   /**
+    * Assigns a prepare its place in the total order, applies it locally and sends it to the other owners, returning
+    * once they have all applied it.  Only invoked on the sequencer.
+    *
+    * @param prepareCommand the one phase prepare of the transaction
+    * @param origin         the originator of the transaction
+    */
+   void sequence(PrepareCommand prepareCommand, Address origin) throws Throwable;
+
+   /**
+    * Applies a prepare received from the sequencer, unless it was already applied.  Invoked on the owners, in the order
+    * the prepares were sequenced.
+    *
+    * @param prepareCommand       the one phase prepare of the transaction
+    * @param epoch                the epoch of the sequencer
+    * @param sequenceNumber       the place of the prepare in the total order
+    * @param stableSequenceNumber the sequence numbers up to this one have been applied by all their owners
+    * @param redelivery           whether the prepare was sequenced by a previous sequencer
+    * @throws org.infinispan.CacheException if a newer sequencer has taken over
+    */
+   void deliver(PrepareCommand prepareCommand, int epoch, long sequenceNumber, long stableSequenceNumber,
+                boolean redelivery) throws Throwable;
+
+   /**
+    * Stops applying the prepares of the sequencers older than the given epoch and returns the transactions applied
+    * recently, along with their prepare unless all their owners are known to have applied it.  Invoked on all the
+    * members by a new sequencer.
+    *
+    * @param epoch the epoch of the new sequencer
+    */
+   List<SequencedTransaction> collect(int epoch);
+
+   /**
+    * @return the number of prepares sequenced by this node
+    */
+   long getSequence();
+}
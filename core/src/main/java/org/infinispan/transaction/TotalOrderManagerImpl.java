@@ -0,0 +1,440 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.transaction;
+
+import org.infinispan.CacheException;
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.tx.TotalOrderPrepareCommand;
+import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.remoting.responses.ExceptionResponse;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.jgroups.SuspectException;
+import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.util.concurrent.NotifyingFuture;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.rhq.helpers.pluginAnnotations.agent.DataType;
+import org.rhq.helpers.pluginAnnotations.agent.DisplayType;
+import org.rhq.helpers.pluginAnnotations.agent.MeasurementType;
+import org.rhq.helpers.pluginAnnotations.agent.Metric;
+import org.rhq.helpers.pluginAnnotations.agent.Operation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Default {@link TotalOrderManager}.  The sequenced prepares are sent with {@link ResponseMode#PIPELINED}, so they are
+ * delivered to each owner in the order the sequencer sent them and executed one at a time by the transport, and the
+ * responses tell the sequencer when they have been applied.
+ * <p/>
+ * A sequencer's epoch is the view id in which it took over.  Each owner remembers the transactions it applied, and
+ * rejects the prepares of a sequencer older than the newest one it heard from.  A prepare is stable once all its owners
+ * have applied it: the sequencer tells the owners the highest stable sequence number along with the next prepares,
+ * and they then drop the prepare.  They still remember the transaction for the replication timeout, the longest an
+ * originator waits for the sequencer before it sends the prepare again.
+ *
+ * @since 5.2
+ */
+@MBean(objectName = "TotalOrderManager", description = "Sequences the transactions committed with the total order protocol")
+public class TotalOrderManagerImpl implements TotalOrderManager {
+
+   private static final Log log = LogFactory.getLog(TotalOrderManagerImpl.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private static final int NO_EPOCH = -1;
+
+   private RpcManager rpcManager;
+   private CommandsFactory commandsFactory;
+   private ClusteringDependentLogic clusteringLogic;
+   private Configuration configuration;
+   private boolean enabled;
+   private long timeout;
+
+   // the order in which the prepares are applied locally must be the order in which they are sent
+   private final ReentrantLock sequencerLock = new ReentrantLock(true);
+   private volatile long sequence;
+   // guarded by the sequencer lock
+   private int sequencerEpoch = NO_EPOCH;
+   private Set<GlobalTransaction> recoveredTransactions = Collections.emptySet();
+   private final ConcurrentSkipListSet<Long> unacknowledged = new ConcurrentSkipListSet<Long>();
+
+   // the state of this node as an owner, guarded by the delivery lock
+   private final ReentrantLock deliveryLock = new ReentrantLock();
+   private int fencedEpoch = NO_EPOCH;
+   private final Map<GlobalTransaction, DeliveredTransaction> delivered = new HashMap<GlobalTransaction, DeliveredTransaction>();
+   private final Map<GlobalTransaction, DeliveredTransaction> unstable = new LinkedHashMap<GlobalTransaction, DeliveredTransaction>();
+   private final LinkedList<DeliveredTransaction> stable = new LinkedList<DeliveredTransaction>();
+
+   private final AtomicLong committedTransactions = new AtomicLong(0);
+   private final AtomicLong failedTransactions = new AtomicLong(0);
+
+   @Inject
+   public void inject(RpcManager rpcManager, CommandsFactory commandsFactory, ClusteringDependentLogic clusteringLogic,
+                      Configuration configuration) {
+      this.rpcManager = rpcManager;
+      this.commandsFactory = commandsFactory;
+      this.clusteringLogic = clusteringLogic;
+      this.configuration = configuration;
+   }
+
+   @Start
+   public void start() {
+      enabled = rpcManager != null && configuration.transaction().transactionMode().isTransactional()
+            && configuration.transaction().transactionProtocol().isTotalOrder();
+      timeout = configuration.clustering().sync().replTimeout();
+   }
+
+   @Override
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   @Override
+   public void commit(PrepareCommand prepareCommand) throws Throwable {
+      try {
+         while (true) {
+            Address sequencer = rpcManager.getTransport().getCoordinator();
+            if (trace) log.tracef("Committing %s in total order, sequencer is %s", prepareCommand.getGlobalTransaction(), sequencer);
+            try {
+               if (sequencer.equals(rpcManager.getAddress())) {
+                  // applied as if it had been received from a remote originator, leaving the local transaction untouched
+                  GlobalTransaction gtx = (GlobalTransaction) prepareCommand.getGlobalTransaction().clone();
+                  PrepareCommand copy = commandsFactory.buildPrepareCommand(gtx, Arrays.asList(prepareCommand.getModifications()), true);
+                  commandsFactory.initializeReplicableCommand(copy, true);
+                  sequence(copy, sequencer);
+               } else {
+                  // the sequencer applies the prepare on all the owners before replying
+                  TotalOrderPrepareCommand command = commandsFactory.buildTotalOrderPrepareCommand(
+                        TotalOrderPrepareCommand.Type.SEQUENCE, prepareCommand, NO_EPOCH, 0, 0);
+                  checkResponses(rpcManager.invokeRemotely(Collections.singleton(sequencer), command,
+                                                           ResponseMode.SYNCHRONOUS, timeout, true));
+               }
+               break;
+            } catch (SuspectException e) {
+               // the new sequencer knows whether the prepare was applied, and only sequences it if it wasn't
+               if (sequencer.equals(rpcManager.getTransport().getCoordinator())) throw e;
+               if (trace) log.tracef("Sequencer %s left, sending %s to the new sequencer", sequencer, prepareCommand.getGlobalTransaction());
+            }
+         }
+         committedTransactions.incrementAndGet();
+      } catch (Throwable t) {
+         failedTransactions.incrementAndGet();
+         throw t;
+      }
+   }
+
+   @Override
+   public void sequence(PrepareCommand prepareCommand, Address origin) throws Throwable {
+      NotifyingFuture<Map<Address, Response>> acknowledgements;
+      long seqNo;
+      sequencerLock.lock();
+      try {
+         if (sequencerEpoch == NO_EPOCH) takeOver();
+         if (recoveredTransactions.contains(prepareCommand.getGlobalTransaction())) {
+            if (trace) log.tracef("%s was applied before this node became the sequencer", prepareCommand.getGlobalTransaction());
+            return;
+         }
+         long stableSeqNo = stableSequenceNumber();
+         seqNo = ++sequence;
+         if (trace) log.tracef("Sequencing %s as %s", prepareCommand.getGlobalTransaction(), seqNo);
+         unacknowledged.add(seqNo);
+         try {
+            prepareCommand.setOrigin(origin);
+            // nobody else has the prepare yet, so if it can't be applied here the transaction can still roll back
+            deliver(prepareCommand, sequencerEpoch, seqNo, stableSeqNo, false, true);
+            acknowledgements = send(TotalOrderPrepareCommand.Type.DELIVER, prepareCommand, sequencerEpoch, seqNo, stableSeqNo);
+         } catch (Throwable t) {
+            unacknowledged.remove(seqNo);
+            throw t;
+         }
+      } finally {
+         sequencerLock.unlock();
+      }
+      // the transaction is committed now that the sequencer applied it: the owners which didn't acknowledge it either
+      // left, logged the failure to apply it, or were fenced off and get it again from the next sequencer
+      try {
+         Map<Address, Response> responses = acknowledgements.get();
+         for (Map.Entry<Address, Response> response : responses.entrySet()) {
+            if (response.getValue() instanceof ExceptionResponse)
+               log.warnf(((ExceptionResponse) response.getValue()).getException(), "%s was committed but %s did not acknowledge it",
+                         prepareCommand.getGlobalTransaction(), response.getKey());
+         }
+      } catch (ExecutionException e) {
+         log.warnf(e.getCause(), "%s was committed but not all its owners acknowledged it", prepareCommand.getGlobalTransaction());
+      } finally {
+         unacknowledged.remove(seqNo);
+      }
+   }
+
+   /**
+    * Fences the previous sequencer off and delivers the prepares it sequenced to the owners which missed them, in the
+    * order it sequenced them, so that all the owners end up applying the same prepares in the same order.
+    */
+   @SuppressWarnings("unchecked")
+   private void takeOver() throws Throwable {
+      int epoch = rpcManager.getTransport().getViewId();
+      if (trace) log.tracef("Taking over as sequencer in epoch %s", epoch);
+      List<SequencedTransaction> applied = new ArrayList<SequencedTransaction>(collect(epoch));
+      TotalOrderPrepareCommand collect = commandsFactory.buildTotalOrderPrepareCommand(
+            TotalOrderPrepareCommand.Type.COLLECT, null, epoch, 0, 0);
+      Map<Address, Response> responses = rpcManager.invokeRemotely(null, collect,
+                                                                   ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS, timeout, true);
+      checkResponses(responses);
+      for (Response response : responses.values()) {
+         if (response instanceof SuccessfulResponse)
+            applied.addAll((List<SequencedTransaction>) ((SuccessfulResponse) response).getResponseValue());
+      }
+
+      Set<GlobalTransaction> recovered = new HashSet<GlobalTransaction>();
+      Set<GlobalTransaction> stableTransactions = new HashSet<GlobalTransaction>();
+      for (SequencedTransaction transaction : applied) {
+         recovered.add(transaction.getGlobalTransaction());
+         if (transaction.isStable()) stableTransactions.add(transaction.getGlobalTransaction());
+      }
+      Collections.sort(applied);
+      long stableSeqNo = sequence;
+      List<NotifyingFuture<Map<Address, Response>>> acknowledgements = new ArrayList<NotifyingFuture<Map<Address, Response>>>();
+      Set<GlobalTransaction> redelivered = new HashSet<GlobalTransaction>();
+      for (SequencedTransaction transaction : applied) {
+         GlobalTransaction gtx = transaction.getGlobalTransaction();
+         if (stableTransactions.contains(gtx) || !redelivered.add(gtx)) continue;
+         PrepareCommand prepareCommand = transaction.getPrepareCommand();
+         commandsFactory.initializeReplicableCommand(prepareCommand, true);
+         prepareCommand.setOrigin(rpcManager.getAddress());
+         long seqNo = ++sequence;
+         if (trace) log.tracef("Delivering %s again as %s", gtx, seqNo);
+         deliver(prepareCommand, epoch, seqNo, stableSeqNo, true, false);
+         acknowledgements.add(send(TotalOrderPrepareCommand.Type.REDELIVER, prepareCommand, epoch, seqNo, stableSeqNo));
+      }
+      for (NotifyingFuture<Map<Address, Response>> future : acknowledgements) {
+         try {
+            checkResponses(future.get());
+         } catch (ExecutionException e) {
+            throw e.getCause();
+         }
+      }
+      recoveredTransactions = recovered;
+      sequencerEpoch = epoch;
+   }
+
+   @Override
+   public void deliver(PrepareCommand prepareCommand, int epoch, long sequenceNumber, long stableSequenceNumber,
+                       boolean redelivery) throws Throwable {
+      deliver(prepareCommand, epoch, sequenceNumber, stableSequenceNumber, redelivery, false);
+   }
+
+   /**
+    * @param failOnError whether a failure to apply the prepare is thrown.  Only the sequencer does so, when it applies
+    *                    a prepare before sending it to any other owner: once it has, the transaction is committed and
+    *                    the owners can't roll it back, so, as in the asynchronous modes, they can only log the failure.
+    */
+   private void deliver(PrepareCommand prepareCommand, int epoch, long sequenceNumber, long stableSequenceNumber,
+                        boolean redelivery, boolean failOnError) throws Throwable {
+      GlobalTransaction gtx = prepareCommand.getGlobalTransaction();
+      deliveryLock.lock();
+      try {
+         if (epoch < fencedEpoch)
+            throw new CacheException("Not applying " + gtx + ", sequenced in epoch " + epoch
+                                           + ": a new sequencer took over in epoch " + fencedEpoch);
+         fencedEpoch = epoch;
+         markStable(epoch, stableSequenceNumber, redelivery);
+         if (delivered.containsKey(gtx)) {
+            if (trace) log.tracef("%s was already applied, ignoring it", gtx);
+            return;
+         }
+         if (trace) log.tracef("Applying %s, sequenced as %s in epoch %s", gtx, sequenceNumber, epoch);
+         try {
+            prepareCommand.perform(null);
+         } catch (Throwable t) {
+            if (failOnError) throw t;
+            log.errorf(t, "Failed to apply %s, sequenced as %s in epoch %s, so this node is now inconsistent with the other owners",
+                       gtx, sequenceNumber, epoch);
+         }
+         DeliveredTransaction transaction = new DeliveredTransaction(gtx, epoch, sequenceNumber, prepareCommand);
+         delivered.put(gtx, transaction);
+         unstable.put(gtx, transaction);
+      } finally {
+         deliveryLock.unlock();
+      }
+   }
+
+   private void markStable(int epoch, long stableSequenceNumber, boolean redelivery) {
+      long now = System.currentTimeMillis();
+      for (Iterator<DeliveredTransaction> it = unstable.values().iterator(); it.hasNext(); ) {
+         DeliveredTransaction transaction = it.next();
+         // a new sequencer delivers the prepares of the previous ones again before it sequences anything
+         if (transaction.epoch == epoch ? transaction.sequenceNumber <= stableSequenceNumber : !redelivery) {
+            it.remove();
+            transaction.prepareCommand = null;
+            transaction.stableSince = now;
+            stable.addLast(transaction);
+         }
+      }
+      while (!stable.isEmpty() && stable.getFirst().stableSince + timeout < now) {
+         delivered.remove(stable.removeFirst().globalTransaction);
+      }
+   }
+
+   @Override
+   public List<SequencedTransaction> collect(int epoch) {
+      deliveryLock.lock();
+      try {
+         if (epoch < fencedEpoch)
+            throw new CacheException("Sequencer of epoch " + epoch + " is older than the sequencer of epoch " + fencedEpoch);
+         fencedEpoch = epoch;
+         List<SequencedTransaction> transactions = new ArrayList<SequencedTransaction>(delivered.size());
+         for (DeliveredTransaction transaction : delivered.values()) {
+            transactions.add(new SequencedTransaction(transaction.globalTransaction, transaction.epoch,
+                                                      transaction.sequenceNumber, transaction.prepareCommand));
+         }
+         if (trace) log.tracef("Fenced the sequencers older than epoch %s, applied transactions are %s", epoch, transactions);
+         return transactions;
+      } finally {
+         deliveryLock.unlock();
+      }
+   }
+
+   private long stableSequenceNumber() {
+      Long oldest = unacknowledged.ceiling(Long.MIN_VALUE);
+      return oldest == null ? sequence : oldest - 1;
+   }
+
+   private NotifyingFuture<Map<Address, Response>> send(TotalOrderPrepareCommand.Type type, PrepareCommand prepareCommand,
+                                                        int epoch, long seqNo, long stableSeqNo) {
+      TotalOrderPrepareCommand command = commandsFactory.buildTotalOrderPrepareCommand(type, prepareCommand, epoch,
+                                                                                       seqNo, stableSeqNo);
+      return rpcManager.invokeRemotelyAsync(recipients(prepareCommand), command, ResponseMode.PIPELINED, timeout, false, null);
+   }
+
+   private Collection<Address> recipients(PrepareCommand prepareCommand) {
+      Collection<Address> owners = null;
+      if (!containsClear(prepareCommand)) owners = clusteringLogic.getOwners(prepareCommand.getAffectedKeys());
+      if (owners == null) owners = rpcManager.getTransport().getMembers();
+      // Always address an explicit list, never the whole cluster: the transport then uses unicasts whatever the
+      // size of the cluster, and the order of the prepares is only preserved within one kind of message.
+      List<Address> recipients = new ArrayList<Address>(owners.size());
+      for (Address owner : owners) {
+         if (!owner.equals(rpcManager.getAddress())) recipients.add(owner);
+      }
+      return recipients;
+   }
+
+   private static boolean containsClear(PrepareCommand prepareCommand) {
+      for (WriteCommand modification : prepareCommand.getModifications()) {
+         if (modification instanceof ClearCommand) return true;
+      }
+      return false;
+   }
+
+   private static void checkResponses(Map<Address, Response> responses) throws Exception {
+      for (Response response : responses.values()) {
+         if (response instanceof ExceptionResponse) throw ((ExceptionResponse) response).getException();
+      }
+   }
+
+   @Override
+   @ManagedAttribute(description = "Number of transactions sequenced by this node")
+   @Metric(displayName = "Sequenced transactions", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getSequence() {
+      return sequence;
+   }
+
+   @ManagedAttribute(description = "Number of local transactions committed in total order")
+   @Metric(displayName = "Committed transactions", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getCommittedTransactions() {
+      return committedTransactions.get();
+   }
+
+   @ManagedAttribute(description = "Number of local transactions whose prepare failed and which were rolled back")
+   @Metric(displayName = "Failed transactions", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getFailedTransactions() {
+      return failedTransactions.get();
+   }
+
+   @ManagedAttribute(description = "Whether this node is currently the sequencer of the total order protocol")
+   @Metric(displayName = "Is sequencer", dataType = DataType.TRAIT)
+   public boolean isSequencer() {
+      return enabled && rpcManager.getTransport().isCoordinator();
+   }
+
+   @ManagedAttribute(description = "Number of transactions this node applied recently, as an owner")
+   @Metric(displayName = "Applied transactions", displayType = DisplayType.SUMMARY)
+   public int getAppliedTransactions() {
+      deliveryLock.lock();
+      try {
+         return delivered.size();
+      } finally {
+         deliveryLock.unlock();
+      }
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component")
+   @Operation(displayName = "Reset statistics")
+   public void resetStatistics() {
+      committedTransactions.set(0);
+      failedTransactions.set(0);
+   }
+
+   private static class DeliveredTransaction {
+      final GlobalTransaction globalTransaction;
+      final int epoch;
+      final long sequenceNumber;
+      // dropped once all the owners have applied it
+      PrepareCommand prepareCommand;
+      long stableSince;
+
+      DeliveredTransaction(GlobalTransaction globalTransaction, int epoch, long sequenceNumber, PrepareCommand prepareCommand) {
+         this.globalTransaction = globalTransaction;
+         this.epoch = epoch;
+         this.sequenceNumber = sequenceNumber;
+         this.prepareCommand = prepareCommand;
+      }
+   }
+}
@@ -29,12 +29,14 @@
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.Configurations;
+import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.InvocationContextContainer;
 import org.infinispan.context.impl.LocalTxInvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -42,6 +44,8 @@
 import javax.transaction.Transaction;
 import javax.transaction.xa.XAException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static javax.transaction.xa.XAResource.XA_OK;
 import static javax.transaction.xa.XAResource.XA_RDONLY;
@@ -63,18 +67,24 @@ public class TransactionCoordinator {
    private TransactionTable txTable;
    private Configuration configuration;
    private CommandCreator commandCreator;
+   private TotalOrderManager totalOrderManager;
+   private CacheNotifier notifier;
    private volatile boolean shuttingDown = false;
+   private final AtomicLong readOnlyCompletions = new AtomicLong(0);
 
    boolean trace;
 
    @Inject
    public void init(CommandsFactory commandsFactory, InvocationContextContainer icc, InterceptorChain invoker,
-                    TransactionTable txTable, Configuration configuration) {
+                    TransactionTable txTable, Configuration configuration, TotalOrderManager totalOrderManager,
+                    CacheNotifier notifier) {
       this.commandsFactory = commandsFactory;
       this.icc = icc;
       this.invoker = invoker;
       this.txTable = txTable;
       this.configuration = configuration;
+      this.totalOrderManager = totalOrderManager;
+      this.notifier = notifier;
       trace = log.isTraceEnabled();
    }
 
@@ -126,6 +136,11 @@ public final int prepare(LocalTransaction localTransaction) throws XAException {
    public final int prepare(LocalTransaction localTransaction, boolean replayEntryWrapping) throws XAException {
       validateNotMarkedForRollback(localTransaction);
 
+      if (isReadOnlyWithoutLocks(localTransaction)) {
+         completeReadOnly(localTransaction);
+         return XA_RDONLY;
+      }
+
       if (Configurations.isOnePhaseCommit(configuration) || is1PcForAutoCommitTransaction(localTransaction)) {
          if (trace) log.tracef("Received prepare for tx: %s. Skipping call as 1PC will be used.", localTransaction);
          return XA_OK;
@@ -164,6 +179,10 @@ public final int prepare(LocalTransaction localTransaction, boolean replayEntryW
 
    public void commit(LocalTransaction localTransaction, boolean isOnePhase) throws XAException {
       if (trace) log.tracef("Committing transaction %s", localTransaction.getGlobalTransaction());
+      if (!localTransaction.isMarkedForRollback() && isReadOnlyWithoutLocks(localTransaction)) {
+         completeReadOnly(localTransaction);
+         return;
+      }
       LocalTxInvocationContext ctx = icc.createTxInvocationContext();
       ctx.setLocalTransaction(localTransaction);
       if (Configurations.isOnePhaseCommit(configuration) || isOnePhase || is1PcForAutoCommitTransaction(localTransaction)) {
@@ -172,7 +191,12 @@ public void commit(LocalTransaction localTransaction, boolean isOnePhase) throws
          if (trace) log.trace("Doing an 1PC prepare call on the interceptor chain");
          PrepareCommand command = commandsFactory.buildPrepareCommand(localTransaction.getGlobalTransaction(), localTransaction.getModifications(), true);
          try {
-            invoker.invoke(ctx, command);
+            if (totalOrderManager.isEnabled() && !localTransaction.isReadOnly()) {
+               // the owners, this node included, apply the prepare as they receive it from the sequencer
+               totalOrderManager.commit(command);
+            } else {
+               invoker.invoke(ctx, command);
+            }
          } catch (Throwable e) {
             handleCommitFailure(e, localTransaction, true);
          }
@@ -241,6 +265,48 @@ private void validateNotMarkedForRollback(LocalTransaction localTransaction) thr
       }
    }
 
+   /**
+    * Returns the number of transactions that only read and were completed without running the prepare and commit
+    * commands through the interceptor chain.
+    */
+   public long getReadOnlyCompletions() {
+      return readOnlyCompletions.get();
+   }
+
+   public void resetStatistics() {
+      readOnlyCompletions.set(0);
+   }
+
+   /**
+    * A transaction that didn't modify anything and doesn't hold any lock, local or remote, has nothing to replicate,
+    * release or write, so it can complete without invoking the interceptor chain or the other nodes.
+    */
+   private boolean isReadOnlyWithoutLocks(LocalTransaction localTransaction) {
+      List<WriteCommand> modifications = localTransaction.getModifications();
+      if (modifications != null && !modifications.isEmpty()) return false;
+      if (!localTransaction.getLockedKeys().isEmpty() || !localTransaction.getBackupLockedKeys().isEmpty()
+            || !localTransaction.getRemoteLocksAcquired().isEmpty()) return false;
+      Map<Object, CacheEntry> lookedUpEntries = localTransaction.getLookedUpEntries();
+      if (lookedUpEntries != null) {
+         // writes forced to CACHE_MODE_LOCAL are not recorded as modifications but still need committing
+         for (CacheEntry entry : lookedUpEntries.values()) {
+            if (entry.isChanged()) return false;
+         }
+      }
+      return true;
+   }
+
+   private void completeReadOnly(LocalTransaction localTransaction) {
+      // synchronizations and 1PC XA commits may complete the transaction twice: only the first one counts
+      if (txTable.removeLocalTransaction(localTransaction)) {
+         if (trace) log.tracef("Completing read only transaction %s locally", localTransaction.getGlobalTransaction());
+         readOnlyCompletions.incrementAndGet();
+         LocalTxInvocationContext ctx = icc.createTxInvocationContext();
+         ctx.setLocalTransaction(localTransaction);
+         notifier.notifyTransactionCompleted(localTransaction.getGlobalTransaction(), true, ctx);
+      }
+   }
+
    private boolean is1PcForAutoCommitTransaction(LocalTransaction localTransaction) {
       return configuration.transaction().use1PcForAutoCommitTransactions() && localTransaction.isImplicitTransaction();
    }
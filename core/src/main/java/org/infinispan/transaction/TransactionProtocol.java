@@ -0,0 +1,41 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.transaction;
+
+/**
+ * Defines the commit protocols available for optimistic transactional caches.
+ * <p/>
+ * {@link #DEFAULT} is the classic two phase commit: locks are acquired on all the owners during prepare and released
+ * on commit or rollback.  With {@link #TOTAL_ORDER} the prepares of all transactions are sequenced by a single member
+ * of the cluster and applied by every member in that same order, so they are validated and committed in a single
+ * phase without acquiring locks remotely and without deadlocks between concurrent transactions.
+ *
+ * @since 5.2
+ */
+public enum TransactionProtocol {
+   DEFAULT, TOTAL_ORDER;
+
+   public boolean isTotalOrder() {
+      return this == TOTAL_ORDER;
+   }
+}
@@ -31,6 +31,7 @@
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.Configurations;
+import org.infinispan.container.versioning.SnapshotManager;
 import org.infinispan.context.InvocationContextContainer;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.factories.annotations.Inject;
@@ -80,6 +81,10 @@ public class TransactionTable {
    private static final Log log = LogFactory.getLog(TransactionTable.class);
 
    private ConcurrentMap<Transaction, LocalTransaction> localTransactions;
+   /**
+    * Local transactions indexed by their {@link GlobalTransaction}, which caches its hash code.
+    */
+   private ConcurrentMap<GlobalTransaction, LocalTransaction> localTransactionsByGtx;
    private ConcurrentMap<GlobalTransaction, RemoteTransaction> remoteTransactions;
 
    private final StaleTransactionCleanupService cleanupService = new StaleTransactionCleanupService(this);
@@ -104,13 +109,15 @@ public class TransactionTable {
    private volatile int currentViewId = CACHE_STOPPED_VIEW_ID;
    private volatile boolean useStrictTopologyIdComparison = true;
    private String cacheName;
+   private SnapshotManager snapshotManager;
 
    @Inject
    public void initialize(RpcManager rpcManager, Configuration configuration,
                           InvocationContextContainer icc, InterceptorChain invoker, CacheNotifier notifier,
                           TransactionFactory gtf, TransactionCoordinator txCoordinator,
                           TransactionSynchronizationRegistry transactionSynchronizationRegistry,
-                          CommandsFactory commandsFactory, ClusteringDependentLogic clusteringDependentLogic, Cache cache) {
+                          CommandsFactory commandsFactory, ClusteringDependentLogic clusteringDependentLogic, Cache cache,
+                          SnapshotManager snapshotManager) {
       this.rpcManager = rpcManager;
       this.configuration = configuration;
       this.icc = icc;
@@ -122,6 +129,7 @@ public void initialize(RpcManager rpcManager, Configuration configuration,
       this.commandsFactory = commandsFactory;
       this.clusteringLogic = clusteringDependentLogic;
       this.cacheName = cache.getName();
+      this.snapshotManager = snapshotManager;
    }
 
    @Start(priority = 9) // Start before cache loader manager
@@ -129,6 +137,7 @@ public void initialize(RpcManager rpcManager, Configuration configuration,
    private void start() {
       final int concurrencyLevel = configuration.locking().concurrencyLevel();
       localTransactions = ConcurrentMapFactory.makeConcurrentMap(concurrencyLevel, 0.75f, concurrencyLevel);
+      localTransactionsByGtx = ConcurrentMapFactory.makeConcurrentMap(concurrencyLevel, 0.75f, concurrencyLevel);
       if (configuration.clustering().cacheMode().isClustered()) {
          minViewRecalculationLock = new ReentrantLock();
          // Only initialize this if we are clustered.
@@ -315,6 +324,7 @@ public LocalTransaction getOrCreateLocalTransaction(Transaction transaction, TxI
          current = txFactory.newLocalTransaction(transaction, tx, ctx.isImplicitTransaction(), currentViewId);
          log.tracef("Created a new local transaction: %s", current);
          localTransactions.put(transaction, current);
+         localTransactionsByGtx.put(tx, current);
          notifier.notifyTransactionRegistered(tx, ctx);
       }
       return current;
@@ -331,6 +341,12 @@ public boolean removeLocalTransaction(LocalTransaction localTransaction) {
    protected final LocalTransaction removeLocalTransactionInternal(Transaction tx) {
       LocalTransaction removed;
       removed = localTransactions.remove(tx);
+      if (removed != null) {
+         localTransactionsByGtx.remove(removed.getGlobalTransaction(), removed);
+      }
+      if (removed != null && removed.getSnapshotId() != LocalTransaction.NO_SNAPSHOT) {
+         snapshotManager.endSnapshot(removed.getSnapshotId());
+      }
       releaseResources(removed);
       return removed;
    }
@@ -375,12 +391,7 @@ public int getLocalTxCount() {
     * @return the LocalTransaction or null if not found
     */
    public LocalTransaction getLocalTransaction(GlobalTransaction txId) {
-      for (LocalTransaction localTx : localTransactions.values()) { //todo [anistor] optimize lookup!
-         if (txId.equals(localTx.getGlobalTransaction())) {
-            return localTx;
-         }
-      }
-      return null;
+      return localTransactionsByGtx.get(txId);
    }
 
    public LocalTransaction getLocalTransaction(Transaction tx) {
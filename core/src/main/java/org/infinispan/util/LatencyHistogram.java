@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, lock-free histogram of latencies in nanoseconds, laid out like an HdrHistogram: values below 32 have a
+ * bucket of their own, and every power of two above that is split in 16 linear buckets.  Percentiles are therefore
+ * accurate to within 1/16 of the value, over a range from 1ns to 2^40ns (about 18 minutes), using less than 5KB.
+ * <p/>
+ * Recording a value is a couple of atomic increments, so the histogram can be shared by all the threads measuring the
+ * same operation.  Percentiles computed while values are being recorded are approximate.
+ *
+ * @since 5.2
+ */
+public class LatencyHistogram {
+
+   private static final int SUB_BUCKET_BITS = 5;
+   private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+   private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+   private static final int MAX_SHIFT = 40 - SUB_BUCKET_BITS;
+   static final int BUCKET_COUNT = SUB_BUCKET_COUNT + MAX_SHIFT * SUB_BUCKET_HALF_COUNT;
+
+   private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+   private final AtomicLong totalCount = new AtomicLong();
+   private final AtomicLong totalNanos = new AtomicLong();
+   private final AtomicLong maxNanos = new AtomicLong();
+
+   public void record(long nanos) {
+      if (nanos < 0) nanos = 0;
+      counts.incrementAndGet(bucketIndex(nanos));
+      totalCount.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      long max = maxNanos.get();
+      while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+         max = maxNanos.get();
+      }
+   }
+
+   public long getCount() {
+      return totalCount.get();
+   }
+
+   public long getMax() {
+      return maxNanos.get();
+   }
+
+   public long getMean() {
+      long count = totalCount.get();
+      return count == 0 ? 0 : totalNanos.get() / count;
+   }
+
+   /**
+    * @param percentile a fraction between 0 and 1, e.g. 0.99
+    * @return the latency, in nanoseconds, below which the given fraction of the recorded values fall, or 0 if nothing
+    *         was recorded
+    */
+   public long getPercentile(double percentile) {
+      long count = totalCount.get();
+      if (count == 0) return 0;
+      long target = Math.max(1, (long) Math.ceil(percentile * count));
+      long seen = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+         seen += counts.get(i);
+         if (seen >= target) return Math.min(highestValueInBucket(i), maxNanos.get());
+      }
+      return maxNanos.get();
+   }
+
+   static int bucketIndex(long value) {
+      if (value < SUB_BUCKET_COUNT) return (int) value;
+      int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+      if (shift > MAX_SHIFT) return BUCKET_COUNT - 1;
+      return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift) - SUB_BUCKET_HALF_COUNT;
+   }
+
+   static long highestValueInBucket(int index) {
+      if (index < SUB_BUCKET_COUNT) return index;
+      int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+      long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+      return ((subBucket + 1) << shift) - 1;
+   }
+}
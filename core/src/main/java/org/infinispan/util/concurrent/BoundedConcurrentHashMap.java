@@ -224,6 +224,11 @@ final Segment<K,V> segmentFor(int hash) {
       final int hash;
       volatile V value;
       final HashEntry<K, V> next;
+      /**
+       * Weight of this entry as computed by the segment's {@link Weigher}, only maintained on weight bounded maps.
+       * With compressed oops this field fits in the padding of the object, so it adds no footprint.
+       */
+      int weight;
 
       HashEntry(K key, int hash, HashEntry<K, V> next, V value) {
          this.key = key;
@@ -274,6 +279,14 @@ public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf)
          @Override
          public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
             boolean isIBMJavaVendor = Util.isIBMJavaVendor();
+            if (s.isWeighted()) {
+               // bounded by weight rather than by number of entries, so never trim by count
+               if (isIBMJavaVendor) {
+                  return new IBMLRU<K, V>(s,capacity,Integer.MAX_VALUE,lf,EvictionPolicy.MAX_BATCH_SIZE,lf);
+               } else {
+                  return new LRU<K, V>(s,capacity,Integer.MAX_VALUE,lf,EvictionPolicy.MAX_BATCH_SIZE,lf);
+               }
+            }
             if (isIBMJavaVendor) {
                return new IBMLRU<K, V>(s,capacity,lf,capacity*10,lf);
             } else {
@@ -286,6 +299,12 @@ public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf)
          public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
             return new LIRS<K,V>(s,capacity,capacity*10,lf);
          }
+      },
+      TINY_LFU {
+         @Override
+         public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
+            return new TinyLFU<K,V>(s,capacity,capacity*10,lf);
+         }
       };
 
       abstract <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf);
@@ -309,6 +328,23 @@ public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf)
 
    }
 
+   /**
+    * Computes the weight of an entry, e.g. its estimated memory footprint in bytes, for maps that are bounded by the
+    * total weight of their entries rather than by the number of entries.
+    */
+   public interface Weigher<K, V> {
+
+      /**
+       * Returns the weight of the given mapping. Must be positive.
+       *
+       * @param key
+       * @param value
+       * @return weight of the mapping
+       */
+      int weigh(K key, V value);
+
+   }
+
    static final class NullEvictionListener<K, V> implements EvictionListener<K, V> {
       @Override
       public void onEntryEviction(Map<K, V> evicted) {
@@ -370,6 +406,17 @@ public boolean onEntryChosenForEviction(V internalCacheEntry) {
        */
       void onEntryRemove(HashEntry<K, V> e);
 
+      /**
+       * Invoked to notify EvictionPolicy implementation that Segment has replaced an entry by a copy of it, which
+       * happens when Segment relinks a bucket after a removal or a rehash.
+       *
+       * @param original
+       *            entry no longer present in Segment
+       * @param clone
+       *            copy of original, now present in Segment
+       */
+      void onEntryCloned(HashEntry<K, V> original, HashEntry<K, V> clone);
+
       /**
        * Invoked to notify EvictionPolicy implementation that all Segment entries have been
        * cleared.
@@ -392,6 +439,14 @@ public boolean onEntryChosenForEviction(V internalCacheEntry) {
        * @return true if batching threshold has expired, false otherwise.
        */
       boolean thresholdExpired();
+
+      /**
+       * Evicts entries until the total weight of the Segment fits within its maximum weight. Only invoked on weight
+       * bounded Segments, while holding a lock on the Segment.
+       *
+       * @return non null set of evicted entries.
+       */
+      Set<HashEntry<K, V>> trimToWeight();
    }
 
    static class NullEvictionPolicy<K, V> implements EvictionPolicy<K, V> {
@@ -421,6 +476,11 @@ public void onEntryRemove(HashEntry<K, V> e) {
          // Do nothing.
       }
 
+      @Override
+      public void onEntryCloned(HashEntry<K, V> original, HashEntry<K, V> clone) {
+         // Do nothing.
+      }
+
       @Override
       public boolean thresholdExpired() {
          return false;
@@ -430,6 +490,11 @@ public boolean thresholdExpired() {
       public Eviction strategy() {
          return Eviction.NONE;
       }
+
+      @Override
+      public Set<HashEntry<K, V>> trimToWeight() {
+         return Collections.emptySet();
+      }
       
       @Override
       public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V value) {
@@ -450,9 +515,13 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       private final Set<HashEntry<K, V>> evicted;
 
       public LRU(Segment<K,V> s, int capacity, float lf, int maxBatchSize, float batchThresholdFactor) {
+         this(s, capacity, capacity, lf, maxBatchSize, batchThresholdFactor);
+      }
+
+      public LRU(Segment<K,V> s, int capacity, int trimDownSize, float lf, int maxBatchSize, float batchThresholdFactor) {
          super(capacity, lf, true);
          this.segment = s;
-         this.trimDownSize = capacity;
+         this.trimDownSize = trimDownSize;
          this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
          this.batchThresholdFactor = batchThresholdFactor;
          this.accessQueue = new ConcurrentLinkedQueue<HashEntry<K, V>>();
@@ -510,6 +579,12 @@ public void onEntryRemove(HashEntry<K, V> e) {
          }
       }
 
+      @Override
+      public void onEntryCloned(HashEntry<K, V> original, HashEntry<K, V> clone) {
+         onEntryRemove(original);
+         onEntryMiss(clone);
+      }
+
       @Override
       public void clear() {
          super.clear();
@@ -521,6 +596,25 @@ public Eviction strategy() {
          return Eviction.LRU;
       }
 
+      @Override
+      public Set<HashEntry<K, V>> trimToWeight() {
+         // apply pending accesses first so that recently read entries are not chosen
+         Set<HashEntry<K, V>> trimmed = execute();
+         // never evict the only entry, even if it's heavier than the segment allows
+         while (segment.isAboveMaxWeight() && size() > 1) {
+            HashEntry<K, V> eldest = keySet().iterator().next();
+            remove(eldest);
+            boolean evict = segment.evictionListener.onEntryChosenForEviction(eldest.value);
+            if (evict) {
+               segment.remove(eldest.key, eldest.hash, null);
+               trimmed.add(eldest);
+            } else {
+               segment.discountWeight(eldest);
+            }
+         }
+         return trimmed;
+      }
+
       protected boolean isAboveThreshold(){
          return size() > trimDownSize;
       }
@@ -563,9 +657,13 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       private LRUHashEntry<K, V> head;
 
       public IBMLRU(Segment<K,V> s, int capacity, float lf, int maxBatchSize, float batchThresholdFactor) {
+         this(s, capacity, capacity, lf, maxBatchSize, batchThresholdFactor);
+      }
+
+      public IBMLRU(Segment<K,V> s, int capacity, int trimDownSize, float lf, int maxBatchSize, float batchThresholdFactor) {
          super(capacity, lf);
          this.segment = s;
-         this.trimDownSize = capacity;
+         this.trimDownSize = trimDownSize;
          this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
          this.batchThresholdFactor = batchThresholdFactor;
          this.accessQueue = new ConcurrentLinkedQueue<LRUHashEntry<K, V>>();
@@ -643,6 +741,12 @@ public void onEntryRemove(HashEntry<K, V> e) {
          }
       }
 
+      @Override
+      public void onEntryCloned(HashEntry<K, V> original, HashEntry<K, V> clone) {
+         onEntryRemove(original);
+         onEntryMiss(clone);
+      }
+
       @Override
       public void clear() {
          super.clear();
@@ -655,6 +759,26 @@ public Eviction strategy() {
          return Eviction.LRU;
       }
 
+      @Override
+      public Set<HashEntry<K, V>> trimToWeight() {
+         // apply pending accesses first so that recently read entries are not chosen
+         Set<HashEntry<K, V>> trimmed = execute();
+         // never evict the only entry, even if it's heavier than the segment allows
+         while (segment.isAboveMaxWeight() && size() > 1) {
+            LRUHashEntry<K, V> eldest = head.nextEntry;
+            remove(eldest);
+            eldest.remove();
+            boolean evict = segment.evictionListener.onEntryChosenForEviction(eldest.value);
+            if (evict) {
+               segment.remove(eldest.key, eldest.hash, null);
+               trimmed.add(eldest);
+            } else {
+               segment.discountWeight(eldest);
+            }
+         }
+         return trimmed;
+      }
+
       protected boolean isAboveThreshold(){
          return size() > trimDownSize;
       }
@@ -1263,6 +1387,12 @@ public void onEntryRemove(HashEntry<K, V> e) {
          }
       }
 
+      @Override
+      public void onEntryCloned(HashEntry<K, V> original, HashEntry<K, V> clone) {
+         onEntryRemove(original);
+         onEntryMiss(clone);
+      }
+
       @Override
       public void clear() {
          accessQueue.clear();
@@ -1273,6 +1403,12 @@ public Eviction strategy() {
          return Eviction.LIRS;
       }
 
+      @Override
+      public Set<HashEntry<K, V>> trimToWeight() {
+         // LIRS segments are never bounded by weight
+         return Collections.emptySet();
+      }
+
       /**
        * Returns the entry at the bottom of the stack.
        */
@@ -1304,6 +1440,283 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       }
    }
 
+   /**
+    * Window TinyLFU eviction policy. New entries enter a small LRU window, which absorbs bursts of accesses to recent
+    * entries. Entries leaving the window compete for admission into the main region against the main region's next
+    * victim, and are only admitted if a {@link FrequencySketch} estimates they have been used more often recently. The
+    * main region is a segmented LRU made of a probation and a protected queue: entries are admitted into probation and
+    * promoted to protected on their next access. This keeps the frequently used set resident when large scans go
+    * through the cache, at a constant cost of two references and a byte per entry plus 8 bytes of sketch per element
+    * of capacity.
+    *
+    * See "TinyLFU: A Highly Efficient Cache Admission Policy" by Gil Einziger and Roy Friedman.
+    */
+   static final class TinyLFU<K, V> implements EvictionPolicy<K, V> {
+
+      /** Share of the capacity given to the admission window. */
+      private static final float WINDOW_RATIO = 0.01f;
+
+      /** Share of the main region given to the protected queue. */
+      private static final float PROTECTED_RATIO = 0.8f;
+
+      private final ConcurrentLinkedQueue<TinyLFUHashEntry<K, V>> accessQueue;
+      private final Segment<K,V> segment;
+      private final int maxBatchQueueSize;
+      private final float batchThresholdFactor;
+      private final FrequencySketch sketch;
+
+      private final int maximumSize;
+      private final int maximumWindowSize;
+      private final int maximumProtectedSize;
+
+      // each queue is a circular doubly-linked list with a sentinel header, most recently used first
+      private final TinyLFUHashEntry<K, V> window = TinyLFUHashEntry.header();
+      private final TinyLFUHashEntry<K, V> probation = TinyLFUHashEntry.header();
+      private final TinyLFUHashEntry<K, V> protectedQueue = TinyLFUHashEntry.header();
+      private int windowSize;
+      private int probationSize;
+      private int protectedSize;
+
+      public TinyLFU(Segment<K,V> s, int capacity, int maxBatchSize, float batchThresholdFactor) {
+         this.segment = s;
+         this.maximumSize = capacity;
+         this.maximumWindowSize = Math.max(1, (int) (capacity * WINDOW_RATIO));
+         this.maximumProtectedSize = (int) ((capacity - maximumWindowSize) * PROTECTED_RATIO);
+         this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
+         this.batchThresholdFactor = batchThresholdFactor;
+         this.accessQueue = new ConcurrentLinkedQueue<TinyLFUHashEntry<K, V>>();
+         this.sketch = new FrequencySketch(capacity);
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> execute() {
+         try {
+            for (TinyLFUHashEntry<K, V> e : accessQueue) {
+               onAccess(e);
+            }
+         } finally {
+            accessQueue.clear();
+         }
+         return new HashSet<HashEntry<K, V>>();
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> onEntryMiss(HashEntry<K, V> en) {
+         TinyLFUHashEntry<K, V> e = (TinyLFUHashEntry<K, V>) en;
+         sketch.increment(e.hash);
+         e.linkFirst(window, TinyLFUHashEntry.WINDOW);
+         windowSize++;
+         Set<HashEntry<K, V>> evicted = null;
+         while (windowSize > maximumWindowSize) {
+            TinyLFUHashEntry<K, V> candidate = window.previousInQueue;
+            candidate.unlink();
+            windowSize--;
+            evicted = admit(candidate, evicted);
+         }
+         return evicted == null ? Collections.<HashEntry<K, V>>emptySet() : evicted;
+      }
+
+      /**
+       * Moves an entry leaving the window into probation, evicting either it or the main region's victim if the
+       * segment is full, whichever is used less frequently.
+       */
+      private Set<HashEntry<K, V>> admit(TinyLFUHashEntry<K, V> candidate, Set<HashEntry<K, V>> evicted) {
+         if (windowSize + probationSize + protectedSize < maximumSize) {
+            candidate.linkFirst(probation, TinyLFUHashEntry.PROBATION);
+            probationSize++;
+            return evicted;
+         }
+         TinyLFUHashEntry<K, V> victim = probationSize > 0 ? probation.previousInQueue : protectedQueue.previousInQueue;
+         if (victim != protectedQueue && sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+            // link the candidate first, so that it's tracked if removing the victim clones it
+            candidate.linkFirst(probation, TinyLFUHashEntry.PROBATION);
+            probationSize++;
+            evicted = evict(victim, evicted);
+         } else {
+            evicted = evict(candidate, evicted);
+         }
+         return evicted;
+      }
+
+      private Set<HashEntry<K, V>> evict(TinyLFUHashEntry<K, V> e, Set<HashEntry<K, V>> evicted) {
+         unlinkFromQueue(e);
+         boolean evict = segment.evictionListener.onEntryChosenForEviction(e.value);
+         if (evict) {
+            segment.remove(e.key, e.hash, null);
+            if (evicted == null) {
+               evicted = new HashSet<HashEntry<K, V>>();
+            }
+            evicted.add(e);
+         }
+         return evicted;
+      }
+
+      private void onAccess(TinyLFUHashEntry<K, V> e) {
+         switch (e.queue) {
+            case TinyLFUHashEntry.WINDOW:
+               sketch.increment(e.hash);
+               e.unlink();
+               e.linkFirst(window, TinyLFUHashEntry.WINDOW);
+               break;
+            case TinyLFUHashEntry.PROBATION:
+               sketch.increment(e.hash);
+               e.unlink();
+               probationSize--;
+               if (maximumProtectedSize == 0) {
+                  e.linkFirst(probation, TinyLFUHashEntry.PROBATION);
+                  probationSize++;
+                  break;
+               }
+               e.linkFirst(protectedQueue, TinyLFUHashEntry.PROTECTED);
+               protectedSize++;
+               if (protectedSize > maximumProtectedSize) {
+                  // demote the least recently used protected entry back to probation
+                  TinyLFUHashEntry<K, V> demoted = protectedQueue.previousInQueue;
+                  demoted.unlink();
+                  protectedSize--;
+                  demoted.linkFirst(probation, TinyLFUHashEntry.PROBATION);
+                  probationSize++;
+               }
+               break;
+            case TinyLFUHashEntry.PROTECTED:
+               sketch.increment(e.hash);
+               e.unlink();
+               e.linkFirst(protectedQueue, TinyLFUHashEntry.PROTECTED);
+               break;
+            default:
+               // no longer resident
+         }
+      }
+
+      private void unlinkFromQueue(TinyLFUHashEntry<K, V> e) {
+         switch (e.queue) {
+            case TinyLFUHashEntry.WINDOW:
+               windowSize--;
+               break;
+            case TinyLFUHashEntry.PROBATION:
+               probationSize--;
+               break;
+            case TinyLFUHashEntry.PROTECTED:
+               protectedSize--;
+               break;
+            default:
+               return;
+         }
+         e.unlink();
+      }
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      @Override
+      public boolean onEntryHit(HashEntry<K, V> e) {
+         accessQueue.add((TinyLFUHashEntry<K, V>) e);
+         return accessQueue.size() >= maxBatchQueueSize * batchThresholdFactor;
+      }
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      @Override
+      public boolean thresholdExpired() {
+         return accessQueue.size() >= maxBatchQueueSize;
+      }
+
+      @Override
+      public void onEntryRemove(HashEntry<K, V> e) {
+         unlinkFromQueue((TinyLFUHashEntry<K, V>) e);
+         // we could have multiple instances of e in accessQueue; remove them all
+         while (accessQueue.remove(e)) {
+            continue;
+         }
+      }
+
+      @Override
+      public void onEntryCloned(HashEntry<K, V> original, HashEntry<K, V> clone) {
+         // the clone takes over the position of the original, keeping its recency and queue
+         TinyLFUHashEntry<K, V> o = (TinyLFUHashEntry<K, V>) original;
+         TinyLFUHashEntry<K, V> c = (TinyLFUHashEntry<K, V>) clone;
+         if (o.queue != TinyLFUHashEntry.NONE) {
+            c.queue = o.queue;
+            c.previousInQueue = o.previousInQueue;
+            c.nextInQueue = o.nextInQueue;
+            c.previousInQueue.nextInQueue = c;
+            c.nextInQueue.previousInQueue = c;
+            o.queue = TinyLFUHashEntry.NONE;
+            o.previousInQueue = o.nextInQueue = null;
+         }
+         while (accessQueue.remove(o)) {
+            continue;
+         }
+      }
+
+      @Override
+      public void clear() {
+         window.previousInQueue = window.nextInQueue = window;
+         probation.previousInQueue = probation.nextInQueue = probation;
+         protectedQueue.previousInQueue = protectedQueue.nextInQueue = protectedQueue;
+         windowSize = probationSize = protectedSize = 0;
+         sketch.clear();
+         accessQueue.clear();
+      }
+
+      @Override
+      public Eviction strategy() {
+         return Eviction.TINY_LFU;
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> trimToWeight() {
+         // TinyLFU segments are never bounded by weight
+         return Collections.emptySet();
+      }
+
+      @Override
+      public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V value) {
+         return new TinyLFUHashEntry<K, V>(key, hash, next, value);
+      }
+   }
+
+   /**
+    * Provides TinyLFU class with the capability of linking cache entries into the window, probation and protected
+    * queues.
+    */
+   private static final class TinyLFUHashEntry<K, V> extends HashEntry<K, V> {
+
+      static final byte NONE = 0;
+      static final byte WINDOW = 1;
+      static final byte PROBATION = 2;
+      static final byte PROTECTED = 3;
+
+      TinyLFUHashEntry<K, V> previousInQueue, nextInQueue;
+      byte queue;
+
+      TinyLFUHashEntry(K key, int hash, HashEntry<K, V> next, V value) {
+         super(key, hash, next, value);
+      }
+
+      static <K, V> TinyLFUHashEntry<K, V> header() {
+         TinyLFUHashEntry<K, V> header = new TinyLFUHashEntry<K, V>(null, -1, null, null);
+         header.previousInQueue = header.nextInQueue = header;
+         return header;
+      }
+
+      void linkFirst(TinyLFUHashEntry<K, V> header, byte queue) {
+         this.queue = queue;
+         previousInQueue = header;
+         nextInQueue = header.nextInQueue;
+         nextInQueue.previousInQueue = this;
+         header.nextInQueue = this;
+      }
+
+      void unlink() {
+         previousInQueue.nextInQueue = nextInQueue;
+         nextInQueue.previousInQueue = previousInQueue;
+         previousInQueue = nextInQueue = null;
+         queue = NONE;
+      }
+   }
+
    /**
     * Segments are specialized versions of hash tables.  This
     * subclasses from ReentrantLock opportunistically, just to
@@ -1390,14 +1803,90 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
 
       transient final EvictionListener<K, V> evictionListener;
 
+      /**
+       * Computes entry weights, or null if this segment is bounded by number of entries.
+       */
+      transient final Weigher<K, V> weigher;
+
+      /**
+       * Maximum total weight of the entries in this segment, only meaningful if {@link #weigher} is not null.
+       */
+      final long maxWeight;
+
+      /**
+       * Total weight of the entries in this segment. Guarded by the segment lock.
+       */
+      transient long weight;
+
       Segment(int cap, int evictCap, float lf, Eviction es, EvictionListener<K, V> listener) {
+         this(cap, evictCap, lf, es, listener, null, -1);
+      }
+
+      Segment(int cap, int evictCap, float lf, Eviction es, EvictionListener<K, V> listener,
+            Weigher<K, V> weigher, long maxWeight) {
          loadFactor = lf;
          this.evictCap = evictCap;
-         eviction = es.make(this, evictCap, lf);
+         this.weigher = weigher;
+         this.maxWeight = maxWeight;
          evictionListener = listener;
+         eviction = es.make(this, weigher == null ? evictCap : cap, lf);
          setTable(HashEntry.<K, V> newArray(cap));
       }
 
+      boolean isWeighted() {
+         return weigher != null;
+      }
+
+      boolean isAboveMaxWeight() {
+         return weigher != null && weight > maxWeight;
+      }
+
+      /**
+       * Updates the weight of an entry whose value has just been set. Call only while holding lock.
+       */
+      private void updateWeight(HashEntry<K, V> e, K key, V value) {
+         if (weigher != null) {
+            int newWeight = weigher.weigh(key, value);
+            weight += newWeight - e.weight;
+            e.weight = newWeight;
+         }
+      }
+
+      /**
+       * Stops counting the weight of an entry whose eviction was refused by the eviction listener, e.g. because it is
+       * still being written to a cache store. The entry is no longer tracked by the eviction algorithm and it is up to
+       * the listener to remove it later, so leaving its weight in would keep the segment above its maximum weight and
+       * offer every other entry for eviction. Call only while holding lock.
+       */
+      void discountWeight(HashEntry<K, V> e) {
+         weight -= e.weight;
+         e.weight = 0;
+      }
+
+      /**
+       * Creates a copy of the given entry linked to a different next entry, keeping its weight.
+       */
+      private HashEntry<K, V> cloneEntry(HashEntry<K, V> p, HashEntry<K, V> next) {
+         HashEntry<K, V> clone = eviction.createNewEntry(p.key, p.hash, next, p.value);
+         clone.weight = p.weight;
+         return clone;
+      }
+
+      private Set<HashEntry<K, V>> trimToWeight(Set<HashEntry<K, V>> evicted) {
+         if (!isAboveMaxWeight()) {
+            return evicted;
+         }
+         Set<HashEntry<K, V>> trimmed = eviction.trimToWeight();
+         if (trimmed.isEmpty()) {
+            return evicted;
+         }
+         if (evicted == null || evicted.isEmpty()) {
+            return trimmed;
+         }
+         evicted.addAll(trimmed);
+         return evicted;
+      }
+
       @SuppressWarnings("unchecked")
       static <K,V> Segment<K,V>[] newArray(int i) {
          return new Segment[i];
@@ -1517,9 +2006,11 @@ boolean replace(K key, int hash, V oldValue, V newValue) {
             if (e != null && oldValue.equals(e.value)) {
                replaced = true;
                e.value = newValue;
+               updateWeight(e, key, newValue);
                if (eviction.onEntryHit(e)) {
                   evicted = attemptEviction(true);
                }
+               evicted = trimToWeight(evicted);
             }
             return replaced;
          } finally {
@@ -1541,9 +2032,11 @@ V replace(K key, int hash, V newValue) {
             if (e != null) {
                oldValue = e.value;
                e.value = newValue;
+               updateWeight(e, key, newValue);
                if (eviction.onEntryHit(e)) {
                   evicted = attemptEviction(true);
                }
+               evicted = trimToWeight(evicted);
             }
             return oldValue;
          } finally {
@@ -1557,7 +2050,7 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
          Set<HashEntry<K, V>> evicted = null;
          try {
             int c = count;
-            if (c++ > threshold && eviction.strategy() == Eviction.NONE) {
+            if (c++ > threshold && (eviction.strategy() == Eviction.NONE || isWeighted())) {
                rehash();
             }
             HashEntry<K, V>[] tab = table;
@@ -1573,7 +2066,9 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                oldValue = e.value;
                if (!onlyIfAbsent) {
                   e.value = value;
+                  updateWeight(e, key, value);
                   eviction.onEntryHit(e);
+                  evicted = trimToWeight(null);
                }
             } else {
                oldValue = null;
@@ -1588,6 +2083,7 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                   }
                   // add a new entry
                   tab[index] = eviction.createNewEntry(key, hash, first, value);
+                  updateWeight(tab[index], key, value);
                   // notify a miss
                   Set<HashEntry<K, V>> newlyEvicted = eviction.onEntryMiss(tab[index]);
                   if (!newlyEvicted.isEmpty()) {
@@ -1597,6 +2093,7 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                         evicted = newlyEvicted;
                      }
                   }
+                  evicted = trimToWeight(evicted);
                } else {
                   tab[index] = eviction.createNewEntry(key, hash, first, value);
                }
@@ -1663,7 +2160,9 @@ void rehash() {
                   for (HashEntry<K,V> p = e; p != lastRun; p = p.next) {
                      int k = p.hash & sizeMask;
                      HashEntry<K,V> n = newTable[k];
-                     newTable[k] = eviction.createNewEntry(p.key, p.hash, n, p.value);
+                     newTable[k] = cloneEntry(p, n);
+                     // let the eviction policy track the clone rather than the stale node
+                     eviction.onEntryCloned(p, newTable[k]);
                   }
                }
             }
@@ -1698,15 +2197,13 @@ V remove(Object key, int hash, Object value) {
 
                   // e was removed
                   eviction.onEntryRemove(e);
+                  weight -= e.weight;
 
                   HashEntry<K, V> newFirst = e.next;
                   for (HashEntry<K, V> p = first; p != e; p = p.next) {
-                     // TODO A remove operation makes the map behave like all the other keys in the bucket were just added???
-                     // allow p to be GC-ed
-                     eviction.onEntryRemove(p);
-                     newFirst = eviction.createNewEntry(p.key, p.hash, newFirst, p.value);
-                     // and notify eviction algorithm about new hash entries
-                     eviction.onEntryMiss(newFirst);
+                     // allow p to be GC-ed, and let the eviction algorithm track the new hash entry
+                     newFirst = cloneEntry(p, newFirst);
+                     eviction.onEntryCloned(p, newFirst);
                   }
 
                   tab[index] = newFirst;
@@ -1729,6 +2226,7 @@ void clear() {
                }
                ++modCount;
                eviction.clear();
+               weight = 0;
                count = 0; // write-volatile
             } finally {
                unlock();
@@ -1848,6 +2346,65 @@ public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
       }
    }
 
+   /**
+    * Creates a new, empty map bounded by the total weight of its entries rather than by their number. Entries are
+    * weighed as they are added or updated, and least recently used entries are evicted whenever a segment's share of
+    * the maximum weight is exceeded. Only {@link Eviction#LRU} is supported.
+    *
+    * @param maxWeight
+    *            is the upper bound for the sum of the weights of all entries in this map
+    *
+    * @param concurrencyLevel
+    *            the estimated number of concurrently updating threads. The implementation performs
+    *            internal sizing to try to accommodate this many threads.
+    *
+    * @param evictionStrategy
+    *            the algorithm used to evict elements from this map
+    *
+    * @param evictionListener
+    *            the evicton listener callback to be notified about evicted elements
+    *
+    * @param weigher
+    *            computes the weight of each entry
+    *
+    * @throws IllegalArgumentException
+    *             if the maximum weight or concurrencyLevel are nonpositive, or the eviction strategy is not LRU.
+    */
+   public BoundedConcurrentHashMap(long maxWeight, int concurrencyLevel,
+         Eviction evictionStrategy, EvictionListener<K, V> evictionListener, Weigher<K, V> weigher) {
+      if (maxWeight <= 0 || concurrencyLevel <= 0) {
+         throw new IllegalArgumentException();
+      }
+      if (evictionStrategy != Eviction.LRU) {
+         throw new IllegalArgumentException("Weight based eviction is only supported with LRU, not " + evictionStrategy);
+      }
+      if (evictionListener == null || weigher == null) {
+         throw new IllegalArgumentException();
+      }
+
+      if (concurrencyLevel > MAX_SEGMENTS) {
+         concurrencyLevel = MAX_SEGMENTS;
+      }
+
+      // Find power-of-two sizes best matching arguments
+      int sshift = 0;
+      int ssize = 1;
+      while (ssize < concurrencyLevel) {
+         ++sshift;
+         ssize <<= 1;
+      }
+      segmentShift = 32 - sshift;
+      segmentMask = ssize - 1;
+      this.segments = Segment.newArray(ssize);
+
+      // tables grow as needed since the number of entries is unknown upfront
+      long segmentMaxWeight = Math.max(1, maxWeight / ssize);
+      for (int i = 0; i < this.segments.length; ++i) {
+         this.segments[i] = new Segment<K, V>(16, Integer.MAX_VALUE, DEFAULT_LOAD_FACTOR, evictionStrategy,
+               evictionListener, weigher, segmentMaxWeight);
+      }
+   }
+
    /**
     * Creates a new, empty map with the specified maximum capacity, load factor, concurrency
     * level and LRU eviction policy.
@@ -0,0 +1,157 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util.concurrent;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link NotifyingFuture} that is completed explicitly by whoever produces the result, rather than by a task running
+ * in some executor.  This allows asynchronous APIs to hand out a future straight away and complete it later from a
+ * callback (e.g. when the last response to a remote call arrives) without parking a thread waiting for the result.
+ * <p/>
+ * Only the first call to {@link #complete(Object)}, {@link #completeExceptionally(Throwable)} or
+ * {@link #cancel(boolean)} has any effect.  Listeners are notified exactly once, in the thread completing the future,
+ * or in the thread attaching the listener if the future is already done.
+ *
+ * @since 5.2
+ */
+public class CompletableNotifyingFuture<T> implements NotifyingFuture<T> {
+
+   private final CountDownLatch latch = new CountDownLatch(1);
+   private final AtomicBoolean completing = new AtomicBoolean();
+   private final List<FutureListener<T>> listeners = new CopyOnWriteArrayList<FutureListener<T>>();
+   private volatile T value;
+   private volatile Throwable exception;
+   private volatile boolean cancelled;
+
+   /**
+    * @return a future that is already completed with the given value
+    */
+   public static <T> CompletableNotifyingFuture<T> completed(T value) {
+      CompletableNotifyingFuture<T> future = new CompletableNotifyingFuture<T>();
+      future.complete(value);
+      return future;
+   }
+
+   /**
+    * @return a future that has already failed with the given exception
+    */
+   public static <T> CompletableNotifyingFuture<T> failed(Throwable exception) {
+      CompletableNotifyingFuture<T> future = new CompletableNotifyingFuture<T>();
+      future.completeExceptionally(exception);
+      return future;
+   }
+
+   /**
+    * Completes this future with the given value.
+    *
+    * @return true if this call completed the future, false if it was already done
+    */
+   public boolean complete(T value) {
+      if (!completing.compareAndSet(false, true)) return false;
+      this.value = value;
+      done();
+      return true;
+   }
+
+   /**
+    * Completes this future with the given exception, which {@link #get()} rethrows wrapped in an
+    * {@link ExecutionException}.
+    *
+    * @return true if this call completed the future, false if it was already done
+    */
+   public boolean completeExceptionally(Throwable exception) {
+      if (exception == null) throw new IllegalArgumentException("Exception cannot be null");
+      if (!completing.compareAndSet(false, true)) return false;
+      this.exception = exception;
+      done();
+      return true;
+   }
+
+   @Override
+   public boolean cancel(boolean mayInterruptIfRunning) {
+      if (!completing.compareAndSet(false, true)) return false;
+      cancelled = true;
+      done();
+      return true;
+   }
+
+   @Override
+   public boolean isCancelled() {
+      return cancelled;
+   }
+
+   @Override
+   public boolean isDone() {
+      return latch.getCount() == 0;
+   }
+
+   @Override
+   public T get() throws InterruptedException, ExecutionException {
+      latch.await();
+      return report();
+   }
+
+   @Override
+   public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, java.util.concurrent.TimeoutException {
+      if (!latch.await(timeout, unit))
+         throw new java.util.concurrent.TimeoutException();
+      return report();
+   }
+
+   @Override
+   public NotifyingFuture<T> attachListener(FutureListener<T> listener) {
+      listeners.add(listener);
+      // if done() has already run it may or may not have seen the new listener, so make sure it's called exactly once
+      if (isDone() && listeners.remove(listener)) listener.futureDone(this);
+      return this;
+   }
+
+   private void done() {
+      latch.countDown();
+      for (FutureListener<T> l : listeners) {
+         if (listeners.remove(l)) l.futureDone(this);
+      }
+   }
+
+   private T report() throws ExecutionException {
+      if (cancelled) throw new CancellationException();
+      if (exception != null) throw new ExecutionException(exception);
+      return value;
+   }
+
+   @Override
+   public String toString() {
+      return "CompletableNotifyingFuture{" +
+            "done=" + isDone() +
+            ", cancelled=" + cancelled +
+            ", exception=" + exception +
+            '}';
+   }
+}
@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util.concurrent;
+
+/**
+ * A count-min sketch estimating how often items have been seen recently, used as the admission filter of the
+ * TinyLFU eviction policy of {@link BoundedConcurrentHashMap}.
+ * <p/>
+ * Each item is mapped to four 4-bit counters, sixteen of which are packed in every <tt>long</tt>, so the sketch takes
+ * 8 bytes per element of capacity. The estimated frequency of an item is the minimum of its counters, and saturates at
+ * 15. To favour recent history, all counters are halved once the number of increments reaches ten times the capacity.
+ * <p/>
+ * This class is not thread safe; the eviction policy only uses it while holding the segment lock.
+ *
+ * See "TinyLFU: A Highly Efficient Cache Admission Policy" by Gil Einziger and Roy Friedman.
+ * @since 5.2
+ */
+final class FrequencySketch {
+
+   private static final long[] SEEDS = {
+         0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+   };
+   private static final long RESET_MASK = 0x7777777777777777L;
+
+   private final long[] table;
+   private final int tableMask;
+   private final int sampleSize;
+   private int size;
+
+   FrequencySketch(int capacity) {
+      int length = 8;
+      while (length < capacity && length < (1 << 30)) {
+         length <<= 1;
+      }
+      this.table = new long[length];
+      this.tableMask = length - 1;
+      this.sampleSize = capacity > Integer.MAX_VALUE / 10 ? Integer.MAX_VALUE : Math.max(10, capacity * 10);
+   }
+
+   /**
+    * Returns the estimated number of occurrences of an item, up to 15.
+    */
+   int frequency(int hash) {
+      hash = spread(hash);
+      int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++) {
+         int index = indexOf(hash, i);
+         int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+         frequency = Math.min(frequency, count);
+      }
+      return frequency;
+   }
+
+   /**
+    * Records an occurrence of an item, aging all counters if the sample size has been reached.
+    */
+   void increment(int hash) {
+      hash = spread(hash);
+      int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; i++) {
+         added |= incrementAt(indexOf(hash, i), start + i);
+      }
+      if (added && ++size == sampleSize) {
+         reset();
+      }
+   }
+
+   void clear() {
+      for (int i = 0; i < table.length; i++) {
+         table[i] = 0L;
+      }
+      size = 0;
+   }
+
+   private boolean incrementAt(int index, int counter) {
+      int offset = counter << 2;
+      long mask = 0xfL << offset;
+      if ((table[index] & mask) != mask) {
+         table[index] += 1L << offset;
+         return true;
+      }
+      return false;
+   }
+
+   private void reset() {
+      for (int i = 0; i < table.length; i++) {
+         table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      size >>>= 1;
+   }
+
+   private int indexOf(int hash, int i) {
+      long h = (hash + SEEDS[i]) * SEEDS[i];
+      h += h >>> 32;
+      return ((int) h) & tableMask;
+   }
+
+   private static int spread(int h) {
+      h = ((h >>> 16) ^ h) * 0x45d9f3b;
+      h = ((h >>> 16) ^ h) * 0x45d9f3b;
+      return (h >>> 16) ^ h;
+   }
+}
@@ -28,6 +28,7 @@
 import static org.infinispan.test.TestingUtil.INFINISPAN_START_TAG_NO_SCHEMA;
 import static org.infinispan.test.TestingUtil.withCacheManager;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
@@ -44,6 +45,9 @@
 import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.configuration.global.ShutdownHookBehavior;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.eviction.DefaultEntrySizeEstimator;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 import org.infinispan.executors.DefaultExecutorFactory;
@@ -254,6 +258,58 @@ public void call() {
 
    }
 
+   public void testOffHeapDataContainer() throws Exception {
+      String config = INFINISPAN_START_TAG +
+            "<default>\n" +
+            "<dataContainer offHeap=\"true\" slabSize=\"65536\"/>\n" +
+            "</default>\n" +
+            INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Configuration cfg = cm.getDefaultCacheConfiguration();
+            assertTrue(cfg.dataContainer().offHeap());
+            assertEquals(65536, cfg.dataContainer().slabSize());
+         }
+      });
+   }
+
+   public void testEvictionMaxMemory() throws Exception {
+      String config = INFINISPAN_START_TAG +
+            "<default>\n" +
+            "<eviction strategy=\"LRU\" maxMemory=\"1048576\" sizeEstimator=\"org.infinispan.eviction.DefaultEntrySizeEstimator\"/>\n" +
+            "</default>\n" +
+            INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Configuration cfg = cm.getDefaultCacheConfiguration();
+            assertEquals(1048576, cfg.eviction().maxMemory());
+            assertEquals(-1, cfg.eviction().maxEntries());
+            assertTrue(cfg.eviction().sizeEstimator() instanceof DefaultEntrySizeEstimator);
+         }
+      });
+   }
+
+   public void testSegmentedDataContainer() throws Exception {
+      String config = INFINISPAN_START_TAG +
+            "<default>\n" +
+            "<dataContainer segmented=\"true\"/>\n" +
+            "</default>\n" +
+            INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Configuration cfg = cm.getDefaultCacheConfiguration();
+            assertTrue(cfg.dataContainer().segmented());
+            assertTrue(TestingUtil.extractComponent(cm.getCache(), DataContainer.class) instanceof SegmentedDataContainer);
+         }
+      });
+   }
+
    private void assertNamedCacheFile(EmbeddedCacheManager cm, boolean deprecated) {
       final GlobalConfiguration gc = cm.getCacheManagerConfiguration();
 
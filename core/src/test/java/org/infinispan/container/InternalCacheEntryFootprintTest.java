@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.container.versioning.SimpleClusteredVersion;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Checks that the entries produced by the entry factories are flat objects, holding the key, value, version and
+ * expiration timestamps inline rather than through a separate cache value object. Shallow sizes are estimated for a
+ * 64-bit JVM with compressed references, which is how entries are laid out in practice.
+ */
+@Test(groups = "unit", testName = "container.InternalCacheEntryFootprintTest")
+public class InternalCacheEntryFootprintTest extends AbstractInfinispanTest {
+
+   private static final int OBJECT_HEADER = 12;
+   private static final int REFERENCE = 4;
+   private static final EntryVersion VERSION = new SimpleClusteredVersion(1, 1);
+
+   public void testNonVersionedEntries() {
+      InternalEntryFactory factory = new InternalEntryFactoryImpl();
+      assertFootprint(factory.create("k", "v", null, -1, -1), 24);
+      assertFootprint(factory.create("k", "v", null, 1000, -1), 40);
+      assertFootprint(factory.create("k", "v", null, -1, 1000), 40);
+      assertFootprint(factory.create("k", "v", null, 1000, 1000), 56);
+   }
+
+   public void testVersionedEntries() {
+      InternalEntryFactory factory = new VersionedInternalEntryFactoryImpl();
+      assertFootprint(factory.create("k", "v", VERSION, -1, -1), 32);
+      assertFootprint(factory.create("k", "v", VERSION, 1000, -1), 48);
+      assertFootprint(factory.create("k", "v", VERSION, -1, 1000), 48);
+      assertFootprint(factory.create("k", "v", VERSION, 1000, 1000), 64);
+   }
+
+   private void assertFootprint(InternalCacheEntry entry, long expected) {
+      for (Class<?> c = entry.getClass(); c != Object.class; c = c.getSuperclass()) {
+         for (Field f : c.getDeclaredFields()) {
+            if (Modifier.isStatic(f.getModifiers())) continue;
+            Class<?> type = f.getType();
+            assertTrue(entry.getClass().getSimpleName() + "." + f.getName() + " should be inlined",
+                  type.isPrimitive() || type == Object.class || type == EntryVersion.class);
+         }
+      }
+
+      long flat = shallowSize(entry.getClass());
+      assertTrue(entry.getClass().getSimpleName() + " takes " + flat + " bytes, expected " + expected, flat <= expected);
+
+      // the previous layout: the entry held the key and a reference to a cache value holding everything else
+      long nested = align(OBJECT_HEADER + 2 * REFERENCE + 1) + shallowSize(entry.toInternalCacheValue().getClass());
+      assertTrue(entry.getClass().getSimpleName() + " should save at least 16 bytes, takes " + flat + " vs " + nested,
+            nested - flat >= 16);
+   }
+
+   private static long shallowSize(Class<?> clazz) {
+      long size = OBJECT_HEADER;
+      for (Class<?> c = clazz; c != Object.class; c = c.getSuperclass()) {
+         for (Field f : c.getDeclaredFields()) {
+            if (Modifier.isStatic(f.getModifiers())) continue;
+            Class<?> type = f.getType();
+            if (type == long.class || type == double.class) size += 8;
+            else if (type == int.class || type == float.class) size += 4;
+            else if (type == short.class || type == char.class) size += 2;
+            else if (type == byte.class || type == boolean.class) size += 1;
+            else size += REFERENCE;
+         }
+      }
+      return align(size);
+   }
+
+   private static long align(long size) {
+      return (size + 7) & ~7L;
+   }
+}
@@ -0,0 +1,194 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import org.infinispan.config.ConfigurationException;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.MortalCacheEntry;
+import org.infinispan.container.entries.TransientCacheEntry;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "container.OffHeapDataContainerTest")
+public class OffHeapDataContainerTest extends AbstractInfinispanTest {
+
+   OffHeapDataContainer dc;
+   PassivationManager passivator;
+   EvictionManager evictionManager;
+
+   @BeforeMethod
+   public void setUp() {
+      dc = createContainer(-1, 1024);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      dc = null;
+   }
+
+   private OffHeapDataContainer createContainer(int maxEntries, int slabSize) {
+      passivator = mock(PassivationManager.class);
+      evictionManager = mock(EvictionManager.class);
+      OffHeapDataContainer container = new OffHeapDataContainer(4, maxEntries, slabSize);
+      container.initialize(evictionManager, passivator, new InternalEntryFactoryImpl(),
+            new ConfigurationBuilder().build(), null, new TestObjectStreamMarshaller());
+      container.start();
+      return container;
+   }
+
+   public void testPutGetRemove() {
+      dc.put("k", "v", null, -1, -1);
+      InternalCacheEntry entry = dc.get("k");
+      assertEquals(ImmortalCacheEntry.class, entry.getClass());
+      assertEquals("k", entry.getKey());
+      assertEquals("v", entry.getValue());
+      assertTrue(dc.containsKey("k"));
+      assertEquals(1, dc.size());
+
+      dc.put("k", "v2", null, -1, -1);
+      assertEquals("v2", dc.get("k").getValue());
+      assertEquals(1, dc.size());
+
+      assertEquals("v2", dc.remove("k").getValue());
+      assertNull(dc.get("k"));
+      assertNull(dc.remove("k"));
+      assertEquals(0, dc.size());
+   }
+
+   public void testExpiration() throws InterruptedException {
+      dc.put("mortal", "v", null, 6000000, -1);
+      dc.put("transient", "v", null, -1, 6000000);
+      assertEquals(MortalCacheEntry.class, dc.get("mortal").getClass());
+      assertEquals(TransientCacheEntry.class, dc.get("transient").getClass());
+
+      dc.put("k", "v", null, 0, -1);
+      Thread.sleep(10);
+      assertNull(dc.get("k"));
+
+      dc.put("k", "v", null, 0, -1);
+      Thread.sleep(10);
+      assertNotNull("peek must not expire entries", dc.peek("k"));
+      assertEquals(3, dc.size());
+      dc.purgeExpired();
+      assertEquals(2, dc.size());
+   }
+
+   public void testTouchUpdatesLastUsed() throws InterruptedException {
+      dc.put("k", "v", null, -1, 6000000);
+      long lastUsed = dc.get("k").getLastUsed();
+      Thread.sleep(50);
+      dc.get("k");
+      assertTrue(dc.peek("k").getLastUsed() > lastUsed);
+   }
+
+   public void testCompaction() {
+      for (int i = 0; i < 1000; i++)
+         dc.put("k" + (i % 10), "value-" + i, null, -1, -1);
+      assertEquals(10, dc.size());
+      // overwritten records must have been reclaimed, leaving at most a couple of slabs per segment
+      assertTrue("Allocated " + dc.getAllocatedBytes(), dc.getAllocatedBytes() <= 4 * 2 * 1024);
+      for (int i = 0; i < 10; i++)
+         assertEquals("value-" + (990 + i), dc.get("k" + i).getValue());
+   }
+
+   public void testLargeEntryGetsOwnSlab() {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 4096; i++)
+         sb.append('x');
+      dc.put("big", sb.toString(), null, -1, -1);
+      assertEquals(sb.toString(), dc.get("big").getValue());
+   }
+
+   public void testIteration() {
+      Set<Object> expected = new HashSet<Object>();
+      for (int i = 0; i < 100; i++) {
+         dc.put("k" + i, "v" + i, null, -1, -1);
+         expected.add("k" + i);
+      }
+      Set<Object> keys = new HashSet<Object>();
+      for (InternalCacheEntry entry : dc)
+         keys.add(entry.getKey());
+      assertEquals(expected, keys);
+      assertEquals(expected, new HashSet<Object>(dc.keySet()));
+      assertEquals(100, dc.values().size());
+      assertEquals(100, dc.entrySet().size());
+
+      dc.clear();
+      assertEquals(0, dc.size());
+      assertTrue(dc.keySet().isEmpty());
+   }
+
+   public void testIterationWhileCompacting() {
+      for (int i = 0; i < 100; i++)
+         dc.put("k" + i, "v" + i, null, -1, -1);
+      Iterator<InternalCacheEntry> it = dc.iterator();
+      Set<Object> keys = new HashSet<Object>();
+      keys.add(it.next().getKey());
+      // overwriting every entry a few times compacts all the segments
+      for (int round = 0; round < 5; round++) {
+         for (int i = 0; i < 100; i++)
+            dc.put("k" + i, "v" + i + "-" + round, null, -1, -1);
+      }
+      while (it.hasNext())
+         assertTrue(keys.add(it.next().getKey()));
+      assertEquals(100, keys.size());
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testEviction() {
+      dc = createContainer(16, 1024);
+      for (int i = 0; i < 100; i++)
+         dc.put("k" + i, "v" + i, null, -1, -1);
+      assertTrue("Size was " + dc.size(), dc.size() <= 16);
+      verify(passivator, atLeastOnce()).passivate(any(InternalCacheEntry.class));
+      verify(evictionManager, atLeastOnce()).onEntryEviction(any(java.util.Map.class));
+   }
+
+   @Test(expectedExceptions = ConfigurationException.class)
+   public void testAsyncPassivationNotAllowed() {
+      new ConfigurationBuilder().dataContainer().offHeap(true)
+            .eviction().strategy(EvictionStrategy.LRU).maxEntries(16)
+            .loaders().passivation(true).asyncPassivation(true).build();
+   }
+}
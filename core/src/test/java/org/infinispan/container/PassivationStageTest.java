@@ -0,0 +1,261 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EntrySizeEstimator;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "container.PassivationStageTest")
+public class PassivationStageTest extends AbstractInfinispanTest {
+
+   private static final int MAX_ENTRIES = 16;
+
+   DefaultDataContainer dc;
+   PassivationManager passivator;
+   EvictionManager evictionManager;
+   CountDownLatch stageBlocked;
+   CountDownLatch release;
+   Map<Object, Object> passivated;
+   AtomicInteger passivatedByCaller;
+   volatile Thread stageThread;
+
+   @BeforeMethod
+   public void setUp() {
+      passivator = mock(PassivationManager.class);
+      evictionManager = mock(EvictionManager.class);
+      stageBlocked = new CountDownLatch(1);
+      release = new CountDownLatch(0);
+      passivated = new ConcurrentHashMap<Object, Object>();
+      passivatedByCaller = new AtomicInteger();
+      doAnswer(new Answer<Void>() {
+         @Override
+         public Void answer(InvocationOnMock invocation) throws Throwable {
+            InternalCacheEntry entry = (InternalCacheEntry) invocation.getArguments()[0];
+            if (Thread.currentThread().getName().startsWith("PassivationStage")) {
+               stageThread = Thread.currentThread();
+               stageBlocked.countDown();
+               release.await(10, TimeUnit.SECONDS);
+            } else {
+               passivatedByCaller.incrementAndGet();
+            }
+            passivated.put(entry.getKey(), entry.getValue());
+            return null;
+         }
+      }).when(passivator).passivate(any(InternalCacheEntry.class));
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      release.countDown();
+      if (dc != null)
+         dc.stop();
+      dc = null;
+   }
+
+   private DefaultDataContainer createContainer(int batchSize) {
+      DefaultDataContainer container = (DefaultDataContainer) DefaultDataContainer.boundedDataContainer(1, MAX_ENTRIES,
+            EvictionStrategy.LRU, EvictionThreadPolicy.DEFAULT);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.loaders().passivation(true).asyncPassivation(true).passivationBatchSize(batchSize);
+      container.initialize(evictionManager, passivator, new InternalEntryFactoryImpl(), builder.build(), null);
+      container.start();
+      return container;
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testEvictedEntriesArePassivatedInBackground() {
+      dc = createContainer(8);
+      assertNotNull(dc.getPassivationStage());
+      for (int i = 0; i < 100; i++)
+         dc.put("k" + i, "v" + i, null, -1, -1);
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return dc.size() <= MAX_ENTRIES;
+         }
+      });
+      assertEquals(0, passivatedByCaller.get());
+      for (int i = 0; i < 100; i++) {
+         Object key = "k" + i;
+         InternalCacheEntry entry = dc.peek(key);
+         assertTrue("Lost " + key, entry != null || passivated.containsKey(key));
+      }
+      verify(evictionManager, atLeastOnce()).onEntryEviction(any(Map.class));
+   }
+
+   public void testQueuedEntriesStayReadable() throws InterruptedException {
+      release = new CountDownLatch(1);
+      dc = createContainer(4);
+      for (int i = 0; i < MAX_ENTRIES + 10; i++)
+         dc.put("k" + i, "v" + i, null, -1, -1);
+      assertTrue(stageBlocked.await(10, TimeUnit.SECONDS));
+
+      // nothing has made it to the store yet, so all entries must still be in memory
+      for (int i = 0; i < MAX_ENTRIES + 10; i++)
+         assertEquals("v" + i, dc.get("k" + i).getValue());
+
+      release.countDown();
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return dc.size() <= MAX_ENTRIES && dc.getPassivationStage().getQueueSize() == 0;
+         }
+      });
+   }
+
+   public void testEntryUpdatedWhileQueuedIsKept() throws InterruptedException {
+      release = new CountDownLatch(1);
+      dc = createContainer(1);
+      for (int i = 0; i < MAX_ENTRIES + 4; i++)
+         dc.put("k" + i, "v" + i, null, -1, -1);
+      assertTrue(stageBlocked.await(10, TimeUnit.SECONDS));
+
+      // update every entry waiting to be passivated, including the one the stage is busy with
+      int updated = 0;
+      for (int i = 0; i < MAX_ENTRIES + 4; i++) {
+         InternalCacheEntry queued = dc.peek("k" + i);
+         if (queued.isEvicted()) {
+            dc.put("k" + i, "updated", null, -1, -1);
+            InternalCacheEntry current = dc.peek("k" + i);
+            assertTrue("the queued entry must not be modified in place", queued != current);
+            assertEquals("v" + i, queued.getValue());
+            updated++;
+         }
+      }
+      assertTrue(updated > 1);
+
+      release.countDown();
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return dc.getPassivationStage().getQueueSize() == 0;
+         }
+      });
+      int kept = 0;
+      for (int i = 0; i < MAX_ENTRIES + 4; i++) {
+         InternalCacheEntry current = dc.peek("k" + i);
+         if (current != null ? "updated".equals(current.getValue()) : "updated".equals(passivated.get("k" + i)))
+            kept++;
+      }
+      assertEquals("updated entries must not be dropped", updated, kept);
+   }
+
+   public void testCallerPassivatesWhenStageFallsBehind() throws InterruptedException {
+      release = new CountDownLatch(1);
+      dc = createContainer(1);
+      int queueCapacity = PassivationStage.QUEUED_BATCHES;
+      for (int i = 0; i < MAX_ENTRIES + queueCapacity + 20; i++)
+         dc.put("k" + i, "v" + i, null, -1, -1);
+      assertTrue(stageBlocked.await(10, TimeUnit.SECONDS));
+      assertTrue("Passivated by caller: " + passivatedByCaller.get(), passivatedByCaller.get() > 0);
+      // the stage may have taken its first entry off the queue only after the queue filled up
+      assertTrue(dc.getPassivationStage().getQueueSize() >= queueCapacity - 1);
+   }
+
+   public void testStopTerminatesPassivationThread() throws InterruptedException {
+      release = new CountDownLatch(1);
+      dc = createContainer(1);
+      PassivationStage stage = dc.getPassivationStage();
+      for (int i = 0; i < MAX_ENTRIES + 4; i++)
+         dc.put("k" + i, "v" + i, null, -1, -1);
+      assertTrue(stageBlocked.await(10, TimeUnit.SECONDS));
+      assertTrue(stageThread.isDaemon());
+
+      // stopping interrupts the stage even though it is busy passivating
+      dc.stop();
+      stageThread.join(10000);
+      assertFalse(stageThread.isAlive());
+      assertFalse(stage.offer(dc.peek("k0")));
+      assertEquals(0, stage.getQueueSize());
+   }
+
+   public void testMemoryBoundQueuesOneEntryPerPut() throws InterruptedException {
+      release = new CountDownLatch(1);
+      dc = (DefaultDataContainer) DefaultDataContainer.memoryBoundedDataContainer(1, 100 * MAX_ENTRIES,
+            new EntrySizeEstimator() {
+               @Override
+               public long estimateSize(Object key, InternalCacheEntry entry) {
+                  return 100;
+               }
+            }, EvictionThreadPolicy.DEFAULT);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.loaders().passivation(true).asyncPassivation(true).passivationBatchSize(1);
+      dc.initialize(evictionManager, passivator, new InternalEntryFactoryImpl(), builder.build(), null);
+      dc.start();
+      for (int i = 0; i < MAX_ENTRIES + 4; i++)
+         dc.put("k" + i, "v" + i, null, -1, -1);
+      assertTrue(stageBlocked.await(10, TimeUnit.SECONDS));
+
+      // queued entries no longer count towards the memory bound, so each put past it queues a single entry
+      int queued = 0;
+      for (int i = 0; i < MAX_ENTRIES + 4; i++) {
+         if (dc.peek("k" + i).isEvicted())
+            queued++;
+      }
+      assertEquals(4, queued);
+      assertEquals(0, passivatedByCaller.get());
+   }
+
+   public void testNoStageWithoutAsyncPassivation() {
+      DefaultDataContainer container = (DefaultDataContainer) DefaultDataContainer.boundedDataContainer(1, MAX_ENTRIES,
+            EvictionStrategy.LRU, EvictionThreadPolicy.DEFAULT);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.loaders().passivation(true);
+      container.initialize(evictionManager, passivator, new InternalEntryFactoryImpl(), builder.build(), null);
+      container.start();
+      assertNull(container.getPassivationStage());
+      for (int i = 0; i < 100; i++)
+         container.put("k" + i, "v" + i, null, -1, -1);
+      assertTrue(container.size() <= MAX_ENTRIES);
+      assertTrue(passivatedByCaller.get() > 0);
+   }
+}
@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.distribution.ch.DefaultConsistentHash;
+import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.distribution.ch.ReplicatedConsistentHash;
+import org.infinispan.remoting.transport.Address;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Runs the {@link SimpleDataContainerTest} suite against {@link SegmentedDataContainer} and checks the per-segment
+ * operations.
+ */
+@Test(groups = "unit", testName = "container.SegmentedDataContainerTest")
+public class SegmentedDataContainerTest extends SimpleDataContainerTest {
+
+   private static final int NUM_SEGMENTS = 16;
+
+   @Override
+   protected DataContainer createContainer() {
+      DefaultDataContainer dc = (DefaultDataContainer) SegmentedDataContainer.segmentedDataContainer(16,
+            new MurmurHash3(), NUM_SEGMENTS);
+      dc.initialize(null, null, new InternalEntryFactoryImpl(), new ConfigurationBuilder().build(), null);
+      return dc;
+   }
+
+   public void testSegmentsMatchConsistentHash() {
+      SegmentAwareDataContainer sdc = (SegmentAwareDataContainer) dc;
+      List<Address> members = Collections.<Address>singletonList(new TestAddress(0));
+      DefaultConsistentHash ch = new DefaultConsistentHashFactory().create(new MurmurHash3(), 1, NUM_SEGMENTS, members);
+      assertTrue(sdc.isAlignedWith(ch));
+      assertFalse(sdc.isAlignedWith(new DefaultConsistentHashFactory().create(new MurmurHash3(), 1, NUM_SEGMENTS * 2, members)));
+      assertFalse(sdc.isAlignedWith(new ReplicatedConsistentHash(members)));
+
+      for (int i = 0; i < 1000; i++) {
+         String key = "k" + i;
+         dc.put(key, "v", null, -1, -1);
+         assertEquals(ch.getSegment(key), sdc.getSegment(key));
+      }
+
+      int total = 0;
+      for (int segment = 0; segment < NUM_SEGMENTS; segment++) {
+         int count = 0;
+         for (Iterator<InternalCacheEntry> it = sdc.segmentIterator(segment); it.hasNext(); count++) {
+            assertEquals(segment, ch.getSegment(it.next().getKey()));
+         }
+         assertEquals(count, sdc.segmentSize(segment));
+         assertEquals(count, sdc.segmentKeySet(segment).size());
+         total += count;
+      }
+      assertEquals(1000, total);
+      assertEquals(1000, dc.size());
+   }
+
+   public void testRemoveSegments() {
+      SegmentAwareDataContainer sdc = (SegmentAwareDataContainer) dc;
+      for (int i = 0; i < 1000; i++)
+         dc.put("k" + i, "v", null, -1, -1);
+
+      Set<Integer> removed = new HashSet<Integer>();
+      removed.add(0);
+      removed.add(5);
+      int removedEntries = sdc.segmentSize(0) + sdc.segmentSize(5);
+      sdc.removeSegments(removed);
+
+      assertEquals(0, sdc.segmentSize(0));
+      assertEquals(0, sdc.segmentSize(5));
+      assertEquals(1000 - removedEntries, dc.size());
+      for (int i = 0; i < 1000; i++) {
+         String key = "k" + i;
+         if (removed.contains(sdc.getSegment(key)))
+            assertNull(dc.get(key));
+         else
+            assertEquals("v", dc.get(key).getValue());
+      }
+   }
+
+   public void testPurgeAcrossSegments() throws InterruptedException {
+      for (int i = 0; i < 100; i++)
+         dc.put("k" + i, "v", null, i % 2 == 0 ? 0 : -1, -1);
+      Thread.sleep(10);
+      dc.purgeExpired();
+      assertEquals(50, dc.size());
+   }
+}
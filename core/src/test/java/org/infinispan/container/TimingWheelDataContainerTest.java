@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import org.infinispan.config.ConfigurationException;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.testng.annotations.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Runs the {@link SimpleDataContainerTest} suite against a container purging expired entries through a timing wheel.
+ */
+@Test(groups = "unit", testName = "container.TimingWheelDataContainerTest")
+public class TimingWheelDataContainerTest extends SimpleDataContainerTest {
+
+   @Override
+   protected DataContainer createContainer() {
+      DefaultDataContainer dc = new DefaultDataContainer(16);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.expiration().timingWheel(true).timingWheelTick(10);
+      dc.initialize(null, null, new InternalEntryFactoryImpl(), builder.build(), null);
+      dc.start();
+      return dc;
+   }
+
+   public void testTouchedEntryIsRescheduled() throws InterruptedException {
+      dc.put("k", "v", null, -1, 300);
+      for (int i = 0; i < 5; i++) {
+         Thread.sleep(100);
+         assertNotNull(dc.get("k"));
+         dc.purgeExpired();
+      }
+      assertEquals(1, dc.size());
+      Thread.sleep(400);
+      dc.purgeExpired();
+      assertEquals(0, dc.size());
+   }
+
+   public void testShortenedLifespanIsHonoured() throws InterruptedException {
+      dc.put("k", "v", null, 6000000, -1);
+      dc.put("k", "v2", null, 50, -1);
+      Thread.sleep(100);
+      dc.purgeExpired();
+      assertEquals(0, dc.size());
+   }
+
+   public void testImmortalEntriesAreNotIndexed() throws InterruptedException {
+      for (int i = 0; i < 100; i++)
+         dc.put("immortal" + i, "v", null, -1, -1);
+      dc.put("mortal", "v", null, 50, -1);
+      assertEquals(1, ((DefaultDataContainer) dc).getTimingWheel().size());
+      Thread.sleep(100);
+      dc.purgeExpired();
+      assertEquals(100, dc.size());
+      assertEquals(0, ((DefaultDataContainer) dc).getTimingWheel().size());
+   }
+
+   public void testTimerDoesNotRetainRemovedEntry() throws InterruptedException {
+      dc.put("k", "v", null, 6000000, -1);
+      WeakReference<InternalCacheEntry> ref = new WeakReference<InternalCacheEntry>(dc.peek("k"));
+      dc.remove("k");
+      for (int i = 0; i < 50 && ref.get() != null; i++) {
+         System.gc();
+         Thread.sleep(10);
+      }
+      assertNull(ref.get());
+   }
+
+   @Test(expectedExceptions = ConfigurationException.class)
+   public void testOffHeapNotAllowed() {
+      new ConfigurationBuilder().expiration().timingWheel(true).dataContainer().offHeap(true).build();
+   }
+
+   @Test(expectedExceptions = ConfigurationException.class)
+   public void testCustomDataContainerNotAllowed() {
+      new ConfigurationBuilder().expiration().timingWheel(true)
+            .dataContainer().dataContainer(DefaultDataContainer.unBoundedDataContainer(16)).build();
+   }
+}
@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "container.TimingWheelTest")
+public class TimingWheelTest extends AbstractInfinispanTest {
+
+   public void testTimersFireInOrderAcrossLevels() {
+      TimingWheel wheel = new TimingWheel(1, 0);
+      long[] expiries = {0, 5, 63, 64, 100, 4095, 4096, 5000, 300000, 20000000};
+      for (long expiry : expiries)
+         wheel.schedule(expiry, null, expiry);
+      assertEquals(expiries.length, wheel.size());
+
+      RecordingHandler handler = new RecordingHandler();
+      for (long now = 0; now <= 20000008; now += 7) {
+         wheel.advance(now, handler);
+         for (int i = 0; i < handler.fired.size(); i++) {
+            long expiry = (Long) handler.fired.get(i);
+            assertTrue("Timer for " + expiry + " fired early at " + handler.firedAt.get(i), handler.firedAt.get(i) > expiry);
+            assertTrue("Timer for " + expiry + " fired late at " + handler.firedAt.get(i), handler.firedAt.get(i) <= expiry + 8);
+         }
+         handler.fired.clear();
+         handler.firedAt.clear();
+         if (now > 301000 && now < 19000000)
+            now = 19000000;
+      }
+      assertEquals(0, wheel.size());
+   }
+
+   public void testRescheduling() {
+      TimingWheel wheel = new TimingWheel(10, 0);
+      wheel.schedule("k", null, 100);
+      final long[] nextExpiry = {500};
+      TimingWheel.ExpirationHandler handler = new TimingWheel.ExpirationHandler() {
+         @Override
+         public long onTimer(Object key, InternalCacheEntry entry, long now) {
+            long next = nextExpiry[0];
+            nextExpiry[0] = -1;
+            return next;
+         }
+      };
+      assertEquals(0, wheel.advance(100, handler));
+      assertEquals(1, wheel.advance(110, handler));
+      assertEquals(1, wheel.size());
+      assertEquals(0, wheel.advance(500, handler));
+      assertEquals(1, wheel.advance(510, handler));
+      assertEquals(0, wheel.size());
+   }
+
+   public void testLongPauseRedistributesTimers() {
+      TimingWheel wheel = new TimingWheel(1, 0);
+      wheel.schedule("near", null, 10);
+      wheel.schedule("far", null, Long.MAX_VALUE / 2);
+      RecordingHandler handler = new RecordingHandler();
+      assertEquals(1, wheel.advance(1L << 30, handler));
+      assertEquals("near", handler.fired.get(0));
+      assertEquals(1, wheel.size());
+   }
+
+   public void testClear() {
+      TimingWheel wheel = new TimingWheel(1, 0);
+      for (int i = 0; i < 10; i++)
+         wheel.schedule(i, null, i * 1000);
+      wheel.advance(1, new RecordingHandler());
+      wheel.clear();
+      assertEquals(0, wheel.size());
+      assertEquals(0, wheel.advance(100000, new RecordingHandler()));
+   }
+
+   private static class RecordingHandler implements TimingWheel.ExpirationHandler {
+      final List<Object> fired = new ArrayList<Object>();
+      final List<Long> firedAt = new ArrayList<Long>();
+
+      @Override
+      public long onTimer(Object key, InternalCacheEntry entry, long now) {
+         fired.add(key);
+         firedAt.add(now);
+         return -1;
+      }
+   }
+}
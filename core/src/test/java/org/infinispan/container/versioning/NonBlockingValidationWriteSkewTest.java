@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container.versioning;
+
+import org.infinispan.Cache;
+import org.infinispan.config.ConfigurationException;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.VersioningScheme;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.transaction.lookup.DummyTransactionManagerLookup;
+import org.infinispan.transaction.tm.DummyTransaction;
+import org.infinispan.util.concurrent.IsolationLevel;
+import org.testng.annotations.Test;
+
+import javax.transaction.RollbackException;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Runs the replicated write skew tests with non-blocking validation enabled and checks that a prepare conflicting with
+ * an already prepared transaction on a key it read fails straight away instead of waiting for the lock.
+ *
+ * @since 5.2
+ */
+@Test(testName = "container.versioning.NonBlockingValidationWriteSkewTest", groups = "functional")
+@CleanupAfterMethod
+public class NonBlockingValidationWriteSkewTest extends ReplWriteSkewTest {
+
+   private static final long LOCK_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+   @Override
+   protected void decorate(ConfigurationBuilder builder) {
+      builder.locking().nonBlockingValidation(true).lockAcquisitionTimeout(LOCK_TIMEOUT);
+   }
+
+   public void testConflictingPrepareFailsFast() throws Exception {
+      Cache<Object, Object> cache0 = cache(0);
+      Cache<Object, Object> cache1 = cache(1);
+      cache0.put("k", "v0");
+
+      tm(0).begin();
+      cache0.put("k", "v1");
+      DummyTransaction prepared = (DummyTransaction) tm(0).getTransaction();
+      assertTrue(prepared.runPrepare());
+      Transaction t = tm(0).suspend();
+
+      tm(1).begin();
+      assertEquals("v0", cache1.get("k"));
+      cache1.put("k", "v2");
+      long start = System.currentTimeMillis();
+      try {
+         tm(1).commit();
+         fail("Transaction should roll back");
+      } catch (RollbackException expected) {
+         // expected
+      }
+      long duration = System.currentTimeMillis() - start;
+      assertTrue("Prepare waited " + duration + " millis for the lock", duration < LOCK_TIMEOUT / 2);
+
+      tm(0).resume(t);
+      prepared.runCommitTx();
+      tm(0).suspend();
+
+      assertEquals("v1", cache0.get("k"));
+      assertEquals("v1", cache1.get("k"));
+   }
+
+   public void testBlindWriteWaitsForLock() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(true);
+      builder.versioning().enable().scheme(VersioningScheme.SIMPLE)
+            .locking().isolationLevel(IsolationLevel.REPEATABLE_READ).writeSkewCheck(true)
+            .nonBlockingValidation(true).lockAcquisitionTimeout(LOCK_TIMEOUT)
+            .transaction().lockingMode(LockingMode.OPTIMISTIC)
+            .transactionManagerLookup(new DummyTransactionManagerLookup());
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
+      try {
+         final Cache<Object, Object> cache = cm.getCache();
+         final TransactionManager tm = cache.getAdvancedCache().getTransactionManager();
+         cache.put("k", "v0");
+
+         tm.begin();
+         cache.put("k", "v1");
+         DummyTransaction prepared = (DummyTransaction) tm.getTransaction();
+         assertTrue(prepared.runPrepare());
+         Transaction t = tm.suspend();
+
+         // a key written without being read can't be a write skew, so the prepare waits for the lock
+         Future<Void> blindWrite = fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               tm.begin();
+               cache.put("k", "v2");
+               tm.commit();
+               return null;
+            }
+         });
+         Thread.sleep(500);
+         assertFalse(blindWrite.isDone());
+
+         tm.resume(t);
+         prepared.runCommitTx();
+         tm.suspend();
+
+         blindWrite.get(10, TimeUnit.SECONDS);
+         assertEquals("v2", cache.get("k"));
+      } finally {
+         TestingUtil.killCacheManagers(cm);
+      }
+   }
+
+   public void testLockStripingNotAllowed() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.versioning().enable().scheme(VersioningScheme.SIMPLE)
+            .locking().isolationLevel(IsolationLevel.REPEATABLE_READ).writeSkewCheck(true)
+            .nonBlockingValidation(true).useLockStriping(true)
+            .transaction().lockingMode(LockingMode.OPTIMISTIC);
+      try {
+         builder.build();
+         fail("Non-blocking validation must not be allowed with lock striping");
+      } catch (ConfigurationException expected) {
+         // expected
+      }
+   }
+
+   public void testRequiresWriteSkewCheck() {
+      try {
+         new ConfigurationBuilder().locking().nonBlockingValidation(true).build();
+         fail("Non-blocking validation must require write skew checking");
+      } catch (ConfigurationException expected) {
+         // expected
+      }
+   }
+}
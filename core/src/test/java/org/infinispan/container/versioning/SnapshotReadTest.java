@@ -0,0 +1,135 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container.versioning;
+
+import org.infinispan.CacheException;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.VersioningScheme;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.util.concurrent.IsolationLevel;
+import org.testng.annotations.Test;
+
+import javax.transaction.Transaction;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests that transactions read a consistent snapshot when versions are retained.
+ *
+ * @since 5.2
+ */
+@Test(testName = "container.versioning.SnapshotReadTest", groups = "functional")
+@CleanupAfterMethod
+public class SnapshotReadTest extends SingleCacheManagerTest {
+
+   private static final int RETAINED_VERSIONS = 3;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(true);
+      builder
+            .versioning()
+               .enable()
+               .scheme(VersioningScheme.SIMPLE)
+               .retainedVersions(RETAINED_VERSIONS)
+            .locking()
+               .isolationLevel(IsolationLevel.REPEATABLE_READ)
+               .writeSkewCheck(true)
+            .transaction()
+               .lockingMode(LockingMode.OPTIMISTIC);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testReadsAreConsistentAcrossKeys() throws Exception {
+      cache.put("a", "a1");
+      cache.put("b", "b1");
+
+      tm().begin();
+      assertEquals("a1", cache.get("a"));
+      Transaction t = tm().suspend();
+
+      tm().begin();
+      cache.put("a", "a2");
+      cache.put("b", "b2");
+      cache.put("c", "c2");
+      cache.remove("a");
+      tm().commit();
+
+      tm().resume(t);
+      assertEquals("a1", cache.get("a"));
+      assertEquals("b1", cache.get("b"));
+      assertNull(cache.get("c"));
+      tm().commit();
+
+      assertNull(cache.get("a"));
+      assertEquals("b2", cache.get("b"));
+      assertEquals("c2", cache.get("c"));
+      assertEquals(0, snapshotManager().getKeysWithRetainedVersions());
+      assertEquals(0, snapshotManager().getOpenSnapshots());
+   }
+
+   public void testSnapshotTooOld() throws Exception {
+      cache.put("a", "a0");
+      cache.put("b", "b0");
+
+      tm().begin();
+      assertEquals("a0", cache.get("a"));
+      Transaction t = tm().suspend();
+
+      for (int i = 1; i <= RETAINED_VERSIONS + 1; i++) {
+         // versions overwritten before any newer snapshot is taken are never retained
+         tm().begin();
+         cache.get("c");
+         tm().commit();
+         cache.put("b", "b" + i);
+      }
+
+      tm().resume(t);
+      try {
+         cache.get("b");
+         fail("The version of b visible in the snapshot should have been discarded");
+      } catch (CacheException expected) {
+         // expected
+      } finally {
+         tm().rollback();
+      }
+      assertEquals(1, snapshotManager().getTooOldReads());
+      assertEquals(0, snapshotManager().getOpenSnapshots());
+   }
+
+   public void testNoVersionsRetainedWithoutSnapshots() {
+      for (int i = 0; i < 10; i++) cache.put("a", "a" + i);
+      assertEquals(0, snapshotManager().getKeysWithRetainedVersions());
+   }
+
+   private SnapshotManagerImpl snapshotManager() {
+      return (SnapshotManagerImpl) TestingUtil.extractComponent(cache, SnapshotManager.class);
+   }
+}
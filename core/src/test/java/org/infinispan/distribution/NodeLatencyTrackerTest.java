@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.distribution;
+
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+@Test(groups = "unit", testName = "distribution.NodeLatencyTrackerTest")
+public class NodeLatencyTrackerTest extends AbstractInfinispanTest {
+
+   private final Address a = new TestAddress(0);
+   private final Address b = new TestAddress(1);
+
+   public void testNeedsMinimumSamples() {
+      NodeLatencyTracker tracker = new NodeLatencyTracker(1.0);
+      assertEquals(-1, tracker.getPercentile(a));
+      for (int i = 1; i < NodeLatencyTracker.MIN_SAMPLES; i++)
+         tracker.recordLatency(a, i);
+      assertEquals(-1, tracker.getPercentile(a));
+      tracker.recordLatency(a, NodeLatencyTracker.MIN_SAMPLES);
+      assertEquals(NodeLatencyTracker.MIN_SAMPLES, tracker.getPercentile(a));
+      assertEquals(-1, tracker.getPercentile(b));
+   }
+
+   public void testPercentiles() {
+      NodeLatencyTracker lowest = new NodeLatencyTracker(0);
+      NodeLatencyTracker median = new NodeLatencyTracker(0.5);
+      NodeLatencyTracker highest = new NodeLatencyTracker(1.0);
+      for (int i = 2 * NodeLatencyTracker.WINDOW_SIZE; i > 0; i--) {
+         lowest.recordLatency(a, i);
+         median.recordLatency(a, i);
+         highest.recordLatency(a, i);
+      }
+      // only the most recent samples are kept, i.e. 1 to WINDOW_SIZE
+      assertEquals(1, lowest.getPercentile(a));
+      assertEquals(NodeLatencyTracker.WINDOW_SIZE / 2, median.getPercentile(a));
+      assertEquals(NodeLatencyTracker.WINDOW_SIZE, highest.getPercentile(a));
+   }
+
+   public void testRecomputedPeriodically() {
+      NodeLatencyTracker tracker = new NodeLatencyTracker(0);
+      for (int i = 0; i < NodeLatencyTracker.MIN_SAMPLES; i++)
+         tracker.recordLatency(a, 10);
+      assertEquals(10, tracker.getPercentile(a));
+      for (int i = 1; i < NodeLatencyTracker.RECOMPUTE_INTERVAL; i++)
+         tracker.recordLatency(a, 1);
+      assertEquals(10, tracker.getPercentile(a));
+      tracker.recordLatency(a, 1);
+      assertEquals(1, tracker.getPercentile(a));
+   }
+
+   public void testRetainAll() {
+      NodeLatencyTracker tracker = new NodeLatencyTracker(0.9);
+      for (int i = 0; i < NodeLatencyTracker.MIN_SAMPLES; i++) {
+         tracker.recordLatency(a, 10);
+         tracker.recordLatency(b, 20);
+      }
+      tracker.retainAll(Collections.singletonList(b));
+      assertEquals(-1, tracker.getPercentile(a));
+      assertEquals(20, tracker.getPercentile(b));
+   }
+}
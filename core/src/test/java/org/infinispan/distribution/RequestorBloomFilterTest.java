@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.distribution;
+
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "distribution.RequestorBloomFilterTest")
+public class RequestorBloomFilterTest extends AbstractInfinispanTest {
+
+   private final Address a = new TestAddress(1);
+   private final Address b = new TestAddress(2);
+
+   public void testNoFalseNegatives() {
+      RequestorBloomFilter filter = new RequestorBloomFilter(4, 1024);
+      for (int i = 0; i < 1000; i++)
+         filter.add(i % 4, "k" + i, i % 2 == 0 ? a : b);
+      for (int i = 0; i < 1000; i++)
+         assertTrue(filter.getRequestors(i % 4, "k" + i).contains(i % 2 == 0 ? a : b));
+      assertEquals(2, filter.getTrackedRequestors().size());
+   }
+
+   public void testFalsePositiveRate() {
+      RequestorBloomFilter filter = new RequestorBloomFilter(1, 8192);
+      for (int i = 0; i < 500; i++)
+         filter.add(0, "k" + i, a);
+      int falsePositives = 0;
+      for (int i = 500; i < 10500; i++)
+         if (!filter.getRequestors(0, "k" + i).isEmpty()) falsePositives++;
+      // 3 hashes, 16 bits per key: about 0.5% expected
+      assertTrue("False positives: " + falsePositives, falsePositives < 300);
+   }
+
+   public void testSegmentsAreIndependent() {
+      RequestorBloomFilter filter = new RequestorBloomFilter(2, 64);
+      filter.add(0, "k", a);
+      assertEquals(Collections.singleton(a), filter.getRequestors(0, "k"));
+      assertTrue(filter.getRequestors(1, "k").isEmpty());
+   }
+
+   public void testRotation() {
+      RequestorBloomFilter filter = new RequestorBloomFilter(1, 1024);
+      filter.add(0, "k", a);
+      filter.rotate();
+      assertTrue("Keys must survive one rotation", filter.getRequestors(0, "k").contains(a));
+      filter.add(0, "k2", b);
+      filter.rotate();
+      assertFalse(filter.getRequestors(0, "k").contains(a));
+      assertTrue(filter.getRequestors(0, "k2").contains(b));
+   }
+
+   public void testRemoveRequestor() {
+      RequestorBloomFilter filter = new RequestorBloomFilter(1, 1024);
+      filter.add(0, "k", a);
+      filter.add(0, "k", b);
+      filter.rotate();
+      filter.add(0, "k", a);
+      filter.removeRequestor(a);
+      assertEquals(Collections.singleton(b), filter.getRequestors(0, "k"));
+   }
+}
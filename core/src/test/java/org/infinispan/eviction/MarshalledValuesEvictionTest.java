@@ -116,9 +116,9 @@ static class MockMarshalledValueInterceptor extends MarshalledValueInterceptor {
       }
 
       @Override
-      protected MarshalledValue createMarshalledValue(Object toWrap, InvocationContext ctx) {
+      protected MarshalledValue createMarshalledValue(Object toWrap, InvocationContext ctx, boolean compressible) {
          marshalledValueCreated = true;
-         return super.createMarshalledValue(toWrap, ctx);
+         return super.createMarshalledValue(toWrap, ctx, compressible);
       }
 
       @Override
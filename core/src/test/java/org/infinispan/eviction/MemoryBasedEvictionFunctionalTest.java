@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.eviction;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.CacheManagerCallable;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import static org.infinispan.test.TestingUtil.withCacheManager;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "functional", testName = "eviction.MemoryBasedEvictionFunctionalTest")
+public class MemoryBasedEvictionFunctionalTest extends SingleCacheManagerTest {
+
+   private static final long MAX_MEMORY = 1024 * 1024;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.eviction().maxMemory(MAX_MEMORY).sizeEstimator(new ByteArraySizeEstimator())
+            .locking().concurrencyLevel(1);
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
+      cache = cm.getCache();
+      return cm;
+   }
+
+   public void testEvictionBoundedByMemory() {
+      // 10 x 200KB values do not fit in 1MB
+      for (int i = 0; i < 10; i++)
+         cache.put("key-" + i, new byte[200 * 1024]);
+      assertTrue("Cache size was " + cache.size(), cache.size() <= 5);
+      // most recently written entry always survives
+      assertNotNull(cache.get("key-9"));
+   }
+
+   public void testSmallValuesAreNotEvicted() {
+      for (int i = 0; i < 500; i++)
+         cache.put("key-" + i, new byte[100]);
+      assertEquals(500, cache.size());
+   }
+
+   public void testValueGrowthTriggersEviction() {
+      for (int i = 0; i < 4; i++)
+         cache.put("key-" + i, new byte[200 * 1024]);
+      assertEquals(4, cache.size());
+      // overwriting with a larger value must account for the difference
+      cache.put("key-3", new byte[500 * 1024]);
+      assertTrue("Cache size was " + cache.size(), cache.size() < 4);
+      assertNotNull(cache.get("key-3"));
+   }
+
+   public void testRefusedEvictionDoesNotEvictWholeSegment() {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.eviction().maxMemory(MAX_MEMORY).sizeEstimator(new ByteArraySizeEstimator())
+            .locking().concurrencyLevel(1)
+            .loaders().passivation(true)
+            .addStore(DummyInMemoryCacheStoreConfigurationBuilder.class)
+            .async().enabled(true);
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.createCacheManager(builder)) {
+         @Override
+         public void call() {
+            Cache<Object, Object> c = cm.getCache();
+            for (int i = 0; i < 10; i++)
+               c.put("key-" + i, new byte[200 * 1024]);
+
+            // the async store keeps every passivated entry in memory until it is stored, refusing its eviction, but
+            // that must not push the most recently written entries out as well
+            DataContainer dc = TestingUtil.extractComponent(c, DataContainer.class);
+            for (int i = 5; i < 10; i++) {
+               InternalCacheEntry entry = dc.peek("key-" + i);
+               assertNotNull("key-" + i + " was evicted", entry);
+               assertFalse("key-" + i + " was evicted", entry.isEvicted());
+            }
+            for (int i = 0; i < 10; i++)
+               assertNotNull(c.get("key-" + i));
+         }
+      });
+   }
+
+   public static class ByteArraySizeEstimator implements EntrySizeEstimator {
+      @Override
+      public long estimateSize(Object key, InternalCacheEntry entry) {
+         Object value = entry.getValue();
+         return value instanceof byte[] ? ((byte[]) value).length : 1;
+      }
+   }
+}
@@ -0,0 +1,182 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "marshall.CompressionManagerImplTest")
+public class CompressionManagerImplTest extends AbstractInfinispanTest {
+
+   CompressionManagerImpl compressionManager;
+
+   @BeforeMethod
+   public void setUp() {
+      compressionManager = createCompressionManager(true);
+   }
+
+   private CompressionManagerImpl createCompressionManager(boolean enabled) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.compression().enabled(enabled).threshold(128).jmxStatistics().enable();
+      CompressionManagerImpl manager = new CompressionManagerImpl();
+      manager.inject(builder.build());
+      manager.start();
+      return manager;
+   }
+
+   private static byte[] compressible(int length) {
+      byte[] buf = new byte[length];
+      for (int i = 0; i < length; i++)
+         buf[i] = (byte) ('a' + i % 4);
+      return buf;
+   }
+
+   public void testRoundTrip() throws Exception {
+      byte[] buf = compressible(4096);
+      byte[] compressed = compressionManager.compress(buf, 0, buf.length);
+      assertNotNull(compressed);
+      assertTrue(compressed.length < buf.length);
+      assertTrue(MarshallUtil.isCompressed(compressed, 0, compressed.length));
+      assertFalse(MarshallUtil.isCompressed(buf, 0, buf.length));
+      assertTrue(Arrays.equals(buf, compressionManager.decompress(compressed, 0, compressed.length)));
+      assertTrue(Arrays.equals(buf, MarshallUtil.decompress(compressed, 0, compressed.length)));
+   }
+
+   @Test(expectedExceptions = IOException.class)
+   public void testNegativeUncompressedLength() throws Exception {
+      byte[] compressed = compressionManager.compress(compressible(4096), 0, 4096);
+      compressed[MarshallUtil.COMPRESSED_MAGIC.length] = (byte) 0x80;
+      MarshallUtil.decompress(compressed, 0, compressed.length);
+   }
+
+   @Test(expectedExceptions = IOException.class)
+   public void testUncompressedLengthTooLarge() throws Exception {
+      byte[] compressed = compressionManager.compress(compressible(4096), 0, 4096);
+      compressed[MarshallUtil.COMPRESSED_MAGIC.length] = (byte) 0x7F;
+      MarshallUtil.decompress(compressed, 0, compressed.length);
+   }
+
+   public void testThreshold() {
+      byte[] buf = compressible(128);
+      assertNull(compressionManager.compress(buf, 0, buf.length - 1));
+      assertNotNull(compressionManager.compress(buf, 0, buf.length));
+   }
+
+   public void testIncompressibleData() {
+      byte[] buf = new byte[4096];
+      new Random(42).nextBytes(buf);
+      assertNull(compressionManager.compress(buf, 0, buf.length));
+      assertEquals(0, compressionManager.getCompressions());
+   }
+
+   public void testDisabled() {
+      compressionManager = createCompressionManager(false);
+      assertFalse(compressionManager.isEnabled());
+      byte[] buf = compressible(4096);
+      assertNull(compressionManager.compress(buf, 0, buf.length));
+   }
+
+   public void testStatistics() throws Exception {
+      byte[] buf = compressible(4096);
+      byte[] compressed = compressionManager.compress(buf, 0, buf.length);
+      compressionManager.decompress(compressed, 0, compressed.length);
+      assertEquals(1, compressionManager.getCompressions());
+      assertEquals(1, compressionManager.getDecompressions());
+      assertEquals(4096, compressionManager.getUncompressedBytes());
+      assertEquals(compressed.length, compressionManager.getCompressedBytes());
+
+      compressionManager.resetStatistics();
+      assertEquals(0, compressionManager.getCompressions());
+      assertEquals(0, compressionManager.getDecompressions());
+      assertEquals(0, compressionManager.getCompressedBytes());
+   }
+
+   public void testMarshalledValue() {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 1000; i++)
+         sb.append("value-");
+      String value = sb.toString();
+      MarshalledValue mv = new MarshalledValue(value, true, new TestObjectStreamMarshaller(), compressionManager);
+      int rawSize = mv.getRaw().size();
+      assertTrue(MarshallUtil.isCompressed(mv.getRaw().getRaw(), 0, rawSize));
+      assertTrue(rawSize < value.length());
+
+      mv.compact(true, true);
+      assertEquals(value, mv.get());
+   }
+
+   public void testCompressedMarshalledValueEqualsUncompressed() {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 1000; i++)
+         sb.append("value-");
+      String value = sb.toString();
+      TestObjectStreamMarshaller marshaller = new TestObjectStreamMarshaller();
+      MarshalledValue compressed = new MarshalledValue(value, false, marshaller, compressionManager);
+      MarshalledValue plain = new MarshalledValue(value, false, marshaller);
+      compressed.compact(true, true);
+      plain.compact(true, true);
+      assertTrue(MarshallUtil.isCompressed(compressed.getRaw().getRaw(), 0, compressed.getRaw().size()));
+      assertEquals(compressed.hashCode(), plain.hashCode());
+      assertTrue(compressed.equals(plain));
+      assertTrue(plain.equals(compressed));
+   }
+
+   public void testStopReleasesDeflaters() {
+      byte[] buf = compressible(4096);
+      assertNotNull(compressionManager.compress(buf, 0, buf.length));
+      compressionManager.stop();
+      // deflaters are created on demand after a stop
+      assertNotNull(compressionManager.compress(buf, 0, buf.length));
+   }
+
+   public void testCompressingMarshaller() throws Exception {
+      CompressingMarshaller marshaller = new CompressingMarshaller(new TestObjectStreamMarshaller(), compressionManager);
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 1000; i++)
+         sb.append("value-");
+      String value = sb.toString();
+
+      byte[] bytes = marshaller.objectToByteBuffer(value);
+      assertTrue(MarshallUtil.isCompressed(bytes, 0, bytes.length));
+      assertEquals(value, marshaller.objectFromByteBuffer(bytes));
+      assertEquals(value, marshaller.objectFromInputStream(new ByteArrayInputStream(bytes)));
+
+      // values written before compression was enabled can still be read
+      byte[] plain = new TestObjectStreamMarshaller().objectToByteBuffer("small");
+      assertEquals("small", marshaller.objectFromByteBuffer(plain));
+      assertEquals("small", marshaller.objectFromInputStream(new ByteArrayInputStream(plain)));
+   }
+}
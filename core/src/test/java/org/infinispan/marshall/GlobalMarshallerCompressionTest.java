@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "functional", testName = "marshall.GlobalMarshallerCompressionTest")
+public class GlobalMarshallerCompressionTest extends AbstractInfinispanTest {
+
+   EmbeddedCacheManager compressing, plain;
+   GlobalMarshaller compressingMarshaller, plainMarshaller;
+
+   @BeforeClass
+   public void setUp() {
+      GlobalConfigurationBuilder gcb = new GlobalConfigurationBuilder();
+      gcb.serialization().compressLargePayloads(true).compressionThreshold(1024)
+            .globalJmxStatistics().enable();
+      compressing = TestCacheManagerFactory.createCacheManager(gcb, new ConfigurationBuilder());
+      plain = TestCacheManagerFactory.createCacheManager(new GlobalConfigurationBuilder(), new ConfigurationBuilder());
+      compressingMarshaller = (GlobalMarshaller) TestingUtil.extractGlobalMarshaller(compressing);
+      plainMarshaller = (GlobalMarshaller) TestingUtil.extractGlobalMarshaller(plain);
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      TestingUtil.killCacheManagers(compressing, plain);
+   }
+
+   public void testLargePayloadCompressed() throws Exception {
+      Map<String, String> map = new HashMap<String, String>();
+      for (int i = 0; i < 1000; i++)
+         map.put("key" + i, "value-value-value-value-" + i);
+
+      compressingMarshaller.resetStatistics();
+      byte[] bytes = compressingMarshaller.objectToByteBuffer(map);
+      assertTrue(MarshallUtil.isCompressed(bytes, 0, bytes.length));
+      assertTrue(bytes.length < plainMarshaller.objectToByteBuffer(map).length);
+      assertEquals(1, compressingMarshaller.getCompressedPayloads());
+      assertTrue(compressingMarshaller.getCompressionRatio() < 1);
+
+      // nodes which don't compress their own payloads must still read compressed ones
+      assertEquals(map, plainMarshaller.objectFromByteBuffer(bytes));
+      assertEquals(map, compressingMarshaller.objectFromByteBuffer(bytes));
+   }
+
+   public void testSmallPayloadNotCompressed() throws Exception {
+      byte[] bytes = compressingMarshaller.objectToByteBuffer("small");
+      assertFalse(MarshallUtil.isCompressed(bytes, 0, bytes.length));
+      assertEquals("small", plainMarshaller.objectFromByteBuffer(bytes));
+      assertFalse(plainMarshaller.isCompressionEnabled());
+   }
+}
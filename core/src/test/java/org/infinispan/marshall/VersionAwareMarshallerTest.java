@@ -54,6 +54,7 @@
 import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
 import org.infinispan.loaders.bucket.Bucket;
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.io.ByteBuffer;
 import org.infinispan.marshall.jboss.JBossMarshallingTest.CustomReadObjectMethod;
 import org.infinispan.marshall.jboss.JBossMarshallingTest.ObjectThatContainsACustomReadObjectMethod;
 import org.infinispan.statetransfer.StateRequestCommand;
@@ -542,6 +543,34 @@ public void testFlagMarshalling() throws Exception {
       marshallAndAssertEquality(Arrays.asList(Flag.values()));
    }
 
+   public void testBuffersAreExactlySized() throws Exception {
+      byte[] large = new byte[VersionAwareMarshaller.MAX_POOLED_BUFFER_SIZE * 2];
+      Arrays.fill(large, (byte) 7);
+      for (Object o : Arrays.asList("small", large, "small again")) {
+         ByteBuffer buffer = marshaller.objectToBuffer(o);
+         assertEquals(0, buffer.getOffset());
+         assertEquals(buffer.getBuf().length, buffer.getLength());
+         Object read = marshaller.objectFromByteBuffer(buffer.getBuf(), buffer.getOffset(), buffer.getLength());
+         if (o instanceof byte[])
+            assert Arrays.equals(large, (byte[]) read);
+         else
+            assertEquals(o, read);
+      }
+   }
+
+   public void testNestedMarshalling() throws Exception {
+      Person p = new Person();
+      p.setName("Bob Dylan");
+      // the marshalled value is serialized with this marshaller while the list is being marshalled
+      MarshalledValue mv = new MarshalledValue(p, true, marshaller);
+      List<Object> list = new ArrayList<Object>(Arrays.asList("outer", mv, "outer"));
+      byte[] bytes = marshaller.objectToByteBuffer(list);
+      List<?> read = (List<?>) marshaller.objectFromByteBuffer(bytes);
+      assertEquals("outer", read.get(0));
+      assertEquals(mv, read.get(1));
+      assertEquals("outer", read.get(2));
+   }
+
    protected void marshallAndAssertEquality(Object writeObj) throws Exception {
       byte[] bytes = marshaller.objectToByteBuffer(writeObj);
       Object readObj = marshaller.objectFromByteBuffer(bytes);
@@ -0,0 +1,226 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall.compact;
+
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.AbstractDelegatingMarshaller;
+import org.infinispan.marshall.AbstractExternalizer;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.data.Person;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.infinispan.util.Util;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.infinispan.test.TestingUtil.extractCacheMarshaller;
+import static org.infinispan.test.TestingUtil.extractGlobalMarshaller;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "functional", testName = "marshall.compact.CompactMarshallerTest")
+public class CompactMarshallerTest extends AbstractInfinispanTest {
+
+   private EmbeddedCacheManager cm;
+   private EmbeddedCacheManager jbossCm;
+   private AbstractDelegatingMarshaller marshaller;
+
+   @BeforeClass
+   public void setUp() {
+      GlobalConfigurationBuilder gcb = new GlobalConfigurationBuilder();
+      gcb.serialization().marshaller(new CompactMarshaller()).addAdvancedExternalizer(1234, new Point.Externalizer());
+      cm = TestCacheManagerFactory.createCacheManager(gcb, new ConfigurationBuilder());
+      cm.getCache();
+      marshaller = extractGlobalMarshaller(cm);
+
+      GlobalConfigurationBuilder jbossGcb = new GlobalConfigurationBuilder();
+      jbossGcb.serialization().addAdvancedExternalizer(1234, new Point.Externalizer());
+      jbossCm = TestCacheManagerFactory.createCacheManager(jbossGcb, new ConfigurationBuilder());
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      TestingUtil.killCacheManagers(cm, jbossCm);
+   }
+
+   public void testCacheMarshallerIsCompact() throws Exception {
+      Point point = new Point(1, 2);
+      assertTrue(Arrays.equals(marshaller.objectToByteBuffer(point),
+            extractCacheMarshaller(cm.getCache()).objectToByteBuffer(point)));
+   }
+
+   public void testBuiltInTypes() throws Exception {
+      StringBuilder longString = new StringBuilder();
+      for (int i = 0; i < 70000; i++)
+         longString.append((char) i);
+      List<Object> values = Arrays.<Object>asList("", "h\u00e9llo \u20ac", longString.toString(),
+            Integer.MIN_VALUE, -1, 0, Integer.MAX_VALUE, Long.MIN_VALUE, 42L, Long.MAX_VALUE, true, false,
+            3.5d, Double.NaN, -1.5f, (short) -3, (byte) 7, 'x', (char) 0xFFFF);
+      for (Object value : values)
+         assertEquals(value, roundTrip(value));
+      assertNull(roundTrip(null));
+      byte[] bytes = {1, 2, 3};
+      assertTrue(Arrays.equals(bytes, (byte[]) roundTrip(bytes)));
+   }
+
+   public void testInternalTypes() throws Exception {
+      Map<String, Object> map = new HashMap<String, Object>();
+      map.put("k1", 1);
+      map.put("k2", Collections.singletonList("v"));
+      assertEquals(map, roundTrip(map));
+
+      InternalCacheEntry entry = TestInternalCacheEntryFactory.create("key", "value", 1000, 2000);
+      InternalCacheEntry read = (InternalCacheEntry) roundTrip(entry);
+      assertEquals(entry.getClass(), read.getClass());
+      assertEquals("key", read.getKey());
+      assertEquals("value", read.getValue());
+      assertEquals(1000, read.getLifespan());
+      assertEquals(2000, read.getMaxIdle());
+
+      PutKeyValueCommand put = new PutKeyValueCommand("k", "v", false, null, 0, 0, Collections.<Flag>emptySet());
+      assertEquals(put, roundTrip(put));
+
+      ClusteredGetCommand get = new ClusteredGetCommand("key", cm.getCache().getName(), Collections.<Flag>emptySet());
+      assertEquals(get, roundTrip(get));
+   }
+
+   public void testForeignExternalizer() throws Exception {
+      Point point = new Point(-3, 1 << 20);
+      assertEquals(point, roundTrip(point));
+      assertEquals(Arrays.asList(point, "x", point), roundTrip(new ArrayList<Object>(Arrays.asList(point, "x", point))));
+   }
+
+   public void testTypesWithoutExternalizer() throws Exception {
+      Person person = new Person();
+      person.setName("Bob Dylan");
+      assertEquals(person, roundTrip(person));
+      List<Object> list = new ArrayList<Object>(Arrays.asList(1, person, new Point(1, 2), new String[]{"a", "b"}));
+      List<?> read = (List<?>) roundTrip(list);
+      assertEquals(list.subList(0, 3), read.subList(0, 3));
+      assertTrue(Arrays.equals((String[]) list.get(3), (String[]) read.get(3)));
+   }
+
+   public void testStreams() throws Exception {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      ObjectOutput out = marshaller.startObjectOutput(baos, false, 16);
+      try {
+         marshaller.objectToObjectStream("first", out);
+         marshaller.objectToObjectStream(new Point(1, 2), out);
+         out.writeInt(-5);
+      } finally {
+         marshaller.finishObjectOutput(out);
+      }
+
+      ObjectInput in = marshaller.startObjectInput(new ByteArrayInputStream(baos.toByteArray()), false);
+      try {
+         assertEquals("first", marshaller.objectFromObjectStream(in));
+         assertEquals(new Point(1, 2), marshaller.objectFromObjectStream(in));
+         assertEquals(-5, in.readInt());
+         assertEquals(-1, in.read());
+      } finally {
+         marshaller.finishObjectInput(in);
+      }
+   }
+
+   public void testSmallerThanJBossMarshalling() throws Exception {
+      AbstractDelegatingMarshaller jbossMarshaller = extractGlobalMarshaller(jbossCm);
+      Map<String, Object> map = new HashMap<String, Object>();
+      for (int i = 0; i < 16; i++)
+         map.put("field-" + i, i);
+      List<Object> values = Arrays.<Object>asList("key-1", 42L, map, new Point(3, 4),
+            TestInternalCacheEntryFactory.create("key", "value", 1000),
+            new PutKeyValueCommand("k", "v", false, null, 0, 0, Collections.<Flag>emptySet()));
+      for (Object value : values) {
+         int compact = marshaller.objectToByteBuffer(value).length;
+         int jboss = jbossMarshaller.objectToByteBuffer(value).length;
+         assertTrue(value + ": " + compact + " >= " + jboss, compact < jboss);
+      }
+   }
+
+   private Object roundTrip(Object o) throws Exception {
+      return marshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(o));
+   }
+
+   static class Point {
+      final int x;
+      final int y;
+
+      Point(int x, int y) {
+         this.x = x;
+         this.y = y;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (!(o instanceof Point)) return false;
+         Point point = (Point) o;
+         return x == point.x && y == point.y;
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * x + y;
+      }
+
+      public static class Externalizer extends AbstractExternalizer<Point> {
+         @Override
+         public Set<Class<? extends Point>> getTypeClasses() {
+            return Util.<Class<? extends Point>>asSet(Point.class);
+         }
+
+         @Override
+         public void writeObject(ObjectOutput output, Point point) throws IOException {
+            output.writeInt(point.x);
+            output.writeInt(point.y);
+         }
+
+         @Override
+         public Point readObject(ObjectInput input) throws IOException {
+            return new Point(input.readInt(), input.readInt());
+         }
+      }
+   }
+}
@@ -33,6 +33,7 @@
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 
@@ -150,6 +151,24 @@ public void testNotifyCacheEntriesEvicted() {
       assert entry.getValue().equals("v");
    }
 
+   public void testNotifyMultipleCacheEntriesEvicted() {
+      InternalCacheEntry ice1 = TestInternalCacheEntryFactory.create("k1", "v1");
+      InternalCacheEntry ice2 = TestInternalCacheEntryFactory.create("k2", "v2");
+      n.notifyCacheEntriesEvicted(Arrays.asList(ice1, ice2), null);
+
+      assert cl.getInvocationCount() == 1;
+      Map<Object, Object> entries = ((CacheEntriesEvictedEvent) cl.getEvents().get(0)).getEntries();
+      assert entries.size() == 2;
+      assert entries.get("k1").equals("v1");
+      assert entries.get("k2").equals("v2");
+   }
+
+   public void testHasEvictionListeners() {
+      assert n.hasEvictionListeners();
+      n.removeListener(cl);
+      assert !n.hasEvictionListeners();
+   }
+
    public void testNotifyCacheEntryInvalidated() {
       n.notifyCacheEntryInvalidated("k", "v", true, ctx);
       n.notifyCacheEntryInvalidated("k", "v", false, ctx);
@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "remoting.InboundPartitionExecutorImplTest")
+public class InboundPartitionExecutorImplTest extends AbstractInfinispanTest {
+
+   InboundPartitionExecutorImpl executor;
+
+   @BeforeMethod
+   public void setUp() {
+      executor = new InboundPartitionExecutorImpl(4);
+      executor.start();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      executor.stop();
+   }
+
+   public void testTasksOnSamePartitionRunInOrder() throws Exception {
+      final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+      List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+      for (int i = 0; i < 100; i++) {
+         final int id = i;
+         futures.add(executor.submit(5, new Callable<Integer>() {
+            @Override
+            public Integer call() {
+               executed.add(id);
+               return id;
+            }
+         }));
+      }
+      for (int i = 0; i < 100; i++)
+         assertEquals(i, (int) futures.get(i).get(10, TimeUnit.SECONDS));
+      for (int i = 0; i < 100; i++)
+         assertEquals(i, (int) executed.get(i));
+   }
+
+   public void testBlockedPartitionDoesNotBlockOthers() throws Exception {
+      final CountDownLatch started = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      Future<Object> blocked = executor.submit(0, new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            started.countDown();
+            release.await();
+            return null;
+         }
+      });
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+      executor.submit(0, new Callable<Object>() {
+         @Override
+         public Object call() {
+            return null;
+         }
+      });
+      assertEquals("ok", executor.submit(1, new Callable<String>() {
+         @Override
+         public String call() {
+            return "ok";
+         }
+      }).get(10, TimeUnit.SECONDS));
+      assertEquals(1, executor.getTotalQueueDepth());
+      assertEquals(1, executor.getMaxQueueDepth());
+      assertEquals("[1, 0, 0, 0]", executor.getQueueDepths());
+      assertFalse(blocked.isDone());
+
+      release.countDown();
+      blocked.get(10, TimeUnit.SECONDS);
+   }
+
+   public void testNegativePartition() throws Exception {
+      assertTrue(executor.submit(-7, new Callable<Boolean>() {
+         @Override
+         public Boolean call() {
+            return true;
+         }
+      }).get(10, TimeUnit.SECONDS));
+   }
+}
@@ -0,0 +1,162 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting.transport.jgroups;
+
+import org.infinispan.commands.remote.BatchedRpcCommand;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.jgroups.Address;
+import org.jgroups.Message;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.blocks.ResponseMode;
+import org.jgroups.blocks.RpcDispatcher;
+import org.jgroups.util.Buffer;
+import org.jgroups.util.UUID;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "remoting.transport.jgroups.CommandBatcherTest")
+public class CommandBatcherTest extends AbstractInfinispanTest {
+
+   private final Address destination = UUID.randomUUID();
+   private CommandAwareRpcDispatcher card;
+   private CommandBatcher batcher;
+   private List<Message> sent;
+   private List<BatchedRpcCommand> batches;
+   private volatile CountDownLatch sending;
+   private volatile CountDownLatch release;
+
+   @BeforeMethod
+   public void setUp() throws Exception {
+      sent = Collections.synchronizedList(new ArrayList<Message>());
+      batches = Collections.synchronizedList(new ArrayList<BatchedRpcCommand>());
+      card = mock(CommandAwareRpcDispatcher.class);
+      RpcDispatcher.Marshaller marshaller = mock(RpcDispatcher.Marshaller.class);
+      when(card.getMarshaller()).thenReturn(marshaller);
+      when(marshaller.objectToBuffer(any())).thenAnswer(new Answer<Buffer>() {
+         @Override
+         public Buffer answer(InvocationOnMock invocation) {
+            batches.add((BatchedRpcCommand) invocation.getArguments()[0]);
+            return new Buffer(new byte[]{0});
+         }
+      });
+      doAnswer(new Answer<Object>() {
+         @Override
+         public Object answer(InvocationOnMock invocation) throws Exception {
+            sent.add((Message) invocation.getArguments()[0]);
+            if (sending != null) {
+               sending.countDown();
+               release.await(10, TimeUnit.SECONDS);
+            }
+            return null;
+         }
+      }).when(card).sendMessageWithFuture(any(Message.class), any(RequestOptions.class));
+      batcher = new CommandBatcher(card, 2);
+   }
+
+   public void testIdleDestinationIsNotBatched() throws Exception {
+      Buffer buf = new Buffer(new byte[]{1, 2, 3});
+      Future<Object> f = batcher.send(destination, buf, ResponseMode.GET_NONE, true, 1000);
+      assertTrue(f.isDone());
+      assertEquals(1, sent.size());
+      assertSame(buf.getBuf(), sent.get(0).getRawBuffer());
+      assertEquals(destination, sent.get(0).getDest());
+      assertTrue(batches.isEmpty());
+   }
+
+   public void testBusyDestinationIsBatched() throws Exception {
+      sending = new CountDownLatch(1);
+      release = new CountDownLatch(1);
+      Future<Object> first = fork(new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            return batcher.send(destination, new Buffer(new byte[]{1}), ResponseMode.GET_NONE, true, 1000).get();
+         }
+      });
+      assertTrue(sending.await(10, TimeUnit.SECONDS));
+      sending = null;
+
+      // queued behind the send in progress, and sent by the thread performing it
+      Future<Object> second = batcher.send(destination, new Buffer(new byte[]{2}), ResponseMode.GET_NONE, true, 1000);
+      Future<Object> third = batcher.send(destination, new Buffer(new byte[]{3}), ResponseMode.GET_NONE, true, 1000);
+      Future<Object> fourth = batcher.send(destination, new Buffer(new byte[]{4}), ResponseMode.GET_NONE, true, 1000);
+      assertFalse(second.isDone());
+      release.countDown();
+      first.get(10, TimeUnit.SECONDS);
+      second.get(10, TimeUnit.SECONDS);
+      third.get(10, TimeUnit.SECONDS);
+      fourth.get(10, TimeUnit.SECONDS);
+
+      // the first command on its own, then a full batch, then the remaining command on its own
+      assertEquals(3, sent.size());
+      assertEquals(1, batches.size());
+      byte[][] payloads = batches.get(0).getPayloads();
+      assertEquals(2, payloads.length);
+      assertEquals(2, payloads[0][0]);
+      assertEquals(3, payloads[1][0]);
+      assertEquals(4, sent.get(2).getRawBuffer()[0]);
+   }
+
+   public void testOobAndRegularCommandsAreNotMixed() throws Exception {
+      sending = new CountDownLatch(1);
+      release = new CountDownLatch(1);
+      Future<Object> first = fork(new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            return batcher.send(destination, new Buffer(new byte[]{1}), ResponseMode.GET_NONE, false, 1000).get();
+         }
+      });
+      assertTrue(sending.await(10, TimeUnit.SECONDS));
+      sending = null;
+
+      Future<Object> regular = batcher.send(destination, new Buffer(new byte[]{2}), ResponseMode.GET_NONE, false, 1000);
+      Future<Object> oob = batcher.send(destination, new Buffer(new byte[]{3}), ResponseMode.GET_NONE, true, 1000);
+      release.countDown();
+      first.get(10, TimeUnit.SECONDS);
+      regular.get(10, TimeUnit.SECONDS);
+      oob.get(10, TimeUnit.SECONDS);
+
+      assertEquals(3, sent.size());
+      assertTrue(batches.isEmpty());
+      assertFalse(sent.get(1).isFlagSet(Message.OOB));
+      assertTrue(sent.get(2).isFlagSet(Message.OOB));
+   }
+}
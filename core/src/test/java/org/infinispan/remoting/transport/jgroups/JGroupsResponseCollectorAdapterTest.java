@@ -0,0 +1,100 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting.transport.jgroups;
+
+import org.infinispan.container.versioning.EntryVersionsMap;
+import org.infinispan.container.versioning.SimpleClusteredVersion;
+import org.infinispan.remoting.responses.EntryVersionsResponseCollector;
+import org.infinispan.remoting.responses.ExceptionResponse;
+import org.infinispan.remoting.responses.FirstSuccessfulResponseCollector;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.responses.UnsuccessfulResponse;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.jgroups.util.UUID;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "remoting.transport.jgroups.JGroupsResponseCollectorAdapterTest")
+public class JGroupsResponseCollectorAdapterTest extends AbstractInfinispanTest {
+
+   public void testCompletesOnFirstSuccessfulResponse() {
+      FirstSuccessfulResponseCollector collector = new FirstSuccessfulResponseCollector();
+      JGroupsResponseCollectorAdapter adapter = new JGroupsResponseCollectorAdapter(collector, 3);
+      SuccessfulResponse first = SuccessfulResponse.create("v1");
+
+      assertTrue(adapter.isAcceptable(UnsuccessfulResponse.INSTANCE, UUID.randomUUID()));
+      assertTrue(adapter.needMoreResponses());
+      assertTrue(adapter.isAcceptable(first, UUID.randomUUID()));
+      assertFalse(adapter.needMoreResponses());
+      // a late response must not replace the one already collected
+      assertTrue(adapter.isAcceptable(SuccessfulResponse.create("v2"), UUID.randomUUID()));
+      assertSame(first, collector.finish());
+   }
+
+   public void testCompletesWhenAllTargetsAnswered() {
+      FirstSuccessfulResponseCollector collector = new FirstSuccessfulResponseCollector();
+      JGroupsResponseCollectorAdapter adapter = new JGroupsResponseCollectorAdapter(collector, 2);
+
+      adapter.isAcceptable(UnsuccessfulResponse.INSTANCE, UUID.randomUUID());
+      assertTrue(adapter.needMoreResponses());
+      adapter.isAcceptable(new ExceptionResponse(new Exception("expected")), UUID.randomUUID());
+      assertFalse(adapter.needMoreResponses());
+      assertNull(collector.finish());
+   }
+
+   public void testExceptionsAreNotCollected() {
+      FirstSuccessfulResponseCollector collector = new FirstSuccessfulResponseCollector();
+      JGroupsResponseCollectorAdapter adapter = new JGroupsResponseCollectorAdapter(collector, 3);
+
+      assertTrue(adapter.isAcceptable(new RuntimeException("expected"), UUID.randomUUID()));
+      assertTrue(adapter.isAcceptable(null, UUID.randomUUID()));
+      assertTrue(adapter.needMoreResponses());
+      assertNull(collector.finish());
+   }
+
+   public void testEntryVersionsAreMerged() {
+      SimpleClusteredVersion a1 = new SimpleClusteredVersion(1, 1);
+      SimpleClusteredVersion b2 = new SimpleClusteredVersion(1, 2);
+      EntryVersionsMap first = new EntryVersionsMap();
+      first.put("a", a1);
+      first.put("b", new SimpleClusteredVersion(1, 1));
+      EntryVersionsMap second = new EntryVersionsMap();
+      second.put("b", b2);
+
+      EntryVersionsResponseCollector collector = new EntryVersionsResponseCollector();
+      assertTrue(collector.addResponse(null, SuccessfulResponse.create(first)));
+      assertTrue(collector.addResponse(null, UnsuccessfulResponse.INSTANCE));
+      assertTrue(collector.addResponse(null, SuccessfulResponse.create(second)));
+
+      EntryVersionsMap merged = collector.finish();
+      assertEquals(2, merged.size());
+      assertSame(a1, merged.get("a"));
+      // later responses take precedence
+      assertSame(b2, merged.get("b"));
+   }
+}
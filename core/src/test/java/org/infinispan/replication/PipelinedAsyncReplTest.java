@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.replication;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.remoting.ReplicationPipeline;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.concurrent.NotifyingFuture;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "functional", testName = "replication.PipelinedAsyncReplTest")
+public class PipelinedAsyncReplTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.REPL_ASYNC, false);
+      builder.clustering().async().pipelined(true).maxInFlight(16);
+      createClusteredCaches(2, builder);
+   }
+
+   public void testLastWriteAcknowledged() throws Exception {
+      Cache<Object, Object> cache1 = cache(0);
+      Cache<Object, Object> cache2 = cache(1);
+      ReplicationPipeline pipeline = TestingUtil.extractComponent(cache1, ReplicationPipeline.class);
+      assertTrue(pipeline.isEnabled());
+
+      cache1.put("k", "v");
+      pipeline.lastWriteAcknowledged().get(10, TimeUnit.SECONDS);
+      // acknowledged writes have been applied on the owners, no need to wait for replication
+      assertEquals("v", cache2.get("k"));
+      assertEquals(pipeline.getSentSequence(), pipeline.getAcknowledgedSequence());
+   }
+
+   public void testFlushWaitsForAllWrites() throws Exception {
+      Cache<Object, Object> cache1 = cache(0);
+      Cache<Object, Object> cache2 = cache(1);
+      ReplicationPipeline pipeline = TestingUtil.extractComponent(cache1, ReplicationPipeline.class);
+
+      // more writes than the window, so writers must wait for acknowledgements
+      for (int i = 0; i < 100; i++)
+         cache1.put("key" + i, "value" + i);
+      NotifyingFuture<Void> flush = pipeline.flush();
+      flush.get(10, TimeUnit.SECONDS);
+
+      for (int i = 0; i < 100; i++)
+         assertEquals("value" + i, cache2.get("key" + i));
+      assertEquals(0, pipeline.getInFlight());
+      assertEquals(pipeline.getSentSequence(), pipeline.getAcknowledgedSequence());
+   }
+
+   public void testWritesAppliedInOrder() throws Exception {
+      Cache<Object, Object> cache1 = cache(0);
+      Cache<Object, Object> cache2 = cache(1);
+      ReplicationPipeline pipeline = TestingUtil.extractComponent(cache1, ReplicationPipeline.class);
+
+      for (int i = 0; i < 100; i++)
+         cache1.put("counter", i);
+      pipeline.flush().get(10, TimeUnit.SECONDS);
+      assertEquals(99, cache2.get("counter"));
+   }
+}
@@ -174,7 +174,7 @@ public Map<Address, Response> answer(InvocationOnMock invocation) {
       // create state provider
       StateConsumerImpl stateConsumer = new StateConsumerImpl();
       stateConsumer.init(cache, localTopologyManager, interceptorChain, icc, configuration, rpcManager,
-            commandsFactory, cacheLoaderManager, dataContainer, transactionTable, stateTransferLock);
+            commandsFactory, cacheLoaderManager, dataContainer, transactionTable, stateTransferLock, cacheNotifier);
       stateConsumer.start();
 
       final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
@@ -29,6 +29,7 @@
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.CleanupAfterMethod;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.transaction.TransactionCoordinator;
 import org.infinispan.transaction.TransactionTable;
 import org.infinispan.transaction.xa.LocalXaTransaction;
 import org.testng.annotations.Test;
@@ -76,6 +77,37 @@ public void testNotROWhenHasOnlyLocks() throws Exception {
       assert localTransaction != null && !localTransaction.isReadOnly();
    }
 
+   public void testReadOnlyTxCompletesWithoutCommit() throws Exception {
+      cache.put("k", "v");
+      long before = txCoordinator().getReadOnlyCompletions();
+
+      tm().begin();
+      assert "v".equals(cache.get("k"));
+      tm().commit();
+      assert txCoordinator().getReadOnlyCompletions() == before + 1;
+      assert txTable().getLocalTxCount() == 0;
+
+      tm().begin();
+      cache.put("k", "v2");
+      tm().commit();
+      assert txCoordinator().getReadOnlyCompletions() == before + 1;
+      assert "v2".equals(cache.get("k"));
+   }
+
+   public void testLocalModeWriteIsNotCompletedAsReadOnly() throws Exception {
+      long before = txCoordinator().getReadOnlyCompletions();
+
+      tm().begin();
+      cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL).put("k", "v");
+      tm().commit();
+      assert txCoordinator().getReadOnlyCompletions() == before;
+      assert "v".equals(cache.get("k"));
+      assert txTable().getLocalTxCount() == 0;
+   }
+
+   private TransactionCoordinator txCoordinator() {
+      return TestingUtil.extractComponent(cache, TransactionCoordinator.class);
+   }
 
    private TransactionTable txTable() {
       return TestingUtil.getTransactionTable(cache);
@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.tx;
+
+import org.infinispan.Cache;
+import org.infinispan.config.ConfigurationException;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.event.CacheEntryModifiedEvent;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.transaction.TotalOrderManager;
+import org.infinispan.transaction.TransactionProtocol;
+import org.testng.annotations.Test;
+
+import javax.transaction.TransactionManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "functional", testName = "tx.TotalOrderCommitTest")
+public class TotalOrderCommitTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.REPL_SYNC, true);
+      builder.transaction().lockingMode(LockingMode.OPTIMISTIC).transactionProtocol(TransactionProtocol.TOTAL_ORDER);
+      createClusteredCaches(3, builder);
+   }
+
+   public void testCommit() throws Exception {
+      long sequence = sequencer().getSequence();
+      for (int i = 0; i < 3; i++) {
+         TransactionManager tm = tm(i);
+         tm.begin();
+         cache(i).put("k" + i, "v" + i);
+         cache(i).put("k", "v" + i);
+         tm.commit();
+
+         // the commit only returns once every owner has applied the transaction
+         for (Cache<Object, Object> c : caches()) {
+            assertEquals("v" + i, c.get("k" + i));
+            assertEquals("v" + i, c.get("k"));
+         }
+         assertNotLocked("k");
+         assertNotLocked("k" + i);
+      }
+      assertEquals(sequence + 3, sequencer().getSequence());
+   }
+
+   public void testRollbackLeavesNoTrace() throws Exception {
+      long sequence = sequencer().getSequence();
+      tm(1).begin();
+      cache(1).put("rolledBack", "v");
+      tm(1).rollback();
+
+      for (Cache<Object, Object> c : caches())
+         assertEquals(null, c.get("rolledBack"));
+      assertEquals(sequence, sequencer().getSequence());
+   }
+
+   public void testConflictingTransactionsConverge() throws Exception {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int i = 0; i < 3; i++) {
+         final int index = i;
+         futures.add(fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               for (int j = 0; j < 50; j++) {
+                  TransactionManager tm = tm(index);
+                  tm.begin();
+                  cache(index).put("a", "v" + index + "-" + j);
+                  cache(index).put("b", "v" + index + "-" + j);
+                  tm.commit();
+               }
+               return null;
+            }
+         }));
+      }
+      // no lock timeouts or deadlocks: every transaction commits
+      for (Future<Void> future : futures)
+         future.get(60, TimeUnit.SECONDS);
+
+      // all the owners applied the transactions in the same order
+      Object a = cache(0).get("a");
+      for (Cache<Object, Object> c : caches()) {
+         assertEquals(a, c.get("a"));
+         assertEquals(a, c.get("b"));
+      }
+      assertNotLocked("a");
+      assertNotLocked("b");
+   }
+
+   public void testFailureOnAnOwnerDoesNotRollBack() throws Exception {
+      int sequencer = sequencerIndex();
+      int failing = sequencer == 2 ? 1 : 2;
+      int originator = 3 - sequencer - failing;
+      FailingListener listener = new FailingListener();
+      cache(failing).addListener(listener);
+      try {
+         // the sequencer applied the transaction first, so it is committed even though an owner fails to apply it
+         tm(originator).begin();
+         cache(originator).put("failing", "v");
+         tm(originator).commit();
+      } finally {
+         cache(failing).removeListener(listener);
+      }
+      assertEquals("v", cache(sequencer).get("failing"));
+      assertEquals("v", cache(originator).get("failing"));
+   }
+
+   @Test(expectedExceptions = ConfigurationException.class)
+   public void testPessimisticLockingNotAllowed() {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.REPL_SYNC, true);
+      builder.transaction().lockingMode(LockingMode.PESSIMISTIC).transactionProtocol(TransactionProtocol.TOTAL_ORDER);
+      builder.build();
+   }
+
+   private TotalOrderManager sequencer() {
+      TotalOrderManager manager = TestingUtil.extractComponent(cache(sequencerIndex()), TotalOrderManager.class);
+      assertTrue(manager.isEnabled());
+      return manager;
+   }
+
+   private int sequencerIndex() {
+      for (int i = 0; i < caches().size(); i++) {
+         if (cache(i).getAdvancedCache().getRpcManager().getTransport().isCoordinator())
+            return i;
+      }
+      throw new IllegalStateException("No coordinator");
+   }
+
+   @Listener
+   public static class FailingListener {
+      @CacheEntryModified
+      public void entryModified(CacheEntryModifiedEvent event) {
+         throw new IllegalStateException("Failing on purpose");
+      }
+   }
+}
@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.tx;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.transaction.TransactionProtocol;
+import org.testng.annotations.Test;
+
+import javax.transaction.TransactionManager;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the total order protocol goes on when the sequencer leaves.
+ *
+ * @since 5.2
+ */
+@Test(groups = "functional", testName = "tx.TotalOrderSequencerLeaveTest")
+public class TotalOrderSequencerLeaveTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.REPL_SYNC, true);
+      builder.transaction().lockingMode(LockingMode.OPTIMISTIC).transactionProtocol(TransactionProtocol.TOTAL_ORDER);
+      createClusteredCaches(3, builder);
+   }
+
+   public void testNewSequencerTakesOver() throws Exception {
+      assertTrue(manager(0).isCoordinator());
+      commit(cache(1), "k", "v1");
+      commit(cache(2), "k", "v2");
+
+      killMember(0);
+      List<Cache<Object, Object>> survivors = Arrays.asList(cache(1), cache(2));
+      assertTrue(manager(1).isCoordinator());
+
+      commit(cache(2), "k", "v3");
+      commit(cache(1), "k2", "v4");
+      for (Cache<Object, Object> c : survivors) {
+         assertEquals("v3", c.get("k"));
+         assertEquals("v4", c.get("k2"));
+      }
+   }
+
+   private void commit(Cache<Object, Object> cache, Object key, Object value) throws Exception {
+      TransactionManager tm = cache.getAdvancedCache().getTransactionManager();
+      tm.begin();
+      cache.put(key, value);
+      tm.commit();
+   }
+}
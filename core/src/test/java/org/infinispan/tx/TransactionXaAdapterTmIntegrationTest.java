@@ -69,7 +69,7 @@ public void setUp() {
 
       configuration = new ConfigurationBuilder().build();
       TransactionCoordinator txCoordinator = new TransactionCoordinator();
-      txCoordinator.init(null, null, null, null, configuration);
+      txCoordinator.init(null, null, null, null, configuration, null, null);
       xaAdapter = new TransactionXaAdapter(localTx, txTable, null, txCoordinator, null, null,
                                            new ClusteringDependentLogic.AllNodesLogic(), configuration, "");
    }
@@ -116,13 +116,13 @@ public void testPrepareTxMarkedForRollback() {
 
    public void testOnePhaseCommitConfigured() throws XAException {
       Configuration configuration = new ConfigurationBuilder().clustering().cacheMode(CacheMode.INVALIDATION_ASYNC).build();
-      txCoordinator.init(null, null, null, null, configuration);
+      txCoordinator.init(null, null, null, null, configuration, null, null);
       assert XAResource.XA_OK == xaAdapter.prepare(xid);
    }
 
    public void test1PcAndNonExistentXid() {
       Configuration configuration = new ConfigurationBuilder().clustering().cacheMode(CacheMode.INVALIDATION_ASYNC).build();
-      txCoordinator.init(null, null, null, null, configuration);
+      txCoordinator.init(null, null, null, null, configuration, null, null);
       try {
          DummyXid doesNotExists = new DummyXid(uuid);
          xaAdapter.commit(doesNotExists, false);
@@ -134,7 +134,7 @@ public void test1PcAndNonExistentXid() {
 
    public void test1PcAndNonExistentXid2() {
       Configuration configuration = new ConfigurationBuilder().clustering().cacheMode(CacheMode.DIST_SYNC).build();
-      txCoordinator.init(null, null, null, null, configuration);
+      txCoordinator.init(null, null, null, null, configuration, null, null);
       try {
          DummyXid doesNotExists = new DummyXid(uuid);
          xaAdapter.commit(doesNotExists, true);
@@ -27,11 +27,13 @@
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.remoting.RpcException;
 import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.rpc.ResponseCollector;
 import org.infinispan.remoting.rpc.ResponseFilter;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -103,6 +105,18 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
       return realOne.invokeRemotely(recipients, rpcCommand, mode, timeout, usePriorityQueue, responseFilter);
    }
 
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout, boolean usePriorityQueue, ResponseFilter responseFilter) {
+      log.trace("invokeRemotelyAsync");
+      waitFirst(rpcCommand);
+      return realOne.invokeRemotelyAsync(recipients, rpcCommand, mode, timeout, usePriorityQueue, responseFilter);
+   }
+
+   public <T> T invokeRemotelyAndCollect(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout, boolean usePriorityQueue, ResponseCollector<T> responseCollector) {
+      log.trace("invokeRemotelyAndCollect");
+      waitFirst(rpcCommand);
+      return realOne.invokeRemotelyAndCollect(recipients, rpcCommand, mode, timeout, usePriorityQueue, responseCollector);
+   }
+
    public Map<Address, Response> invokeRemotely(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout, boolean usePriorityQueue) {
       log.trace("invokeRemotely2");
       waitFirst(rpcCommand);
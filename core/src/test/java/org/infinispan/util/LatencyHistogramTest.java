@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "util.LatencyHistogramTest")
+public class LatencyHistogramTest extends AbstractInfinispanTest {
+
+   public void testEmpty() {
+      LatencyHistogram h = new LatencyHistogram();
+      assertEquals(0, h.getCount());
+      assertEquals(0, h.getPercentile(0.99));
+      assertEquals(0, h.getMean());
+   }
+
+   public void testBucketsAreContiguous() {
+      for (int i = 1; i < LatencyHistogram.BUCKET_COUNT; i++) {
+         long low = LatencyHistogram.highestValueInBucket(i - 1) + 1;
+         assertEquals(i, LatencyHistogram.bucketIndex(low));
+         assertEquals(i, LatencyHistogram.bucketIndex(LatencyHistogram.highestValueInBucket(i)));
+      }
+      assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+   }
+
+   public void testSmallValuesAreExact() {
+      LatencyHistogram h = new LatencyHistogram();
+      for (int i = 1; i <= 20; i++)
+         h.record(i);
+      assertEquals(10, h.getPercentile(0.5));
+      assertEquals(20, h.getPercentile(1.0));
+      assertEquals(20, h.getMax());
+   }
+
+   public void testPercentilesWithinPrecision() {
+      LatencyHistogram h = new LatencyHistogram();
+      for (long i = 1; i <= 100000; i++)
+         h.record(i * 1000);
+      assertEquals(100000, h.getCount());
+      assertWithinPrecision(50000000, h.getPercentile(0.5));
+      assertWithinPrecision(99000000, h.getPercentile(0.99));
+      assertWithinPrecision(99900000, h.getPercentile(0.999));
+      assertEquals(100000000, h.getPercentile(1.0));
+      assertEquals(50000500, h.getMean());
+   }
+
+   public void testOutlierDoesNotSkewMedian() {
+      LatencyHistogram h = new LatencyHistogram();
+      for (int i = 0; i < 999; i++)
+         h.record(200000);
+      h.record(5000000000L);
+      assertWithinPrecision(200000, h.getPercentile(0.5));
+      assertWithinPrecision(200000, h.getPercentile(0.999));
+      assertEquals(5000000000L, h.getPercentile(1.0));
+   }
+
+   private void assertWithinPrecision(long expected, long actual) {
+      assertTrue("Expected " + expected + " but was " + actual,
+                 actual >= expected && actual <= expected + expected / 16);
+   }
+}
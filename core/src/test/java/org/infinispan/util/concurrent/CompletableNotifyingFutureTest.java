@@ -0,0 +1,108 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util.concurrent;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+@Test(groups = "unit", testName = "util.concurrent.CompletableNotifyingFutureTest")
+public class CompletableNotifyingFutureTest extends AbstractInfinispanTest {
+
+   public void testCompleteNotifiesListenersOnce() throws Exception {
+      CompletableNotifyingFuture<String> f = new CompletableNotifyingFuture<String>();
+      CountingListener before = new CountingListener();
+      f.attachListener(before);
+      assertFalse(f.isDone());
+      assertEquals(0, before.count.get());
+
+      assertTrue(f.complete("v"));
+      assertFalse(f.complete("other"));
+      assertFalse(f.completeExceptionally(new Exception()));
+      assertFalse(f.cancel(true));
+
+      CountingListener after = new CountingListener();
+      f.attachListener(after);
+      assertEquals(1, before.count.get());
+      assertEquals(1, after.count.get());
+      assertTrue(f.isDone());
+      assertFalse(f.isCancelled());
+      assertEquals("v", f.get());
+      assertEquals("v", f.get(1, TimeUnit.MILLISECONDS));
+   }
+
+   public void testCompleteExceptionally() throws Exception {
+      Exception cause = new Exception("failed");
+      CompletableNotifyingFuture<String> f = CompletableNotifyingFuture.failed(cause);
+      assertTrue(f.isDone());
+      try {
+         f.get();
+         fail("Expected an ExecutionException");
+      } catch (ExecutionException e) {
+         assertSame(cause, e.getCause());
+      }
+   }
+
+   public void testTimedGetTimesOut() throws Exception {
+      CompletableNotifyingFuture<String> f = new CompletableNotifyingFuture<String>();
+      try {
+         f.get(10, TimeUnit.MILLISECONDS);
+         fail("Expected a TimeoutException");
+      } catch (java.util.concurrent.TimeoutException e) {
+         // expected
+      }
+   }
+
+   public void testCompletionFromAnotherThread() throws Exception {
+      final CompletableNotifyingFuture<Integer> f = new CompletableNotifyingFuture<Integer>();
+      Future<Boolean> completer = fork(new Callable<Boolean>() {
+         @Override
+         public Boolean call() {
+            return f.complete(42);
+         }
+      });
+      assertEquals(Integer.valueOf(42), f.get(10, TimeUnit.SECONDS));
+      assertTrue(completer.get(10, TimeUnit.SECONDS));
+   }
+
+   private static class CountingListener implements FutureListener<String> {
+      final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public void futureDone(Future<String> future) {
+         assertTrue(future.isDone());
+         count.incrementAndGet();
+      }
+   }
+}
@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2012 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util.concurrent;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.EvictionListener;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "util.concurrent.TinyLFUEvictionTest")
+public class TinyLFUEvictionTest extends AbstractInfinispanTest {
+
+   private static final int CAPACITY = 1000;
+   private static final int HOT_KEYS = 500;
+
+   public void testCapacityIsHonoured() {
+      BoundedConcurrentHashMap<Integer, Integer> map = createMap(Eviction.TINY_LFU);
+      for (int i = 0; i < CAPACITY * 10; i++) {
+         map.put(i, i);
+         assertTrue("Size was " + map.size(), map.size() <= CAPACITY);
+      }
+      map.clear();
+      assertEquals(0, map.size());
+   }
+
+   public void testHotSetSurvivesScan() {
+      assertTrue(hotSetHits(Eviction.TINY_LFU) > 2 * hotSetHits(Eviction.LRU));
+   }
+
+   private BoundedConcurrentHashMap<Integer, Integer> createMap(Eviction eviction) {
+      return new BoundedConcurrentHashMap<Integer, Integer>(CAPACITY, 1, eviction, new EvictionListener<Integer, Integer>() {
+         @Override
+         public void onEntryEviction(Map<Integer, Integer> evicted) {
+         }
+
+         @Override
+         public boolean onEntryChosenForEviction(Integer value) {
+            return true;
+         }
+      });
+   }
+
+   /**
+    * Reads a hot set repeatedly, then scans a keyspace several times larger than the capacity, and counts how many hot
+    * keys are still resident afterwards.
+    */
+   private int hotSetHits(Eviction eviction) {
+      BoundedConcurrentHashMap<Integer, Integer> map = createMap(eviction);
+      for (int round = 0; round < 10; round++) {
+         for (int i = 0; i < HOT_KEYS; i++) {
+            if (map.get(i) == null)
+               map.put(i, i);
+         }
+      }
+      for (int i = HOT_KEYS; i < HOT_KEYS + CAPACITY * 5; i++) {
+         map.put(i, i);
+      }
+      int hits = 0;
+      for (int i = 0; i < HOT_KEYS; i++) {
+         if (map.containsKey(i))
+            hits++;
+      }
+      return hits;
+   }
+}
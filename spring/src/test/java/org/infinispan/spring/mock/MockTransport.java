@@ -25,11 +25,13 @@
 
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.rpc.ResponseCollector;
 import org.infinispan.remoting.rpc.ResponseFilter;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.BackupResponse;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.xsite.XSiteBackup;
 
@@ -46,6 +48,20 @@ public Map<Address, Response> invokeRemotely(final Collection<Address> recipient
       return null;
    }
 
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(final Collection<Address> recipients,
+                                                                       final ReplicableCommand rpcCommand, final ResponseMode mode, final long timeout,
+                                                                       final boolean usePriorityQueue, final ResponseFilter responseFilter) {
+      return null;
+   }
+
+   @Override
+   public <T> T invokeRemotelyAndCollect(final Collection<Address> recipients, final ReplicableCommand rpcCommand,
+                                         final ResponseMode mode, final long timeout, final boolean usePriorityQueue,
+                                         final ResponseCollector<T> responseCollector) throws Exception {
+      return null;
+   }
+
    @Override
    public boolean isCoordinator() {
       return false;